@@ -66,6 +66,12 @@ final class ArchiveEventDissector
     private static final KeepAliveRequestDecoder KEEP_ALIVE_REQUEST_DECODER = new KeepAliveRequestDecoder();
     private static final TaggedReplicateRequestDecoder TAGGED_REPLICATE_REQUEST_DECODER =
         new TaggedReplicateRequestDecoder();
+    private static final CompressSegmentsRequestDecoder COMPRESS_SEGMENTS_REQUEST_DECODER =
+        new CompressSegmentsRequestDecoder();
+    private static final QueryRecordingsRequestDecoder QUERY_RECORDINGS_REQUEST_DECODER =
+        new QueryRecordingsRequestDecoder();
+    private static final MergedReplayRequestDecoder MERGED_REPLAY_REQUEST_DECODER =
+        new MergedReplayRequestDecoder();
 
     @SuppressWarnings("MethodLength")
     static void controlRequest(
@@ -339,6 +345,33 @@ final class ArchiveEventDissector
                 appendTaggedReplicate(builder);
                 break;
 
+            case CMD_IN_COMPRESS_SEGMENTS:
+                COMPRESS_SEGMENTS_REQUEST_DECODER.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    HEADER_DECODER.blockLength(),
+                    HEADER_DECODER.version());
+                appendCompressSegments(builder);
+                break;
+
+            case CMD_IN_QUERY_RECORDINGS:
+                QUERY_RECORDINGS_REQUEST_DECODER.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    HEADER_DECODER.blockLength(),
+                    HEADER_DECODER.version());
+                appendQueryRecordings(builder);
+                break;
+
+            case CMD_IN_MERGED_REPLAY:
+                MERGED_REPLAY_REQUEST_DECODER.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    HEADER_DECODER.blockLength(),
+                    HEADER_DECODER.version());
+                appendMergedReplay(builder);
+                break;
+
             default:
                 builder.append("ARCHIVE: COMMAND UNKNOWN: ").append(event);
         }
@@ -638,4 +671,49 @@ final class ArchiveEventDissector
         TAGGED_REPLICATE_REQUEST_DECODER.getSrcControlChannel(builder);
         TAGGED_REPLICATE_REQUEST_DECODER.getLiveDestination(builder);
     }
+
+    private static void appendCompressSegments(final StringBuilder builder)
+    {
+        builder.append("ARCHIVE: COMPRESS_SEGMENTS")
+            .append(", controlSessionId=").append(COMPRESS_SEGMENTS_REQUEST_DECODER.controlSessionId())
+            .append(", correlationId=").append(COMPRESS_SEGMENTS_REQUEST_DECODER.correlationId())
+            .append(", recordingId=").append(COMPRESS_SEGMENTS_REQUEST_DECODER.recordingId());
+    }
+
+    private static void appendQueryRecordings(final StringBuilder builder)
+    {
+        builder.append("ARCHIVE: QUERY_RECORDINGS")
+            .append(", controlSessionId=").append(QUERY_RECORDINGS_REQUEST_DECODER.controlSessionId())
+            .append(", correlationId=").append(QUERY_RECORDINGS_REQUEST_DECODER.correlationId())
+            .append(", fromRecordingId=").append(QUERY_RECORDINGS_REQUEST_DECODER.fromRecordingId())
+            .append(", fromTimestamp=").append(QUERY_RECORDINGS_REQUEST_DECODER.fromTimestamp())
+            .append(", toTimestamp=").append(QUERY_RECORDINGS_REQUEST_DECODER.toTimestamp())
+            .append(", minLength=").append(QUERY_RECORDINGS_REQUEST_DECODER.minLength())
+            .append(", recordCount=").append(QUERY_RECORDINGS_REQUEST_DECODER.recordCount())
+            .append(", streamId=").append(QUERY_RECORDINGS_REQUEST_DECODER.streamId())
+            .append(", activeOnly=").append(QUERY_RECORDINGS_REQUEST_DECODER.activeOnly())
+            .append(", channel=");
+
+        QUERY_RECORDINGS_REQUEST_DECODER.getChannel(builder);
+    }
+
+    private static void appendMergedReplay(final StringBuilder builder)
+    {
+        builder.append("ARCHIVE: MERGED_REPLAY")
+            .append(", controlSessionId=").append(MERGED_REPLAY_REQUEST_DECODER.controlSessionId())
+            .append(", correlationId=").append(MERGED_REPLAY_REQUEST_DECODER.correlationId())
+            .append(", replayStreamId=").append(MERGED_REPLAY_REQUEST_DECODER.replayStreamId())
+            .append(", recordingIds=[");
+
+        String separator = "";
+        for (final MergedReplayRequestDecoder.RecordingsDecoder recording : MERGED_REPLAY_REQUEST_DECODER.recordings())
+        {
+            builder.append(separator).append(recording.recordingId());
+            separator = ", ";
+        }
+
+        builder.append("], replayChannel=");
+
+        MERGED_REPLAY_REQUEST_DECODER.getReplayChannel(builder);
+    }
 }
@@ -162,6 +162,18 @@ public final class ArchiveEventLogger
             case TaggedReplicateRequestDecoder.TEMPLATE_ID:
                 dispatchIfEnabled(buffer, offset, length, CMD_IN_TAGGED_REPLICATE);
                 break;
+
+            case CompressSegmentsRequestDecoder.TEMPLATE_ID:
+                dispatchIfEnabled(buffer, offset, length, CMD_IN_COMPRESS_SEGMENTS);
+                break;
+
+            case QueryRecordingsRequestDecoder.TEMPLATE_ID:
+                dispatchIfEnabled(buffer, offset, length, CMD_IN_QUERY_RECORDINGS);
+                break;
+
+            case MergedReplayRequestDecoder.TEMPLATE_ID:
+                dispatchIfEnabled(buffer, offset, length, CMD_IN_MERGED_REPLAY);
+                break;
         }
     }
 
@@ -43,6 +43,7 @@ import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Supplier;
 
 import static io.aeron.archive.ArchiveThreadingMode.DEDICATED;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static io.aeron.logbuffer.LogBufferDescriptor.TERM_MAX_LENGTH;
 import static io.aeron.logbuffer.LogBufferDescriptor.TERM_MIN_LENGTH;
 import static java.lang.System.getProperty;
@@ -204,6 +205,50 @@ public class Archive implements AutoCloseable
          */
         public static final int SEGMENT_FILE_LENGTH_DEFAULT = 128 * 1024 * 1024;
 
+        /**
+         * Should the next segment file of a recording be allocated in the background before it is required so roll
+         * over to a new segment does not allocate the file on the recorder thread.
+         */
+        public static final String SEGMENT_FILE_PRE_ALLOCATE_PROP_NAME = "aeron.archive.segment.file.pre.allocate";
+
+        /**
+         * Should segment files which are allocated in the background be filled with zeros so the blocks are
+         * allocated on disk before recording into them. Only applies when segment files are pre-allocated.
+         */
+        public static final String SEGMENT_FILE_FILL_PROP_NAME = "aeron.archive.segment.file.fill";
+
+        /**
+         * Should recording segment files be written and replayed with direct I/O which bypasses the OS page cache so
+         * recording does not evict the pages of other processes, such as a co-located media driver. Requires Java 10+
+         * and a file system which supports direct I/O.
+         */
+        public static final String DIRECT_IO_PROP_NAME = "aeron.archive.direct.io";
+
+        /**
+         * Alignment, as a power of 2, for the buffer address, file position, and length of direct I/O operations. A
+         * value of 0 uses the block size of the file store for the archive directory, which is available from Java
+         * 10 on, or 4096 if it cannot be determined.
+         */
+        public static final String DIRECT_IO_ALIGNMENT_PROP_NAME = "aeron.archive.direct.io.alignment";
+
+        /**
+         * Default alignment for direct I/O which is the block size of the file store for the archive directory.
+         */
+        public static final int DIRECT_IO_ALIGNMENT_DEFAULT = 0;
+
+        /**
+         * Should a checksum of each completed recording segment file be written alongside it, CRC32C on Java 9+, so
+         * segments can be verified without parsing every frame. Checksum files are written on the segment allocator
+         * agent rather than the recorder.
+         */
+        public static final String SEGMENT_CHECKSUM_PROP_NAME = "aeron.archive.segment.checksum";
+
+        /**
+         * Should each recording and replay session register counters for its throughput, lag, back pressure, and time
+         * spent on I/O so slow sessions can be identified with AeronStat.
+         */
+        public static final String SESSION_COUNTERS_ENABLED_PROP_NAME = "aeron.archive.session.counters.enabled";
+
         /**
          * The level at which recording files should be sync'ed to disk.
          * <ul>
@@ -236,6 +281,35 @@ public class Archive implements AutoCloseable
          */
         public static final int CATALOG_FILE_SYNC_LEVEL_DEFAULT = FILE_SYNC_LEVEL_DEFAULT;
 
+        /**
+         * Interval after which pending recording writes should be group committed, i.e. forced to disk together
+         * across recordings, when {@link #FILE_SYNC_LEVEL_PROP_NAME} is greater than 0. The recorded data may be
+         * up to this interval ahead of the durable position.
+         */
+        public static final String FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME =
+            "aeron.archive.file.sync.group.commit.interval";
+
+        /**
+         * Default is 0 so that each block is forced to disk as it is written unless
+         * {@link #FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME} is set.
+         * @see #FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME
+         */
+        public static final long FILE_SYNC_GROUP_COMMIT_INTERVAL_DEFAULT_NS = 0;
+
+        /**
+         * Length of pending recording writes, summed across recordings, after which they should be group committed
+         * when {@link #FILE_SYNC_LEVEL_PROP_NAME} is greater than 0.
+         */
+        public static final String FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME =
+            "aeron.archive.file.sync.group.commit.length";
+
+        /**
+         * Default is 0 so that each block is forced to disk as it is written unless
+         * {@link #FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME} is set.
+         * @see #FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME
+         */
+        public static final long FILE_SYNC_GROUP_COMMIT_LENGTH_DEFAULT = 0;
+
         /**
          * What {@link ArchiveThreadingMode} should be used.
          */
@@ -290,9 +364,9 @@ public class Archive implements AutoCloseable
         public static final int MAX_CONCURRENT_REPLAYS_DEFAULT = 20;
 
         /**
-         * Maximum number of entries for the archive {@link Catalog}. Increasing this limit will require use of the
-         * {@link CatalogTool}. The number of entries can be reduced by extending existing recordings rather than
-         * creating new ones.
+         * Initial number of entries for the archive {@link Catalog}. The catalog will grow as required when it is
+         * full so this is a sizing hint to avoid remapping the file. The number of entries can be reduced by
+         * extending existing recordings rather than creating new ones.
          */
         public static final String MAX_CATALOG_ENTRIES_PROP_NAME = "aeron.archive.max.catalog.entries";
 
@@ -343,6 +417,18 @@ public class Archive implements AutoCloseable
          */
         public static final String REPLICATION_CHANNEL_DEFAULT = "aeron:udp?endpoint=localhost:8040";
 
+        /**
+         * Number of concurrent replay streams used to replicate a stopped recording into a new recording. The source
+         * range is split at segment boundaries so each stream replicates its own set of segments.
+         */
+        public static final String REPLICATION_STREAMS_PROP_NAME = "aeron.archive.replication.streams";
+
+        /**
+         * Default number of concurrent replay streams used to replicate a stopped recording.
+         * @see #REPLICATION_STREAMS_PROP_NAME
+         */
+        public static final int REPLICATION_STREAMS_DEFAULT = 1;
+
         /**
          * Name of class to use as a supplier of {@link Authenticator} for the archive.
          */
@@ -359,6 +445,64 @@ public class Archive implements AutoCloseable
          */
         public static final int ARCHIVE_ERROR_COUNT_TYPE_ID = 101;
 
+        /**
+         * The type id of the {@link Counter} used for keeping track of the number of times a recording rolled over to
+         * a new segment before the background allocation of the segment file had completed.
+         */
+        public static final int SEGMENT_ALLOCATION_WAIT_COUNT_TYPE_ID = 103;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the total length of segments before they were
+         * compressed.
+         */
+        public static final int COMPRESSION_UNCOMPRESSED_BYTES_TYPE_ID = 104;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the total length of segments after they were
+         * compressed.
+         */
+        public static final int COMPRESSION_COMPRESSED_BYTES_TYPE_ID = 105;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the position reached by each range of a
+         * replication which is spread over multiple replay streams.
+         */
+        public static final int REPLICATION_RANGE_POSITION_TYPE_ID = 106;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the bytes per second written by a recording.
+         */
+        public static final int RECORDING_RATE_TYPE_ID = 107;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of how many bytes a recording is behind the live
+         * position of the stream it is recording.
+         */
+        public static final int RECORDING_LAG_TYPE_ID = 108;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the total nanoseconds a recording has spent
+         * writing to its segment files.
+         */
+        public static final int RECORDING_IO_TIME_TYPE_ID = 109;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the bytes per second sent by a replay.
+         */
+        public static final int REPLAY_RATE_TYPE_ID = 110;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the number of times a replay has been back
+         * pressured by its replay publication.
+         */
+        public static final int REPLAY_BACK_PRESSURE_TYPE_ID = 111;
+
+        /**
+         * The type id of the {@link Counter} used for keeping track of the total nanoseconds a replay has spent
+         * reading from segment files.
+         */
+        public static final int REPLAY_IO_TIME_TYPE_ID = 112;
+
         /**
          * Size in bytes of the error buffer for the archive when not externally provided.
          */
@@ -391,6 +535,72 @@ public class Archive implements AutoCloseable
             return getSizeAsInt(SEGMENT_FILE_LENGTH_PROP_NAME, SEGMENT_FILE_LENGTH_DEFAULT);
         }
 
+        /**
+         * Should the next segment file of a recording be allocated in the background before it is required.
+         *
+         * @return true if the next segment file of a recording should be allocated in the background.
+         * @see #SEGMENT_FILE_PRE_ALLOCATE_PROP_NAME
+         */
+        public static boolean segmentFilePreAllocate()
+        {
+            return "true".equalsIgnoreCase(getProperty(SEGMENT_FILE_PRE_ALLOCATE_PROP_NAME, "false"));
+        }
+
+        /**
+         * Should segment files allocated in the background be filled with zeros.
+         *
+         * @return true if segment files allocated in the background should be filled with zeros.
+         * @see #SEGMENT_FILE_FILL_PROP_NAME
+         */
+        public static boolean segmentFileFill()
+        {
+            return "true".equalsIgnoreCase(getProperty(SEGMENT_FILE_FILL_PROP_NAME, "false"));
+        }
+
+        /**
+         * Should recording segment files be written and replayed with direct I/O.
+         *
+         * @return true if recording segment files should be written and replayed with direct I/O.
+         * @see #DIRECT_IO_PROP_NAME
+         */
+        public static boolean directIo()
+        {
+            return "true".equalsIgnoreCase(getProperty(DIRECT_IO_PROP_NAME, "false"));
+        }
+
+        /**
+         * Alignment for the buffer address, file position, and length of direct I/O operations.
+         *
+         * @return alignment for direct I/O operations, or 0 to use the block size of the file store.
+         * @see #DIRECT_IO_ALIGNMENT_PROP_NAME
+         */
+        public static int directIoAlignment()
+        {
+            return Integer.getInteger(DIRECT_IO_ALIGNMENT_PROP_NAME, DIRECT_IO_ALIGNMENT_DEFAULT);
+        }
+
+        /**
+         * Should a checksum of each completed recording segment file be written alongside it.
+         *
+         * @return true if a checksum of each completed recording segment file should be written alongside it.
+         * @see #SEGMENT_CHECKSUM_PROP_NAME
+         */
+        public static boolean segmentChecksum()
+        {
+            return "true".equalsIgnoreCase(getProperty(SEGMENT_CHECKSUM_PROP_NAME, "false"));
+        }
+
+        /**
+         * Should each recording and replay session register counters for its throughput.
+         *
+         * @return true if each recording and replay session should register counters for its throughput.
+         * @see #SESSION_COUNTERS_ENABLED_PROP_NAME
+         */
+        public static boolean sessionCountersEnabled()
+        {
+            return "true".equalsIgnoreCase(getProperty(SESSION_COUNTERS_ENABLED_PROP_NAME, "false"));
+        }
+
         /**
          * The level at which files should be sync'ed to disk.
          * <ul>
@@ -423,6 +633,29 @@ public class Archive implements AutoCloseable
             return Integer.getInteger(CATALOG_FILE_SYNC_LEVEL_PROP_NAME, CATALOG_FILE_SYNC_LEVEL_DEFAULT);
         }
 
+        /**
+         * The interval after which pending recording writes are group committed to disk.
+         *
+         * @return interval in nanoseconds after which pending recording writes are group committed to disk.
+         * @see #FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME
+         */
+        public static long fileSyncGroupCommitIntervalNs()
+        {
+            return getDurationInNanos(
+                FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME, FILE_SYNC_GROUP_COMMIT_INTERVAL_DEFAULT_NS);
+        }
+
+        /**
+         * The length of pending recording writes after which they are group committed to disk.
+         *
+         * @return length of pending recording writes after which they are group committed to disk.
+         * @see #FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME
+         */
+        public static long fileSyncGroupCommitLength()
+        {
+            return getSizeAsLong(FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME, FILE_SYNC_GROUP_COMMIT_LENGTH_DEFAULT);
+        }
+
         /**
          * The threading mode to be employed by the archive.
          *
@@ -561,6 +794,18 @@ public class Archive implements AutoCloseable
             return System.getProperty(REPLICATION_CHANNEL_PROP_NAME, REPLICATION_CHANNEL_DEFAULT);
         }
 
+        /**
+         * The value {@link #REPLICATION_STREAMS_DEFAULT} or system property
+         * {@link #REPLICATION_STREAMS_PROP_NAME} if set.
+         *
+         * @return {@link #REPLICATION_STREAMS_DEFAULT} or system property
+         * {@link #REPLICATION_STREAMS_PROP_NAME} if set.
+         */
+        public static int replicationStreams()
+        {
+            return Integer.getInteger(REPLICATION_STREAMS_PROP_NAME, REPLICATION_STREAMS_DEFAULT);
+        }
+
         /**
          * Size in bytes of the error buffer in the mark file.
          *
@@ -635,13 +880,22 @@ public class Archive implements AutoCloseable
         private int recordingEventsStreamId = AeronArchive.Configuration.recordingEventsStreamId();
         private boolean recordingEventsEnabled = AeronArchive.Configuration.recordingEventsEnabled();
         private String replicationChannel = Configuration.replicationChannel();
+        private int replicationStreams = Configuration.replicationStreams();
 
         private long connectTimeoutNs = Configuration.connectTimeoutNs();
         private long replayLingerTimeoutNs = Configuration.replayLingerTimeoutNs();
         private long maxCatalogEntries = Configuration.maxCatalogEntries();
         private int segmentFileLength = Configuration.segmentFileLength();
+        private boolean segmentFilePreAllocate = Configuration.segmentFilePreAllocate();
+        private boolean segmentFileFill = Configuration.segmentFileFill();
+        private boolean directIo = Configuration.directIo();
+        private int directIoAlignment = Configuration.directIoAlignment();
+        private boolean segmentChecksum = Configuration.segmentChecksum();
+        private boolean sessionCountersEnabled = Configuration.sessionCountersEnabled();
         private int fileSyncLevel = Configuration.fileSyncLevel();
         private int catalogFileSyncLevel = Configuration.catalogFileSyncLevel();
+        private long fileSyncGroupCommitIntervalNs = Configuration.fileSyncGroupCommitIntervalNs();
+        private long fileSyncGroupCommitLength = Configuration.fileSyncGroupCommitLength();
 
         private ArchiveThreadingMode threadingMode = Configuration.threadingMode();
         private ThreadFactory threadFactory;
@@ -651,6 +905,7 @@ public class Archive implements AutoCloseable
         private Supplier<IdleStrategy> replayerIdleStrategySupplier;
         private Supplier<IdleStrategy> recorderIdleStrategySupplier;
         private EpochClock epochClock;
+        private NanoClock nanoClock;
         private AuthenticatorSupplier authenticatorSupplier;
 
         private int errorBufferLength = 0;
@@ -696,6 +951,16 @@ public class Archive implements AutoCloseable
                     "catalogFileSyncLevel " + catalogFileSyncLevel + " < fileSyncLevel " + fileSyncLevel);
             }
 
+            if (directIo && !DirectIo.isSupported())
+            {
+                throw new ConfigurationException("direct I/O is not supported by this JVM, requires Java 10+");
+            }
+
+            if (replicationStreams < 1)
+            {
+                throw new ConfigurationException("replicationStreams must be at least 1: " + replicationStreams);
+            }
+
             if (null == archiveDir)
             {
                 archiveDir = new File(archiveDirectoryName);
@@ -714,11 +979,32 @@ public class Archive implements AutoCloseable
 
             archiveDirChannel = channelForDirectorySync(archiveDir, catalogFileSyncLevel);
 
+            if (directIo)
+            {
+                if (0 == directIoAlignment)
+                {
+                    directIoAlignment = DirectIo.blockSize(archiveDir);
+                }
+
+                if (!BitUtil.isPowerOfTwo(directIoAlignment) ||
+                    directIoAlignment < FRAME_ALIGNMENT || directIoAlignment > TERM_MIN_LENGTH)
+                {
+                    throw new ConfigurationException(
+                        "direct I/O alignment must be a power of 2 between " + FRAME_ALIGNMENT + " and " +
+                        TERM_MIN_LENGTH + ": " + directIoAlignment);
+                }
+            }
+
             if (null == epochClock)
             {
                 epochClock = SystemEpochClock.INSTANCE;
             }
 
+            if (null == nanoClock)
+            {
+                nanoClock = SystemNanoClock.INSTANCE;
+            }
+
             if (null != aeron)
             {
                 aeronDirectoryName = aeron.context().aeronDirectoryName();
@@ -815,6 +1101,8 @@ public class Archive implements AutoCloseable
                 authenticatorSupplier = Configuration.authenticatorSupplier();
             }
 
+            SegmentFileAllocator.recoverPendingSegments(archiveDir);
+
             if (null == catalog)
             {
                 catalog = new Catalog(
@@ -828,7 +1116,7 @@ public class Archive implements AutoCloseable
 
             archiveClientContext.aeron(aeron).lock(NoOpLock.INSTANCE).errorHandler(errorHandler);
 
-            int expectedCount = DEDICATED == threadingMode ? 2 : 0;
+            int expectedCount = DEDICATED == threadingMode ? (segmentFilePreAllocate || segmentChecksum ? 3 : 2) : 0;
             expectedCount += aeron.conductorAgentInvoker() == null ? 1 : 0;
             abortLatch = new CountDownLatch(expectedCount);
 
@@ -1207,6 +1495,30 @@ public class Archive implements AutoCloseable
             return this;
         }
 
+        /**
+         * Get the number of concurrent replay streams used to replicate a stopped recording into a new recording.
+         *
+         * @return the number of concurrent replay streams used to replicate a stopped recording.
+         * @see Archive.Configuration#REPLICATION_STREAMS_PROP_NAME
+         */
+        public int replicationStreams()
+        {
+            return replicationStreams;
+        }
+
+        /**
+         * The number of concurrent replay streams used to replicate a stopped recording into a new recording.
+         *
+         * @param replicationStreams number of concurrent replay streams used to replicate a stopped recording.
+         * @return this for a fluent API.
+         * @see Archive.Configuration#REPLICATION_STREAMS_PROP_NAME
+         */
+        public Context replicationStreams(final int replicationStreams)
+        {
+            this.replicationStreams = replicationStreams;
+            return this;
+        }
+
         /**
          * The timeout in nanoseconds to wait for connection to be established.
          *
@@ -1347,6 +1659,28 @@ public class Archive implements AutoCloseable
             return epochClock;
         }
 
+        /**
+         * Set the {@link NanoClock} to be used for tracking high resolution time.
+         *
+         * @param clock {@link NanoClock} to be used for tracking high resolution time.
+         * @return this for a fluent API.
+         */
+        public Context nanoClock(final NanoClock clock)
+        {
+            this.nanoClock = clock;
+            return this;
+        }
+
+        /**
+         * Get the {@link NanoClock} to used for tracking high resolution time.
+         *
+         * @return the {@link NanoClock} to used for tracking high resolution time.
+         */
+        public NanoClock nanoClock()
+        {
+            return nanoClock;
+        }
+
         /**
          * Get the file length used for recording data segment files.
          *
@@ -1370,6 +1704,152 @@ public class Archive implements AutoCloseable
             return this;
         }
 
+        /**
+         * Should the next segment file of a recording be allocated in the background before it is required.
+         *
+         * @return true if the next segment file of a recording should be allocated in the background.
+         * @see Configuration#SEGMENT_FILE_PRE_ALLOCATE_PROP_NAME
+         */
+        public boolean segmentFilePreAllocate()
+        {
+            return segmentFilePreAllocate;
+        }
+
+        /**
+         * Should the next segment file of a recording be allocated in the background before it is required.
+         *
+         * @param segmentFilePreAllocate true if the next segment file should be allocated in the background.
+         * @return this for a fluent API.
+         * @see Configuration#SEGMENT_FILE_PRE_ALLOCATE_PROP_NAME
+         */
+        public Context segmentFilePreAllocate(final boolean segmentFilePreAllocate)
+        {
+            this.segmentFilePreAllocate = segmentFilePreAllocate;
+            return this;
+        }
+
+        /**
+         * Should segment files allocated in the background be filled with zeros.
+         *
+         * @return true if segment files allocated in the background should be filled with zeros.
+         * @see Configuration#SEGMENT_FILE_FILL_PROP_NAME
+         */
+        public boolean segmentFileFill()
+        {
+            return segmentFileFill;
+        }
+
+        /**
+         * Should segment files allocated in the background be filled with zeros.
+         *
+         * @param segmentFileFill true if segment files allocated in the background should be filled with zeros.
+         * @return this for a fluent API.
+         * @see Configuration#SEGMENT_FILE_FILL_PROP_NAME
+         */
+        public Context segmentFileFill(final boolean segmentFileFill)
+        {
+            this.segmentFileFill = segmentFileFill;
+            return this;
+        }
+
+        /**
+         * Should recording segment files be written and replayed with direct I/O which bypasses the OS page cache.
+         *
+         * @return true if recording segment files should be written and replayed with direct I/O.
+         * @see Configuration#DIRECT_IO_PROP_NAME
+         */
+        public boolean directIo()
+        {
+            return directIo;
+        }
+
+        /**
+         * Should recording segment files be written and replayed with direct I/O which bypasses the OS page cache.
+         *
+         * @param directIo true if recording segment files should be written and replayed with direct I/O.
+         * @return this for a fluent API.
+         * @see Configuration#DIRECT_IO_PROP_NAME
+         */
+        public Context directIo(final boolean directIo)
+        {
+            this.directIo = directIo;
+            return this;
+        }
+
+        /**
+         * Alignment for the buffer address, file position, and length of direct I/O operations.
+         *
+         * @return alignment for direct I/O operations, or 0 to use the block size of the file store.
+         * @see Configuration#DIRECT_IO_ALIGNMENT_PROP_NAME
+         */
+        public int directIoAlignment()
+        {
+            return directIoAlignment;
+        }
+
+        /**
+         * Alignment for the buffer address, file position, and length of direct I/O operations.
+         *
+         * @param directIoAlignment as a power of 2, or 0 to use the block size of the file store.
+         * @return this for a fluent API.
+         * @see Configuration#DIRECT_IO_ALIGNMENT_PROP_NAME
+         */
+        public Context directIoAlignment(final int directIoAlignment)
+        {
+            this.directIoAlignment = directIoAlignment;
+            return this;
+        }
+
+        /**
+         * Should a checksum of each completed recording segment file be written alongside it.
+         *
+         * @return true if a checksum of each completed recording segment file should be written alongside it.
+         * @see Configuration#SEGMENT_CHECKSUM_PROP_NAME
+         */
+        public boolean segmentChecksum()
+        {
+            return segmentChecksum;
+        }
+
+        /**
+         * Should a checksum of each completed recording segment file be written alongside it.
+         *
+         * @param segmentChecksum true if a checksum of each completed recording segment file should be written.
+         * @return this for a fluent API.
+         * @see Configuration#SEGMENT_CHECKSUM_PROP_NAME
+         */
+        public Context segmentChecksum(final boolean segmentChecksum)
+        {
+            this.segmentChecksum = segmentChecksum;
+            return this;
+        }
+
+        /**
+         * Should each recording and replay session register counters for its throughput, lag, back pressure, and time
+         * spent on I/O.
+         *
+         * @return true if each recording and replay session should register counters for its throughput.
+         * @see Configuration#SESSION_COUNTERS_ENABLED_PROP_NAME
+         */
+        public boolean sessionCountersEnabled()
+        {
+            return sessionCountersEnabled;
+        }
+
+        /**
+         * Should each recording and replay session register counters for its throughput, lag, back pressure, and time
+         * spent on I/O.
+         *
+         * @param sessionCountersEnabled true if each recording and replay session should register counters.
+         * @return this for a fluent API.
+         * @see Configuration#SESSION_COUNTERS_ENABLED_PROP_NAME
+         */
+        public Context sessionCountersEnabled(final boolean sessionCountersEnabled)
+        {
+            this.sessionCountersEnabled = sessionCountersEnabled;
+            return this;
+        }
+
         /**
          * Get level at which files should be sync'ed to disk.
          * <ul>
@@ -1442,6 +1922,58 @@ public class Archive implements AutoCloseable
             return this;
         }
 
+        /**
+         * Get the interval after which pending recording writes are group committed to disk when
+         * {@link #fileSyncLevel()} is greater than 0. A value of 0 disables the interval.
+         *
+         * @return interval in nanoseconds after which pending recording writes are group committed to disk.
+         * @see Configuration#FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME
+         */
+        public long fileSyncGroupCommitIntervalNs()
+        {
+            return fileSyncGroupCommitIntervalNs;
+        }
+
+        /**
+         * Set the interval after which pending recording writes are group committed to disk when
+         * {@link #fileSyncLevel()} is greater than 0. A value of 0 disables the interval.
+         *
+         * @param intervalNs after which pending recording writes are group committed to disk.
+         * @return this for a fluent API.
+         * @see Configuration#FILE_SYNC_GROUP_COMMIT_INTERVAL_PROP_NAME
+         */
+        public Context fileSyncGroupCommitIntervalNs(final long intervalNs)
+        {
+            this.fileSyncGroupCommitIntervalNs = intervalNs;
+            return this;
+        }
+
+        /**
+         * Get the length of pending recording writes, summed across recordings, after which they are group
+         * committed to disk when {@link #fileSyncLevel()} is greater than 0. A value of 0 disables the length.
+         *
+         * @return length of pending recording writes after which they are group committed to disk.
+         * @see Configuration#FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME
+         */
+        public long fileSyncGroupCommitLength()
+        {
+            return fileSyncGroupCommitLength;
+        }
+
+        /**
+         * Set the length of pending recording writes, summed across recordings, after which they are group
+         * committed to disk when {@link #fileSyncLevel()} is greater than 0. A value of 0 disables the length.
+         *
+         * @param length of pending recording writes after which they are group committed to disk.
+         * @return this for a fluent API.
+         * @see Configuration#FILE_SYNC_GROUP_COMMIT_LENGTH_PROP_NAME
+         */
+        public Context fileSyncGroupCommitLength(final long length)
+        {
+            this.fileSyncGroupCommitLength = length;
+            return this;
+        }
+
         /**
          * Get the {@link AgentInvoker} that should be used for the Media Driver if running in a lightweight mode.
          *
@@ -31,6 +31,7 @@ import org.agrona.LangUtil;
 import org.agrona.SemanticVersion;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
 import org.agrona.collections.Object2ObjectHashMap;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.status.CountersReader;
@@ -50,8 +51,12 @@ import java.util.concurrent.TimeUnit;
 import static io.aeron.Aeron.NULL_VALUE;
 import static io.aeron.CommonContext.SPY_PREFIX;
 import static io.aeron.CommonContext.UDP_MEDIA;
+import static io.aeron.archive.Archive.Configuration.COMPRESSION_COMPRESSED_BYTES_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.COMPRESSION_UNCOMPRESSED_BYTES_TYPE_ID;
 import static io.aeron.archive.Archive.Configuration.MAX_BLOCK_LENGTH;
+import static io.aeron.archive.Archive.Configuration.SEGMENT_ALLOCATION_WAIT_COUNT_TYPE_ID;
 import static io.aeron.archive.Archive.segmentFileName;
+import static io.aeron.archive.client.AeronArchive.NULL_LENGTH;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 import static io.aeron.archive.client.AeronArchive.segmentFileBasePosition;
 import static io.aeron.archive.client.ArchiveException.*;
@@ -74,9 +79,11 @@ abstract class ArchiveConductor
     private final ArrayDeque<Runnable> taskQueue = new ArrayDeque<>();
     private final ChannelUriStringBuilder channelBuilder = new ChannelUriStringBuilder();
     private final Long2ObjectHashMap<ReplaySession> replaySessionByIdMap = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<MergedReplaySession> mergedReplaySessionByIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<RecordingSession> recordingSessionByIdMap = new Long2ObjectHashMap<>();
     private final Long2ObjectHashMap<ReplicationSession> replicationSessionByIdMap = new Long2ObjectHashMap<>();
     private final Int2ObjectHashMap<Counter> counterByIdMap = new Int2ObjectHashMap<>();
+    private final LongHashSet recordingIdsToDeleteOnClose = new LongHashSet();
     private final Object2ObjectHashMap<String, Subscription> recordingSubscriptionMap = new Object2ObjectHashMap<>();
     private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
     private final RecordingDescriptorDecoder recordingDescriptorDecoder = new RecordingDescriptorDecoder();
@@ -84,8 +91,8 @@ abstract class ArchiveConductor
     private final UnsafeBuffer counterMetadataBuffer = new UnsafeBuffer(new byte[METADATA_LENGTH]);
     private final UnsafeBuffer dataBuffer = new UnsafeBuffer(
         allocateDirectAligned(MAX_BLOCK_LENGTH, BitUtil.CACHE_LINE_LENGTH));
-    private final UnsafeBuffer replayBuffer = new UnsafeBuffer(
-        allocateDirectAligned(MAX_BLOCK_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+    private final UnsafeBuffer replayBuffer;
+    private final UnsafeBuffer recorderDirectIoBuffer;
 
     private final Runnable aeronCloseHandler = this::abort;
     private final Aeron aeron;
@@ -102,6 +109,10 @@ abstract class ArchiveConductor
     private final RecordingEventsProxy recordingEventsProxy;
     private final Authenticator authenticator;
     private final ControlSessionProxy controlSessionProxy;
+    private final RecordingSyncGroup recordingSyncGroup;
+    protected final SegmentFileAllocator segmentFileAllocator;
+    private Counter compressionUncompressedBytes;
+    private Counter compressionCompressedBytes;
     private final long connectTimeoutMs;
     private long timeOfLastMarkFileUpdateMs;
     private long nextSessionId = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
@@ -111,7 +122,7 @@ abstract class ArchiveConductor
     private volatile boolean isAbort;
 
     protected final Archive.Context ctx;
-    SessionWorker<ReplaySession> replayer;
+    SessionWorker<Session> replayer;
     SessionWorker<RecordingSession> recorder;
 
     ArchiveConductor(final Archive.Context ctx)
@@ -148,6 +159,24 @@ abstract class ArchiveConductor
         cachedEpochClock.update(epochClock.time());
         authenticator = ctx.authenticatorSupplier().get();
         controlSessionProxy = new ControlSessionProxy(controlResponseProxy);
+        recordingSyncGroup = RecordingSyncGroup.isRequired(ctx) ? new RecordingSyncGroup(
+            ctx.fileSyncGroupCommitIntervalNs(), ctx.fileSyncGroupCommitLength(), ctx.nanoClock()) : null;
+        segmentFileAllocator = ctx.segmentFilePreAllocate() || ctx.segmentChecksum() ? new SegmentFileAllocator(
+            ctx,
+            archiveDirChannel,
+            aeron.addCounter(SEGMENT_ALLOCATION_WAIT_COUNT_TYPE_ID, "Archive segment allocation waits"),
+            ArchiveThreadingMode.DEDICATED == ctx.threadingMode() ? ctx.abortLatch() : null) : null;
+
+        if (ctx.directIo())
+        {
+            replayBuffer = DirectIo.allocateBuffer(MAX_BLOCK_LENGTH, ctx.directIoAlignment());
+            recorderDirectIoBuffer = DirectIo.allocateBuffer(MAX_BLOCK_LENGTH, ctx.directIoAlignment());
+        }
+        else
+        {
+            replayBuffer = new UnsafeBuffer(allocateDirectAligned(MAX_BLOCK_LENGTH, BitUtil.CACHE_LINE_LENGTH));
+            recorderDirectIoBuffer = null;
+        }
     }
 
     public void onStart()
@@ -181,7 +210,7 @@ abstract class ArchiveConductor
 
     protected abstract SessionWorker<RecordingSession> newRecorder();
 
-    protected abstract SessionWorker<ReplaySession> newReplayer();
+    protected abstract SessionWorker<Session> newReplayer();
 
     protected final void preSessionsClose()
     {
@@ -212,6 +241,8 @@ abstract class ArchiveConductor
                 CloseHelper.close(localControlSubscription);
                 CloseHelper.close(controlSubscription);
                 CloseHelper.close(recordingEventsProxy);
+                CloseHelper.close(compressionUncompressedBytes);
+                CloseHelper.close(compressionCompressedBytes);
             }
         }
 
@@ -224,6 +255,10 @@ abstract class ArchiveConductor
         {
             replayer.abort();
             recorder.abort();
+            if (null != segmentFileAllocator)
+            {
+                segmentFileAllocator.abort();
+            }
             isAbort = true;
 
             ctx.errorCounter().close();
@@ -493,6 +528,46 @@ abstract class ArchiveConductor
         }
     }
 
+    void newQueryRecordingsSession(
+        final long correlationId,
+        final long fromRecordingId,
+        final int count,
+        final int streamId,
+        final byte[] channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly,
+        final ControlSession controlSession)
+    {
+        if (controlSession.hasActiveListing())
+        {
+            final String msg = "active listing already in progress";
+            controlSession.sendErrorResponse(correlationId, ACTIVE_LISTING, msg, controlResponseProxy);
+        }
+        else
+        {
+            final QueryRecordingsSession session = new QueryRecordingsSession(
+                correlationId,
+                fromRecordingId,
+                count,
+                streamId,
+                channelFragment,
+                fromTimestamp,
+                toTimestamp,
+                minLength,
+                activeOnly,
+                this,
+                catalog,
+                controlResponseProxy,
+                controlSession,
+                descriptorBuffer,
+                recordingDescriptorDecoder);
+            addSession(session);
+            controlSession.activeListing(session);
+        }
+    }
+
     void listRecording(final long correlationId, final long recordingId, final ControlSession controlSession)
     {
         if (controlSession.hasActiveListing())
@@ -539,7 +614,7 @@ abstract class ArchiveConductor
         final String replayChannel,
         final ControlSession controlSession)
     {
-        if (replaySessionByIdMap.size() >= maxConcurrentReplays)
+        if (activeReplayCount() >= maxConcurrentReplays)
         {
             final String msg = "max concurrent replays reached " + maxConcurrentReplays;
             controlSession.sendErrorResponse(correlationId, MAX_REPLAYS, msg, controlResponseProxy);
@@ -586,13 +661,16 @@ abstract class ArchiveConductor
             controlSession,
             controlResponseProxy,
             replayBuffer,
+            ctx.directIo(),
+            ctx.directIoAlignment(),
             catalog,
             archiveDir,
             segmentFile,
             cachedEpochClock,
             replayPublication,
             recordingSummary,
-            null == recordingSession ? null : recordingSession.recordingPosition());
+            null == recordingSession ? null : recordingSession.recordingPosition(),
+            newReplaySessionCounters(replaySessionId, recordingId, replayStreamId, replayChannel));
 
         replaySessionByIdMap.put(replaySessionId, replaySession);
         replayer.addSession(replaySession);
@@ -608,7 +686,7 @@ abstract class ArchiveConductor
         final String replayChannel,
         final ControlSession controlSession)
     {
-        if (replaySessionByIdMap.size() >= maxConcurrentReplays)
+        if (activeReplayCount() >= maxConcurrentReplays)
         {
             final String msg = "max concurrent replays reached " + maxConcurrentReplays;
             controlSession.sendErrorResponse(correlationId, MAX_REPLAYS, msg, controlResponseProxy);
@@ -656,21 +734,117 @@ abstract class ArchiveConductor
             controlSession,
             controlResponseProxy,
             replayBuffer,
+            ctx.directIo(),
+            ctx.directIoAlignment(),
             catalog,
             archiveDir,
             segmentFile,
             cachedEpochClock,
             replayPublication,
             recordingSummary,
-            limitCounter);
+            limitCounter,
+            newReplaySessionCounters(replaySessionId, recordingId, replayStreamId, replayChannel));
 
         replaySessionByIdMap.put(replaySessionId, replaySession);
         replayer.addSession(replaySession);
     }
 
+    void startMergedReplay(
+        final long correlationId,
+        final long[] recordingIds,
+        final int replayStreamId,
+        final String replayChannel,
+        final ControlSession controlSession)
+    {
+        if (activeReplayCount() >= maxConcurrentReplays)
+        {
+            final String msg = "max concurrent replays reached " + maxConcurrentReplays;
+            controlSession.sendErrorResponse(correlationId, MAX_REPLAYS, msg, controlResponseProxy);
+            return;
+        }
+
+        if (0 == recordingIds.length)
+        {
+            final String msg = "no recordings to merge for replay";
+            controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
+            return;
+        }
+
+        int mtuLength = 0;
+        int termLength = 0;
+        final RecordingReader[] readers = new RecordingReader[recordingIds.length];
+        try
+        {
+            for (int i = 0; i < recordingIds.length; i++)
+            {
+                final long recordingId = recordingIds[i];
+                if (!catalog.hasRecording(recordingId))
+                {
+                    closeReaders(readers);
+                    final String msg = "unknown recording id " + recordingId;
+                    controlSession.sendErrorResponse(correlationId, UNKNOWN_RECORDING, msg, controlResponseProxy);
+                    return;
+                }
+
+                catalog.recordingSummary(recordingId, recordingSummary);
+                if (NULL_POSITION == recordingSummary.stopPosition)
+                {
+                    recordingSummary.stopPosition = activeRecordingPosition(recordingId);
+                }
+
+                mtuLength = Math.max(mtuLength, recordingSummary.mtuLength);
+                termLength = Math.max(termLength, recordingSummary.termBufferLength);
+
+                if (recordingSummary.stopPosition != recordingSummary.startPosition)
+                {
+                    readers[i] = new RecordingReader(recordingSummary, archiveDir, NULL_POSITION, NULL_LENGTH);
+                }
+            }
+        }
+        catch (final IllegalArgumentException ex)
+        {
+            closeReaders(readers);
+            final String msg = "failed to open recordings for merged replay - " + ex.getMessage();
+            controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
+            return;
+        }
+
+        final ExclusivePublication replayPublication;
+        try
+        {
+            replayPublication = newMergedReplayPublication(
+                correlationId, controlSession, replayChannel, replayStreamId, mtuLength, termLength);
+        }
+        catch (final Exception ex)
+        {
+            closeReaders(readers);
+            throw ex;
+        }
+
+        final long replaySessionId = ((long)(replayId++) << 32) | (replayPublication.sessionId() & 0xFFFF_FFFFL);
+        final MergedReplaySession replaySession = new MergedReplaySession(
+            replaySessionId,
+            connectTimeoutMs,
+            correlationId,
+            recordingIds,
+            readers,
+            controlSession,
+            controlResponseProxy,
+            cachedEpochClock,
+            replayPublication);
+
+        mergedReplaySessionByIdMap.put(replaySessionId, replaySession);
+        replayer.addSession(replaySession);
+    }
+
     void stopReplay(final long correlationId, final long replaySessionId, final ControlSession controlSession)
     {
-        final ReplaySession replaySession = replaySessionByIdMap.get(replaySessionId);
+        Session replaySession = replaySessionByIdMap.get(replaySessionId);
+        if (null == replaySession)
+        {
+            replaySession = mergedReplaySessionByIdMap.get(replaySessionId);
+        }
+
         if (null == replaySession)
         {
             final String errorMessage = "replay session not known for " + replaySessionId;
@@ -693,6 +867,14 @@ abstract class ArchiveConductor
             }
         }
 
+        for (final MergedReplaySession replaySession : mergedReplaySessionByIdMap.values())
+        {
+            if (NULL_VALUE == recordingId || replaySession.containsRecording(recordingId))
+            {
+                replaySession.abort();
+            }
+        }
+
         controlSession.sendOkResponse(correlationId, controlResponseProxy);
     }
 
@@ -783,10 +965,7 @@ abstract class ArchiveConductor
     {
         if (hasRecording(recordingId, correlationId, controlSession))
         {
-            final RecordingSession recordingSession = recordingSessionByIdMap.get(recordingId);
-            final long position = null == recordingSession ? NULL_POSITION : recordingSession.recordingPosition().get();
-
-            controlSession.sendOkResponse(correlationId, position, controlResponseProxy);
+            controlSession.sendOkResponse(correlationId, activeRecordingPosition(recordingId), controlResponseProxy);
         }
     }
 
@@ -821,13 +1000,23 @@ abstract class ArchiveConductor
 
             if (segmentOffset > 0)
             {
+                if (!file.exists() && null != CompressedSegment.findSegmentFile(
+                    archiveDir, recordingId, segmentBasePosition))
+                {
+                    final String msg = "cannot truncate within compressed segment " + file;
+                    controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
+                    return;
+                }
+
                 if (!eraseRemainingSegment(
                     correlationId, controlSession, position, segmentLength, segmentOffset, termLength, file))
                 {
                     return;
                 }
+
+                new File(archiveDir, SegmentChecksum.checksumFileName(recordingId, segmentBasePosition)).delete();
             }
-            else if (!file.delete())
+            else if (!CompressedSegment.deleteSegmentFile(archiveDir, recordingId, segmentBasePosition))
             {
                 final String msg = "failed to delete " + file;
                 controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
@@ -838,10 +1027,9 @@ abstract class ArchiveConductor
 
             for (long p = segmentBasePosition + segmentLength; p <= stopPosition; p += segmentLength)
             {
-                final File f = new File(archiveDir, segmentFileName(recordingId, p));
-                if (!f.delete())
+                if (!CompressedSegment.deleteSegmentFile(archiveDir, recordingId, p))
                 {
-                    final String msg = "failed to delete " + f;
+                    final String msg = "failed to delete " + segmentFileName(recordingId, p);
                     controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
                     throw new ArchiveException(msg);
                 }
@@ -886,6 +1074,18 @@ abstract class ArchiveConductor
         }
     }
 
+    boolean isRecordingActive(final long recordingId)
+    {
+        return recordingSessionByIdMap.containsKey(recordingId);
+    }
+
+    long activeRecordingPosition(final long recordingId)
+    {
+        final RecordingSession recordingSession = recordingSessionByIdMap.get(recordingId);
+
+        return null == recordingSession ? NULL_POSITION : recordingSession.recordingPosition().get();
+    }
+
     void closeRecordingSession(final RecordingSession session)
     {
         final long recordingId = session.sessionId();
@@ -903,6 +1103,11 @@ abstract class ArchiveConductor
                 RecordingSignal.STOP);
 
             closeSession(session);
+
+            if (recordingIdsToDeleteOnClose.remove(recordingId))
+            {
+                deleteSegmentFiles(recordingId);
+            }
         }
         else
         {
@@ -910,6 +1115,26 @@ abstract class ArchiveConductor
         }
     }
 
+    /**
+     * Invalidate a recording which was only ever temporary and delete its segment files. If the recording is still
+     * active then its files are deleted once the recording session has closed.
+     *
+     * @param recordingId of the temporary recording.
+     */
+    void deleteTemporaryRecording(final long recordingId)
+    {
+        catalog.invalidateRecording(recordingId);
+
+        if (isRecordingActive(recordingId))
+        {
+            recordingIdsToDeleteOnClose.add(recordingId);
+        }
+        else
+        {
+            deleteSegmentFiles(recordingId);
+        }
+    }
+
     void closeReplaySession(final ReplaySession session)
     {
         replaySessionByIdMap.remove(session.sessionId());
@@ -922,6 +1147,34 @@ abstract class ArchiveConductor
         closeSession(session);
     }
 
+    void closeMergedReplaySession(final MergedReplaySession session)
+    {
+        mergedReplaySessionByIdMap.remove(session.sessionId());
+
+        if (!isAbort)
+        {
+            session.sendPendingError(controlResponseProxy);
+        }
+
+        closeSession(session);
+    }
+
+    void closeReplayerSession(final Session session)
+    {
+        if (session instanceof ReplaySession)
+        {
+            closeReplaySession((ReplaySession)session);
+        }
+        else if (session instanceof MergedReplaySession)
+        {
+            closeMergedReplaySession((MergedReplaySession)session);
+        }
+        else
+        {
+            closeSession(session);
+        }
+    }
+
     void replicate(
         final long correlationId,
         final long srcRecordingId,
@@ -960,6 +1213,8 @@ abstract class ArchiveConductor
             replicationId,
             liveDestination,
             ctx.replicationChannel(),
+            ctx.replicationStreams(),
+            archiveDir,
             hasRecording ? recordingSummary : null,
             remoteArchiveContext,
             cachedEpochClock,
@@ -1117,7 +1372,26 @@ abstract class ArchiveConductor
                 }
                 else if (!srcFile.exists())
                 {
-                    break;
+                    final File compressedSrcFile = new File(
+                        archiveDir, CompressedSegment.compressedSegmentFileName(srcRecordingId, position));
+                    final String compressedDstFile = CompressedSegment.compressedSegmentFileName(
+                        dstRecordingId, position);
+
+                    if (!compressedSrcFile.exists())
+                    {
+                        break;
+                    }
+                    else if (!compressedSrcFile.renameTo(new File(archiveDir, compressedDstFile)))
+                    {
+                        final String msg = "failed to rename " + compressedSrcFile + " to " + compressedDstFile;
+                        controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
+                        return;
+                    }
+
+                    SegmentChecksum.moveChecksumFile(archiveDir, srcRecordingId, dstRecordingId, position);
+                    attachedSegmentCount++;
+                    position -= segmentLength;
+                    continue;
                 }
 
                 final String dstFile = segmentFileName(dstRecordingId, position);
@@ -1128,6 +1402,7 @@ abstract class ArchiveConductor
                     return;
                 }
 
+                SegmentChecksum.moveChecksumFile(archiveDir, srcRecordingId, dstRecordingId, position);
                 attachedSegmentCount++;
                 position -= segmentLength;
             }
@@ -1138,11 +1413,105 @@ abstract class ArchiveConductor
         }
     }
 
+    void compressSegments(final long correlationId, final long recordingId, final ControlSession controlSession)
+    {
+        if (hasRecording(recordingId, correlationId, controlSession))
+        {
+            catalog.recordingSummary(recordingId, recordingSummary);
+            final RecordingSession recordingSession = recordingSessionByIdMap.get(recordingId);
+            final long limitPosition = null != recordingSession ?
+                recordingSession.recordingPosition().get() : recordingSummary.stopPosition;
+            final long startPosition = recordingSummary.startPosition;
+            final int segmentLength = recordingSummary.segmentFileLength;
+            final int termLength = recordingSummary.termBufferLength;
+            final long fromSegmentBasePosition = segmentFileBasePosition(
+                startPosition, startPosition, termLength, segmentLength);
+            final long limitSegmentBasePosition = segmentFileBasePosition(
+                startPosition, limitPosition, termLength, segmentLength);
+
+            long segmentCount = 0;
+            for (long p = fromSegmentBasePosition; p < limitSegmentBasePosition; p += segmentLength)
+            {
+                if (new File(archiveDir, segmentFileName(recordingId, p)).exists())
+                {
+                    segmentCount++;
+                }
+            }
+
+            if (segmentCount > 0)
+            {
+                if (null == compressionUncompressedBytes)
+                {
+                    compressionUncompressedBytes = aeron.addCounter(
+                        COMPRESSION_UNCOMPRESSED_BYTES_TYPE_ID, "Archive segment bytes before compression");
+                    compressionCompressedBytes = aeron.addCounter(
+                        COMPRESSION_COMPRESSED_BYTES_TYPE_ID, "Archive segment bytes after compression");
+                }
+
+                addSession(new CompressSegmentsSession(
+                    aeron.nextCorrelationId(),
+                    recordingId,
+                    segmentLength,
+                    fromSegmentBasePosition,
+                    limitSegmentBasePosition,
+                    ctx,
+                    compressionUncompressedBytes,
+                    compressionCompressedBytes,
+                    this));
+            }
+
+            controlSession.sendOkResponse(correlationId, segmentCount, controlResponseProxy);
+        }
+    }
+
+    /**
+     * Does a recording have an active replay, including as part of a merged replay, which may read its segments.
+     *
+     * @param recordingId to check.
+     * @return true if the recording has an active replay.
+     */
+    boolean hasActiveReplay(final long recordingId)
+    {
+        for (final ReplaySession replaySession : replaySessionByIdMap.values())
+        {
+            if (replaySession.recordingId() == recordingId)
+            {
+                return true;
+            }
+        }
+
+        for (final MergedReplaySession replaySession : mergedReplaySessionByIdMap.values())
+        {
+            if (replaySession.containsRecording(recordingId))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     void removeReplicationSession(final ReplicationSession replicationSession)
     {
         replicationSessionByIdMap.remove(replicationSession.sessionId());
     }
 
+    private void deleteSegmentFiles(final long recordingId)
+    {
+        final String[] segmentFiles = Catalog.listSegmentFiles(archiveDir, recordingId);
+        if (null != segmentFiles)
+        {
+            for (final String segmentFile : segmentFiles)
+            {
+                final long segmentBasePosition = Catalog.parseSegmentFilePosition(segmentFile);
+                if (!CompressedSegment.deleteSegmentFile(archiveDir, recordingId, segmentBasePosition))
+                {
+                    ctx.countedErrorHandler().onError(new ArchiveException("failed to delete " + segmentFile));
+                }
+            }
+        }
+    }
+
     private long deleteDetachedSegments(final long recordingId)
     {
         catalog.recordingSummary(recordingId, recordingSummary);
@@ -1152,8 +1521,7 @@ abstract class ArchiveConductor
 
         while (filenamePosition >= 0)
         {
-            final File f = new File(archiveDir, segmentFileName(recordingId, filenamePosition));
-            if (!f.delete())
+            if (!CompressedSegment.deleteSegmentFile(archiveDir, recordingId, filenamePosition))
             {
                 break;
             }
@@ -1390,9 +1758,14 @@ abstract class ArchiveConductor
             recordingEventsProxy,
             image,
             position,
+            allocateDurablePosition(recordingId, strippedChannel, image),
             archiveDirChannel,
+            recordingSyncGroup,
+            segmentFileAllocator,
+            recorderDirectIoBuffer,
             ctx,
-            controlSession);
+            controlSession,
+            newRecordingSessionCounters(recordingId, strippedChannel, image));
 
         recordingSessionByIdMap.put(recordingId, session);
         recorder.addSession(session);
@@ -1405,6 +1778,51 @@ abstract class ArchiveConductor
             RecordingSignal.START);
     }
 
+    private SessionCounters newRecordingSessionCounters(
+        final long recordingId, final String strippedChannel, final Image image)
+    {
+        if (ctx.sessionCountersEnabled())
+        {
+            return SessionCounters.forRecording(
+                aeron, counterMetadataBuffer, ctx.nanoClock(), recordingId, strippedChannel, image);
+        }
+
+        return null;
+    }
+
+    private SessionCounters newReplaySessionCounters(
+        final long replaySessionId, final long recordingId, final int replayStreamId, final String replayChannel)
+    {
+        if (ctx.sessionCountersEnabled())
+        {
+            return SessionCounters.forReplay(
+                aeron, counterMetadataBuffer, ctx.nanoClock(), replaySessionId, recordingId, replayStreamId,
+                replayChannel);
+        }
+
+        return null;
+    }
+
+    private Counter allocateDurablePosition(final long recordingId, final String strippedChannel, final Image image)
+    {
+        if (ctx.fileSyncLevel() > 0)
+        {
+            final Counter durablePosition = RecordingPos.allocateDurable(
+                aeron,
+                counterMetadataBuffer,
+                recordingId,
+                image.sessionId(),
+                image.subscription().streamId(),
+                strippedChannel,
+                image.sourceIdentity());
+            durablePosition.setOrdered(image.joinPosition());
+
+            return durablePosition;
+        }
+
+        return null;
+    }
+
     private void extendRecordingSession(
         final ControlSession controlSession,
         final long correlationId,
@@ -1443,9 +1861,14 @@ abstract class ArchiveConductor
             recordingEventsProxy,
             image,
             position,
+            allocateDurablePosition(recordingId, strippedChannel, image),
             archiveDirChannel,
+            recordingSyncGroup,
+            segmentFileAllocator,
+            recorderDirectIoBuffer,
             ctx,
-            controlSession);
+            controlSession,
+            newRecordingSessionCounters(recordingId, strippedChannel, image));
 
         recordingSessionByIdMap.put(recordingId, session);
         catalog.extendRecording(recordingId, controlSession.sessionId(), correlationId, image.sessionId());
@@ -1459,6 +1882,19 @@ abstract class ArchiveConductor
             RecordingSignal.EXTEND);
     }
 
+    private int activeReplayCount()
+    {
+        return replaySessionByIdMap.size() + mergedReplaySessionByIdMap.size();
+    }
+
+    private static void closeReaders(final RecordingReader[] readers)
+    {
+        for (final RecordingReader reader : readers)
+        {
+            CloseHelper.close(reader);
+        }
+    }
+
     private ExclusivePublication newReplayPublication(
         final long correlationId,
         final ControlSession controlSession,
@@ -1470,10 +1906,38 @@ abstract class ArchiveConductor
         final ChannelUri channelUri = ChannelUri.parse(replayChannel);
         final ChannelUriStringBuilder channelBuilder = strippedChannelBuilder(channelUri)
             .initialPosition(position, recording.initialTermId, recording.termBufferLength)
+            .mtu(recording.mtuLength);
+
+        return addReplayPublication(correlationId, controlSession, channelUri, channelBuilder, replayStreamId);
+    }
+
+    private ExclusivePublication newMergedReplayPublication(
+        final long correlationId,
+        final ControlSession controlSession,
+        final String replayChannel,
+        final int replayStreamId,
+        final int mtuLength,
+        final int termLength)
+    {
+        final ChannelUri channelUri = ChannelUri.parse(replayChannel);
+        final ChannelUriStringBuilder channelBuilder = strippedChannelBuilder(channelUri)
+            .termLength(termLength)
+            .mtu(mtuLength);
+
+        return addReplayPublication(correlationId, controlSession, channelUri, channelBuilder, replayStreamId);
+    }
+
+    private ExclusivePublication addReplayPublication(
+        final long correlationId,
+        final ControlSession controlSession,
+        final ChannelUri channelUri,
+        final ChannelUriStringBuilder channelBuilder,
+        final int replayStreamId)
+    {
+        channelBuilder
             .ttl(channelUri)
             .eos(channelUri)
-            .sparse(channelUri)
-            .mtu(recording.mtuLength);
+            .sparse(channelUri);
 
         final String lingerValue = channelUri.get(CommonContext.LINGER_PARAM_NAME);
         channelBuilder.linger(null != lingerValue ? Long.parseLong(lingerValue) : ctx.replayLingerTimeoutNs());
@@ -1546,6 +2010,16 @@ abstract class ArchiveConductor
             }
         }
 
+        for (final MergedReplaySession replaySession : mergedReplaySessionByIdMap.values())
+        {
+            if (replaySession.containsRecording(recordingId))
+            {
+                final String msg = "cannot truncate recording with active merged replay " + recordingId;
+                controlSession.sendErrorResponse(correlationId, ACTIVE_RECORDING, msg, controlResponseProxy);
+                return false;
+            }
+        }
+
         catalog.recordingSummary(recordingId, recordingSummary);
         final long stopPosition = recordingSummary.stopPosition;
         final long startPosition = recordingSummary.startPosition;
@@ -1644,6 +2118,14 @@ abstract class ArchiveConductor
             }
         }
 
+        for (final MergedReplaySession replaySession : mergedReplaySessionByIdMap.values())
+        {
+            if (replaySession.containsRecording(recordingId))
+            {
+                upperBound = Math.min(upperBound, lowerBound - segmentLength);
+            }
+        }
+
         if (position > upperBound)
         {
             final String msg = "invalid detach: newStartPosition=" + position + " upperBound=" + upperBound;
@@ -1749,8 +2231,8 @@ abstract class ArchiveConductor
             recordingSummary.termBufferLength,
             recordingSummary.segmentFileLength);
 
-        final File segmentFile = new File(archiveDir, segmentFileName(recordingId, segmentFileBasePosition));
-        if (!segmentFile.exists())
+        final File segmentFile = CompressedSegment.findSegmentFile(archiveDir, recordingId, segmentFileBasePosition);
+        if (null == segmentFile)
         {
             final String msg = "initial segment file does not exist for replay recording id " + recordingId;
             controlSession.sendErrorResponse(correlationId, msg, controlResponseProxy);
@@ -59,8 +59,10 @@ class ArchiveMigration_1_2 implements ArchiveMigrationStep
             {
                 final String version1Prefix = decoder.recordingId() + "-";
                 final String version1Suffix = ".rec";
+                final String compressedSuffix = version1Suffix + CompressedSegment.COMPRESSED_SEGMENT_SUFFIX;
                 String[] segmentFiles = archiveDir.list(
-                    (dir, filename) -> filename.startsWith(version1Prefix) && filename.endsWith(version1Suffix));
+                    (dir, filename) -> filename.startsWith(version1Prefix) &&
+                    (filename.endsWith(version1Suffix) || filename.endsWith(compressedSuffix)));
 
                 if (null == segmentFiles)
                 {
@@ -120,9 +122,11 @@ class ArchiveMigration_1_2 implements ArchiveMigrationStep
 
         for (final String filename : segmentFiles)
         {
+            final String fileSuffix = CompressedSegment.isCompressed(filename) ?
+                suffix + CompressedSegment.COMPRESSED_SEGMENT_SUFFIX : suffix;
             final int length = filename.length();
             final int offset = prefix.length();
-            final int remaining = length - offset - suffix.length();
+            final int remaining = length - offset - fileSuffix.length();
             final long segmentPosition;
 
             if (remaining > 0)
@@ -139,7 +143,7 @@ class ArchiveMigration_1_2 implements ArchiveMigrationStep
                 }
 
                 final long newSegmentPosition = startTermBasePosition + segmentPosition;
-                final String newFilename = prefix + newSegmentPosition + suffix;
+                final String newFilename = prefix + newSegmentPosition + fileSuffix;
 
                 final Path sourcePath = new File(archiveDir, filename).toPath();
                 final Path targetPath = sourcePath.resolveSibling(newFilename);
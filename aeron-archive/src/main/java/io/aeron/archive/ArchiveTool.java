@@ -17,6 +17,7 @@ package io.aeron.archive;
 
 import io.aeron.CncFileDescriptor;
 import io.aeron.CommonContext;
+import io.aeron.archive.client.ArchiveException;
 import io.aeron.archive.codecs.RecordingDescriptorDecoder;
 import io.aeron.archive.codecs.RecordingDescriptorEncoder;
 import io.aeron.archive.codecs.RecordingDescriptorHeaderDecoder;
@@ -42,6 +43,7 @@ import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static io.aeron.archive.Catalog.*;
 import static io.aeron.archive.MigrationUtils.fullVersionString;
@@ -64,6 +66,11 @@ import static org.agrona.BufferUtil.allocateDirectAligned;
  */
 public class ArchiveTool
 {
+    /**
+     * Returned by {@link #verifyStopPosition} when a recording is found to be invalid.
+     */
+    static final long INVALID_STOP_POSITION = Long.MIN_VALUE;
+
     /**
      * Allows user to confirm or reject an action.
      *
@@ -154,6 +161,15 @@ public class ArchiveTool
                     ArchiveTool::truncateFileOnPageStraddle);
             }
         }
+        else if (args.length >= 2 && args[1].equals("verify-parallel"))
+        {
+            verifyParallel(
+                System.out,
+                archiveDir,
+                args.length == 3 && validateAllSegmentFiles(args[2]),
+                Runtime.getRuntime().availableProcessors(),
+                ArchiveTool::truncateFileOnPageStraddle);
+        }
         else if (args.length == 2 && args[1].equals("count-entries"))
         {
             System.out.println(countEntries(archiveDir));
@@ -366,6 +382,38 @@ public class ArchiveTool
             truncateFileOnPageStraddle);
     }
 
+    /**
+     * Verify descriptors in the catalog in parallel across recordings and their segment files, checking recording
+     * files availability and contents. Faulty entries are marked as unusable.
+     * <p>
+     * Each verified recording is checkpointed to a file in the archive directory so an interrupted verify resumes
+     * from where it left off when run again. The checkpoint file is removed once all recordings have been verified.
+     *
+     * @param out                        output stream to print results and errors to
+     * @param archiveDir                 that contains {@link org.agrona.MarkFile}, {@link Catalog}, and recordings.
+     * @param validateAllSegmentFiles    when {@code true} then all of the segment files will be validated, otherwise
+     *                                   only the last segment file will be validated.
+     * @param parallelism                number of threads to verify with.
+     * @param truncateFileOnPageStraddle action to perform if last fragment in the max segment file straddles the page
+     *                                   boundary, i.e. if {@code true} the file will be truncated (last fragment
+     *                                   will be deleted), if {@code false} the fragment if considered complete.
+     */
+    public static void verifyParallel(
+        final PrintStream out,
+        final File archiveDir,
+        final boolean validateAllSegmentFiles,
+        final int parallelism,
+        final ActionConfirmation<File> truncateFileOnPageStraddle)
+    {
+        verifyParallel(
+            out,
+            archiveDir,
+            validateAllSegmentFiles,
+            parallelism,
+            SystemEpochClock.INSTANCE,
+            truncateFileOnPageStraddle);
+    }
+
     /**
      * Migrate previous archive {@link org.agrona.MarkFile}, {@link Catalog}, and recordings from previous version
      * to latest version.
@@ -411,6 +459,27 @@ public class ArchiveTool
         }
     }
 
+    static void verifyParallel(
+        final PrintStream out,
+        final File archiveDir,
+        final boolean validateAllSegmentFiles,
+        final int parallelism,
+        final EpochClock epochClock,
+        final ActionConfirmation<File> truncateFileOnPageStraddle)
+    {
+        try (Catalog catalog = openCatalog(archiveDir, epochClock))
+        {
+            new ParallelVerifier(
+                out,
+                archiveDir,
+                catalog,
+                validateAllSegmentFiles,
+                parallelism,
+                epochClock,
+                truncateFileOnPageStraddle).verify();
+        }
+    }
+
     static void verifyRecording(
         final PrintStream out,
         final File archiveDir,
@@ -614,84 +683,37 @@ public class ArchiveTool
         final long recordingId = decoder.recordingId();
         final long startPosition = decoder.startPosition();
         final long stopPosition = decoder.stopPosition();
-        if (isPositionInvariantViolated(out, recordingId, startPosition, stopPosition))
-        {
-            headerEncoder.valid(INVALID);
-            return;
-        }
-
         final int segmentLength = decoder.segmentFileLength();
         final int termLength = decoder.termBufferLength();
         final String[] segmentFiles = listSegmentFiles(archiveDir, recordingId);
-        final String maxSegmentFile;
-        final long computedStopPosition;
-
-        try
-        {
-            maxSegmentFile = findSegmentFileWithHighestPosition(segmentFiles);
-            if (maxSegmentFile != null)
-            {
-                final long maxSegmentPosition = parseSegmentFilePosition(maxSegmentFile) + (segmentLength - 1);
-                if (startPosition > maxSegmentPosition || stopPosition > maxSegmentPosition)
-                {
-                    out.println("(recordingId=" + recordingId + ") ERR: Invariant violation: startPosition=" +
-                        startPosition + " and/or stopPosition=" + stopPosition + " exceed max segment file position=" +
-                        maxSegmentPosition);
-                    headerEncoder.valid(INVALID);
-                    return;
-                }
-            }
-
-            computedStopPosition = computeStopPosition(
-                archiveDir,
-                maxSegmentFile,
-                startPosition,
-                termLength,
-                segmentLength,
-                truncateFileOnPageStraddle::confirm);
-        }
-        catch (final Exception ex)
+        final long computedStopPosition = verifyStopPosition(
+            out,
+            archiveDir,
+            recordingId,
+            startPosition,
+            stopPosition,
+            segmentLength,
+            termLength,
+            segmentFiles,
+            truncateFileOnPageStraddle::confirm);
+
+        if (INVALID_STOP_POSITION == computedStopPosition)
         {
-            final String message = ex.getMessage();
-            out.println("(recordingId=" + recordingId + ") ERR: " + (null != message ? message : ex.toString()));
             headerEncoder.valid(INVALID);
             return;
         }
 
-        if (maxSegmentFile != null)
+        for (final String filename : segmentFilesToVerify(segmentFiles, validateAllSegmentFiles))
         {
-            final int streamId = decoder.streamId();
-            if (validateAllSegmentFiles)
-            {
-                for (final String filename : segmentFiles)
-                {
-                    if (isInvalidSegmentFile(
-                        out,
-                        archiveDir,
-                        recordingId,
-                        filename,
-                        startPosition,
-                        termLength,
-                        segmentLength,
-                        streamId,
-                        decoder.initialTermId(),
-                        tempBuffer,
-                        headerFlyweight))
-                    {
-                        headerEncoder.valid(INVALID);
-                        return;
-                    }
-                }
-            }
-            else if (isInvalidSegmentFile(
+            if (isInvalidSegmentFile(
                 out,
                 archiveDir,
                 recordingId,
-                maxSegmentFile,
+                filename,
                 startPosition,
                 termLength,
                 segmentLength,
-                streamId,
+                decoder.streamId(),
                 decoder.initialTermId(),
                 tempBuffer,
                 headerFlyweight))
@@ -711,7 +733,84 @@ public class ArchiveTool
         out.println("(recordingId=" + recordingId + ") OK");
     }
 
-    private static boolean isPositionInvariantViolated(
+    /**
+     * Check the start and stop positions of a recording against its segment files and compute the stop position from
+     * the last segment file. This is the part of verifying a recording which is common to the sequential verify and
+     * the {@link ParallelVerifier}, which then verify the segment files from {@link #segmentFilesToVerify}.
+     *
+     * @param out                        to which errors are printed.
+     * @param archiveDir                 containing the segment files.
+     * @param recordingId                of the recording.
+     * @param startPosition              of the recording in the catalog.
+     * @param stopPosition               of the recording in the catalog.
+     * @param segmentLength              of the recording.
+     * @param termLength                 of the recording.
+     * @param segmentFiles               of the recording as listed by {@link Catalog#listSegmentFiles(File, long)}.
+     * @param truncateFileOnPageStraddle confirmation to truncate the last segment file if it ends on a torn page.
+     * @return the computed stop position or {@link #INVALID_STOP_POSITION} if the recording is invalid.
+     */
+    static long verifyStopPosition(
+        final PrintStream out,
+        final File archiveDir,
+        final long recordingId,
+        final long startPosition,
+        final long stopPosition,
+        final int segmentLength,
+        final int termLength,
+        final String[] segmentFiles,
+        final Predicate<File> truncateFileOnPageStraddle)
+    {
+        if (isPositionInvariantViolated(out, recordingId, startPosition, stopPosition))
+        {
+            return INVALID_STOP_POSITION;
+        }
+
+        try
+        {
+            final String maxSegmentFile = findSegmentFileWithHighestPosition(segmentFiles);
+            if (maxSegmentFile != null)
+            {
+                final long maxSegmentPosition = parseSegmentFilePosition(maxSegmentFile) + (segmentLength - 1);
+                if (startPosition > maxSegmentPosition || stopPosition > maxSegmentPosition)
+                {
+                    out.println("(recordingId=" + recordingId + ") ERR: Invariant violation: startPosition=" +
+                        startPosition + " and/or stopPosition=" + stopPosition + " exceed max segment file position=" +
+                        maxSegmentPosition);
+                    return INVALID_STOP_POSITION;
+                }
+            }
+
+            return computeStopPosition(
+                archiveDir, maxSegmentFile, startPosition, termLength, segmentLength, truncateFileOnPageStraddle);
+        }
+        catch (final Exception ex)
+        {
+            final String message = ex.getMessage();
+            out.println("(recordingId=" + recordingId + ") ERR: " + (null != message ? message : ex.toString()));
+            return INVALID_STOP_POSITION;
+        }
+    }
+
+    /**
+     * The segment files of a recording to be verified after {@link #verifyStopPosition}, which is either all of them
+     * or only the last one.
+     *
+     * @param segmentFiles            of the recording.
+     * @param validateAllSegmentFiles should all the segment files be verified.
+     * @return the segment files to be verified.
+     */
+    static String[] segmentFilesToVerify(final String[] segmentFiles, final boolean validateAllSegmentFiles)
+    {
+        final String maxSegmentFile = findSegmentFileWithHighestPosition(segmentFiles);
+        if (null == maxSegmentFile)
+        {
+            return new String[0];
+        }
+
+        return validateAllSegmentFiles ? segmentFiles : new String[]{ maxSegmentFile };
+    }
+
+    static boolean isPositionInvariantViolated(
         final PrintStream out, final long recordingId, final long startPosition, final long stopPosition)
     {
         if (startPosition < 0)
@@ -746,7 +845,7 @@ public class ArchiveTool
         return 0 != (position & (FRAME_ALIGNMENT - 1));
     }
 
-    private static boolean isInvalidSegmentFile(
+    static boolean isInvalidSegmentFile(
         final PrintStream out,
         final File archiveDir,
         final long recordingId,
@@ -760,47 +859,83 @@ public class ArchiveTool
         final DataHeaderFlyweight headerFlyweight)
     {
         final File file = new File(archiveDir, fileName);
-        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        final File checksumFile = new File(
+            archiveDir, stripCompressedSuffix(fileName) + SegmentChecksum.CHECKSUM_FILE_SUFFIX);
+        if (checksumFile.exists())
         {
-            final long offsetLimit = min(segmentLength, channel.size());
-            final int positionBitsToShift = positionBitsToShift(termLength);
-            final long startTermOffset = startPosition & (termLength - 1);
-            final long startTermBasePosition = startPosition - startTermOffset;
-            final long segmentFileBasePosition = parseSegmentFilePosition(fileName);
-            long fileOffset = segmentFileBasePosition == startTermBasePosition ? startTermOffset : 0;
-            long position = segmentFileBasePosition + fileOffset;
-            do
+            try
             {
-                tempBuffer.byteBuffer().clear();
-                if (HEADER_LENGTH != channel.read(tempBuffer.byteBuffer(), fileOffset))
-                {
-                    out.println("(recordingId=" + recordingId + ") ERR: failed to read fragment header.");
-                    return true;
-                }
-
-                final int frameLength = headerFlyweight.frameLength();
-                if (0 == frameLength)
+                final SegmentChecksum.Result result = SegmentChecksum.verify(checksumFile, file);
+                if (SegmentChecksum.Result.VALID == result)
                 {
-                    break;
+                    return false;
                 }
-
-                final int termId = computeTermIdFromPosition(position, positionBitsToShift, initialTermId);
-                final int termOffset = (int)(position & (termLength - 1));
-                if (isInvalidHeader(tempBuffer, streamId, termId, termOffset))
+                else if (SegmentChecksum.Result.INVALID == result)
                 {
-                    out.println("(recordingId=" + recordingId + ") ERR: fragment " +
-                        "termOffset=" + headerFlyweight.termOffset() + " (expected=" + termOffset + "), " +
-                        "termId=" + headerFlyweight.termId() + " (expected=" + termId + "), " +
-                        "streamId=" + headerFlyweight.streamId() + " (expected=" + streamId + ")");
-
+                    out.println("(recordingId=" + recordingId + ") ERR: checksum mismatch for file:" + file);
                     return true;
                 }
+            }
+            catch (final IOException | ArchiveException ex)
+            {
+                out.println("(recordingId=" + recordingId + ") ERR: failed to verify checksum of file:" + file);
+                ex.printStackTrace(out);
+                return true;
+            }
+        }
+
+        if (CompressedSegment.isCompressed(file))
+        {
+            try (CompressedSegment.Reader reader = new CompressedSegment.Reader(file))
+            {
+                return isInvalidSegment(
+                    out,
+                    recordingId,
+                    fileName,
+                    startPosition,
+                    termLength,
+                    min(segmentLength, reader.segmentLength()),
+                    streamId,
+                    initialTermId,
+                    tempBuffer,
+                    headerFlyweight,
+                    (fileOffset) ->
+                    {
+                        if (fileOffset + HEADER_LENGTH > reader.segmentLength())
+                        {
+                            return false;
+                        }
 
-                final int alignedFrameLength = align(frameLength, FRAME_ALIGNMENT);
-                fileOffset += alignedFrameLength;
-                position += alignedFrameLength;
+                        reader.read(tempBuffer, 0, (int)fileOffset, HEADER_LENGTH);
+                        return true;
+                    });
             }
-            while (fileOffset < offsetLimit);
+            catch (final IOException | ArchiveException ex)
+            {
+                out.println("(recordingId=" + recordingId + ") ERR: failed to verify file:" + file);
+                ex.printStackTrace(out);
+                return true;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        {
+            return isInvalidSegment(
+                out,
+                recordingId,
+                fileName,
+                startPosition,
+                termLength,
+                min(segmentLength, channel.size()),
+                streamId,
+                initialTermId,
+                tempBuffer,
+                headerFlyweight,
+                (fileOffset) ->
+                {
+                    tempBuffer.byteBuffer().clear();
+                    return HEADER_LENGTH == channel.read(tempBuffer.byteBuffer(), fileOffset);
+                });
         }
         catch (final IOException ex)
         {
@@ -808,6 +943,74 @@ public class ArchiveTool
             ex.printStackTrace(out);
             return true;
         }
+    }
+
+    /**
+     * Reads the header of a fragment in a segment, which may be stored as is or compressed, into a temp buffer.
+     */
+    @FunctionalInterface
+    interface FragmentHeaderReader
+    {
+        /**
+         * Read the fragment header at an offset in the segment.
+         *
+         * @param segmentOffset of the fragment.
+         * @return true if a complete header was read.
+         * @throws IOException if an error occurs reading the segment.
+         */
+        boolean read(long segmentOffset) throws IOException;
+    }
+
+    private static boolean isInvalidSegment(
+        final PrintStream out,
+        final long recordingId,
+        final String fileName,
+        final long startPosition,
+        final int termLength,
+        final long offsetLimit,
+        final int streamId,
+        final int initialTermId,
+        final UnsafeBuffer tempBuffer,
+        final DataHeaderFlyweight headerFlyweight,
+        final FragmentHeaderReader headerReader) throws IOException
+    {
+        final int positionBitsToShift = positionBitsToShift(termLength);
+        final long startTermOffset = startPosition & (termLength - 1);
+        final long startTermBasePosition = startPosition - startTermOffset;
+        final long segmentFileBasePosition = parseSegmentFilePosition(fileName);
+        long fileOffset = segmentFileBasePosition == startTermBasePosition ? startTermOffset : 0;
+        long position = segmentFileBasePosition + fileOffset;
+        do
+        {
+            if (!headerReader.read(fileOffset))
+            {
+                out.println("(recordingId=" + recordingId + ") ERR: failed to read fragment header.");
+                return true;
+            }
+
+            final int frameLength = headerFlyweight.frameLength();
+            if (0 == frameLength)
+            {
+                break;
+            }
+
+            final int termId = computeTermIdFromPosition(position, positionBitsToShift, initialTermId);
+            final int termOffset = (int)(position & (termLength - 1));
+            if (isInvalidHeader(tempBuffer, streamId, termId, termOffset))
+            {
+                out.println("(recordingId=" + recordingId + ") ERR: fragment " +
+                    "termOffset=" + headerFlyweight.termOffset() + " (expected=" + termOffset + "), " +
+                    "termId=" + headerFlyweight.termId() + " (expected=" + termId + "), " +
+                    "streamId=" + headerFlyweight.streamId() + " (expected=" + streamId + ")");
+
+                return true;
+            }
+
+            final int alignedFrameLength = align(frameLength, FRAME_ALIGNMENT);
+            fileOffset += alignedFrameLength;
+            position += alignedFrameLength;
+        }
+        while (fileOffset < offsetLimit);
 
         return false;
     }
@@ -847,6 +1050,9 @@ public class ArchiveTool
         System.out.println("     checking recording files availability and contents. Only the last segment file is");
         System.out.println("     validated unless flag '-a' is specified, i.e. meaning validate all segment files.");
         System.out.println("     Faulty entries are marked as unusable.");
+        System.out.println("  verify-parallel <optional '-a'>: verifies all descriptors in the catalog as for verify");
+        System.out.println("     but in parallel across recordings and segment files. Progress is checkpointed so an");
+        System.out.println("     interrupted verify resumes when run again.");
         System.out.println("  count-entries: queries the number of recording entries in the catalog.");
         System.out.println("  max-entries <optional number of entries>: gets or increases the maximum number of");
         System.out.println("     recording entries the catalog can store.");
@@ -19,6 +19,8 @@ import io.aeron.Aeron;
 import io.aeron.archive.client.ArchiveException;
 import io.aeron.archive.codecs.*;
 import org.agrona.*;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.UnsafeBuffer;
 
@@ -28,6 +30,8 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
@@ -41,6 +45,7 @@ import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.nio.ByteOrder.nativeOrder;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.file.StandardOpenOption.*;
 import static org.agrona.AsciiEncoding.parseLongAscii;
 import static org.agrona.BitUtil.align;
@@ -50,6 +55,11 @@ import static org.agrona.BitUtil.align;
  * The format is simple, allocating a fixed 1KB record for each record descriptor. This allows offset
  * based look up of a descriptor in the file. The first record contains the catalog header.
  * <p>
+ * When opened for writing by the archive the catalog will grow, by doubling its capacity up to {@link #MAX_ENTRIES},
+ * when a new recording is added and the catalog is full. Recording ids are indexed in memory by stream id and then
+ * by original channel so lookups only test a channel fragment once per distinct channel rather than scanning the
+ * whole file, and by source identity.
+ * <p>
  *
  * @see RecordingDescriptorHeaderDecoder
  * @see RecordingDescriptorDecoder
@@ -112,13 +122,18 @@ class Catalog implements AutoCloseable
     private final RecordingDescriptorEncoder descriptorEncoder = new RecordingDescriptorEncoder();
     private final RecordingDescriptorDecoder descriptorDecoder = new RecordingDescriptorDecoder();
 
-    private final MappedByteBuffer catalogByteBuffer;
+    private final Int2ObjectHashMap<HashMap<String, ChannelRecordings>> channelRecordingsByStreamIdMap =
+        new Int2ObjectHashMap<>();
+    private final HashMap<String, LongArrayList> recordingIdsBySourceIdentityMap = new HashMap<>();
+    private final ArrayList<MappedByteBuffer> retiredCatalogByteBuffers = new ArrayList<>();
+
+    private MappedByteBuffer catalogByteBuffer;
     private final UnsafeBuffer catalogBuffer;
-    private final UnsafeBuffer fieldAccessBuffer;
+    private volatile UnsafeBuffer fieldAccessBuffer;
 
     private final int recordLength;
     private final int maxDescriptorStringsCombinedLength;
-    private final int maxRecordingId;
+    private int maxRecordingId;
     private final boolean forceWrites;
     private final boolean forceMetadata;
     private boolean isClosed;
@@ -290,6 +305,12 @@ class Catalog implements AutoCloseable
             isClosed = true;
             CloseHelper.close(catalogChannel);
             IoUtil.unmap(catalogByteBuffer);
+
+            for (final MappedByteBuffer retiredCatalogByteBuffer : retiredCatalogByteBuffers)
+            {
+                IoUtil.unmap(retiredCatalogByteBuffer);
+            }
+            retiredCatalogByteBuffers.clear();
         }
     }
 
@@ -335,7 +356,7 @@ class Catalog implements AutoCloseable
     {
         if (nextRecordingId > maxRecordingId)
         {
-            throw new ArchiveException("catalog is full, max recordings reached: " + maxEntries());
+            growCatalog();
         }
 
         final int combinedStringsLen = strippedChannel.length() + sourceIdentity.length() + originalChannel.length();
@@ -373,6 +394,7 @@ class Catalog implements AutoCloseable
             .valid(VALID);
 
         forceWrites(catalogChannel, forceWrites, forceMetadata);
+        indexRecording(recordingId, streamId, originalChannel, sourceIdentity);
 
         return recordingId;
     }
@@ -492,34 +514,102 @@ class Catalog implements AutoCloseable
 
     long findLast(final long minRecordingId, final int sessionId, final int streamId, final byte[] channelFragment)
     {
-        long recordingId = nextRecordingId;
-        while (--recordingId >= minRecordingId)
+        final HashMap<String, ChannelRecordings> channelRecordingsMap = channelRecordingsByStreamIdMap.get(streamId);
+        if (null == channelRecordingsMap)
+        {
+            return NULL_RECORD_ID;
+        }
+
+        long lastRecordingId = NULL_RECORD_ID;
+        for (final ChannelRecordings channelRecordings : channelRecordingsMap.values())
+        {
+            if (!contains(channelRecordings.originalChannel, channelFragment))
+            {
+                continue;
+            }
+
+            final LongArrayList recordingIds = channelRecordings.recordingIds;
+            for (int j = recordingIds.size() - 1; j >= 0; j--)
+            {
+                final long recordingId = recordingIds.getLong(j);
+                if (recordingId < minRecordingId || recordingId <= lastRecordingId)
+                {
+                    break;
+                }
+
+                catalogBuffer.wrap(catalogByteBuffer, recordingDescriptorOffset(recordingId), recordLength);
+
+                if (isValidDescriptor(catalogBuffer))
+                {
+                    descriptorDecoder.wrap(
+                        catalogBuffer,
+                        DESCRIPTOR_HEADER_LENGTH,
+                        RecordingDescriptorDecoder.BLOCK_LENGTH,
+                        RecordingDescriptorDecoder.SCHEMA_VERSION);
+
+                    if (sessionId == descriptorDecoder.sessionId())
+                    {
+                        lastRecordingId = recordingId;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return lastRecordingId;
+    }
+
+    /**
+     * Find the lowest recording id greater than or equal to fromRecordingId which was recorded for a stream id on a
+     * channel which contains a fragment.
+     *
+     * @param fromRecordingId to begin the search from.
+     * @param streamId        of the recording.
+     * @param channelFragment to be contained in the original channel of the recording, or empty to match any.
+     * @return the matching recording id or {@link #NULL_RECORD_ID} if none are found.
+     */
+    long nextRecordingId(final long fromRecordingId, final int streamId, final byte[] channelFragment)
+    {
+        final HashMap<String, ChannelRecordings> channelRecordingsMap = channelRecordingsByStreamIdMap.get(streamId);
+        if (null == channelRecordingsMap)
         {
-            catalogBuffer.wrap(catalogByteBuffer, recordingDescriptorOffset(recordingId), recordLength);
+            return NULL_RECORD_ID;
+        }
 
-            if (isValidDescriptor(catalogBuffer))
+        long nextRecordingId = NULL_RECORD_ID;
+        for (final ChannelRecordings channelRecordings : channelRecordingsMap.values())
+        {
+            if (contains(channelRecordings.originalChannel, channelFragment))
             {
-                descriptorDecoder.wrap(
-                    catalogBuffer,
-                    DESCRIPTOR_HEADER_LENGTH,
-                    RecordingDescriptorDecoder.BLOCK_LENGTH,
-                    RecordingDescriptorDecoder.SCHEMA_VERSION);
-
-                if (sessionId == descriptorDecoder.sessionId() &&
-                    streamId == descriptorDecoder.streamId() &&
-                    originalChannelContains(descriptorDecoder, channelFragment))
+                final long recordingId = ceilingRecordingId(channelRecordings.recordingIds, fromRecordingId);
+                if (NULL_RECORD_ID != recordingId &&
+                    (NULL_RECORD_ID == nextRecordingId || recordingId < nextRecordingId))
                 {
-                    return recordingId;
+                    nextRecordingId = recordingId;
                 }
             }
         }
 
-        return NULL_RECORD_ID;
+        return nextRecordingId;
+    }
+
+    /**
+     * Find the lowest recording id greater than or equal to fromRecordingId which was recorded from a source identity.
+     *
+     * @param fromRecordingId to begin the search from.
+     * @param sourceIdentity  of the image which was recorded.
+     * @return the matching recording id or {@link #NULL_RECORD_ID} if none are found.
+     */
+    long nextRecordingIdForSourceIdentity(final long fromRecordingId, final String sourceIdentity)
+    {
+        return ceilingRecordingId(recordingIdsBySourceIdentityMap.get(sourceIdentity), fromRecordingId);
     }
 
     //
     // Methods for access specific record fields by recordingId.
-    // Note: These methods are thread safe.
+    // Note: These methods may be called from the recorder and replayer threads. When the catalog grows the mapping
+    // they read is swapped and the old mapping is retained until close so a concurrent read never sees it unmapped,
+    // but only fields accessed with volatile semantics are safe to read from another thread.
     /////////////////////////////////////////////////////////////
 
     static boolean originalChannelContains(
@@ -581,6 +671,13 @@ class Catalog implements AutoCloseable
         forceWrites(catalogChannel, forceWrites, forceMetadata);
     }
 
+    void invalidateRecording(final long recordingId)
+    {
+        fieldAccessBuffer.putByteVolatile(
+            recordingDescriptorOffset(recordingId) + RecordingDescriptorHeaderDecoder.validEncodingOffset(), INVALID);
+        forceWrites(catalogChannel, forceWrites, forceMetadata);
+    }
+
     void extendRecording(
         final long recordingId, final long controlSessionId, final long correlationId, final int sessionId)
     {
@@ -674,6 +771,31 @@ class Catalog implements AutoCloseable
         return (int)(recordingId * recordLength) + recordLength;
     }
 
+    private static long ceilingRecordingId(final LongArrayList recordingIds, final long fromRecordingId)
+    {
+        if (null == recordingIds)
+        {
+            return NULL_RECORD_ID;
+        }
+
+        int low = 0;
+        int high = recordingIds.size() - 1;
+        while (low <= high)
+        {
+            final int mid = (low + high) >>> 1;
+            if (recordingIds.getLong(mid) < fromRecordingId)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return low < recordingIds.size() ? recordingIds.getLong(low) : NULL_RECORD_ID;
+    }
+
     static void validateMaxEntries(final long maxEntries)
     {
         if (maxEntries < 1 || maxEntries > MAX_ENTRIES)
@@ -699,7 +821,99 @@ class Catalog implements AutoCloseable
         else
         {
             forEach((headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
-                nextRecordingId = descriptorDecoder.recordingId() + 1);
+            {
+                nextRecordingId = descriptorDecoder.recordingId() + 1;
+                indexDescriptor(descriptorDecoder);
+            });
+        }
+    }
+
+    private void indexDescriptor(final RecordingDescriptorDecoder decoder)
+    {
+        final long recordingId = decoder.recordingId();
+        final int streamId = decoder.streamId();
+        decoder.strippedChannel();
+        final String originalChannel = decoder.originalChannel();
+        final String sourceIdentity = decoder.sourceIdentity();
+
+        indexRecording(recordingId, streamId, originalChannel, sourceIdentity);
+    }
+
+    private void indexRecording(
+        final long recordingId, final int streamId, final String originalChannel, final String sourceIdentity)
+    {
+        channelRecordingsByStreamIdMap
+            .computeIfAbsent(streamId, (ignore) -> new HashMap<>())
+            .computeIfAbsent(originalChannel, ChannelRecordings::new)
+            .recordingIds.addLong(recordingId);
+
+        recordingIdsBySourceIdentityMap
+            .computeIfAbsent(sourceIdentity, (ignore) -> new LongArrayList())
+            .addLong(recordingId);
+    }
+
+    private static boolean contains(final byte[] channel, final byte[] channelFragment)
+    {
+        final int fragmentLength = channelFragment.length;
+
+        nextChar:
+        for (int offset = 0, end = channel.length - fragmentLength; offset <= end; offset++)
+        {
+            for (int i = 0; i < fragmentLength; i++)
+            {
+                if (channel[offset + i] != channelFragment[i])
+                {
+                    continue nextChar;
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void growCatalog()
+    {
+        final long maxEntries = maxEntries();
+        final long maxAllowedEntries = calculateMaxEntries(Integer.MAX_VALUE, recordLength);
+        if (null == catalogChannel || maxEntries >= maxAllowedEntries)
+        {
+            throw new ArchiveException("catalog is full, max recordings reached: " + maxEntries);
+        }
+
+        final long newMaxEntries = min(maxEntries << 1, maxAllowedEntries);
+        final long newCatalogLength = min((newMaxEntries * recordLength) + recordLength, Integer.MAX_VALUE);
+
+        final MappedByteBuffer newCatalogByteBuffer;
+        try
+        {
+            newCatalogByteBuffer = catalogChannel.map(FileChannel.MapMode.READ_WRITE, 0, newCatalogLength);
+        }
+        catch (final IOException ex)
+        {
+            throw new ArchiveException(
+                "failed to grow catalog to max entries: " + newMaxEntries, ex, ArchiveException.GENERIC);
+        }
+
+        retiredCatalogByteBuffers.add(catalogByteBuffer);
+        catalogByteBuffer = newCatalogByteBuffer;
+        catalogBuffer.wrap(catalogByteBuffer);
+        fieldAccessBuffer = new UnsafeBuffer(catalogByteBuffer);
+        maxRecordingId = (int)calculateMaxEntries(newCatalogLength, recordLength) - 1;
+    }
+
+    /**
+     * Recordings for a stream which share an original channel, in ascending order of recording id.
+     */
+    static final class ChannelRecordings
+    {
+        final byte[] originalChannel;
+        final LongArrayList recordingIds = new LongArrayList();
+
+        ChannelRecordings(final String originalChannel)
+        {
+            this.originalChannel = originalChannel.getBytes(US_ASCII);
         }
     }
 
@@ -733,6 +947,7 @@ class Catalog implements AutoCloseable
         }
 
         nextRecordingId = recordingId + 1;
+        indexDescriptor(decoder);
     }
 
     private void forceWrites(final FileChannel channel, final boolean forceWrites, final boolean forceMetadata)
@@ -750,10 +965,37 @@ class Catalog implements AutoCloseable
         }
     }
 
+    /**
+     * List the segment files of a recording, whether stored as is or compressed. When a segment exists in both forms,
+     * because its compressed form has been renamed into place but the original is yet to be deleted, only the
+     * original is listed.
+     *
+     * @param archiveDir  containing the segment files.
+     * @param recordingId of the recording.
+     * @return the names of the segment files for the recording or null if the directory could not be listed.
+     */
     static String[] listSegmentFiles(final File archiveDir, final long recordingId)
     {
         final String prefix = recordingId + "-";
-        return archiveDir.list((dir, name) -> name.startsWith(prefix) && name.endsWith(RECORDING_SEGMENT_SUFFIX));
+        final String compressedSuffix = RECORDING_SEGMENT_SUFFIX + CompressedSegment.COMPRESSED_SEGMENT_SUFFIX;
+
+        return archiveDir.list(
+            (dir, name) ->
+            {
+                if (!name.startsWith(prefix))
+                {
+                    return false;
+                }
+
+                return name.endsWith(RECORDING_SEGMENT_SUFFIX) ||
+                    (name.endsWith(compressedSuffix) && !new File(dir, stripCompressedSuffix(name)).exists());
+            });
+    }
+
+    static String stripCompressedSuffix(final String fileName)
+    {
+        return CompressedSegment.isCompressed(fileName) ?
+            fileName.substring(0, fileName.length() - CompressedSegment.COMPRESSED_SEGMENT_SUFFIX.length()) : fileName;
     }
 
     static String findSegmentFileWithHighestPosition(final String[] segmentFiles)
@@ -792,8 +1034,10 @@ class Catalog implements AutoCloseable
             throw new ArchiveException("invalid filename format: " + filename);
         }
 
+        final int suffixLength = RECORDING_SEGMENT_SUFFIX.length() +
+            (CompressedSegment.isCompressed(filename) ? CompressedSegment.COMPRESSED_SEGMENT_SUFFIX.length() : 0);
         final int positionOffset = dashOffset + 1;
-        final int positionLength = filename.length() - positionOffset - RECORDING_SEGMENT_SUFFIX.length();
+        final int positionLength = filename.length() - positionOffset - suffixLength;
         if (0 >= positionLength)
         {
             throw new ArchiveException("no position encoded in the segment file: " + filename);
@@ -835,6 +1079,12 @@ class Catalog implements AutoCloseable
         final Predicate<File> truncateFileOnPageStraddle)
     {
         final File file = new File(archiveDir, segmentFile);
+        if (CompressedSegment.isCompressed(file))
+        {
+            // Only segments which have been recorded past are compressed so the segment is complete.
+            return segmentFileLength;
+        }
+
         try (FileChannel segment = FileChannel.open(file.toPath(), READ, WRITE))
         {
             final ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_LENGTH);
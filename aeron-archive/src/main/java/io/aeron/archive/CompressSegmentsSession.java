@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Counter;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.collections.LongArrayList;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compresses the completed segments of a recording a block at a time on the conductor duty cycle. Each segment file
+ * is replaced by its compressed form once the compressed file has been renamed into place.
+ * <p>
+ * A replay of the recording may have found the original segment file just before it is replaced, so the original is
+ * only deleted once the recording has no active replays. Replays are started on the conductor thread, which this
+ * session also runs on, so a replay started after the deletion will find the compressed segment.
+ */
+class CompressSegmentsSession implements Session
+{
+    private final long sessionId;
+    private final long recordingId;
+    private final int segmentLength;
+    private final long limitSegmentBasePosition;
+    private final boolean forceWrites;
+    private final File archiveDir;
+    private final ErrorHandler errorHandler;
+    private final Counter uncompressedBytes;
+    private final Counter compressedBytes;
+    private final ArchiveConductor conductor;
+    private final LongArrayList replacedSegmentBasePositions = new LongArrayList();
+    private long segmentBasePosition;
+    private CompressedSegment.Writer writer;
+    private boolean isDone = false;
+
+    CompressSegmentsSession(
+        final long sessionId,
+        final long recordingId,
+        final int segmentLength,
+        final long fromSegmentBasePosition,
+        final long limitSegmentBasePosition,
+        final Archive.Context ctx,
+        final Counter uncompressedBytes,
+        final Counter compressedBytes,
+        final ArchiveConductor conductor)
+    {
+        this.sessionId = sessionId;
+        this.recordingId = recordingId;
+        this.segmentLength = segmentLength;
+        this.segmentBasePosition = fromSegmentBasePosition;
+        this.limitSegmentBasePosition = limitSegmentBasePosition;
+        this.forceWrites = ctx.fileSyncLevel() > 0;
+        this.archiveDir = ctx.archiveDir();
+        this.errorHandler = ctx.countedErrorHandler();
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+        this.conductor = conductor;
+    }
+
+    public void abort()
+    {
+        isDone = true;
+    }
+
+    public boolean isDone()
+    {
+        return isDone;
+    }
+
+    public long sessionId()
+    {
+        return sessionId;
+    }
+
+    public void close()
+    {
+        CloseHelper.close(writer);
+        writer = null;
+        deleteReplacedSegments();
+    }
+
+    public int doWork()
+    {
+        if (isDone)
+        {
+            return 0;
+        }
+
+        int workCount = deleteReplacedSegments();
+
+        try
+        {
+            if (null == writer && !openNextSegment())
+            {
+                isDone = replacedSegmentBasePositions.isEmpty();
+                return workCount;
+            }
+
+            if (writer.compressNextBlock())
+            {
+                completeSegment();
+            }
+        }
+        catch (final IOException ex)
+        {
+            isDone = true;
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        return workCount + 1;
+    }
+
+    private boolean openNextSegment() throws IOException
+    {
+        while (segmentBasePosition < limitSegmentBasePosition)
+        {
+            final File segmentFile = new File(archiveDir, Archive.segmentFileName(recordingId, segmentBasePosition));
+            if (segmentFile.exists())
+            {
+                final File compressedFile = new File(
+                    archiveDir, CompressedSegment.compressedSegmentFileName(recordingId, segmentBasePosition));
+                writer = new CompressedSegment.Writer(segmentFile, compressedFile, segmentLength);
+
+                return true;
+            }
+
+            segmentBasePosition += segmentLength;
+        }
+
+        return false;
+    }
+
+    private void completeSegment() throws IOException
+    {
+        writer.complete(forceWrites);
+        uncompressedBytes.getAndAddOrdered(writer.uncompressedLength());
+        compressedBytes.getAndAddOrdered(writer.compressedLength());
+        CloseHelper.close(writer);
+        writer = null;
+
+        replacedSegmentBasePositions.addLong(segmentBasePosition);
+        segmentBasePosition += segmentLength;
+    }
+
+    private int deleteReplacedSegments()
+    {
+        final int count = replacedSegmentBasePositions.size();
+        if (0 == count || conductor.hasActiveReplay(recordingId))
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            final File segmentFile = new File(
+                archiveDir, Archive.segmentFileName(recordingId, replacedSegmentBasePositions.getLong(i)));
+            if (!segmentFile.delete())
+            {
+                errorHandler.onError(new IOException("failed to delete compressed segment: " + segmentFile));
+            }
+        }
+        replacedSegmentBasePositions.clear();
+
+        return count;
+    }
+}
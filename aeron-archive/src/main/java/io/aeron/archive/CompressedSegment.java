@@ -0,0 +1,412 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.client.ArchiveException;
+import org.agrona.CloseHelper;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A recording segment file which has been compressed as a sequence of independently compressed blocks with an index
+ * so it can be read from any offset without decompressing the whole segment.
+ * <p>
+ * The file has a header, followed by an index of the file offset for each compressed block plus the end offset of the
+ * last block, and then the compressed blocks. Blocks which do not compress are stored as is and can be identified by
+ * having a stored length equal to the block length.
+ */
+final class CompressedSegment
+{
+    /**
+     * Suffix appended to the segment file name for a compressed segment file.
+     */
+    static final String COMPRESSED_SEGMENT_SUFFIX = ".cmp";
+
+    /**
+     * Length of the uncompressed blocks which are compressed independently.
+     */
+    static final int BLOCK_LENGTH = 64 * 1024;
+
+    static final int MAGIC = 0x41524353;
+    static final int VERSION = 1;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SEGMENT_LENGTH_OFFSET = 8;
+    static final int BLOCK_LENGTH_OFFSET = 12;
+    static final int BLOCK_COUNT_OFFSET = 16;
+    static final int HEADER_LENGTH = 32;
+
+    private static final String PENDING_SUFFIX = ".tmp";
+
+    private CompressedSegment()
+    {
+    }
+
+    static String compressedSegmentFileName(final long recordingId, final long segmentBasePosition)
+    {
+        return Archive.segmentFileName(recordingId, segmentBasePosition) + COMPRESSED_SEGMENT_SUFFIX;
+    }
+
+    static boolean isCompressed(final File file)
+    {
+        return isCompressed(file.getName());
+    }
+
+    static boolean isCompressed(final String fileName)
+    {
+        return fileName.endsWith(COMPRESSED_SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Find the file for a segment which may be stored as is or compressed.
+     *
+     * @param archiveDir          containing the segment files.
+     * @param recordingId         of the recording.
+     * @param segmentBasePosition of the segment.
+     * @return the segment file or null if it does not exist.
+     */
+    static File findSegmentFile(final File archiveDir, final long recordingId, final long segmentBasePosition)
+    {
+        final File file = new File(archiveDir, Archive.segmentFileName(recordingId, segmentBasePosition));
+        if (file.exists())
+        {
+            return file;
+        }
+
+        final File compressedFile = new File(
+            archiveDir, compressedSegmentFileName(recordingId, segmentBasePosition));
+
+        return compressedFile.exists() ? compressedFile : null;
+    }
+
+    /**
+     * Delete the file for a segment which may be stored as is or compressed, along with any checksum file.
+     *
+     * @param archiveDir          containing the segment files.
+     * @param recordingId         of the recording.
+     * @param segmentBasePosition of the segment.
+     * @return true if a segment file was deleted.
+     */
+    static boolean deleteSegmentFile(final File archiveDir, final long recordingId, final long segmentBasePosition)
+    {
+        final boolean isDeleted = new File(archiveDir, Archive.segmentFileName(recordingId, segmentBasePosition))
+            .delete();
+        final boolean isCompressedDeleted = new File(
+            archiveDir, compressedSegmentFileName(recordingId, segmentBasePosition)).delete();
+        new File(archiveDir, SegmentChecksum.checksumFileName(recordingId, segmentBasePosition)).delete();
+
+        return isDeleted || isCompressedDeleted;
+    }
+
+    /**
+     * Compresses a segment file a block at a time so the work can be interleaved with other duties. The compressed
+     * file is written under a temporary name and renamed into place when complete.
+     */
+    static final class Writer implements AutoCloseable
+    {
+        private final File compressedFile;
+        private final File pendingFile;
+        private final FileChannel srcChannel;
+        private final FileChannel dstChannel;
+        private final int blockCount;
+        private final long[] blockOffsets;
+        private final byte[] srcBlock = new byte[BLOCK_LENGTH];
+        private final byte[] dstBlock = new byte[BLOCK_LENGTH];
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private int blockIndex = 0;
+        private boolean isComplete = false;
+
+        Writer(final File segmentFile, final File compressedFile, final int segmentLength) throws IOException
+        {
+            this.compressedFile = compressedFile;
+            this.pendingFile = new File(compressedFile.getParentFile(), compressedFile.getName() + PENDING_SUFFIX);
+            this.blockCount = segmentLength / BLOCK_LENGTH;
+            this.blockOffsets = new long[blockCount + 1];
+            blockOffsets[0] = HEADER_LENGTH + ((blockCount + 1) * (long)Long.BYTES);
+
+            srcChannel = FileChannel.open(segmentFile.toPath(), READ);
+            FileChannel channel = null;
+            try
+            {
+                channel = FileChannel.open(pendingFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE);
+            }
+            finally
+            {
+                if (null == channel)
+                {
+                    CloseHelper.quietClose(srcChannel);
+                }
+            }
+            dstChannel = channel;
+        }
+
+        /**
+         * Compress the next block of the segment.
+         *
+         * @return true if all blocks of the segment have been compressed.
+         * @throws IOException if an error occurs reading or writing the files.
+         */
+        boolean compressNextBlock() throws IOException
+        {
+            if (blockIndex < blockCount)
+            {
+                readFully(srcChannel, ByteBuffer.wrap(srcBlock), (long)blockIndex * BLOCK_LENGTH);
+
+                deflater.reset();
+                deflater.setInput(srcBlock, 0, BLOCK_LENGTH);
+                deflater.finish();
+                final int compressedLength = deflater.deflate(dstBlock, 0, BLOCK_LENGTH);
+                final boolean isStored = !deflater.finished() || compressedLength >= BLOCK_LENGTH;
+
+                final ByteBuffer block = isStored ?
+                    ByteBuffer.wrap(srcBlock, 0, BLOCK_LENGTH) : ByteBuffer.wrap(dstBlock, 0, compressedLength);
+                final long blockOffset = blockOffsets[blockIndex];
+                writeFully(dstChannel, block, blockOffset);
+
+                blockOffsets[++blockIndex] = blockOffset + (isStored ? BLOCK_LENGTH : compressedLength);
+            }
+
+            return blockIndex >= blockCount;
+        }
+
+        /**
+         * Write the header and index, then rename the compressed file into place.
+         *
+         * @param forceWrites should the compressed file be forced to disk before being renamed into place.
+         * @throws IOException if an error occurs writing or renaming the file.
+         */
+        void complete(final boolean forceWrites) throws IOException
+        {
+            final ByteBuffer header = ByteBuffer.allocate((int)blockOffsets[0]).order(LITTLE_ENDIAN);
+            header
+                .putInt(MAGIC_OFFSET, MAGIC)
+                .putInt(VERSION_OFFSET, VERSION)
+                .putInt(SEGMENT_LENGTH_OFFSET, blockCount * BLOCK_LENGTH)
+                .putInt(BLOCK_LENGTH_OFFSET, BLOCK_LENGTH)
+                .putInt(BLOCK_COUNT_OFFSET, blockCount);
+
+            for (int i = 0; i <= blockCount; i++)
+            {
+                header.putLong(HEADER_LENGTH + (i * Long.BYTES), blockOffsets[i]);
+            }
+
+            writeFully(dstChannel, header, 0);
+            if (forceWrites)
+            {
+                dstChannel.force(true);
+            }
+            dstChannel.close();
+
+            if (!pendingFile.renameTo(compressedFile))
+            {
+                throw new IOException("failed to rename " + pendingFile + " to " + compressedFile);
+            }
+
+            isComplete = true;
+        }
+
+        long uncompressedLength()
+        {
+            return (long)blockCount * BLOCK_LENGTH;
+        }
+
+        long compressedLength()
+        {
+            return blockOffsets[blockIndex];
+        }
+
+        public void close()
+        {
+            CloseHelper.quietClose(srcChannel);
+            CloseHelper.quietClose(dstChannel);
+            deflater.end();
+
+            if (!isComplete)
+            {
+                pendingFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Reads ranges of a compressed segment file, decompressing and caching a block at a time.
+     */
+    static final class Reader implements AutoCloseable
+    {
+        private final FileChannel channel;
+        private final int segmentLength;
+        private final int blockLength;
+        private final long[] blockOffsets;
+        private final byte[] compressedBlock;
+        private final UnsafeBuffer block;
+        private final Inflater inflater = new Inflater();
+        private int cachedBlockIndex = -1;
+
+        Reader(final File file) throws IOException
+        {
+            channel = FileChannel.open(file.toPath(), READ);
+            try
+            {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(LITTLE_ENDIAN);
+                readFully(channel, header, 0);
+
+                if (MAGIC != header.getInt(MAGIC_OFFSET) || VERSION != header.getInt(VERSION_OFFSET))
+                {
+                    throw new ArchiveException("invalid compressed segment file: " + file);
+                }
+
+                segmentLength = header.getInt(SEGMENT_LENGTH_OFFSET);
+                blockLength = header.getInt(BLOCK_LENGTH_OFFSET);
+                final int blockCount = header.getInt(BLOCK_COUNT_OFFSET);
+
+                final ByteBuffer index = ByteBuffer.allocate((blockCount + 1) * Long.BYTES).order(LITTLE_ENDIAN);
+                readFully(channel, index, HEADER_LENGTH);
+                blockOffsets = new long[blockCount + 1];
+                for (int i = 0; i <= blockCount; i++)
+                {
+                    blockOffsets[i] = index.getLong(i * Long.BYTES);
+                }
+            }
+            catch (final IOException | RuntimeException ex)
+            {
+                CloseHelper.quietClose(channel);
+                throw ex;
+            }
+
+            compressedBlock = new byte[blockLength];
+            block = new UnsafeBuffer(new byte[blockLength]);
+        }
+
+        int segmentLength()
+        {
+            return segmentLength;
+        }
+
+        /**
+         * Read a range of the uncompressed segment into a buffer.
+         *
+         * @param dstBuffer     into which the data should be copied.
+         * @param dstOffset     in the buffer at which the data should be copied.
+         * @param segmentOffset in the uncompressed segment from which to read.
+         * @param length        to be read.
+         * @throws IOException if an error occurs reading the file.
+         */
+        void read(final MutableDirectBuffer dstBuffer, final int dstOffset, final int segmentOffset, final int length)
+            throws IOException
+        {
+            int offset = segmentOffset;
+            int remaining = length;
+            int bufferOffset = dstOffset;
+
+            while (remaining > 0)
+            {
+                final int blockIndex = offset / blockLength;
+                final int blockOffset = offset - (blockIndex * blockLength);
+                final int bytesToCopy = Math.min(remaining, blockLength - blockOffset);
+
+                loadBlock(blockIndex);
+                dstBuffer.putBytes(bufferOffset, block, blockOffset, bytesToCopy);
+
+                offset += bytesToCopy;
+                bufferOffset += bytesToCopy;
+                remaining -= bytesToCopy;
+            }
+        }
+
+        public void close()
+        {
+            CloseHelper.quietClose(channel);
+            inflater.end();
+        }
+
+        private void loadBlock(final int blockIndex) throws IOException
+        {
+            if (blockIndex == cachedBlockIndex)
+            {
+                return;
+            }
+
+            cachedBlockIndex = -1;
+            final int storedLength = (int)(blockOffsets[blockIndex + 1] - blockOffsets[blockIndex]);
+            final byte[] blockArray = block.byteArray();
+
+            if (storedLength == blockLength)
+            {
+                readFully(channel, ByteBuffer.wrap(blockArray), blockOffsets[blockIndex]);
+            }
+            else
+            {
+                readFully(channel, ByteBuffer.wrap(compressedBlock, 0, storedLength), blockOffsets[blockIndex]);
+
+                try
+                {
+                    inflater.reset();
+                    inflater.setInput(compressedBlock, 0, storedLength);
+                    if (inflater.inflate(blockArray, 0, blockLength) != blockLength)
+                    {
+                        throw new ArchiveException("corrupt compressed segment block " + blockIndex);
+                    }
+                }
+                catch (final DataFormatException ex)
+                {
+                    final String msg = "corrupt compressed segment block " + blockIndex;
+                    throw new ArchiveException(msg, ex, ArchiveException.GENERIC);
+                }
+            }
+
+            cachedBlockIndex = blockIndex;
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException
+    {
+        long filePosition = position;
+        while (buffer.remaining() > 0)
+        {
+            final int bytesRead = channel.read(buffer, filePosition);
+            if (bytesRead < 0)
+            {
+                throw new EOFException(
+                    "unexpected end of file: position=" + filePosition + " remaining=" + buffer.remaining());
+            }
+
+            filePosition += bytesRead;
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException
+    {
+        long filePosition = position;
+        while (buffer.remaining() > 0)
+        {
+            filePosition += channel.write(buffer, filePosition);
+        }
+    }
+}
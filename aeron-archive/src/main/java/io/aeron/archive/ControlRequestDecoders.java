@@ -55,6 +55,9 @@ class ControlRequestDecoders
     final ChallengeResponseDecoder challengeResponse = new ChallengeResponseDecoder();
     final KeepAliveRequestDecoder keepAliveRequest = new KeepAliveRequestDecoder();
     final TaggedReplicateRequestDecoder taggedReplicateRequest = new TaggedReplicateRequestDecoder();
+    final CompressSegmentsRequestDecoder compressSegmentsRequest = new CompressSegmentsRequestDecoder();
+    final QueryRecordingsRequestDecoder queryRecordingsRequest = new QueryRecordingsRequestDecoder();
+    final MergedReplayRequestDecoder mergedReplayRequest = new MergedReplayRequestDecoder();
 
     final ExpandableArrayBuffer tempBuffer = new ExpandableArrayBuffer();
 }
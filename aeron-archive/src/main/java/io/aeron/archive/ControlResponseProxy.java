@@ -41,6 +41,8 @@ class ControlResponseProxy
     private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
     private final ControlResponseEncoder responseEncoder = new ControlResponseEncoder();
     private final RecordingDescriptorEncoder recordingDescriptorEncoder = new RecordingDescriptorEncoder();
+    private final RecordingDescriptorBatchEncoder recordingDescriptorBatchEncoder =
+        new RecordingDescriptorBatchEncoder();
     private final RecordingSubscriptionDescriptorEncoder recordingSubscriptionDescriptorEncoder =
         new RecordingSubscriptionDescriptorEncoder();
     private final RecordingSignalEventEncoder recordingSignalEventEncoder = new RecordingSignalEventEncoder();
@@ -84,6 +86,30 @@ class ControlResponseProxy
         return 0;
     }
 
+    boolean sendDescriptorBatch(
+        final long controlSessionId,
+        final long correlationId,
+        final long nextRecordingId,
+        final boolean isLastBatch,
+        final int descriptorCount,
+        final DirectBuffer descriptors,
+        final int descriptorsLength,
+        final ControlSession session)
+    {
+        recordingDescriptorBatchEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .nextRecordingId(nextRecordingId)
+            .lastBatch(isLastBatch ? BooleanType.TRUE : BooleanType.FALSE)
+            .descriptorsCount(descriptorCount);
+
+        final int descriptorsOffset = MESSAGE_HEADER_LENGTH + recordingDescriptorBatchEncoder.encodedLength();
+        buffer.putBytes(descriptorsOffset, descriptors, 0, descriptorsLength);
+
+        return send(session, buffer, descriptorsOffset + descriptorsLength);
+    }
+
     boolean sendSubscriptionDescriptor(
         final long controlSessionId,
         final long correlationId,
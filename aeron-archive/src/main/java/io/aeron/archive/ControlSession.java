@@ -23,6 +23,7 @@ import io.aeron.archive.codecs.RecordingSignal;
 import io.aeron.archive.codecs.SourceLocation;
 import io.aeron.security.Authenticator;
 import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.*;
 
 import java.util.ArrayDeque;
@@ -253,6 +254,34 @@ class ControlSession implements Session
         }
     }
 
+    void onQueryRecordings(
+        final long correlationId,
+        final long fromRecordingId,
+        final int recordCount,
+        final int streamId,
+        final byte[] channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly)
+    {
+        attemptToGoActive();
+        if (State.ACTIVE == state)
+        {
+            conductor.newQueryRecordingsSession(
+                correlationId,
+                fromRecordingId,
+                recordCount,
+                streamId,
+                channelFragment,
+                fromTimestamp,
+                toTimestamp,
+                minLength,
+                activeOnly,
+                this);
+        }
+    }
+
     void onListRecordings(final long correlationId, final long fromRecordingId, final int recordCount)
     {
         attemptToGoActive();
@@ -307,6 +336,16 @@ class ControlSession implements Session
         }
     }
 
+    void onStartMergedReplay(
+        final long correlationId, final long[] recordingIds, final int replayStreamId, final String replayChannel)
+    {
+        attemptToGoActive();
+        if (State.ACTIVE == state)
+        {
+            conductor.startMergedReplay(correlationId, recordingIds, replayStreamId, replayChannel, this);
+        }
+    }
+
     void onStartBoundedReplay(
         final long correlationId,
         final long recordingId,
@@ -499,6 +538,15 @@ class ControlSession implements Session
         }
     }
 
+    void onCompressSegments(final long correlationId, final long recordingId)
+    {
+        attemptToGoActive();
+        if (State.ACTIVE == state)
+        {
+            conductor.compressSegments(correlationId, recordingId, this);
+        }
+    }
+
     void onReplicateTagged(
         final long correlationId,
         final long srcRecordingId,
@@ -585,6 +633,26 @@ class ControlSession implements Session
         return proxy.sendDescriptor(controlSessionId, correlationId, descriptorBuffer, this);
     }
 
+    boolean sendDescriptorBatch(
+        final long correlationId,
+        final long nextRecordingId,
+        final boolean isLastBatch,
+        final int descriptorCount,
+        final DirectBuffer descriptors,
+        final int descriptorsLength,
+        final ControlResponseProxy proxy)
+    {
+        return proxy.sendDescriptorBatch(
+            controlSessionId,
+            correlationId,
+            nextRecordingId,
+            isLastBatch,
+            descriptorCount,
+            descriptors,
+            descriptorsLength,
+            this);
+    }
+
     boolean sendSubscriptionDescriptor(
         final long correlationId, final Subscription subscription, final ControlResponseProxy proxy)
     {
@@ -613,6 +681,11 @@ class ControlSession implements Session
         return controlPublication.maxPayloadLength();
     }
 
+    int maxMessageLength()
+    {
+        return controlPublication.maxMessageLength();
+    }
+
     void challenged()
     {
         state(State.CHALLENGED);
@@ -764,6 +764,90 @@ class ControlSessionDemuxer implements Session, FragmentHandler
                     decoder.liveDestination());
                 break;
             }
+
+            case CompressSegmentsRequestDecoder.TEMPLATE_ID:
+            {
+                final CompressSegmentsRequestDecoder decoder = decoders.compressSegmentsRequest;
+                decoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                final long correlationId = decoder.correlationId();
+                final long controlSessionId = decoder.controlSessionId();
+                final ControlSession controlSession = getControlSession(controlSessionId, correlationId);
+                controlSession.onCompressSegments(
+                    correlationId,
+                    decoder.recordingId());
+                break;
+            }
+
+            case QueryRecordingsRequestDecoder.TEMPLATE_ID:
+            {
+                final QueryRecordingsRequestDecoder decoder = decoders.queryRecordingsRequest;
+                decoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                final long correlationId = decoder.correlationId();
+                final long controlSessionId = decoder.controlSessionId();
+                final long fromRecordingId = decoder.fromRecordingId();
+                final long fromTimestamp = decoder.fromTimestamp();
+                final long toTimestamp = decoder.toTimestamp();
+                final long minLength = decoder.minLength();
+                final int recordCount = decoder.recordCount();
+                final int streamId = decoder.streamId();
+                final boolean activeOnly = BooleanType.TRUE == decoder.activeOnly();
+
+                final int channelLength = decoder.channelLength();
+                final byte[] bytes = 0 == channelLength ? ArrayUtil.EMPTY_BYTE_ARRAY : new byte[channelLength];
+                decoder.getChannel(bytes, 0, channelLength);
+
+                final ControlSession controlSession = getControlSession(controlSessionId, correlationId);
+                controlSession.onQueryRecordings(
+                    correlationId,
+                    fromRecordingId,
+                    recordCount,
+                    streamId,
+                    bytes,
+                    fromTimestamp,
+                    toTimestamp,
+                    minLength,
+                    activeOnly);
+                break;
+            }
+
+            case MergedReplayRequestDecoder.TEMPLATE_ID:
+            {
+                final MergedReplayRequestDecoder decoder = decoders.mergedReplayRequest;
+                decoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    headerDecoder.blockLength(),
+                    headerDecoder.version());
+
+                final long correlationId = decoder.correlationId();
+                final long controlSessionId = decoder.controlSessionId();
+                final int replayStreamId = decoder.replayStreamId();
+
+                final MergedReplayRequestDecoder.RecordingsDecoder recordings = decoder.recordings();
+                final long[] recordingIds = new long[recordings.count()];
+                for (int i = 0; i < recordingIds.length; i++)
+                {
+                    recordingIds[i] = recordings.next().recordingId();
+                }
+
+                final ControlSession controlSession = getControlSession(controlSessionId, correlationId);
+                controlSession.onStartMergedReplay(
+                    correlationId,
+                    recordingIds,
+                    replayStreamId,
+                    decoder.replayChannel());
+                break;
+            }
         }
     }
 
@@ -29,6 +29,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
     private final ManyToOneConcurrentLinkedQueue<Session> closeQueue;
     private AgentRunner replayerAgentRunner;
     private AgentRunner recorderAgentRunner;
+    private AgentRunner segmentFileAllocatorAgentRunner;
 
     DedicatedModeArchiveConductor(final Archive.Context ctx)
     {
@@ -45,6 +46,13 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
 
         AgentRunner.startOnThread(replayerAgentRunner, ctx.threadFactory());
         AgentRunner.startOnThread(recorderAgentRunner, ctx.threadFactory());
+
+        if (null != segmentFileAllocator)
+        {
+            segmentFileAllocatorAgentRunner = new AgentRunner(
+                ctx.idleStrategy(), errorHandler, ctx.errorCounter(), segmentFileAllocator);
+            AgentRunner.startOnThread(segmentFileAllocatorAgentRunner, ctx.threadFactory());
+        }
     }
 
     protected SessionWorker<RecordingSession> newRecorder()
@@ -52,7 +60,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
         return new DedicatedModeRecorder(errorHandler, ctx.errorCounter(), closeQueue, ctx.abortLatch());
     }
 
-    protected SessionWorker<ReplaySession> newReplayer()
+    protected SessionWorker<Session> newReplayer()
     {
         return new DedicatedModeReplayer(errorHandler, ctx.errorCounter(), closeQueue, ctx.abortLatch());
     }
@@ -82,6 +90,15 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
             errorHandler.onError(ex);
         }
 
+        try
+        {
+            CloseHelper.close(segmentFileAllocatorAgentRunner);
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+        }
+
         while (processCloseQueue() > 0 || !closeQueue.isEmpty())
         {
             Thread.yield();
@@ -102,13 +119,9 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
             {
                 closeRecordingSession((RecordingSession)session);
             }
-            else if (session instanceof ReplaySession)
-            {
-                closeReplaySession((ReplaySession)session);
-            }
             else
             {
-                closeSession(session);
+                closeReplayerSession(session);
             }
         }
 
@@ -211,9 +224,9 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
         }
     }
 
-    static class DedicatedModeReplayer extends SessionWorker<ReplaySession>
+    static class DedicatedModeReplayer extends SessionWorker<Session>
     {
-        private final ManyToOneConcurrentLinkedQueue<ReplaySession> sessionsQueue;
+        private final ManyToOneConcurrentLinkedQueue<Session> sessionsQueue;
         private final ManyToOneConcurrentLinkedQueue<Session> closeQueue;
         private final AtomicCounter errorCounter;
         private final CountDownLatch abortLatch;
@@ -238,7 +251,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
             isAbort = true;
         }
 
-        protected void addSession(final ReplaySession session)
+        protected void addSession(final Session session)
         {
             send(session);
         }
@@ -261,7 +274,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
         private int drainSessionQueue()
         {
             int workCount = 0;
-            ReplaySession session;
+            Session session;
 
             while (null != (session = sessionsQueue.poll()))
             {
@@ -272,7 +285,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
             return workCount;
         }
 
-        protected void closeSession(final ReplaySession session)
+        protected void closeSession(final Session session)
         {
             while (!closeQueue.offer(session))
             {
@@ -293,7 +306,7 @@ final class DedicatedModeArchiveConductor extends ArchiveConductor
             }
         }
 
-        private void send(final ReplaySession session)
+        private void send(final Session session)
         {
             while (!sessionsQueue.offer(session))
             {
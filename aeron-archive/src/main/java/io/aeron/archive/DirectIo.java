@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+
+import static org.agrona.BufferUtil.allocateDirectAligned;
+
+/**
+ * Support for opening recording segment files for direct I/O so reads and writes bypass the page cache.
+ * <p>
+ * Direct I/O requires the buffer address, file position, and length of each operation to be aligned to the block
+ * size of the file store, see {@link Archive.Context#directIoAlignment()}. The open option and the block size are
+ * only available from Java 10 on supported platforms so they are looked up reflectively.
+ */
+final class DirectIo
+{
+    /**
+     * Alignment for the buffer address, file position, and length of direct I/O operations when the block size of
+     * the file store cannot be determined.
+     */
+    static final int DEFAULT_ALIGNMENT = 4096;
+
+    private static final OpenOption DIRECT_OPEN_OPTION = lookupDirectOpenOption();
+    private static final Method GET_BLOCK_SIZE_METHOD = lookupGetBlockSizeMethod();
+
+    private DirectIo()
+    {
+    }
+
+    /**
+     * Is direct I/O supported by the running JVM.
+     *
+     * @return true if direct I/O supported by the running JVM.
+     */
+    static boolean isSupported()
+    {
+        return null != DIRECT_OPEN_OPTION;
+    }
+
+    /**
+     * The {@link OpenOption} for direct I/O.
+     *
+     * @return {@link OpenOption} for direct I/O or null if not supported.
+     */
+    static OpenOption openOption()
+    {
+        return DIRECT_OPEN_OPTION;
+    }
+
+    /**
+     * The block size of the file store for a directory which is the alignment required for direct I/O of its files.
+     *
+     * @param dir in the file store.
+     * @return the block size of the file store or {@link #DEFAULT_ALIGNMENT} if it cannot be determined.
+     */
+    static int blockSize(final File dir)
+    {
+        if (null != GET_BLOCK_SIZE_METHOD)
+        {
+            try
+            {
+                final FileStore fileStore = Files.getFileStore(dir.toPath());
+                return (int)(long)(Long)GET_BLOCK_SIZE_METHOD.invoke(fileStore);
+            }
+            catch (final Exception ignore)
+            {
+            }
+        }
+
+        return DEFAULT_ALIGNMENT;
+    }
+
+    /**
+     * Allocate a buffer which is suitable for direct I/O of up to a given length from any unaligned position.
+     *
+     * @param maxLength of data to be read or written in an operation.
+     * @param alignment required for direct I/O.
+     * @return a buffer which is suitable for direct I/O.
+     */
+    static UnsafeBuffer allocateBuffer(final int maxLength, final int alignment)
+    {
+        return new UnsafeBuffer(allocateDirectAligned(maxLength + (2 * alignment), alignment));
+    }
+
+    static int alignDown(final int value, final int alignment)
+    {
+        return value & ~(alignment - 1);
+    }
+
+    static int alignUp(final int value, final int alignment)
+    {
+        return (value + (alignment - 1)) & ~(alignment - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OpenOption lookupDirectOpenOption()
+    {
+        try
+        {
+            final Class<?> clazz = Class.forName("com.sun.nio.file.ExtendedOpenOption");
+            return (OpenOption)Enum.valueOf(clazz.asSubclass(Enum.class), "DIRECT");
+        }
+        catch (final Exception ignore)
+        {
+            return null;
+        }
+    }
+
+    private static Method lookupGetBlockSizeMethod()
+    {
+        try
+        {
+            return FileStore.class.getMethod("getBlockSize");
+        }
+        catch (final Exception ignore)
+        {
+            return null;
+        }
+    }
+}
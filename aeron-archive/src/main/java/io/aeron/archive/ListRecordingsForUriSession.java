@@ -56,14 +56,19 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
 
         while (sent < count && recordsScanned < MAX_SCANS_PER_WORK_CYCLE)
         {
-            if (!catalog.wrapDescriptor(recordingId, descriptorBuffer))
+            final long nextRecordingId = catalog.nextRecordingId(recordingId, streamId, channelFragment);
+            if (Catalog.NULL_RECORD_ID == nextRecordingId ||
+                !catalog.wrapDescriptor(nextRecordingId, descriptorBuffer))
             {
-                controlSession.sendRecordingUnknown(correlationId, recordingId, proxy);
+                final long unknownRecordingId = Math.max(recordingId, catalog.countEntries());
+                controlSession.sendRecordingUnknown(correlationId, unknownRecordingId, proxy);
 
                 isDone = true;
                 break;
             }
 
+            recordingId = nextRecordingId;
+
             decoder.wrap(
                 descriptorBuffer,
                 RecordingDescriptorHeaderDecoder.BLOCK_LENGTH,
@@ -71,7 +76,6 @@ class ListRecordingsForUriSession extends AbstractListRecordingsSession
                 RecordingDescriptorDecoder.SCHEMA_VERSION);
 
             if (Catalog.isValidDescriptor(descriptorBuffer) &&
-                decoder.streamId() == streamId &&
                 Catalog.originalChannelContains(decoder, channelFragment))
             {
                 final int bytesSent = controlSession.sendDescriptor(correlationId, descriptorBuffer, proxy);
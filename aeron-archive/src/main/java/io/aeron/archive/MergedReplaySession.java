@@ -0,0 +1,374 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.ExclusivePublication;
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.logbuffer.FrameDescriptor;
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.HeaderFlyweight;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.CachedEpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+import static io.aeron.protocol.DataHeaderFlyweight.RESERVED_VALUE_OFFSET;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * A replay session which merges the messages of multiple recordings into a single replay publication in the order of
+ * the timestamps held in the reserved value of their frames.
+ * <p>
+ * The recordings are read with a {@link RecordingReader} each and merged with a min-heap on the timestamp of the next
+ * message from each recording. Messages with equal timestamps are replayed in the order the recordings were requested
+ * and the fragments of a message are replayed together. Padding frames are not replayed as the replay publication
+ * has terms of its own.
+ */
+class MergedReplaySession implements Session, AutoCloseable
+{
+    enum State
+    {
+        INIT, REPLAY, INACTIVE, DONE
+    }
+
+    private static final int FRAGMENT_LIMIT = 64;
+    private static final int NULL_INDEX = -1;
+
+    private final long connectDeadlineMs;
+    private final long correlationId;
+    private final long sessionId;
+    private final long[] recordingIds;
+    private final long[] headTimestamps;
+    private final int[] heap;
+    private final RecordingReader[] readers;
+    private int heapSize;
+    private int activeIndex = NULL_INDEX;
+
+    private final BufferClaim bufferClaim = new BufferClaim();
+    private final ExclusivePublication publication;
+    private final ControlSession controlSession;
+    private final CachedEpochClock epochClock;
+    private State state = State.INIT;
+    private String errorMessage = null;
+    private volatile boolean isAborted;
+
+    MergedReplaySession(
+        final long replaySessionId,
+        final long connectTimeoutMs,
+        final long correlationId,
+        final long[] recordingIds,
+        final RecordingReader[] readers,
+        final ControlSession controlSession,
+        final ControlResponseProxy controlResponseProxy,
+        final CachedEpochClock epochClock,
+        final ExclusivePublication publication)
+    {
+        this.sessionId = replaySessionId;
+        this.correlationId = correlationId;
+        this.recordingIds = recordingIds;
+        this.readers = readers;
+        this.controlSession = controlSession;
+        this.epochClock = epochClock;
+        this.publication = publication;
+        this.headTimestamps = new long[readers.length];
+        this.heap = new int[readers.length];
+
+        for (int i = 0; i < readers.length; i++)
+        {
+            if (peekHead(i))
+            {
+                heap[heapSize] = i;
+                siftUp(heapSize++);
+            }
+        }
+
+        controlSession.sendOkResponse(correlationId, replaySessionId, controlResponseProxy);
+        connectDeadlineMs = epochClock.time() + connectTimeoutMs;
+    }
+
+    public void close()
+    {
+        closeReaders();
+        CloseHelper.close(publication);
+    }
+
+    public long sessionId()
+    {
+        return sessionId;
+    }
+
+    public int doWork()
+    {
+        int workCount = 0;
+
+        if (isAborted)
+        {
+            state(State.INACTIVE);
+        }
+
+        if (State.INIT == state)
+        {
+            workCount += init();
+        }
+
+        if (State.REPLAY == state)
+        {
+            workCount += replay();
+        }
+
+        if (State.INACTIVE == state)
+        {
+            closeReaders();
+            state(State.DONE);
+        }
+
+        return workCount;
+    }
+
+    public void abort()
+    {
+        isAborted = true;
+    }
+
+    public boolean isDone()
+    {
+        return state == State.DONE;
+    }
+
+    boolean containsRecording(final long recordingId)
+    {
+        for (final long id : recordingIds)
+        {
+            if (id == recordingId)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    State state()
+    {
+        return state;
+    }
+
+    void sendPendingError(final ControlResponseProxy controlResponseProxy)
+    {
+        if (null != errorMessage && !controlSession.isDone())
+        {
+            controlSession.attemptErrorResponse(correlationId, errorMessage, controlResponseProxy);
+        }
+    }
+
+    private int init()
+    {
+        if (!publication.isConnected())
+        {
+            if (epochClock.time() > connectDeadlineMs)
+            {
+                onError("no connection established for replay");
+            }
+
+            return 0;
+        }
+
+        state(State.REPLAY);
+
+        return 1;
+    }
+
+    private int replay()
+    {
+        int fragments = 0;
+
+        if (!publication.isConnected())
+        {
+            state(State.INACTIVE);
+            return fragments;
+        }
+
+        while (fragments < FRAGMENT_LIMIT)
+        {
+            if (NULL_INDEX == activeIndex)
+            {
+                if (0 == heapSize)
+                {
+                    state(State.INACTIVE);
+                    break;
+                }
+
+                activeIndex = heap[0];
+            }
+
+            final RecordingReader reader = readers[activeIndex];
+            final int frameOffset = reader.peekFrame();
+            if (frameOffset < 0 || HeaderFlyweight.HDR_TYPE_PAD == FrameDescriptor.frameType(
+                reader.termBuffer(), frameOffset))
+            {
+                nextMessage();
+                continue;
+            }
+
+            final UnsafeBuffer termBuffer = reader.termBuffer();
+            final byte flags = FrameDescriptor.frameFlags(termBuffer, frameOffset);
+            final int dataLength = FrameDescriptor.frameLength(termBuffer, frameOffset) -
+                DataHeaderFlyweight.HEADER_LENGTH;
+
+            final long result = publication.tryClaim(dataLength, bufferClaim);
+            if (result > 0)
+            {
+                bufferClaim
+                    .flags(flags)
+                    .reservedValue(termBuffer.getLong(frameOffset + RESERVED_VALUE_OFFSET, LITTLE_ENDIAN))
+                    .putBytes(termBuffer, frameOffset + DataHeaderFlyweight.HEADER_LENGTH, dataLength)
+                    .commit();
+
+                reader.consumeFrame();
+                fragments++;
+
+                if ((flags & END_FRAG_FLAG) == END_FRAG_FLAG)
+                {
+                    nextMessage();
+                }
+            }
+            else
+            {
+                if (Publication.CLOSED == result || Publication.NOT_CONNECTED == result)
+                {
+                    onError("stream closed before replay is complete");
+                }
+
+                break;
+            }
+        }
+
+        return fragments;
+    }
+
+    private void nextMessage()
+    {
+        activeIndex = NULL_INDEX;
+
+        if (peekHead(heap[0]))
+        {
+            siftDown(0);
+        }
+        else
+        {
+            heap[0] = heap[--heapSize];
+            siftDown(0);
+        }
+    }
+
+    private boolean peekHead(final int index)
+    {
+        final RecordingReader reader = readers[index];
+        if (null == reader)
+        {
+            return false;
+        }
+
+        int frameOffset;
+        while ((frameOffset = reader.peekFrame()) >= 0)
+        {
+            final UnsafeBuffer termBuffer = reader.termBuffer();
+            if (HeaderFlyweight.HDR_TYPE_PAD != FrameDescriptor.frameType(termBuffer, frameOffset))
+            {
+                headTimestamps[index] = termBuffer.getLong(frameOffset + RESERVED_VALUE_OFFSET, LITTLE_ENDIAN);
+                return true;
+            }
+
+            reader.consumeFrame();
+        }
+
+        return false;
+    }
+
+    private boolean isBefore(final int indexA, final int indexB)
+    {
+        final long timestampA = headTimestamps[indexA];
+        final long timestampB = headTimestamps[indexB];
+
+        return timestampA < timestampB || (timestampA == timestampB && indexA < indexB);
+    }
+
+    private void siftUp(final int heapIndex)
+    {
+        int child = heapIndex;
+        while (child > 0)
+        {
+            final int parent = (child - 1) >> 1;
+            if (!isBefore(heap[child], heap[parent]))
+            {
+                break;
+            }
+
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(final int heapIndex)
+    {
+        int parent = heapIndex;
+        while (true)
+        {
+            final int left = (parent << 1) + 1;
+            if (left >= heapSize)
+            {
+                break;
+            }
+
+            final int right = left + 1;
+            final int child = right < heapSize && isBefore(heap[right], heap[left]) ? right : left;
+            if (!isBefore(heap[child], heap[parent]))
+            {
+                break;
+            }
+
+            swap(child, parent);
+            parent = child;
+        }
+    }
+
+    private void swap(final int i, final int j)
+    {
+        final int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private void closeReaders()
+    {
+        for (final RecordingReader reader : readers)
+        {
+            CloseHelper.close(reader);
+        }
+    }
+
+    private void onError(final String errorMessage)
+    {
+        state(State.INACTIVE);
+        this.errorMessage = errorMessage;
+    }
+
+    private void state(final State newState)
+    {
+        state = newState;
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.LangUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import static io.aeron.archive.Catalog.*;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.*;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+
+/**
+ * Verifies the recordings of a {@link Catalog} with a fork-join pool so recordings, and the segment files within a
+ * recording, are verified in parallel. The outcome for each recording is applied to the catalog, and checkpointed, as
+ * soon as it is known so an interrupted verify can be resumed by skipping the recordings in the checkpoint file.
+ */
+final class ParallelVerifier
+{
+    /**
+     * Name of the file in the archive directory which lists the recordings verified by an incomplete verify.
+     */
+    static final String CHECKPOINT_FILE_NAME = "archive-verify.checkpoint";
+
+    private final PrintStream out;
+    private final File archiveDir;
+    private final Catalog catalog;
+    private final boolean validateAllSegmentFiles;
+    private final int parallelism;
+    private final EpochClock epochClock;
+    private final ArchiveTool.ActionConfirmation<File> truncateFileOnPageStraddle;
+    private final File checkpointFile;
+    private FileChannel checkpointChannel;
+
+    ParallelVerifier(
+        final PrintStream out,
+        final File archiveDir,
+        final Catalog catalog,
+        final boolean validateAllSegmentFiles,
+        final int parallelism,
+        final EpochClock epochClock,
+        final ArchiveTool.ActionConfirmation<File> truncateFileOnPageStraddle)
+    {
+        this.out = out;
+        this.archiveDir = archiveDir;
+        this.catalog = catalog;
+        this.validateAllSegmentFiles = validateAllSegmentFiles;
+        this.parallelism = parallelism;
+        this.epochClock = epochClock;
+        this.truncateFileOnPageStraddle = truncateFileOnPageStraddle;
+        this.checkpointFile = new File(archiveDir, CHECKPOINT_FILE_NAME);
+    }
+
+    void verify()
+    {
+        final LongHashSet verifiedRecordingIds = readCheckpoint();
+        final ArrayList<RecordingTask> tasks = new ArrayList<>();
+
+        catalog.forEach((headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
+        {
+            if (!verifiedRecordingIds.contains(descriptorDecoder.recordingId()))
+            {
+                tasks.add(new RecordingTask(descriptorDecoder));
+            }
+        });
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            checkpointChannel = FileChannel.open(checkpointFile.toPath(), CREATE, WRITE, APPEND);
+            if (checkpointChannel.size() > 0)
+            {
+                appendCheckpoint("\n");
+            }
+
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            checkpointChannel.close();
+            checkpointChannel = null;
+
+            Files.delete(checkpointFile.toPath());
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+        finally
+        {
+            pool.shutdown();
+            if (null != checkpointChannel)
+            {
+                try
+                {
+                    checkpointChannel.close();
+                }
+                catch (final IOException ignore)
+                {
+                }
+            }
+        }
+    }
+
+    private LongHashSet readCheckpoint()
+    {
+        final LongHashSet recordingIds = new LongHashSet();
+        if (checkpointFile.exists())
+        {
+            try
+            {
+                for (final String line : Files.readAllLines(checkpointFile.toPath(), US_ASCII))
+                {
+                    try
+                    {
+                        recordingIds.add(Long.parseLong(line.trim()));
+                    }
+                    catch (final NumberFormatException ignore)
+                    {
+                        // partially written last line of an interrupted verify
+                    }
+                }
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            out.println("Resuming verify, skipping " + recordingIds.size() + " verified recording(s)");
+        }
+
+        return recordingIds;
+    }
+
+    private synchronized void onRecordingVerified(final RecordingTask task)
+    {
+        out.print(task.output);
+
+        catalog.forEntry(task.recordingId, (headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
+        {
+            if (task.isValid)
+            {
+                if (task.computedStopPosition != descriptorDecoder.stopPosition())
+                {
+                    descriptorEncoder.stopPosition(task.computedStopPosition);
+                    descriptorEncoder.stopTimestamp(epochClock.time());
+                }
+
+                headerEncoder.valid(VALID);
+            }
+            else
+            {
+                headerEncoder.valid(INVALID);
+            }
+        });
+
+        if (task.isValid)
+        {
+            out.println("(recordingId=" + task.recordingId + ") OK");
+        }
+
+        try
+        {
+            appendCheckpoint(task.recordingId + "\n");
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void appendCheckpoint(final String text) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(US_ASCII));
+        while (buffer.remaining() > 0)
+        {
+            checkpointChannel.write(buffer);
+        }
+    }
+
+    private boolean confirmTruncate(final File file)
+    {
+        synchronized (truncateFileOnPageStraddle)
+        {
+            return truncateFileOnPageStraddle.confirm(file);
+        }
+    }
+
+    final class RecordingTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = -5371016380237465834L;
+
+        final long recordingId;
+        final long startPosition;
+        final long stopPosition;
+        final int segmentLength;
+        final int termLength;
+        final int streamId;
+        final int initialTermId;
+        long computedStopPosition = NULL_POSITION;
+        boolean isValid;
+        String output;
+
+        RecordingTask(final RecordingDescriptorDecoder decoder)
+        {
+            recordingId = decoder.recordingId();
+            startPosition = decoder.startPosition();
+            stopPosition = decoder.stopPosition();
+            segmentLength = decoder.segmentFileLength();
+            termLength = decoder.termBufferLength();
+            streamId = decoder.streamId();
+            initialTermId = decoder.initialTermId();
+        }
+
+        protected void compute()
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final PrintStream taskOut = new PrintStream(bytes);
+
+            isValid = verifyRecording(taskOut);
+            taskOut.flush();
+            output = bytes.toString();
+
+            onRecordingVerified(this);
+        }
+
+        private boolean verifyRecording(final PrintStream taskOut)
+        {
+            final String[] segmentFiles = listSegmentFiles(archiveDir, recordingId);
+            computedStopPosition = ArchiveTool.verifyStopPosition(
+                taskOut,
+                archiveDir,
+                recordingId,
+                startPosition,
+                stopPosition,
+                segmentLength,
+                termLength,
+                segmentFiles,
+                ParallelVerifier.this::confirmTruncate);
+
+            if (ArchiveTool.INVALID_STOP_POSITION == computedStopPosition)
+            {
+                return false;
+            }
+
+            final String[] fileNames = ArchiveTool.segmentFilesToVerify(segmentFiles, validateAllSegmentFiles);
+            final SegmentTask[] segmentTasks = new SegmentTask[fileNames.length];
+            for (int i = 0; i < fileNames.length; i++)
+            {
+                segmentTasks[i] = new SegmentTask(this, fileNames[i]);
+            }
+
+            invokeAll(segmentTasks);
+
+            boolean isAllValid = true;
+            for (final SegmentTask segmentTask : segmentTasks)
+            {
+                if (segmentTask.isInvalid)
+                {
+                    taskOut.print(segmentTask.output);
+                    isAllValid = false;
+                }
+            }
+
+            return isAllValid;
+        }
+    }
+
+    final class SegmentTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 2794366563473453227L;
+
+        final RecordingTask recording;
+        final String fileName;
+        boolean isInvalid;
+        String output;
+
+        SegmentTask(final RecordingTask recording, final String fileName)
+        {
+            this.recording = recording;
+            this.fileName = fileName;
+        }
+
+        protected void compute()
+        {
+            final ByteBuffer buffer = allocateDirectAligned(HEADER_LENGTH, FRAME_ALIGNMENT);
+            buffer.order(RecordingDescriptorDecoder.BYTE_ORDER);
+            final UnsafeBuffer tempBuffer = new UnsafeBuffer(buffer);
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final PrintStream taskOut = new PrintStream(bytes);
+
+            isInvalid = ArchiveTool.isInvalidSegmentFile(
+                taskOut,
+                archiveDir,
+                recording.recordingId,
+                fileName,
+                recording.startPosition,
+                recording.termLength,
+                recording.segmentLength,
+                recording.streamId,
+                recording.initialTermId,
+                tempBuffer,
+                new DataHeaderFlyweight(tempBuffer));
+
+            taskOut.flush();
+            output = bytes.toString();
+        }
+    }
+}
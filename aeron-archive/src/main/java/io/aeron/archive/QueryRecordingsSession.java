@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Aeron;
+import io.aeron.archive.codecs.*;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.archive.client.AeronArchive.NULL_TIMESTAMP;
+import static io.aeron.archive.codecs.RecordingDescriptorEncoder.recordingIdEncodingOffset;
+
+/**
+ * Evaluates a filter against the catalog and sends a page of matching descriptors in
+ * {@link RecordingDescriptorBatchEncoder} messages. The last batch of a page carries the recording id from which the
+ * next page can be queried, or {@link Catalog#NULL_RECORD_ID} when the end of the catalog has been reached.
+ */
+class QueryRecordingsSession extends AbstractListRecordingsSession
+{
+    private static final int DESCRIPTOR_CONTENT_OFFSET =
+        RecordingDescriptorHeaderDecoder.BLOCK_LENGTH + recordingIdEncodingOffset();
+    private static final int BATCH_HEADER_LENGTH =
+        MessageHeaderEncoder.ENCODED_LENGTH +
+        RecordingDescriptorBatchEncoder.BLOCK_LENGTH +
+        RecordingDescriptorBatchEncoder.DescriptorsEncoder.sbeHeaderSize();
+
+    private long recordingId;
+    private long nextRecordingId = Catalog.NULL_RECORD_ID;
+    private int sent = 0;
+    private int batchCount = 0;
+    private int batchLength = 0;
+    private boolean isBatchPending = false;
+    private boolean isLastBatch = false;
+    private final int count;
+    private final int streamId;
+    private final int maxBatchLength;
+    private final byte[] channelFragment;
+    private final long fromTimestamp;
+    private final long toTimestamp;
+    private final long minLength;
+    private final boolean activeOnly;
+    private final ArchiveConductor conductor;
+    private final RecordingDescriptorDecoder decoder;
+    private final ExpandableArrayBuffer batchBuffer = new ExpandableArrayBuffer(1024);
+
+    QueryRecordingsSession(
+        final long correlationId,
+        final long fromRecordingId,
+        final int count,
+        final int streamId,
+        final byte[] channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly,
+        final ArchiveConductor conductor,
+        final Catalog catalog,
+        final ControlResponseProxy proxy,
+        final ControlSession controlSession,
+        final UnsafeBuffer descriptorBuffer,
+        final RecordingDescriptorDecoder recordingDescriptorDecoder)
+    {
+        super(correlationId, catalog, proxy, controlSession, descriptorBuffer);
+
+        this.recordingId = Math.max(0, fromRecordingId);
+        this.count = count;
+        this.streamId = streamId;
+        this.channelFragment = channelFragment;
+        this.fromTimestamp = fromTimestamp;
+        this.toTimestamp = toTimestamp;
+        this.minLength = minLength;
+        this.activeOnly = activeOnly;
+        this.conductor = conductor;
+        this.decoder = recordingDescriptorDecoder;
+        this.maxBatchLength = controlSession.maxMessageLength() - BATCH_HEADER_LENGTH;
+    }
+
+    protected int sendDescriptors()
+    {
+        int totalBytesSent = 0;
+        int recordsScanned = 0;
+
+        while (!isBatchPending && recordsScanned < MAX_SCANS_PER_WORK_CYCLE)
+        {
+            if (sent >= count)
+            {
+                completePage(recordingId);
+                break;
+            }
+
+            final long nextId = Aeron.NULL_VALUE == streamId ?
+                recordingId : catalog.nextRecordingId(recordingId, streamId, channelFragment);
+            if (Catalog.NULL_RECORD_ID == nextId || !catalog.wrapDescriptor(nextId, descriptorBuffer))
+            {
+                completePage(Catalog.NULL_RECORD_ID);
+                break;
+            }
+
+            recordingId = nextId;
+
+            decoder.wrap(
+                descriptorBuffer,
+                RecordingDescriptorHeaderDecoder.BLOCK_LENGTH,
+                RecordingDescriptorDecoder.BLOCK_LENGTH,
+                RecordingDescriptorDecoder.SCHEMA_VERSION);
+
+            if (Catalog.isValidDescriptor(descriptorBuffer) && isMatch())
+            {
+                final int entryLength = Catalog.descriptorLength(descriptorBuffer) - recordingIdEncodingOffset();
+                if (batchCount > 0 && batchLength + entryLength > maxBatchLength)
+                {
+                    isBatchPending = true;
+                    break;
+                }
+
+                batchBuffer.putBytes(batchLength, descriptorBuffer, DESCRIPTOR_CONTENT_OFFSET, entryLength);
+                batchLength += entryLength;
+                ++batchCount;
+                ++sent;
+            }
+
+            recordingId++;
+            recordsScanned++;
+        }
+
+        if (isBatchPending)
+        {
+            totalBytesSent += sendBatch();
+        }
+
+        return totalBytesSent + recordsScanned;
+    }
+
+    private boolean isMatch()
+    {
+        final long activePosition = conductor.activeRecordingPosition(recordingId);
+        final boolean isActive = NULL_POSITION != activePosition;
+        if (activeOnly && !isActive)
+        {
+            return false;
+        }
+
+        if (NULL_TIMESTAMP != toTimestamp && decoder.startTimestamp() > toTimestamp)
+        {
+            return false;
+        }
+
+        if (NULL_TIMESTAMP != fromTimestamp && !isActive)
+        {
+            final long stopTimestamp = decoder.stopTimestamp();
+            if (NULL_TIMESTAMP != stopTimestamp && stopTimestamp < fromTimestamp)
+            {
+                return false;
+            }
+        }
+
+        if (minLength > 0)
+        {
+            final long stopPosition = isActive ? activePosition : decoder.stopPosition();
+            if (NULL_POSITION == stopPosition || stopPosition - decoder.startPosition() < minLength)
+            {
+                return false;
+            }
+        }
+
+        return Catalog.originalChannelContains(decoder, channelFragment);
+    }
+
+    private void completePage(final long nextRecordingId)
+    {
+        this.nextRecordingId = nextRecordingId;
+        isLastBatch = true;
+        isBatchPending = true;
+    }
+
+    private int sendBatch()
+    {
+        final long cursor = isLastBatch ? nextRecordingId : recordingId;
+        if (!controlSession.sendDescriptorBatch(
+            correlationId, cursor, isLastBatch, batchCount, batchBuffer, batchLength, proxy))
+        {
+            isDone = controlSession.isDone();
+            return 0;
+        }
+
+        final int bytesSent = BATCH_HEADER_LENGTH + batchLength;
+        batchCount = 0;
+        batchLength = 0;
+        isBatchPending = false;
+        if (isLastBatch)
+        {
+            isDone = true;
+        }
+
+        return bytesSent;
+    }
+}
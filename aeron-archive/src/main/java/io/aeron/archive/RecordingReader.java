@@ -19,6 +19,7 @@ import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
 import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -39,6 +40,10 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.READ;
 
+/**
+ * Reads the fragments of a recording directly from its segment files by mapping them. Segments which have been
+ * compressed, see {@link CompressedSegment}, are decompressed a term at a time.
+ */
 class RecordingReader implements AutoCloseable
 {
     private static final EnumSet<StandardOpenOption> FILE_OPTIONS = EnumSet.of(READ);
@@ -49,8 +54,10 @@ class RecordingReader implements AutoCloseable
     private final int segmentLength;
     private final int termLength;
 
-    private final UnsafeBuffer termBuffer;
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer();
     private MappedByteBuffer mappedSegmentBuffer;
+    private CompressedSegment.Reader compressedSegment;
+    private UnsafeBuffer decompressedTermBuffer;
 
     private long replayPosition;
     private long replayLimit;
@@ -98,7 +105,7 @@ class RecordingReader implements AutoCloseable
 
         termOffset = (int)(fromPosition & (termLength - 1));
         termBaseSegmentOffset = segmentOffset - termOffset;
-        termBuffer = new UnsafeBuffer(mappedSegmentBuffer, termBaseSegmentOffset, termLength);
+        wrapTerm();
 
         if (fromPosition > startPosition &&
             (DataHeaderFlyweight.termOffset(termBuffer, termOffset) != termOffset ||
@@ -133,6 +140,66 @@ class RecordingReader implements AutoCloseable
         return isDone;
     }
 
+    /**
+     * Buffer for the term containing the frame returned from {@link #peekFrame()}.
+     *
+     * @return buffer for the term containing the frame returned from {@link #peekFrame()}.
+     */
+    UnsafeBuffer termBuffer()
+    {
+        return termBuffer;
+    }
+
+    /**
+     * Position on the next frame of the recording without consuming it so it can be read from {@link #termBuffer()}.
+     *
+     * @return offset of the frame in the {@link #termBuffer()} or -1 if the end of the recording has been reached.
+     */
+    int peekFrame()
+    {
+        if (isDone)
+        {
+            return -1;
+        }
+
+        if (replayPosition >= replayLimit)
+        {
+            isDone = true;
+            closeRecordingSegment();
+            return -1;
+        }
+
+        if (termOffset == termLength)
+        {
+            nextTerm();
+        }
+
+        if (FrameDescriptor.frameLength(termBuffer, termOffset) <= 0)
+        {
+            isDone = true;
+            closeRecordingSegment();
+            return -1;
+        }
+
+        return termOffset;
+    }
+
+    /**
+     * Consume the frame returned from {@link #peekFrame()}.
+     */
+    void consumeFrame()
+    {
+        final int alignedLength = BitUtil.align(FrameDescriptor.frameLength(termBuffer, termOffset), FRAME_ALIGNMENT);
+        replayPosition += alignedLength;
+        termOffset += alignedLength;
+
+        if (replayPosition >= replayLimit)
+        {
+            isDone = true;
+            closeRecordingSegment();
+        }
+    }
+
     int poll(final SimpleFragmentHandler fragmentHandler, final int fragmentLimit)
     {
         int fragments = 0;
@@ -192,25 +259,66 @@ class RecordingReader implements AutoCloseable
             termBaseSegmentOffset = 0;
         }
 
-        termBuffer.wrap(mappedSegmentBuffer, termBaseSegmentOffset, termLength);
+        wrapTerm();
+    }
+
+    private void wrapTerm()
+    {
+        if (null == compressedSegment)
+        {
+            termBuffer.wrap(mappedSegmentBuffer, termBaseSegmentOffset, termLength);
+        }
+        else
+        {
+            try
+            {
+                compressedSegment.read(decompressedTermBuffer, 0, termBaseSegmentOffset, termLength);
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            termBuffer.wrap(decompressedTermBuffer, 0, termLength);
+        }
     }
 
     private void closeRecordingSegment()
     {
         IoUtil.unmap(mappedSegmentBuffer);
         mappedSegmentBuffer = null;
+        CloseHelper.close(compressedSegment);
+        compressedSegment = null;
     }
 
     private void openRecordingSegment()
     {
-        final String segmentFileName = segmentFileName(recordingId, segmentFilePosition);
-        final File segmentFile = new File(archiveDir, segmentFileName);
-
-        if (!segmentFile.exists())
+        final File segmentFile = CompressedSegment.findSegmentFile(archiveDir, recordingId, segmentFilePosition);
+        if (null == segmentFile)
         {
+            final String segmentFileName = segmentFileName(recordingId, segmentFilePosition);
             throw new IllegalArgumentException("failed to open recording segment file " + segmentFileName);
         }
 
+        if (CompressedSegment.isCompressed(segmentFile))
+        {
+            if (null == decompressedTermBuffer)
+            {
+                decompressedTermBuffer = new UnsafeBuffer(new byte[termLength]);
+            }
+
+            try
+            {
+                compressedSegment = new CompressedSegment.Reader(segmentFile);
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            return;
+        }
+
         try (FileChannel channel = FileChannel.open(segmentFile.toPath(), FILE_OPTIONS, NO_ATTRIBUTES))
         {
             mappedSegmentBuffer = channel.map(READ_ONLY, 0, segmentLength);
@@ -17,8 +17,10 @@ package io.aeron.archive;
 
 import io.aeron.Counter;
 import io.aeron.Image;
+import io.aeron.archive.client.ArchiveException;
 import org.agrona.CloseHelper;
 import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.IOException;
 import java.nio.channels.FileChannel;
@@ -41,7 +43,10 @@ class RecordingSession implements Session
     private final RecordingEventsProxy recordingEventsProxy;
     private final Image image;
     private final Counter position;
+    private final Counter durablePosition;
+    private final RecordingSyncGroup syncGroup;
     private final RecordingWriter recordingWriter;
+    private final SessionCounters sessionCounters;
     private State state = State.INIT;
     private final String originalChannel;
     private final ControlSession controlSession;
@@ -55,9 +60,14 @@ class RecordingSession implements Session
         final RecordingEventsProxy recordingEventsProxy,
         final Image image,
         final Counter position,
+        final Counter durablePosition,
         final FileChannel archiveDirChannel,
+        final RecordingSyncGroup syncGroup,
+        final SegmentFileAllocator segmentFileAllocator,
+        final UnsafeBuffer directIoBuffer,
         final Archive.Context ctx,
-        final ControlSession controlSession)
+        final ControlSession controlSession,
+        final SessionCounters sessionCounters)
     {
         this.correlationId = correlationId;
         this.recordingId = recordingId;
@@ -65,10 +75,23 @@ class RecordingSession implements Session
         this.recordingEventsProxy = recordingEventsProxy;
         this.image = image;
         this.position = position;
+        this.durablePosition = durablePosition;
+        this.syncGroup = syncGroup;
         this.controlSession = controlSession;
+        this.sessionCounters = sessionCounters;
 
         blockLengthLimit = Math.min(image.termBufferLength(), Archive.Configuration.MAX_BLOCK_LENGTH);
-        recordingWriter = new RecordingWriter(recordingId, startPosition, segmentLength, image, ctx, archiveDirChannel);
+        recordingWriter = new RecordingWriter(
+            recordingId,
+            startPosition,
+            segmentLength,
+            image,
+            ctx,
+            archiveDirChannel,
+            syncGroup,
+            durablePosition,
+            segmentFileAllocator,
+            directIoBuffer);
     }
 
     public long correlationId()
@@ -95,6 +118,8 @@ class RecordingSession implements Session
     {
         recordingWriter.close();
         CloseHelper.close(position);
+        CloseHelper.close(durablePosition);
+        CloseHelper.close(sessionCounters);
     }
 
     public void abortClose()
@@ -183,7 +208,28 @@ class RecordingSession implements Session
         int workCount = 0;
         try
         {
+            final Exception syncError = recordingWriter.takeSyncError();
+            if (null != syncError)
+            {
+                throw new ArchiveException(
+                    "failed to force recording to disk: recordingId=" + recordingId,
+                    syncError,
+                    ArchiveException.GENERIC);
+            }
+
+            final long startNs = null != sessionCounters ? sessionCounters.nanoTime() : 0;
             workCount = image.blockPoll(recordingWriter, blockLengthLimit);
+            if (null != sessionCounters)
+            {
+                final long nowNs = sessionCounters.nanoTime();
+                if (workCount > 0)
+                {
+                    sessionCounters.onBytes(workCount);
+                    sessionCounters.onIoTime(nowNs - startNs);
+                }
+                sessionCounters.sample(nowNs, image.position());
+            }
+
             if (recordingWriter.isClosed())
             {
                 state = State.INACTIVE;
@@ -205,6 +251,11 @@ class RecordingSession implements Session
             LangUtil.rethrowUnchecked(ex);
         }
 
+        if (null != syncGroup)
+        {
+            workCount += syncGroup.poll();
+        }
+
         return workCount;
     }
 }
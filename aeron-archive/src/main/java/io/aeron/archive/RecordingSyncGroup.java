@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.concurrent.NanoClock;
+
+import java.util.ArrayList;
+
+/**
+ * Group commit for recordings written to the archive directory when {@link Archive.Context#fileSyncLevel()} is
+ * greater than zero. Rather than forcing each block to disk as it is written, the {@link RecordingWriter}s with
+ * pending writes are forced together once the oldest pending write reaches the commit interval or the pending
+ * writes across all recordings reach the commit length.
+ * <p>
+ * A commit is triggered by whichever recording happens to write or poll at the time, so a failure to force a file is
+ * not thrown from the commit. It is handed to the {@link RecordingWriter} which failed, so the recording session which
+ * owns it can report the error and become inactive without affecting the other recordings in the group.
+ * <p>
+ * <b>Note:</b> This class is not threadsafe and must only be used from the recorder thread.
+ */
+class RecordingSyncGroup
+{
+    private final long commitIntervalNs;
+    private final long commitLength;
+    private final NanoClock nanoClock;
+    private final ArrayList<RecordingWriter> pendingWriters = new ArrayList<>();
+    private long pendingLength = 0;
+    private long commitDeadlineNs = 0;
+
+    RecordingSyncGroup(final long commitIntervalNs, final long commitLength, final NanoClock nanoClock)
+    {
+        this.commitIntervalNs = commitIntervalNs;
+        this.commitLength = commitLength;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Is group commit required for the configuration in the context.
+     *
+     * @param ctx for the archive.
+     * @return true if group commit is required for the configuration in the context.
+     */
+    static boolean isRequired(final Archive.Context ctx)
+    {
+        return ctx.fileSyncLevel() > 0 &&
+            (ctx.fileSyncGroupCommitIntervalNs() > 0 || ctx.fileSyncGroupCommitLength() > 0);
+    }
+
+    /**
+     * Notification that a writer has written to its recording file and the write is pending being forced to disk.
+     *
+     * @param writer which has written to its recording file.
+     * @param length of the write.
+     * @param isNewPending true if the writer had no writes pending before this one.
+     */
+    void onWrite(final RecordingWriter writer, final int length, final boolean isNewPending)
+    {
+        if (isNewPending)
+        {
+            if (pendingWriters.isEmpty())
+            {
+                commitDeadlineNs = nanoClock.nanoTime() + commitIntervalNs;
+            }
+
+            pendingWriters.add(writer);
+        }
+
+        pendingLength += length;
+        if (commitLength > 0 && pendingLength >= commitLength)
+        {
+            commit();
+        }
+    }
+
+    /**
+     * Commit pending writes if the commit interval has expired.
+     *
+     * @return the number of recording files forced to disk.
+     */
+    int poll()
+    {
+        if (commitIntervalNs > 0 && !pendingWriters.isEmpty() && nanoClock.nanoTime() - commitDeadlineNs >= 0)
+        {
+            return commit();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Force all pending writes to disk. A writer which fails to force its file is notified via
+     * {@link RecordingWriter#onSyncFailed(Exception)} and the remaining writers are still forced.
+     *
+     * @return the number of recording files forced to disk.
+     */
+    int commit()
+    {
+        int commitCount = 0;
+
+        final ArrayList<RecordingWriter> pendingWriters = this.pendingWriters;
+        for (int i = 0, size = pendingWriters.size(); i < size; i++)
+        {
+            final RecordingWriter writer = pendingWriters.get(i);
+            try
+            {
+                if (writer.sync())
+                {
+                    ++commitCount;
+                }
+            }
+            catch (final Exception ex)
+            {
+                writer.onSyncFailed(ex);
+            }
+        }
+
+        pendingWriters.clear();
+        pendingLength = 0;
+
+        return commitCount;
+    }
+}
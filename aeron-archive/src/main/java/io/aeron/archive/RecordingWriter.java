@@ -15,6 +15,7 @@
  */
 package io.aeron.archive;
 
+import io.aeron.Counter;
 import io.aeron.Image;
 import io.aeron.archive.client.ArchiveException;
 import io.aeron.logbuffer.BlockHandler;
@@ -22,6 +23,7 @@ import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.File;
 import java.io.IOException;
@@ -29,6 +31,8 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
 import static io.aeron.archive.client.AeronArchive.segmentFileBasePosition;
 import static io.aeron.logbuffer.FrameDescriptor.PADDING_FRAME_TYPE;
@@ -44,6 +48,21 @@ import static io.aeron.logbuffer.FrameDescriptor.typeOffset;
  * <li>Easier testing and in particular simplified re-use in testing.</li>
  * <li>Isolation of an external relationship, namely the file system.</li>
  * </ul>
+ * <p>
+ * When file sync is enabled the durable position, i.e. the position up to which the recording has been forced to
+ * disk, is published separately from the recorded position. With a {@link RecordingSyncGroup} the force is deferred
+ * so it can be committed together with other recordings.
+ * <p>
+ * With a {@link SegmentFileAllocator} the next segment file is allocated in the background once the current segment
+ * is half written, so a short recording does not allocate a segment it never uses, and roll over only needs to rename
+ * it into place. The archive directory is then forced on the allocator thread.
+ * <p>
+ * With direct I/O each block is staged in a page aligned buffer, shared by the writers of the recorder thread, after
+ * the partially written last page of the segment so whole pages can be written at page aligned file positions.
+ * <p>
+ * With segment checksums enabled a checksum of the segment contents is accumulated as blocks are written and stored
+ * in a file alongside the segment once it is complete. The file is written by the {@link SegmentFileAllocator} so
+ * roll over does not wait on it.
  */
 class RecordingWriter implements BlockHandler
 {
@@ -53,12 +72,23 @@ class RecordingWriter implements BlockHandler
     private final boolean forceMetadata;
     private final FileChannel archiveDirChannel;
     private final File archiveDir;
+    private final RecordingSyncGroup syncGroup;
+    private final Counter durablePosition;
+    private final SegmentFileAllocator segmentFileAllocator;
+    private final boolean preAllocateSegments;
+    private SegmentFileAllocator.PendingSegment nextSegment;
+    private final UnsafeBuffer directIoBuffer;
+    private final UnsafeBuffer tailPageBuffer;
+    private final int directIoAlignment;
+    private final SegmentChecksum checksum;
 
     private long segmentBasePosition;
     private int segmentOffset;
     private FileChannel recordingFileChannel;
 
+    private boolean isSyncPending = false;
     private boolean isClosed = false;
+    private Exception syncError;
 
     RecordingWriter(
         final long recordingId,
@@ -67,14 +97,37 @@ class RecordingWriter implements BlockHandler
         final Image image,
         final Archive.Context ctx,
         final FileChannel archiveDirChannel)
+    {
+        this(recordingId, startPosition, segmentLength, image, ctx, archiveDirChannel, null, null, null, null);
+    }
+
+    RecordingWriter(
+        final long recordingId,
+        final long startPosition,
+        final int segmentLength,
+        final Image image,
+        final Archive.Context ctx,
+        final FileChannel archiveDirChannel,
+        final RecordingSyncGroup syncGroup,
+        final Counter durablePosition,
+        final SegmentFileAllocator segmentFileAllocator,
+        final UnsafeBuffer directIoBuffer)
     {
         this.recordingId = recordingId;
         this.archiveDirChannel = archiveDirChannel;
         this.segmentLength = segmentLength;
+        this.syncGroup = syncGroup;
+        this.durablePosition = durablePosition;
+        this.segmentFileAllocator = segmentFileAllocator;
+        this.preAllocateSegments = null != segmentFileAllocator && ctx.segmentFilePreAllocate();
+        this.directIoBuffer = directIoBuffer;
+        this.directIoAlignment = ctx.directIoAlignment();
+        this.tailPageBuffer = null != directIoBuffer ? new UnsafeBuffer(new byte[directIoAlignment]) : null;
 
         archiveDir = ctx.archiveDir();
         forceWrites = ctx.fileSyncLevel() > 0;
         forceMetadata = ctx.fileSyncLevel() > 1;
+        checksum = ctx.segmentChecksum() ? new SegmentChecksum() : null;
 
         final int termLength = image.termBufferLength();
         final long joinPosition = image.joinPosition();
@@ -90,26 +143,55 @@ class RecordingWriter implements BlockHandler
         {
             final boolean isPaddingFrame = termBuffer.getShort(typeOffset(termOffset)) == PADDING_FRAME_TYPE;
             final int dataLength = isPaddingFrame ? DataHeaderFlyweight.HEADER_LENGTH : length;
-            final ByteBuffer byteBuffer = termBuffer.byteBuffer();
-            byteBuffer.limit(termOffset + dataLength).position(termOffset);
 
-            do
+            if (null == directIoBuffer)
             {
-                recordingFileChannel.write(byteBuffer);
+                final ByteBuffer byteBuffer = termBuffer.byteBuffer();
+                byteBuffer.limit(termOffset + dataLength).position(termOffset);
+
+                do
+                {
+                    recordingFileChannel.write(byteBuffer);
+                }
+                while (byteBuffer.remaining() > 0);
+            }
+            else
+            {
+                writeDirect(termBuffer, termOffset, dataLength, length);
             }
-            while (byteBuffer.remaining() > 0);
 
-            if (forceWrites)
+            if (null != checksum)
             {
-                recordingFileChannel.force(forceMetadata);
+                checksum.update(termBuffer, termOffset, dataLength);
+                checksum.updateZeros(length - dataLength);
             }
 
             segmentOffset += length;
+
+            if (forceWrites)
+            {
+                if (null == syncGroup)
+                {
+                    forceRecordingFile();
+                }
+                else
+                {
+                    final boolean isNewPending = !isSyncPending;
+                    isSyncPending = true;
+                    syncGroup.onWrite(this, length, isNewPending);
+                }
+            }
+
+            if (preAllocateSegments && null == nextSegment && segmentOffset >= (segmentLength >> 1))
+            {
+                allocateNextSegment();
+            }
+
             if (segmentOffset >= segmentLength)
             {
                 onFileRollOver();
             }
-            else if (isPaddingFrame)
+            else if (isPaddingFrame && null == directIoBuffer)
             {
                 recordingFileChannel.position(segmentOffset);
             }
@@ -131,8 +213,68 @@ class RecordingWriter implements BlockHandler
         if (!isClosed)
         {
             isClosed = true;
+            if (isSyncPending)
+            {
+                try
+                {
+                    forceRecordingFile();
+                }
+                catch (final IOException ignore)
+                {
+                }
+            }
+
             CloseHelper.quietClose(recordingFileChannel);
+
+            if (null != nextSegment)
+            {
+                segmentFileAllocator.release(nextSegment);
+                nextSegment = null;
+            }
+        }
+    }
+
+    /**
+     * Force any pending writes for the current segment file to disk.
+     *
+     * @return true if pending writes were forced to disk otherwise false.
+     * @throws IOException if the force fails.
+     */
+    boolean sync() throws IOException
+    {
+        if (isSyncPending && !isClosed)
+        {
+            forceRecordingFile();
+            return true;
         }
+
+        return false;
+    }
+
+    /**
+     * Notification from a {@link RecordingSyncGroup} that forcing pending writes to disk has failed. The writer is
+     * closed and the error is held so it can be reported by the session which owns the recording.
+     *
+     * @param ex which caused the failure.
+     */
+    void onSyncFailed(final Exception ex)
+    {
+        isSyncPending = false;
+        syncError = ex;
+        close();
+    }
+
+    /**
+     * The error from a failed group commit, if any, which is cleared once taken.
+     *
+     * @return the error from a failed group commit or null if none has occurred since it was last taken.
+     */
+    Exception takeSyncError()
+    {
+        final Exception error = syncError;
+        syncError = null;
+
+        return error;
     }
 
     void init() throws IOException
@@ -141,7 +283,20 @@ class RecordingWriter implements BlockHandler
 
         if (segmentOffset != 0)
         {
-            recordingFileChannel.position(segmentOffset);
+            if (null != checksum)
+            {
+                checksum.update(
+                    new File(archiveDir, Archive.segmentFileName(recordingId, segmentBasePosition)), segmentOffset);
+            }
+
+            if (null == directIoBuffer)
+            {
+                recordingFileChannel.position(segmentOffset);
+            }
+            else
+            {
+                readTailPage();
+            }
         }
     }
 
@@ -153,16 +308,38 @@ class RecordingWriter implements BlockHandler
     private void openRecordingSegmentFile()
     {
         final File file = new File(archiveDir, Archive.segmentFileName(recordingId, segmentBasePosition));
+        final File allocatedFile = claimNextSegment();
 
         RandomAccessFile recordingFile = null;
         try
         {
+            if (null != allocatedFile && (file.exists() || !allocatedFile.renameTo(file)))
+            {
+                Files.deleteIfExists(allocatedFile.toPath());
+            }
+
             recordingFile = new RandomAccessFile(file, "rw");
             recordingFile.setLength(segmentLength);
-            recordingFileChannel = recordingFile.getChannel();
+            if (null == directIoBuffer)
+            {
+                recordingFileChannel = recordingFile.getChannel();
+            }
+            else
+            {
+                recordingFile.close();
+                recordingFileChannel = FileChannel.open(
+                    file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, DirectIo.openOption());
+            }
             if (forceWrites && null != archiveDirChannel)
             {
-                archiveDirChannel.force(forceMetadata);
+                if (null != segmentFileAllocator)
+                {
+                    segmentFileAllocator.forceDirectoryAsync();
+                }
+                else
+                {
+                    archiveDirChannel.force(forceMetadata);
+                }
             }
         }
         catch (final IOException ex)
@@ -173,8 +350,123 @@ class RecordingWriter implements BlockHandler
         }
     }
 
-    private void onFileRollOver()
+    private void allocateNextSegment()
+    {
+        final long nextSegmentBasePosition = segmentBasePosition + segmentLength;
+        nextSegment = segmentFileAllocator.allocateAsync(
+            new File(archiveDir, Archive.segmentFileName(recordingId, nextSegmentBasePosition)), segmentLength);
+    }
+
+    private File claimNextSegment()
+    {
+        File allocatedFile = null;
+        if (null != nextSegment)
+        {
+            allocatedFile = segmentFileAllocator.claim(nextSegment);
+            nextSegment = null;
+        }
+
+        return allocatedFile;
+    }
+
+    private void writeDirect(
+        final DirectBuffer termBuffer, final int termOffset, final int dataLength, final int length) throws IOException
+    {
+        final int pageOffset = DirectIo.alignDown(segmentOffset, directIoAlignment);
+        final int tailLength = segmentOffset - pageOffset;
+        final int stagedLength = tailLength + dataLength;
+        final int writeLength = DirectIo.alignUp(stagedLength, directIoAlignment);
+
+        directIoBuffer.putBytes(0, tailPageBuffer, 0, tailLength);
+        directIoBuffer.putBytes(tailLength, termBuffer, termOffset, dataLength);
+        directIoBuffer.setMemory(stagedLength, writeLength - stagedLength, (byte)0);
+
+        final ByteBuffer byteBuffer = directIoBuffer.byteBuffer();
+        byteBuffer.clear().limit(writeLength);
+
+        long filePosition = pageOffset;
+        do
+        {
+            filePosition += recordingFileChannel.write(byteBuffer, filePosition);
+        }
+        while (byteBuffer.remaining() > 0);
+
+        final int nextSegmentOffset = segmentOffset + length;
+        final int nextPageOffset = DirectIo.alignDown(nextSegmentOffset, directIoAlignment);
+        final int nextTailLength = nextSegmentOffset - nextPageOffset;
+        if (nextTailLength > 0)
+        {
+            final int stagedOffset = nextPageOffset - pageOffset;
+            final int copyLength = Math.max(0, Math.min(nextTailLength, writeLength - stagedOffset));
+
+            if (copyLength > 0)
+            {
+                tailPageBuffer.putBytes(0, directIoBuffer, stagedOffset, copyLength);
+            }
+            tailPageBuffer.setMemory(copyLength, nextTailLength - copyLength, (byte)0);
+        }
+    }
+
+    private void readTailPage() throws IOException
     {
+        final int pageOffset = DirectIo.alignDown(segmentOffset, directIoAlignment);
+        final int tailLength = segmentOffset - pageOffset;
+        if (tailLength > 0)
+        {
+            final ByteBuffer byteBuffer = directIoBuffer.byteBuffer();
+            byteBuffer.clear().limit(directIoAlignment);
+
+            long filePosition = pageOffset;
+            do
+            {
+                final int bytesRead = recordingFileChannel.read(byteBuffer, filePosition);
+                if (bytesRead < 0)
+                {
+                    throw new ArchiveException("failed to read last page of segment for recording " + recordingId);
+                }
+                filePosition += bytesRead;
+            }
+            while (byteBuffer.remaining() > 0);
+
+            tailPageBuffer.putBytes(0, directIoBuffer, 0, tailLength);
+        }
+    }
+
+    private void forceRecordingFile() throws IOException
+    {
+        recordingFileChannel.force(forceMetadata);
+        isSyncPending = false;
+
+        if (null != durablePosition)
+        {
+            durablePosition.setOrdered(segmentBasePosition + segmentOffset);
+        }
+    }
+
+    private void onFileRollOver() throws IOException
+    {
+        if (isSyncPending)
+        {
+            forceRecordingFile();
+        }
+
+        if (null != checksum)
+        {
+            if (null != segmentFileAllocator)
+            {
+                segmentFileAllocator.writeChecksumAsync(
+                    new File(archiveDir, SegmentChecksum.checksumFileName(recordingId, segmentBasePosition)),
+                    checksum.algorithm(),
+                    checksum.value(),
+                    segmentOffset);
+            }
+            else
+            {
+                checksum.write(archiveDir, recordingId, segmentBasePosition, segmentOffset, forceWrites);
+            }
+            checksum.reset();
+        }
+
         CloseHelper.close(recordingFileChannel);
         segmentOffset = 0;
         segmentBasePosition += segmentLength;
@@ -61,6 +61,12 @@ import static java.nio.file.StandardOpenOption.READ;
  * <li>Stream recorded data into the publication {@link ExclusivePublication}.</li>
  * <li>If the replay is aborted part way through, send a ReplayAborted message and terminate.</li>
  * </ul>
+ * <p>
+ * With direct I/O the recording is read in whole pages from page aligned file positions so the replayed frames start
+ * at an offset into the replay buffer.
+ * <p>
+ * Segments which have been compressed, see {@link CompressedSegment}, are transparently decompressed into the replay
+ * buffer.
  */
 class ReplaySession implements Session, AutoCloseable
 {
@@ -95,7 +101,12 @@ class ReplaySession implements Session, AutoCloseable
     private final Catalog catalog;
     private final Counter limitPosition;
     private final UnsafeBuffer replayBuffer;
+    private final boolean isDirectIo;
+    private final int directIoAlignment;
+    private final SessionCounters sessionCounters;
+    private int replayBufferOffset;
     private FileChannel fileChannel;
+    private CompressedSegment.Reader compressedSegment;
     private File segmentFile;
     private State state = State.INIT;
     private String errorMessage = null;
@@ -110,13 +121,16 @@ class ReplaySession implements Session, AutoCloseable
         final ControlSession controlSession,
         final ControlResponseProxy controlResponseProxy,
         final UnsafeBuffer replayBuffer,
+        final boolean isDirectIo,
+        final int directIoAlignment,
         final Catalog catalog,
         final File archiveDir,
         final File initialSegmentFile,
         final CachedEpochClock epochClock,
         final ExclusivePublication publication,
         final RecordingSummary recordingSummary,
-        final Counter replayLimitPosition)
+        final Counter replayLimitPosition,
+        final SessionCounters sessionCounters)
     {
         this.controlSession = controlSession;
         this.sessionId = replaySessionId;
@@ -131,6 +145,9 @@ class ReplaySession implements Session, AutoCloseable
         this.publication = publication;
         this.limitPosition = replayLimitPosition;
         this.replayBuffer = replayBuffer;
+        this.isDirectIo = isDirectIo;
+        this.directIoAlignment = directIoAlignment;
+        this.sessionCounters = sessionCounters;
         this.catalog = catalog;
         this.startPosition = recordingSummary.startPosition;
         this.stopPosition = null == limitPosition ? recordingSummary.stopPosition : limitPosition.get();
@@ -172,6 +189,7 @@ class ReplaySession implements Session, AutoCloseable
     {
         closeRecordingSegment();
         CloseHelper.close(publication);
+        CloseHelper.close(sessionCounters);
     }
 
     public long sessionId()
@@ -198,6 +216,11 @@ class ReplaySession implements Session, AutoCloseable
             if (State.REPLAY == state)
             {
                 workCount += replay();
+
+                if (null != sessionCounters)
+                {
+                    sessionCounters.sample(sessionCounters.nanoTime(), replayPosition);
+                }
             }
         }
         catch (final IOException ex)
@@ -255,7 +278,7 @@ class ReplaySession implements Session, AutoCloseable
 
     private int init() throws IOException
     {
-        if (null == fileChannel)
+        if (null == fileChannel && null == compressedSegment)
         {
             final long startTermBasePosition = startPosition - (startPosition & (termLength - 1));
             final int segmentOffset = (int)((replayPosition - startTermBasePosition) & (segmentLength - 1));
@@ -269,7 +292,7 @@ class ReplaySession implements Session, AutoCloseable
 
             if (replayPosition > startPosition && replayPosition != stopPosition)
             {
-                if (notHeaderAligned(fileChannel, replayBuffer, segmentOffset, termOffset, termId, streamId))
+                if (notHeaderAligned(segmentOffset, termOffset, termId))
                 {
                     onError(replayPosition + " position not aligned to data header");
                     return 0;
@@ -312,10 +335,18 @@ class ReplaySession implements Session, AutoCloseable
             nextTerm();
         }
 
-        int frameOffset = 0;
+        final long readStartNs = null != sessionCounters ? sessionCounters.nanoTime() : 0;
         final int bytesRead = readRecording(stopPosition - replayPosition);
+        if (null != sessionCounters && bytesRead > 0)
+        {
+            sessionCounters.onIoTime(sessionCounters.nanoTime() - readStartNs);
+        }
+
+        final long fromPosition = replayPosition;
+        final int frameLimit = replayBufferOffset + bytesRead;
+        int frameOffset = replayBufferOffset;
 
-        while (frameOffset < bytesRead)
+        while (frameOffset < frameLimit)
         {
             final int frameLength = FrameDescriptor.frameLength(replayBuffer, frameOffset);
             if (frameLength <= 0)
@@ -330,7 +361,7 @@ class ReplaySession implements Session, AutoCloseable
 
             if (frameType == HeaderFlyweight.HDR_TYPE_DATA)
             {
-                if (frameOffset + alignedLength > bytesRead)
+                if (frameOffset + alignedLength > frameLimit)
                 {
                     break;
                 }
@@ -369,11 +400,20 @@ class ReplaySession implements Session, AutoCloseable
                 {
                     onError("stream closed before replay is complete");
                 }
+                else if (null != sessionCounters)
+                {
+                    sessionCounters.onBackPressure();
+                }
 
                 break;
             }
         }
 
+        if (null != sessionCounters && replayPosition > fromPosition)
+        {
+            sessionCounters.onBytes(replayPosition - fromPosition);
+        }
+
         return fragments;
     }
 
@@ -382,17 +422,40 @@ class ReplaySession implements Session, AutoCloseable
         if (publication.availableWindow() > 0)
         {
             final int limit = Math.min((int)Math.min(availableReplay, MAX_BLOCK_LENGTH), termLength - termOffset);
+            int position = termBaseSegmentOffset + termOffset;
+
+            if (null != compressedSegment)
+            {
+                replayBufferOffset = 0;
+                compressedSegment.read(replayBuffer, 0, position, limit);
+                return limit;
+            }
+
             final ByteBuffer byteBuffer = replayBuffer.byteBuffer();
-            byteBuffer.clear().limit(limit);
+            if (isDirectIo)
+            {
+                final int alignedPosition = DirectIo.alignDown(position, directIoAlignment);
+                replayBufferOffset = position - alignedPosition;
+                byteBuffer.clear().limit(DirectIo.alignUp(replayBufferOffset + limit, directIoAlignment));
+                position = alignedPosition;
+            }
+            else
+            {
+                byteBuffer.clear().limit(limit);
+            }
 
-            int position = termBaseSegmentOffset + termOffset;
             do
             {
                 position += fileChannel.read(byteBuffer, position);
             }
             while (byteBuffer.remaining() > 0);
 
-            return byteBuffer.limit();
+            return limit;
+        }
+
+        if (null != sessionCounters)
+        {
+            sessionCounters.onBackPressure();
         }
 
         return 0;
@@ -453,7 +516,9 @@ class ReplaySession implements Session, AutoCloseable
     private void closeRecordingSegment()
     {
         CloseHelper.close(fileChannel);
+        CloseHelper.close(compressedSegment);
         fileChannel = null;
+        compressedSegment = null;
         segmentFile = null;
     }
 
@@ -461,18 +526,57 @@ class ReplaySession implements Session, AutoCloseable
     {
         if (null == segmentFile)
         {
-            final String segmentFileName = segmentFileName(recordingId, segmentFileBasePosition);
-            segmentFile = new File(archiveDir, segmentFileName);
+            segmentFile = CompressedSegment.findSegmentFile(archiveDir, recordingId, segmentFileBasePosition);
 
-            if (!segmentFile.exists())
+            if (null == segmentFile)
             {
-                final String msg = "recording segment not found " + segmentFileName;
+                final String msg = "recording segment not found " +
+                    segmentFileName(recordingId, segmentFileBasePosition);
                 onError(msg);
                 throw new ArchiveException(msg);
             }
         }
 
-        fileChannel = FileChannel.open(segmentFile.toPath(), FILE_OPTIONS, NO_ATTRIBUTES);
+        if (CompressedSegment.isCompressed(segmentFile))
+        {
+            compressedSegment = new CompressedSegment.Reader(segmentFile);
+        }
+        else if (isDirectIo)
+        {
+            fileChannel = FileChannel.open(segmentFile.toPath(), READ, DirectIo.openOption());
+        }
+        else
+        {
+            fileChannel = FileChannel.open(segmentFile.toPath(), FILE_OPTIONS, NO_ATTRIBUTES);
+        }
+    }
+
+    private boolean notHeaderAligned(final int segmentOffset, final int termOffset, final int termId)
+        throws IOException
+    {
+        if (null != compressedSegment)
+        {
+            compressedSegment.read(replayBuffer, 0, segmentOffset, DataHeaderFlyweight.HEADER_LENGTH);
+            return isInvalidHeader(replayBuffer, streamId, termId, termOffset);
+        }
+        else if (!isDirectIo)
+        {
+            return notHeaderAligned(fileChannel, replayBuffer, segmentOffset, termOffset, termId, streamId);
+        }
+
+        final int alignedOffset = DirectIo.alignDown(segmentOffset, directIoAlignment);
+        final int headerOffset = segmentOffset - alignedOffset;
+        final ByteBuffer byteBuffer = replayBuffer.byteBuffer();
+        byteBuffer.clear().limit(directIoAlignment);
+        if (directIoAlignment != fileChannel.read(byteBuffer, alignedOffset))
+        {
+            throw new ArchiveException("failed to read fragment header");
+        }
+
+        return
+            DataHeaderFlyweight.termOffset(replayBuffer, headerOffset) != termOffset ||
+            DataHeaderFlyweight.termId(replayBuffer, headerOffset) != termId ||
+            DataHeaderFlyweight.streamId(replayBuffer, headerOffset) != streamId;
     }
 
     static boolean notHeaderAligned(
@@ -28,12 +28,24 @@ import io.aeron.logbuffer.LogBufferDescriptor;
 import org.agrona.CloseHelper;
 import org.agrona.concurrent.CachedEpochClock;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.archive.Archive.Configuration.REPLICATION_RANGE_POSITION_TYPE_ID;
+import static io.aeron.archive.Archive.segmentFileName;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.archive.client.AeronArchive.segmentFileBasePosition;
 import static io.aeron.archive.codecs.RecordingSignal.*;
 
+/**
+ * Replicates a recording from a source archive by replaying it into a local recording.
+ * <p>
+ * When the source recording is stopped and the destination is a new recording then the range to replicate can be
+ * split at segment boundaries into multiple ranges which are replayed concurrently on separate streams. Each range
+ * after the first is recorded into a temporary recording and once all ranges are complete their segment files are
+ * renamed into the destination recording and the temporary recordings are invalidated.
+ */
 class ReplicationSession implements Session, RecordingDescriptorConsumer
 {
     private static final int LIVE_ADD_THRESHOLD = LogBufferDescriptor.TERM_MIN_LENGTH >> 2;
@@ -49,6 +61,7 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         EXTEND,
         AWAIT_IMAGE,
         REPLICATE,
+        STITCH,
         CATCHUP,
         ATTEMPT_LIVE_JOIN,
         DONE
@@ -70,10 +83,15 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
     private int replayStreamId;
     private int replaySessionId;
     private int retryAttempts = RETRY_ATTEMPTS;
+    private int segmentFileLength;
+    private int rangeIndex;
+    private final int replicationStreams;
+    private ReplicationRange[] ranges;
     private boolean isLiveAdded;
     private final String replicationChannel;
     private final String liveDestination;
     private String replayDestination;
+    private final File archiveDir;
     private final CachedEpochClock epochClock;
     private final ArchiveConductor conductor;
     private final ControlSession controlSession;
@@ -96,6 +114,8 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         final long replicationId,
         final String liveDestination,
         final String replicationChannel,
+        final int replicationStreams,
+        final File archiveDir,
         final RecordingSummary recordingSummary,
         final AeronArchive.Context context,
         final CachedEpochClock epochClock,
@@ -109,6 +129,8 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         this.dstRecordingId = dstRecordingId;
         this.liveDestination = "".equals(liveDestination) ? null : liveDestination;
         this.replicationChannel = replicationChannel;
+        this.replicationStreams = replicationStreams;
+        this.archiveDir = archiveDir;
         this.aeron = context.aeron();
         this.context = context;
         this.catalog = catalog;
@@ -147,6 +169,7 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
     {
         stopRecording();
         stopReplaySession();
+        closeRanges();
 
         CloseHelper.close(asyncConnect);
         CloseHelper.close(srcArchive);
@@ -195,6 +218,10 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
                     workCount += replicate();
                     break;
 
+                case STITCH:
+                    workCount += stitch();
+                    break;
+
                 case CATCHUP:
                     workCount += catchup();
                     break;
@@ -236,6 +263,7 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         srcStopPosition = stopPosition;
         replayStreamId = streamId;
         replaySessionId = sessionId;
+        this.segmentFileLength = segmentFileLength;
 
         if (NULL_VALUE == dstRecordingId)
         {
@@ -256,6 +284,38 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
                 sourceIdentity);
 
             signal(startPosition, REPLICATE);
+
+            if (null == liveDestination && NULL_POSITION != stopPosition && replicationStreams > 1)
+            {
+                final long[] boundaries = rangeBoundaries(
+                    startPosition, stopPosition, termBufferLength, segmentFileLength, replicationStreams);
+
+                if (boundaries.length > 2)
+                {
+                    ranges = new ReplicationRange[boundaries.length - 1];
+                    ranges[0] = new ReplicationRange(boundaries[0], boundaries[1], dstRecordingId);
+
+                    for (int i = 1; i < ranges.length; i++)
+                    {
+                        final long rangeRecordingId = catalog.addNewRecording(
+                            boundaries[i],
+                            boundaries[i],
+                            startTimestamp,
+                            startTimestamp,
+                            initialTermId,
+                            segmentFileLength,
+                            termBufferLength,
+                            mtuLength,
+                            sessionId,
+                            streamId,
+                            strippedChannel,
+                            originalChannel,
+                            sourceIdentity);
+
+                        ranges[i] = new ReplicationRange(boundaries[i], boundaries[i + 1], rangeRecordingId);
+                    }
+                }
+            }
         }
 
         State nextState = State.REPLAY;
@@ -397,6 +457,7 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         if (NULL_VALUE == activeCorrelationId)
         {
             final long correlationId = aeron.nextCorrelationId();
+            final ReplicationRange range = null != ranges ? ranges[rangeIndex] : null;
             final ChannelUri channelUri = ChannelUri.parse(replicationChannel);
             if (null != liveDestination)
             {
@@ -407,8 +468,8 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
 
             if (srcArchive.archiveProxy().replay(
                 srcRecordingId,
-                replayPosition,
-                Long.MAX_VALUE,
+                null != range ? range.fromPosition : replayPosition,
+                null != range ? range.toPosition - range.fromPosition : Long.MAX_VALUE,
                 channelUri.toString(),
                 replayStreamId,
                 correlationId,
@@ -428,7 +489,15 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
 
             if (hasResponse(poller))
             {
-                srcReplaySessionId = poller.relevantId();
+                if (null != ranges)
+                {
+                    ranges[rangeIndex].srcReplaySessionId = poller.relevantId();
+                }
+                else
+                {
+                    srcReplaySessionId = poller.relevantId();
+                }
+
                 state(State.EXTEND);
             }
             else if (epochClock.time() >= (timeOfLastActionMs + actionTimeoutMs))
@@ -442,6 +511,11 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
 
     private int extend()
     {
+        if (null != ranges)
+        {
+            return extendRange(ranges[rangeIndex]);
+        }
+
         final ChannelUri channelUri = ChannelUri.parse(replicationChannel);
         final ChannelUriStringBuilder builder = new ChannelUriStringBuilder();
 
@@ -471,8 +545,49 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         return 1;
     }
 
+    private int extendRange(final ReplicationRange range)
+    {
+        final ChannelUri channelUri = ChannelUri.parse(replicationChannel);
+        final ChannelUriStringBuilder builder = new ChannelUriStringBuilder();
+        final long rangeSubscriptionTagId = 0 == rangeIndex ? subscriptionTagId : aeron.nextCorrelationId();
+
+        final String channel = builder
+            .media(channelUri)
+            .alias(channelUri)
+            .tags(channelTagId + "," + rangeSubscriptionTagId)
+            .controlMode(CommonContext.MDC_CONTROL_MODE_MANUAL)
+            .rejoin(false)
+            .sessionId((int)range.srcReplaySessionId)
+            .build();
+
+        range.subscription = conductor.extendRecording(
+            replicationId, range.recordingId, replayStreamId, SourceLocation.REMOTE, channel, controlSession);
+
+        if (null == range.subscription)
+        {
+            state(State.DONE);
+        }
+        else
+        {
+            if (0 == rangeIndex)
+            {
+                replayDestination = builder.clear().media(channelUri).endpoint(channelUri).build();
+                range.subscription.asyncAddDestination(replayDestination);
+            }
+
+            state(State.AWAIT_IMAGE);
+        }
+
+        return 1;
+    }
+
     private int awaitImage()
     {
+        if (null != ranges)
+        {
+            return awaitRangeImage(ranges[rangeIndex]);
+        }
+
         int workCount = 0;
 
         image = recordingSubscription.imageBySessionId((int)srcReplaySessionId);
@@ -489,8 +604,37 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         return workCount;
     }
 
+    private int awaitRangeImage(final ReplicationRange range)
+    {
+        int workCount = 0;
+
+        range.image = range.subscription.imageBySessionId((int)range.srcReplaySessionId);
+        if (null != range.image)
+        {
+            range.positionCounter = aeron.addCounter(
+                REPLICATION_RANGE_POSITION_TYPE_ID,
+                "Archive replication range position: replicationId=" + replicationId +
+                " range=" + range.fromPosition + ":" + range.toPosition);
+            range.positionCounter.setOrdered(range.fromPosition);
+
+            state(++rangeIndex < ranges.length ? State.REPLAY : State.REPLICATE);
+            workCount += 1;
+        }
+        else if (epochClock.time() >= (timeOfLastActionMs + actionTimeoutMs))
+        {
+            throw new TimeoutException("failed get replay image for range: " + range.fromPosition);
+        }
+
+        return workCount;
+    }
+
     private int replicate()
     {
+        if (null != ranges)
+        {
+            return replicateRanges();
+        }
+
         int workCount = 0;
 
         final long position = image.position();
@@ -510,6 +654,97 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         return workCount;
     }
 
+    private int replicateRanges()
+    {
+        int workCount = 0;
+        boolean isComplete = true;
+
+        for (final ReplicationRange range : ranges)
+        {
+            final long position = range.image.position();
+            if (position > range.positionCounter.get())
+            {
+                range.positionCounter.setOrdered(position);
+                workCount += 1;
+            }
+
+            if (position >= range.toPosition)
+            {
+                range.srcReplaySessionId = NULL_VALUE;
+            }
+            else if (range.image.isClosed())
+            {
+                throw new ArchiveException("replication range image closed unexpectedly: range=" +
+                    range.fromPosition + ":" + range.toPosition + " position=" + position);
+            }
+            else
+            {
+                isComplete = false;
+            }
+        }
+
+        if (isComplete)
+        {
+            for (final ReplicationRange range : ranges)
+            {
+                stopRangeRecording(range);
+            }
+
+            state(State.STITCH);
+            workCount += 1;
+        }
+
+        return workCount;
+    }
+
+    private int stitch()
+    {
+        for (final ReplicationRange range : ranges)
+        {
+            if (conductor.isRecordingActive(range.recordingId))
+            {
+                if (epochClock.time() >= (timeOfLastActionMs + actionTimeoutMs))
+                {
+                    throw new TimeoutException("failed to stop recording of range: " + range.fromPosition);
+                }
+
+                return 0;
+            }
+        }
+
+        for (int i = 1; i < ranges.length; i++)
+        {
+            final ReplicationRange range = ranges[i];
+            for (long position = range.fromPosition; position < range.toPosition; position += segmentFileLength)
+            {
+                final File srcFile = new File(archiveDir, segmentFileName(range.recordingId, position));
+                final File dstFile = new File(archiveDir, segmentFileName(dstRecordingId, position));
+
+                if (dstFile.exists() && !dstFile.delete())
+                {
+                    throw new ArchiveException("failed to delete " + dstFile);
+                }
+
+                if (!srcFile.renameTo(dstFile))
+                {
+                    throw new ArchiveException("failed to rename " + srcFile + " to " + dstFile);
+                }
+
+                SegmentChecksum.moveChecksumFile(archiveDir, range.recordingId, dstRecordingId, position);
+            }
+
+            new File(archiveDir, segmentFileName(range.recordingId, range.toPosition)).delete();
+            new File(archiveDir, SegmentChecksum.checksumFileName(range.recordingId, range.toPosition)).delete();
+            catalog.invalidateRecording(range.recordingId);
+        }
+
+        catalog.recordingStopped(dstRecordingId, srcStopPosition, epochClock.time());
+        signal(srcStopPosition, SYNC);
+        state(State.DONE);
+
+        return 1;
+    }
+
     private int catchup()
     {
         int workCount = 0;
@@ -651,6 +886,44 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         }
     }
 
+    private void stopRangeRecording(final ReplicationRange range)
+    {
+        if (null != range.subscription)
+        {
+            conductor.removeRecordingSubscription(range.subscription.registrationId());
+            range.subscription.close();
+            range.subscription = null;
+        }
+    }
+
+    private void closeRanges()
+    {
+        if (null != ranges)
+        {
+            for (int i = 0; i < ranges.length; i++)
+            {
+                final ReplicationRange range = ranges[i];
+                if (NULL_VALUE != range.srcReplaySessionId && null != srcArchive)
+                {
+                    final long correlationId = aeron.nextCorrelationId();
+                    srcArchive.archiveProxy().stopReplay(
+                        range.srcReplaySessionId, correlationId, srcArchive.controlSessionId());
+                    range.srcReplaySessionId = NULL_VALUE;
+                }
+
+                stopRangeRecording(range);
+                CloseHelper.close(range.positionCounter);
+
+                if (i > 0)
+                {
+                    conductor.deleteTemporaryRecording(range.recordingId);
+                }
+            }
+
+            ranges = null;
+        }
+    }
+
     private boolean shouldAddLiveDestination(final long position)
     {
         return !isLiveAdded && (srcRecordingPosition - position) <= LIVE_ADD_THRESHOLD;
@@ -677,4 +950,45 @@ class ReplicationSession implements Session, RecordingDescriptorConsumer
         state = newState;
         activeCorrelationId = NULL_VALUE;
     }
+
+    static long[] rangeBoundaries(
+        final long startPosition,
+        final long stopPosition,
+        final int termBufferLength,
+        final int segmentFileLength,
+        final int replicationStreams)
+    {
+        final long startSegmentBasePosition = segmentFileBasePosition(
+            startPosition, startPosition, termBufferLength, segmentFileLength);
+        final long segmentCount = (stopPosition - startSegmentBasePosition + segmentFileLength - 1) / segmentFileLength;
+        final int rangeCount = (int)Math.max(1, Math.min(replicationStreams, segmentCount));
+        final long[] boundaries = new long[rangeCount + 1];
+
+        boundaries[0] = startPosition;
+        for (int i = 1; i < rangeCount; i++)
+        {
+            boundaries[i] = startSegmentBasePosition + ((segmentCount * i) / rangeCount) * segmentFileLength;
+        }
+        boundaries[rangeCount] = stopPosition;
+
+        return boundaries;
+    }
+
+    static final class ReplicationRange
+    {
+        final long fromPosition;
+        final long toPosition;
+        final long recordingId;
+        long srcReplaySessionId = NULL_VALUE;
+        Subscription subscription;
+        Image image;
+        Counter positionCounter;
+
+        ReplicationRange(final long fromPosition, final long toPosition, final long recordingId)
+        {
+            this.fromPosition = fromPosition;
+            this.toPosition = toPosition;
+            this.recordingId = recordingId;
+        }
+    }
 }
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Checksum of the contents of a complete recording segment file which is stored in a file alongside the segment so
+ * the segment can be verified without parsing every frame.
+ * <p>
+ * CRC32C is used when available, i.e. Java 9+, otherwise CRC32. The algorithm is stored with the checksum so a
+ * segment can only be verified with the algorithm it was written with.
+ */
+final class SegmentChecksum
+{
+    /**
+     * Suffix appended to the segment file name for the file containing the checksum of the segment.
+     */
+    static final String CHECKSUM_FILE_SUFFIX = ".crc";
+
+    static final int CRC32C_ALGORITHM = 1;
+    static final int CRC32_ALGORITHM = 2;
+    static final int ALGORITHM_OFFSET = 0;
+    static final int CHECKSUM_OFFSET = 4;
+    static final int LENGTH_OFFSET = 8;
+    static final int FILE_LENGTH = 16;
+
+    enum Result
+    {
+        VALID,
+        INVALID,
+        UNAVAILABLE
+    }
+
+    private static final int SCRATCH_LENGTH = 64 * 1024;
+    private static final Constructor<?> CRC32C_CONSTRUCTOR = lookupCrc32cConstructor();
+
+    private final int algorithm;
+    private final Checksum checksum;
+    private final byte[] scratch = new byte[SCRATCH_LENGTH];
+
+    SegmentChecksum()
+    {
+        this(null != CRC32C_CONSTRUCTOR ? CRC32C_ALGORITHM : CRC32_ALGORITHM);
+    }
+
+    SegmentChecksum(final int algorithm)
+    {
+        this.algorithm = algorithm;
+        this.checksum = newChecksum(algorithm);
+    }
+
+    static boolean isSupported(final int algorithm)
+    {
+        return CRC32_ALGORITHM == algorithm || (CRC32C_ALGORITHM == algorithm && null != CRC32C_CONSTRUCTOR);
+    }
+
+    static String checksumFileName(final long recordingId, final long segmentBasePosition)
+    {
+        return Archive.segmentFileName(recordingId, segmentBasePosition) + CHECKSUM_FILE_SUFFIX;
+    }
+
+    /**
+     * Move the checksum file of a segment, if it exists, when the segment is moved to another recording.
+     *
+     * @param archiveDir          containing the segment files.
+     * @param srcRecordingId      of the recording the segment is moved from.
+     * @param dstRecordingId      of the recording the segment is moved to.
+     * @param segmentBasePosition of the segment.
+     */
+    static void moveChecksumFile(
+        final File archiveDir, final long srcRecordingId, final long dstRecordingId, final long segmentBasePosition)
+    {
+        final File srcFile = new File(archiveDir, checksumFileName(srcRecordingId, segmentBasePosition));
+        final File dstFile = new File(archiveDir, checksumFileName(dstRecordingId, segmentBasePosition));
+
+        dstFile.delete();
+        if (srcFile.exists() && !srcFile.renameTo(dstFile))
+        {
+            srcFile.delete();
+        }
+    }
+
+    int algorithm()
+    {
+        return algorithm;
+    }
+
+    int value()
+    {
+        return (int)checksum.getValue();
+    }
+
+    void reset()
+    {
+        checksum.reset();
+    }
+
+    void update(final DirectBuffer buffer, final int offset, final int length)
+    {
+        int remaining = length;
+        int index = offset;
+        while (remaining > 0)
+        {
+            final int chunkLength = Math.min(remaining, SCRATCH_LENGTH);
+            buffer.getBytes(index, scratch, 0, chunkLength);
+            checksum.update(scratch, 0, chunkLength);
+            index += chunkLength;
+            remaining -= chunkLength;
+        }
+    }
+
+    void updateZeros(final int length)
+    {
+        int remaining = length;
+        Arrays.fill(scratch, 0, Math.min(remaining, SCRATCH_LENGTH), (byte)0);
+        while (remaining > 0)
+        {
+            final int chunkLength = Math.min(remaining, SCRATCH_LENGTH);
+            checksum.update(scratch, 0, chunkLength);
+            remaining -= chunkLength;
+        }
+    }
+
+    /**
+     * Update the checksum with the contents of a file from the start up to a length.
+     *
+     * @param file   to read.
+     * @param length of the file contents to include.
+     * @throws IOException if the file cannot be read.
+     */
+    void update(final File file, final long length) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        {
+            final ByteBuffer buffer = ByteBuffer.wrap(scratch);
+            long position = 0;
+            while (position < length)
+            {
+                buffer.clear().limit((int)Math.min(SCRATCH_LENGTH, length - position));
+                final int bytesRead = channel.read(buffer, position);
+                if (bytesRead < 0)
+                {
+                    updateZeros((int)(length - position));
+                    break;
+                }
+
+                checksum.update(scratch, 0, bytesRead);
+                position += bytesRead;
+            }
+        }
+    }
+
+    /**
+     * Update the checksum with the uncompressed contents of a compressed segment from the start up to a length.
+     *
+     * @param reader of the compressed segment.
+     * @param length of the uncompressed contents to include.
+     * @throws IOException if the segment cannot be read.
+     */
+    void update(final CompressedSegment.Reader reader, final int length) throws IOException
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(scratch);
+        int position = 0;
+        while (position < length)
+        {
+            final int chunkLength = Math.min(SCRATCH_LENGTH, length - position);
+            reader.read(buffer, 0, position, chunkLength);
+            checksum.update(scratch, 0, chunkLength);
+            position += chunkLength;
+        }
+    }
+
+    /**
+     * Write the checksum for a segment to its checksum file.
+     *
+     * @param archiveDir          containing the segment files.
+     * @param recordingId         of the recording.
+     * @param segmentBasePosition of the segment.
+     * @param length              of the segment contents covered by the checksum.
+     * @param forceWrites         should the checksum file be forced to disk.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(
+        final File archiveDir,
+        final long recordingId,
+        final long segmentBasePosition,
+        final long length,
+        final boolean forceWrites) throws IOException
+    {
+        final File file = new File(archiveDir, checksumFileName(recordingId, segmentBasePosition));
+        write(file, algorithm, value(), length, forceWrites);
+    }
+
+    /**
+     * Write a checksum which has already been computed to a checksum file.
+     *
+     * @param file        for the checksum.
+     * @param algorithm   with which the checksum was computed.
+     * @param value       of the checksum.
+     * @param length      of the segment contents covered by the checksum.
+     * @param forceWrites should the checksum file be forced to disk.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(
+        final File file, final int algorithm, final int value, final long length, final boolean forceWrites)
+        throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(FILE_LENGTH).order(LITTLE_ENDIAN);
+        buffer
+            .putInt(ALGORITHM_OFFSET, algorithm)
+            .putInt(CHECKSUM_OFFSET, value)
+            .putLong(LENGTH_OFFSET, length);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING))
+        {
+            while (buffer.remaining() > 0)
+            {
+                channel.write(buffer, buffer.position());
+            }
+
+            if (forceWrites)
+            {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Verify the contents of a segment file against its checksum file. The checksum of a compressed segment covers
+     * its uncompressed contents.
+     *
+     * @param checksumFile for the segment.
+     * @param segmentFile  to be verified.
+     * @return {@link Result#UNAVAILABLE} if the checksum file is incomplete or its algorithm is not supported.
+     * @throws IOException if the files cannot be read.
+     */
+    static Result verify(final File checksumFile, final File segmentFile) throws IOException
+    {
+        if (FILE_LENGTH != checksumFile.length())
+        {
+            return Result.UNAVAILABLE;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(FILE_LENGTH).order(LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(checksumFile.toPath(), READ))
+        {
+            while (buffer.remaining() > 0)
+            {
+                if (channel.read(buffer, buffer.position()) < 0)
+                {
+                    return Result.UNAVAILABLE;
+                }
+            }
+        }
+
+        final int algorithm = buffer.getInt(ALGORITHM_OFFSET);
+        if (!isSupported(algorithm))
+        {
+            return Result.UNAVAILABLE;
+        }
+
+        final long length = buffer.getLong(LENGTH_OFFSET);
+        final SegmentChecksum segmentChecksum = new SegmentChecksum(algorithm);
+
+        if (CompressedSegment.isCompressed(segmentFile))
+        {
+            try (CompressedSegment.Reader reader = new CompressedSegment.Reader(segmentFile))
+            {
+                if (reader.segmentLength() < length)
+                {
+                    return Result.INVALID;
+                }
+
+                segmentChecksum.update(reader, (int)length);
+            }
+        }
+        else
+        {
+            if (segmentFile.length() < length)
+            {
+                return Result.INVALID;
+            }
+
+            segmentChecksum.update(segmentFile, length);
+        }
+
+        return segmentChecksum.value() == buffer.getInt(CHECKSUM_OFFSET) ? Result.VALID : Result.INVALID;
+    }
+
+    private static Checksum newChecksum(final int algorithm)
+    {
+        if (CRC32C_ALGORITHM == algorithm && null != CRC32C_CONSTRUCTOR)
+        {
+            try
+            {
+                return (Checksum)CRC32C_CONSTRUCTOR.newInstance();
+            }
+            catch (final ReflectiveOperationException ex)
+            {
+                throw new IllegalStateException(ex);
+            }
+        }
+        else if (CRC32_ALGORITHM == algorithm)
+        {
+            return new CRC32();
+        }
+
+        throw new IllegalArgumentException("unsupported checksum algorithm: " + algorithm);
+    }
+
+    private static Constructor<?> lookupCrc32cConstructor()
+    {
+        try
+        {
+            return Class.forName("java.util.zip.CRC32C").getConstructor();
+        }
+        catch (final Exception ignore)
+        {
+            return null;
+        }
+    }
+}
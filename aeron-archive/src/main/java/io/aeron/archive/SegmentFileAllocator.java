@@ -0,0 +1,431 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Counter;
+import io.aeron.archive.client.ArchiveException;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentTerminationException;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.aeron.archive.Archive.Configuration.RECORDING_SEGMENT_SUFFIX;
+
+/**
+ * Allocates the next segment file of a recording ahead of it being required so the {@link RecordingWriter} does not
+ * have to create, size, and optionally fill the file on the recorder thread when it rolls over to a new segment.
+ * <p>
+ * Segments are allocated under a temporary name, which is not recognised as a segment file, and then renamed by
+ * the {@link RecordingWriter} on roll over so a recording never appears to have segments beyond its stop position.
+ * The number of roll overs which had to wait for, or perform, allocation are counted.
+ * <p>
+ * When file sync is enabled the archive directory is forced on the allocator thread after a segment is renamed so
+ * the recorder thread does not block on it. A crash before the directory is forced can leave a recorded segment
+ * under its temporary name, so {@link #recoverPendingSegments(File)} must be called on start before the catalog is
+ * loaded to restore such segments and delete allocations which were never used.
+ * <p>
+ * With segment checksums enabled the checksum file of a completed segment is also written, and forced when file sync
+ * is enabled, on the allocator thread so roll over does not block on it. A checksum which is still pending when the
+ * allocator closes is written on close.
+ */
+class SegmentFileAllocator implements Agent
+{
+    static final String PENDING_SEGMENT_SUFFIX = ".tmp";
+
+    private static final int ALLOCATION_LIMIT = 10;
+    private static final int FILL_BUFFER_LENGTH = 64 * 1024;
+
+    private final boolean forceWrites;
+    private final boolean forceMetadata;
+    private final boolean fillSegment;
+    private final FileChannel archiveDirChannel;
+    private final ErrorHandler errorHandler;
+    private final Counter allocationWaitCounter;
+    private final CountDownLatch abortLatch;
+    private final ManyToOneConcurrentLinkedQueue<PendingSegment> pendingSegments =
+        new ManyToOneConcurrentLinkedQueue<>();
+    private final ManyToOneConcurrentLinkedQueue<PendingChecksum> pendingChecksums =
+        new ManyToOneConcurrentLinkedQueue<>();
+    private ByteBuffer fillBuffer;
+    private volatile boolean isDirectoryForcePending;
+    private volatile boolean isAbort;
+
+    SegmentFileAllocator(
+        final Archive.Context ctx,
+        final FileChannel archiveDirChannel,
+        final Counter allocationWaitCounter,
+        final CountDownLatch abortLatch)
+    {
+        this.forceWrites = ctx.fileSyncLevel() > 0;
+        this.forceMetadata = ctx.fileSyncLevel() > 1;
+        this.fillSegment = ctx.segmentFileFill();
+        this.archiveDirChannel = ctx.fileSyncLevel() > 0 ? archiveDirChannel : null;
+        this.errorHandler = ctx.countedErrorHandler();
+        this.allocationWaitCounter = allocationWaitCounter;
+        this.abortLatch = abortLatch;
+    }
+
+    /**
+     * Recover segments left under their temporary name by a previous run of the archive. A segment which contains
+     * recorded data, because it was renamed but the directory was not forced before a crash, is restored to its
+     * segment file name. Any other pending segment was never used and is deleted.
+     *
+     * @param archiveDir containing the segment files.
+     */
+    static void recoverPendingSegments(final File archiveDir)
+    {
+        final String pendingSuffix = RECORDING_SEGMENT_SUFFIX + PENDING_SEGMENT_SUFFIX;
+        final String[] pendingFileNames = archiveDir.list((dir, name) -> name.endsWith(pendingSuffix));
+        if (null == pendingFileNames)
+        {
+            return;
+        }
+
+        for (final String pendingFileName : pendingFileNames)
+        {
+            final File pendingFile = new File(archiveDir, pendingFileName);
+            final File segmentFile = new File(
+                archiveDir, pendingFileName.substring(0, pendingFileName.length() - PENDING_SEGMENT_SUFFIX.length()));
+
+            try
+            {
+                if (!segmentFile.exists() && hasRecordedData(pendingFile))
+                {
+                    Files.move(pendingFile.toPath(), segmentFile.toPath());
+                }
+                else
+                {
+                    Files.delete(pendingFile.toPath());
+                }
+            }
+            catch (final IOException ex)
+            {
+                throw new ArchiveException(
+                    "failed to recover pending segment: " + pendingFile, ex, ArchiveException.GENERIC);
+            }
+        }
+    }
+
+    public String roleName()
+    {
+        return "archive-segment-allocator";
+    }
+
+    public int doWork()
+    {
+        if (isAbort)
+        {
+            throw new AgentTerminationException();
+        }
+
+        int workCount = 0;
+        if (isDirectoryForcePending)
+        {
+            isDirectoryForcePending = false;
+            forceDirectory();
+            workCount++;
+        }
+
+        PendingChecksum checksum;
+        while (workCount < ALLOCATION_LIMIT && null != (checksum = pendingChecksums.poll()))
+        {
+            writeChecksum(checksum);
+            workCount++;
+        }
+
+        PendingSegment segment;
+
+        while (workCount < ALLOCATION_LIMIT && null != (segment = pendingSegments.poll()))
+        {
+            if (segment.state.compareAndSet(PendingSegment.PENDING, PendingSegment.ALLOCATING))
+            {
+                allocate(segment);
+            }
+
+            workCount++;
+        }
+
+        return workCount;
+    }
+
+    public void onClose()
+    {
+        PendingSegment segment;
+        while (null != (segment = pendingSegments.poll()))
+        {
+            segment.state.compareAndSet(PendingSegment.PENDING, PendingSegment.CANCELLED);
+        }
+
+        PendingChecksum checksum;
+        while (null != (checksum = pendingChecksums.poll()))
+        {
+            writeChecksum(checksum);
+        }
+
+        if (isDirectoryForcePending)
+        {
+            isDirectoryForcePending = false;
+            forceDirectory();
+        }
+
+        CloseHelper.close(allocationWaitCounter);
+
+        if (isAbort && null != abortLatch)
+        {
+            abortLatch.countDown();
+        }
+    }
+
+    /**
+     * Abort the allocator so it terminates without waiting for an orderly close when running on its own thread.
+     */
+    void abort()
+    {
+        isAbort = true;
+    }
+
+    /**
+     * Request the archive directory is forced to disk on the allocator thread, such as after a segment file has been
+     * renamed or created by a {@link RecordingWriter}.
+     */
+    void forceDirectoryAsync()
+    {
+        if (null != archiveDirChannel)
+        {
+            isDirectoryForcePending = true;
+        }
+    }
+
+    /**
+     * Request the checksum of a completed segment is written to its checksum file in the background.
+     *
+     * @param file      for the checksum.
+     * @param algorithm with which the checksum was computed.
+     * @param value     of the checksum.
+     * @param length    of the segment contents covered by the checksum.
+     */
+    void writeChecksumAsync(final File file, final int algorithm, final int value, final long length)
+    {
+        final PendingChecksum checksum = new PendingChecksum(file, algorithm, value, length);
+        if (!pendingChecksums.offer(checksum))
+        {
+            writeChecksum(checksum);
+        }
+    }
+
+    /**
+     * Request the allocation of a segment file in the background.
+     *
+     * @param file   to be allocated when the segment becomes active.
+     * @param length of the segment file.
+     * @return the pending segment to be claimed with {@link #claim(PendingSegment)} on roll over.
+     */
+    PendingSegment allocateAsync(final File file, final int length)
+    {
+        final PendingSegment segment = new PendingSegment(
+            new File(file.getParentFile(), file.getName() + PENDING_SEGMENT_SUFFIX), length);
+
+        if (!pendingSegments.offer(segment))
+        {
+            segment.state.set(PendingSegment.CANCELLED);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Claim a pending segment for use by cancelling the allocation if it has not yet started or waiting for it to
+     * complete if in progress.
+     *
+     * @param segment previously requested by {@link #allocateAsync(File, int)}.
+     * @return the allocated file to be renamed or null if not allocated and allocation should be performed by caller.
+     */
+    File claim(final PendingSegment segment)
+    {
+        if (segment.state.compareAndSet(PendingSegment.PENDING, PendingSegment.CANCELLED))
+        {
+            allocationWaitCounter.incrementOrdered();
+            return null;
+        }
+
+        if (PendingSegment.ALLOCATING == segment.state.get())
+        {
+            allocationWaitCounter.incrementOrdered();
+        }
+
+        return awaitAllocation(segment) ? segment.file : null;
+    }
+
+    /**
+     * Release a pending segment which will not be used, deleting the file if it has been allocated.
+     *
+     * @param segment previously requested by {@link #allocateAsync(File, int)}.
+     */
+    void release(final PendingSegment segment)
+    {
+        if (!segment.state.compareAndSet(PendingSegment.PENDING, PendingSegment.CANCELLED) &&
+            awaitAllocation(segment) &&
+            !segment.file.delete())
+        {
+            errorHandler.onError(new IOException("failed to delete: " + segment.file));
+        }
+    }
+
+    private static boolean awaitAllocation(final PendingSegment segment)
+    {
+        while (PendingSegment.ALLOCATING == segment.state.get())
+        {
+            Thread.yield();
+            if (Thread.currentThread().isInterrupted())
+            {
+                return false;
+            }
+        }
+
+        return PendingSegment.ALLOCATED == segment.state.get();
+    }
+
+    private void allocate(final PendingSegment segment)
+    {
+        try
+        {
+            try (RandomAccessFile file = new RandomAccessFile(segment.file, "rw"))
+            {
+                file.setLength(segment.length);
+
+                if (fillSegment)
+                {
+                    fill(file.getChannel(), segment.length);
+                }
+            }
+
+            segment.state.set(PendingSegment.ALLOCATED);
+        }
+        catch (final Exception ex)
+        {
+            if (!segment.file.delete() && segment.file.exists())
+            {
+                ex.addSuppressed(new IOException("failed to delete: " + segment.file));
+            }
+
+            segment.state.set(PendingSegment.FAILED);
+            errorHandler.onError(ex);
+        }
+    }
+
+    private void writeChecksum(final PendingChecksum checksum)
+    {
+        try
+        {
+            SegmentChecksum.write(checksum.file, checksum.algorithm, checksum.value, checksum.length, forceWrites);
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    private void forceDirectory()
+    {
+        try
+        {
+            archiveDirChannel.force(forceMetadata);
+        }
+        catch (final Exception ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    private static boolean hasRecordedData(final File pendingFile) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(pendingFile.toPath(), StandardOpenOption.READ))
+        {
+            final ByteBuffer frameLengthBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (frameLengthBuffer.remaining() > 0)
+            {
+                if (channel.read(frameLengthBuffer, frameLengthBuffer.position()) < 0)
+                {
+                    return false;
+                }
+            }
+
+            return frameLengthBuffer.getInt(0) != 0;
+        }
+    }
+
+    private void fill(final FileChannel channel, final int length) throws IOException
+    {
+        if (null == fillBuffer)
+        {
+            fillBuffer = ByteBuffer.allocateDirect(FILL_BUFFER_LENGTH);
+        }
+
+        long position = 0;
+        while (position < length)
+        {
+            fillBuffer.clear().limit((int)Math.min(FILL_BUFFER_LENGTH, length - position));
+            position += channel.write(fillBuffer, position);
+        }
+    }
+
+    static final class PendingSegment
+    {
+        static final int PENDING = 0;
+        static final int ALLOCATING = 1;
+        static final int ALLOCATED = 2;
+        static final int FAILED = 3;
+        static final int CANCELLED = 4;
+
+        final File file;
+        final int length;
+        final AtomicInteger state = new AtomicInteger(PENDING);
+
+        PendingSegment(final File file, final int length)
+        {
+            this.file = file;
+            this.length = length;
+        }
+    }
+
+    static final class PendingChecksum
+    {
+        final File file;
+        final int algorithm;
+        final int value;
+        final long length;
+
+        PendingChecksum(final File file, final int algorithm, final int value, final long length)
+        {
+            this.file = file;
+            this.algorithm = algorithm;
+            this.value = value;
+            this.length = length;
+        }
+    }
+}
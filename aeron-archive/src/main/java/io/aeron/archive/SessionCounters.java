@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import io.aeron.Image;
+import io.aeron.driver.status.PublisherPos;
+import io.aeron.driver.status.ReceiverHwm;
+import io.aeron.driver.status.StreamCounter;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.archive.Archive.Configuration.RECORDING_IO_TIME_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.RECORDING_LAG_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.RECORDING_RATE_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.REPLAY_BACK_PRESSURE_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.REPLAY_IO_TIME_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.REPLAY_RATE_TYPE_ID;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.concurrent.status.CountersReader.*;
+
+/**
+ * Counters for the throughput of a recording or replay session which are registered with the media driver so they can
+ * be observed in the CnC file with tools such as AeronStat.
+ * <p>
+ * The rate is sampled over an interval of {@link #RATE_INTERVAL_NS} and the lag of a recording, which is how far the
+ * recorded position is behind the receiver high-water mark or publisher position of the stream, is updated at the
+ * same time. The key of each counter is laid out as follows:
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                  Recording or Replay Session ID               |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                         Recording ID                          |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                          Stream ID                            |
+ *  +---------------------------------------------------------------+
+ * </pre>
+ */
+class SessionCounters implements AutoCloseable
+{
+    static final long RATE_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+
+    static final int SESSION_ID_OFFSET = 0;
+    static final int RECORDING_ID_OFFSET = SESSION_ID_OFFSET + SIZE_OF_LONG;
+    static final int STREAM_ID_OFFSET = RECORDING_ID_OFFSET + SIZE_OF_LONG;
+    static final int KEY_LENGTH = STREAM_ID_OFFSET + SIZE_OF_INT;
+
+    private final NanoClock nanoClock;
+    private final Counter rate;
+    private final Counter ioTime;
+    private final Counter lag;
+    private final Counter backPressure;
+    private final CountersReader countersReader;
+    private final int liveCounterId;
+    private long intervalBytes;
+    private long intervalStartNs;
+    private boolean isBackPressured;
+
+    private SessionCounters(
+        final NanoClock nanoClock,
+        final Counter rate,
+        final Counter ioTime,
+        final Counter lag,
+        final Counter backPressure,
+        final CountersReader countersReader,
+        final int liveCounterId)
+    {
+        this.nanoClock = nanoClock;
+        this.rate = rate;
+        this.ioTime = ioTime;
+        this.lag = lag;
+        this.backPressure = backPressure;
+        this.countersReader = countersReader;
+        this.liveCounterId = liveCounterId;
+        this.intervalStartNs = nanoClock.nanoTime();
+    }
+
+    static SessionCounters forRecording(
+        final Aeron aeron,
+        final UnsafeBuffer tempBuffer,
+        final NanoClock nanoClock,
+        final long recordingId,
+        final String strippedChannel,
+        final Image image)
+    {
+        final int streamId = image.subscription().streamId();
+        final CountersReader countersReader = aeron.countersReader();
+
+        return new SessionCounters(
+            nanoClock,
+            allocate(aeron, tempBuffer, RECORDING_RATE_TYPE_ID, "rec-rate", recordingId, recordingId, streamId,
+                strippedChannel),
+            allocate(aeron, tempBuffer, RECORDING_IO_TIME_TYPE_ID, "rec-io-ns", recordingId, recordingId, streamId,
+                strippedChannel),
+            allocate(aeron, tempBuffer, RECORDING_LAG_TYPE_ID, "rec-lag", recordingId, recordingId, streamId,
+                strippedChannel),
+            null,
+            countersReader,
+            findLiveCounterId(countersReader, image.correlationId(), image.sessionId()));
+    }
+
+    static SessionCounters forReplay(
+        final Aeron aeron,
+        final UnsafeBuffer tempBuffer,
+        final NanoClock nanoClock,
+        final long replaySessionId,
+        final long recordingId,
+        final int streamId,
+        final String replayChannel)
+    {
+        return new SessionCounters(
+            nanoClock,
+            allocate(aeron, tempBuffer, REPLAY_RATE_TYPE_ID, "replay-rate", replaySessionId, recordingId, streamId,
+                replayChannel),
+            allocate(aeron, tempBuffer, REPLAY_IO_TIME_TYPE_ID, "replay-io-ns", replaySessionId, recordingId,
+                streamId, replayChannel),
+            null,
+            allocate(aeron, tempBuffer, REPLAY_BACK_PRESSURE_TYPE_ID, "replay-bp", replaySessionId, recordingId,
+                streamId, replayChannel),
+            null,
+            NULL_COUNTER_ID);
+    }
+
+    public void close()
+    {
+        CloseHelper.close(rate);
+        CloseHelper.close(ioTime);
+        CloseHelper.close(lag);
+        CloseHelper.close(backPressure);
+    }
+
+    long nanoTime()
+    {
+        return nanoClock.nanoTime();
+    }
+
+    /**
+     * Account for bytes which have been written by a recording or sent by a replay.
+     *
+     * @param length in bytes.
+     */
+    void onBytes(final long length)
+    {
+        intervalBytes += length;
+        isBackPressured = false;
+    }
+
+    void onIoTime(final long durationNs)
+    {
+        ioTime.getAndAddOrdered(durationNs);
+    }
+
+    /**
+     * Account for the session being unable to proceed due to back pressure. Each episode of back pressure is counted
+     * once rather than each failed attempt while it lasts.
+     */
+    void onBackPressure()
+    {
+        if (!isBackPressured && null != backPressure)
+        {
+            isBackPressured = true;
+            backPressure.incrementOrdered();
+        }
+    }
+
+    /**
+     * Update the rate, and lag for a recording, when the sample interval has elapsed.
+     *
+     * @param nowNs    current time in nanoseconds.
+     * @param position the session has reached in the recording.
+     */
+    void sample(final long nowNs, final long position)
+    {
+        final long elapsedNs = nowNs - intervalStartNs;
+        if (elapsedNs >= RATE_INTERVAL_NS)
+        {
+            rate.setOrdered((intervalBytes * 1_000_000_000L) / elapsedNs);
+            intervalBytes = 0;
+            intervalStartNs = nowNs;
+
+            if (null != lag && NULL_COUNTER_ID != liveCounterId)
+            {
+                lag.setOrdered(Math.max(0, countersReader.getCounterValue(liveCounterId) - position));
+            }
+        }
+    }
+
+    private static Counter allocate(
+        final Aeron aeron,
+        final UnsafeBuffer tempBuffer,
+        final int typeId,
+        final String name,
+        final long sessionId,
+        final long recordingId,
+        final int streamId,
+        final String channel)
+    {
+        tempBuffer.putLong(SESSION_ID_OFFSET, sessionId);
+        tempBuffer.putLong(RECORDING_ID_OFFSET, recordingId);
+        tempBuffer.putInt(STREAM_ID_OFFSET, streamId);
+
+        final int labelOffset = BitUtil.align(KEY_LENGTH, SIZE_OF_INT);
+        int labelLength = 0;
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset, name + ": ");
+        labelLength += tempBuffer.putLongAscii(labelOffset + labelLength, sessionId);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " ");
+        labelLength += tempBuffer.putLongAscii(labelOffset + labelLength, recordingId);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " ");
+        labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, streamId);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " ");
+        labelLength += tempBuffer.putStringWithoutLengthAscii(
+            labelOffset + labelLength, channel, 0, MAX_LABEL_LENGTH - labelLength);
+
+        return aeron.addCounter(typeId, tempBuffer, 0, KEY_LENGTH, tempBuffer, labelOffset, labelLength);
+    }
+
+    /**
+     * Find the counter for the live position of the stream an image is consuming, which is the receiver high-water
+     * mark for a network image or the publisher position for an IPC or spy image.
+     *
+     * @param countersReader to search within.
+     * @param registrationId of the image with the media driver.
+     * @param sessionId      of the image.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    static int findLiveCounterId(final CountersReader countersReader, final long registrationId, final int sessionId)
+    {
+        final DirectBuffer buffer = countersReader.metaDataBuffer();
+
+        for (int i = 0, size = countersReader.maxCounterId(); i < size; i++)
+        {
+            if (countersReader.getCounterState(i) == RECORD_ALLOCATED)
+            {
+                final int recordOffset = CountersReader.metaDataOffset(i);
+                final int typeId = buffer.getInt(recordOffset + TYPE_ID_OFFSET);
+
+                if ((ReceiverHwm.RECEIVER_HWM_TYPE_ID == typeId || PublisherPos.PUBLISHER_POS_TYPE_ID == typeId) &&
+                    buffer.getLong(recordOffset + KEY_OFFSET + StreamCounter.REGISTRATION_ID_OFFSET) ==
+                    registrationId &&
+                    buffer.getInt(recordOffset + KEY_OFFSET + StreamCounter.SESSION_ID_OFFSET) == sessionId)
+                {
+                    return i;
+                }
+            }
+        }
+
+        return NULL_COUNTER_ID;
+    }
+}
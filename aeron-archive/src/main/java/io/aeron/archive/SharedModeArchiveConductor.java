@@ -23,6 +23,7 @@ final class SharedModeArchiveConductor extends ArchiveConductor
 {
     private AgentInvoker replayerAgentInvoker;
     private AgentInvoker recorderAgentInvoker;
+    private AgentInvoker segmentFileAllocatorAgentInvoker;
 
     SharedModeArchiveConductor(final Archive.Context ctx)
     {
@@ -38,6 +39,12 @@ final class SharedModeArchiveConductor extends ArchiveConductor
 
         replayerAgentInvoker.start();
         recorderAgentInvoker.start();
+
+        if (null != segmentFileAllocator)
+        {
+            segmentFileAllocatorAgentInvoker = new AgentInvoker(errorHandler, ctx.errorCounter(), segmentFileAllocator);
+            segmentFileAllocatorAgentInvoker.start();
+        }
     }
 
     protected SessionWorker<RecordingSession> newRecorder()
@@ -45,7 +52,7 @@ final class SharedModeArchiveConductor extends ArchiveConductor
         return new SharedModeRecorder(errorHandler);
     }
 
-    protected SessionWorker<ReplaySession> newReplayer()
+    protected SessionWorker<Session> newReplayer()
     {
         return new SharedModeReplayer(errorHandler);
     }
@@ -58,13 +65,20 @@ final class SharedModeArchiveConductor extends ArchiveConductor
             invokeDriverConductor() +
             recorderAgentInvoker.invoke() +
             invokeAeronInvoker() +
-            invokeDriverConductor();
+            invokeDriverConductor() +
+            invokeSegmentFileAllocator();
     }
 
     protected void closeSessionWorkers()
     {
         CloseHelper.close(recorderAgentInvoker);
         CloseHelper.close(replayerAgentInvoker);
+        CloseHelper.close(segmentFileAllocatorAgentInvoker);
+    }
+
+    private int invokeSegmentFileAllocator()
+    {
+        return null != segmentFileAllocatorAgentInvoker ? segmentFileAllocatorAgentInvoker.invoke() : 0;
     }
 
     class SharedModeRecorder extends SessionWorker<RecordingSession>
@@ -80,16 +94,16 @@ final class SharedModeArchiveConductor extends ArchiveConductor
         }
     }
 
-    class SharedModeReplayer extends SessionWorker<ReplaySession>
+    class SharedModeReplayer extends SessionWorker<Session>
     {
         SharedModeReplayer(final ErrorHandler errorHandler)
         {
             super("archive-replayer", errorHandler);
         }
 
-        protected void closeSession(final ReplaySession session)
+        protected void closeSession(final Session session)
         {
-            closeReplaySession(session);
+            closeReplayerSession(session);
         }
     }
 }
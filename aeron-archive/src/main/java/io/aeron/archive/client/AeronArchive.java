@@ -733,6 +733,48 @@ public class AeronArchive implements AutoCloseable
         }
     }
 
+    /**
+     * Start a replay of multiple recordings merged into a single stream in the order of the timestamps held in the
+     * reserved value of their frames, e.g. as set by a {@link io.aeron.ReservedValueSupplier} when recorded. Each
+     * recording is replayed from its start to the position it had reached when the replay was started.
+     * <p>
+     * The lower 32-bits of the returned value contains the {@link Image#sessionId()} of the received replay. All
+     * 64-bits are required to uniquely identify the replay when calling {@link #stopReplay(long)}.
+     *
+     * @param recordingIds   to be replayed and merged.
+     * @param replayChannel  to which the replay should be sent.
+     * @param replayStreamId to which the replay should be sent.
+     * @return the id of the replay session which will be the same as the {@link Image#sessionId()} of the received
+     * replay for correlation with the matching channel and stream id in the lower 32 bits.
+     */
+    public long startMergedReplay(final long[] recordingIds, final String replayChannel, final int replayStreamId)
+    {
+        lock.lock();
+        try
+        {
+            ensureOpen();
+            ensureNotReentrant();
+
+            final long correlationId = aeron.nextCorrelationId();
+
+            if (!archiveProxy.mergedReplay(
+                recordingIds,
+                replayChannel,
+                replayStreamId,
+                correlationId,
+                controlSessionId))
+            {
+                throw new ArchiveException("failed to send merged replay request");
+            }
+
+            return pollForResponse(correlationId);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
     /**
      * Start a replay for a length in bytes of a recording from a position bounded by a position counter.
      * If the position is {@link #NULL_POSITION} then the stream will be replayed from the start.
@@ -1034,6 +1076,70 @@ public class AeronArchive implements AutoCloseable
         }
     }
 
+    /**
+     * Query a page of recording descriptors which match a filter evaluated by the archive so only matching
+     * descriptors are sent, in batches, to the client. Further pages can be queried from the returned recording id.
+     * <p>
+     * Recordings match when they overlap the time range, and active recordings are considered to extend to now.
+     *
+     * @param fromRecordingId at which to begin the query.
+     * @param recordCount     for the maximum number of descriptors in the page.
+     * @param streamId        to match recordings on, or {@link Aeron#NULL_VALUE} for any stream.
+     * @param channelFragment for a contains match on the original channel stored with the archive descriptor.
+     * @param fromTimestamp   from which recordings overlap or {@link #NULL_TIMESTAMP} for no bound.
+     * @param toTimestamp     up to which recordings overlap or {@link #NULL_TIMESTAMP} for no bound.
+     * @param minLength       of recorded stream for recordings to match, zero for any length.
+     * @param activeOnly      to match only recordings which are currently active.
+     * @param consumer        to which the descriptors are dispatched.
+     * @return the recording id from which to query the next page or {@link Aeron#NULL_VALUE} if the end of the
+     * catalog has been reached.
+     */
+    public long queryRecordings(
+        final long fromRecordingId,
+        final int recordCount,
+        final int streamId,
+        final String channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly,
+        final RecordingDescriptorConsumer consumer)
+    {
+        lock.lock();
+        try
+        {
+            ensureOpen();
+            ensureNotReentrant();
+
+            isInCallback = true;
+            final long correlationId = aeron.nextCorrelationId();
+
+            if (!archiveProxy.queryRecordings(
+                fromRecordingId,
+                recordCount,
+                streamId,
+                channelFragment,
+                fromTimestamp,
+                toTimestamp,
+                minLength,
+                activeOnly,
+                correlationId,
+                controlSessionId))
+            {
+                throw new ArchiveException("failed to send query recordings request");
+            }
+
+            pollForDescriptors(correlationId, recordCount, consumer);
+
+            return recordingDescriptorPoller().nextRecordingId();
+        }
+        finally
+        {
+            isInCallback = false;
+            lock.unlock();
+        }
+    }
+
     /**
      * List a recording descriptor for a single recording id.
      * <p>
@@ -1588,6 +1694,39 @@ public class AeronArchive implements AutoCloseable
         }
     }
 
+    /**
+     * Compress the completed segments of a recording, i.e. those before the segment containing the stop position or
+     * the current position of an active recording, so they take less space on disk.
+     * <p>
+     * Compression happens in the background on the archive after this method returns. Segments are replaced by their
+     * compressed form one at a time and are transparently decompressed when replayed.
+     *
+     * @param recordingId to which the operation applies.
+     * @return count of segment files which will be compressed.
+     */
+    public long compressSegments(final long recordingId)
+    {
+        lock.lock();
+        try
+        {
+            ensureOpen();
+            ensureNotReentrant();
+
+            final long correlationId = aeron.nextCorrelationId();
+
+            if (!archiveProxy.compressSegments(recordingId, correlationId, controlSessionId))
+            {
+                throw new ArchiveException("failed to send compress segments request");
+            }
+
+            return pollForResponse(correlationId);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
     private void checkDeadline(final long deadlineNs, final String errorMessage, final long correlationId)
     {
         if (Thread.interrupted())
@@ -70,6 +70,9 @@ public class ArchiveProxy
     private AttachSegmentsRequestEncoder attachSegmentsRequestEncoder;
     private MigrateSegmentsRequestEncoder migrateSegmentsRequestEncoder;
     private TaggedReplicateRequestEncoder taggedReplicateRequestEncoder;
+    private CompressSegmentsRequestEncoder compressSegmentsRequestEncoder;
+    private QueryRecordingsRequestEncoder queryRecordingsRequestEncoder;
+    private MergedReplayRequestEncoder mergedReplayRequestEncoder;
 
     /**
      * Create a proxy with a {@link Publication} for sending control message requests.
@@ -388,6 +391,47 @@ public class ArchiveProxy
         return offer(replayRequestEncoder.encodedLength());
     }
 
+    /**
+     * Replay multiple recordings merged into a single stream in the order of the timestamps held in the reserved value
+     * of their frames.
+     *
+     * @param recordingIds     to be replayed and merged.
+     * @param replayChannel    to which the replay should be sent.
+     * @param replayStreamId   to which the replay should be sent.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean mergedReplay(
+        final long[] recordingIds,
+        final String replayChannel,
+        final int replayStreamId,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        if (null == mergedReplayRequestEncoder)
+        {
+            mergedReplayRequestEncoder = new MergedReplayRequestEncoder();
+        }
+
+        mergedReplayRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .replayStreamId(replayStreamId);
+
+        final MergedReplayRequestEncoder.RecordingsEncoder recordings =
+            mergedReplayRequestEncoder.recordingsCount(recordingIds.length);
+        for (final long recordingId : recordingIds)
+        {
+            recordings.next().recordingId(recordingId);
+        }
+
+        mergedReplayRequestEncoder.replayChannel(replayChannel);
+
+        return offer(mergedReplayRequestEncoder.encodedLength());
+    }
+
     /**
      * Replay a recording from a given position bounded by a position counter.
      *
@@ -541,6 +585,55 @@ public class ArchiveProxy
         return offer(listRecordingsForUriRequestEncoder.encodedLength());
     }
 
+    /**
+     * Query a page of recording descriptors which match a filter that is evaluated by the archive. Descriptors are
+     * returned in batches and the last batch contains the recording id from which to query the next page.
+     *
+     * @param fromRecordingId  at which to begin the query.
+     * @param recordCount      for the maximum number of descriptors in the page.
+     * @param streamId         to match recordings on, or {@link io.aeron.Aeron#NULL_VALUE} for any stream.
+     * @param channelFragment  to match recordings on from the original channel URI in the archive descriptor.
+     * @param fromTimestamp    from which recordings overlap or {@link AeronArchive#NULL_TIMESTAMP} for no bound.
+     * @param toTimestamp      up to which recordings overlap or {@link AeronArchive#NULL_TIMESTAMP} for no bound.
+     * @param minLength        of recorded stream for recordings to match, zero for any length.
+     * @param activeOnly       to match only recordings which are currently active.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean queryRecordings(
+        final long fromRecordingId,
+        final int recordCount,
+        final int streamId,
+        final String channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly,
+        final long correlationId,
+        final long controlSessionId)
+    {
+        if (null == queryRecordingsRequestEncoder)
+        {
+            queryRecordingsRequestEncoder = new QueryRecordingsRequestEncoder();
+        }
+
+        queryRecordingsRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .fromRecordingId(fromRecordingId)
+            .fromTimestamp(fromTimestamp)
+            .toTimestamp(toTimestamp)
+            .minLength(minLength)
+            .recordCount(recordCount)
+            .streamId(streamId)
+            .activeOnly(activeOnly ? BooleanType.TRUE : BooleanType.FALSE)
+            .channel(channelFragment);
+
+        return offer(queryRecordingsRequestEncoder.encodedLength());
+    }
+
     /**
      * List a recording descriptor for a given recording id.
      *
@@ -1060,6 +1153,31 @@ public class ArchiveProxy
         return offer(migrateSegmentsRequestEncoder.encodedLength());
     }
 
+    /**
+     * Compress the completed segments of a recording so they take less space on disk. Compression happens in the
+     * background on the archive and compressed segments are transparently decompressed when replayed.
+     *
+     * @param recordingId      to which the operation applies.
+     * @param correlationId    for this request.
+     * @param controlSessionId for this request.
+     * @return true if successfully offered otherwise false.
+     */
+    public boolean compressSegments(final long recordingId, final long correlationId, final long controlSessionId)
+    {
+        if (null == compressSegmentsRequestEncoder)
+        {
+            compressSegmentsRequestEncoder = new CompressSegmentsRequestEncoder();
+        }
+
+        compressSegmentsRequestEncoder
+            .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+            .controlSessionId(controlSessionId)
+            .correlationId(correlationId)
+            .recordingId(recordingId);
+
+        return offer(compressSegmentsRequestEncoder.encodedLength());
+    }
+
     private boolean offer(final int length)
     {
         retryIdleStrategy.reset();
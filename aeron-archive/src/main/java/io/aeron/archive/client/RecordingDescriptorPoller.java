@@ -15,6 +15,7 @@
  */
 package io.aeron.archive.client;
 
+import io.aeron.Aeron;
 import io.aeron.ControlledFragmentAssembler;
 import io.aeron.Subscription;
 import io.aeron.archive.codecs.*;
@@ -31,6 +32,8 @@ public class RecordingDescriptorPoller implements ControlledFragmentHandler
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final ControlResponseDecoder controlResponseDecoder = new ControlResponseDecoder();
     private final RecordingDescriptorDecoder recordingDescriptorDecoder = new RecordingDescriptorDecoder();
+    private final RecordingDescriptorBatchDecoder recordingDescriptorBatchDecoder =
+        new RecordingDescriptorBatchDecoder();
 
     private final long controlSessionId;
     private final int fragmentLimit;
@@ -39,6 +42,7 @@ public class RecordingDescriptorPoller implements ControlledFragmentHandler
     private final ErrorHandler errorHandler;
 
     private long correlationId;
+    private long nextRecordingId = Aeron.NULL_VALUE;
     private int remainingRecordCount;
     private boolean isDispatchComplete = false;
     private RecordingDescriptorConsumer consumer;
@@ -115,6 +119,17 @@ public class RecordingDescriptorPoller implements ControlledFragmentHandler
         return remainingRecordCount;
     }
 
+    /**
+     * Get the recording id from which the next page of a query can be requested after the dispatch is complete.
+     *
+     * @return the recording id from which the next page of a query can be requested or {@link Aeron#NULL_VALUE}
+     * if the end of the catalog has been reached.
+     */
+    public long nextRecordingId()
+    {
+        return nextRecordingId;
+    }
+
     /**
      * Reset the poller to dispatch the descriptors returned from a query.
      *
@@ -127,6 +142,7 @@ public class RecordingDescriptorPoller implements ControlledFragmentHandler
         this.correlationId = correlationId;
         this.consumer = consumer;
         this.remainingRecordCount = recordCount;
+        nextRecordingId = Aeron.NULL_VALUE;
         isDispatchComplete = false;
     }
 
@@ -221,8 +237,57 @@ public class RecordingDescriptorPoller implements ControlledFragmentHandler
                     }
                 }
                 break;
+
+            case RecordingDescriptorBatchDecoder.TEMPLATE_ID:
+                recordingDescriptorBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderEncoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                if (recordingDescriptorBatchDecoder.controlSessionId() == controlSessionId &&
+                    recordingDescriptorBatchDecoder.correlationId() == this.correlationId)
+                {
+                    onDescriptorBatch();
+
+                    if (BooleanType.TRUE == recordingDescriptorBatchDecoder.lastBatch())
+                    {
+                        isDispatchComplete = true;
+                        return Action.BREAK;
+                    }
+                }
+                break;
         }
 
         return Action.CONTINUE;
     }
+
+    private void onDescriptorBatch()
+    {
+        final RecordingDescriptorBatchDecoder decoder = recordingDescriptorBatchDecoder;
+        nextRecordingId = decoder.nextRecordingId();
+
+        for (final RecordingDescriptorBatchDecoder.DescriptorsDecoder descriptor : decoder.descriptors())
+        {
+            consumer.onRecordingDescriptor(
+                controlSessionId,
+                correlationId,
+                descriptor.recordingId(),
+                descriptor.startTimestamp(),
+                descriptor.stopTimestamp(),
+                descriptor.startPosition(),
+                descriptor.stopPosition(),
+                descriptor.initialTermId(),
+                descriptor.segmentFileLength(),
+                descriptor.termBufferLength(),
+                descriptor.mtuLength(),
+                descriptor.sessionId(),
+                descriptor.streamId(),
+                descriptor.strippedChannel(),
+                descriptor.originalChannel(),
+                descriptor.sourceIdentity());
+
+            --remainingRecordCount;
+        }
+    }
 }
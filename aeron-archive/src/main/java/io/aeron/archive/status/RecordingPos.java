@@ -30,6 +30,10 @@ import static org.agrona.concurrent.status.CountersReader.*;
 /**
  * The position a recording has reached when being archived.
  * <p>
+ * When the archive is configured to sync recording files then a second counter of type
+ * {@link #RECORDING_DURABLE_POSITION_TYPE_ID} with the same key layout tracks the position up to which the recording
+ * has been forced to disk.
+ * <p>
  * Key has the following layout:
  * <pre>
  *   0                   1                   2                   3
@@ -53,6 +57,11 @@ public class RecordingPos
      */
     public static final int RECORDING_POSITION_TYPE_ID = 100;
 
+    /**
+     * Type id of a recording durable position counter.
+     */
+    public static final int RECORDING_DURABLE_POSITION_TYPE_ID = 102;
+
     /**
      * Represents a null recording id when not found.
      */
@@ -63,6 +72,11 @@ public class RecordingPos
      */
     public static final String NAME = "rec-pos";
 
+    /**
+     * Human readable name for the durable position counter.
+     */
+    public static final String DURABLE_NAME = "rec-durable-pos";
+
     public static final int RECORDING_ID_OFFSET = 0;
     public static final int SESSION_ID_OFFSET = RECORDING_ID_OFFSET + SIZE_OF_LONG;
     public static final int SOURCE_IDENTITY_LENGTH_OFFSET = SESSION_ID_OFFSET + SIZE_OF_INT;
@@ -76,6 +90,50 @@ public class RecordingPos
         final int streamId,
         final String strippedChannel,
         final String sourceIdentity)
+    {
+        return allocate(
+            aeron,
+            tempBuffer,
+            RECORDING_POSITION_TYPE_ID,
+            NAME,
+            recordingId,
+            sessionId,
+            streamId,
+            strippedChannel,
+            sourceIdentity);
+    }
+
+    public static Counter allocateDurable(
+        final Aeron aeron,
+        final UnsafeBuffer tempBuffer,
+        final long recordingId,
+        final int sessionId,
+        final int streamId,
+        final String strippedChannel,
+        final String sourceIdentity)
+    {
+        return allocate(
+            aeron,
+            tempBuffer,
+            RECORDING_DURABLE_POSITION_TYPE_ID,
+            DURABLE_NAME,
+            recordingId,
+            sessionId,
+            streamId,
+            strippedChannel,
+            sourceIdentity);
+    }
+
+    private static Counter allocate(
+        final Aeron aeron,
+        final UnsafeBuffer tempBuffer,
+        final int typeId,
+        final String name,
+        final long recordingId,
+        final int sessionId,
+        final int streamId,
+        final String strippedChannel,
+        final String sourceIdentity)
     {
         tempBuffer.putLong(RECORDING_ID_OFFSET, recordingId);
         tempBuffer.putInt(SESSION_ID_OFFSET, sessionId);
@@ -86,7 +144,7 @@ public class RecordingPos
 
         final int labelOffset = BitUtil.align(keyLength, SIZE_OF_INT);
         int labelLength = 0;
-        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset, NAME + ": ");
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset, name + ": ");
         labelLength += tempBuffer.putLongAscii(labelOffset + labelLength, recordingId);
         labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " ");
         labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, sessionId);
@@ -96,8 +154,7 @@ public class RecordingPos
         labelLength += tempBuffer.putStringWithoutLengthAscii(
             labelOffset + labelLength, strippedChannel, 0, MAX_LABEL_LENGTH - labelLength);
 
-        return aeron.addCounter(
-            RECORDING_POSITION_TYPE_ID, tempBuffer, 0, keyLength, tempBuffer, labelOffset, labelLength);
+        return aeron.addCounter(typeId, tempBuffer, 0, keyLength, tempBuffer, labelOffset, labelLength);
     }
 
     /**
@@ -108,6 +165,24 @@ public class RecordingPos
      * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
      */
     public static int findCounterIdByRecording(final CountersReader countersReader, final long recordingId)
+    {
+        return findCounterIdByRecording(countersReader, RECORDING_POSITION_TYPE_ID, recordingId);
+    }
+
+    /**
+     * Find the active durable position counter id for a stream based on the recording id.
+     *
+     * @param countersReader to search within.
+     * @param recordingId    for the active recording.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    public static int findDurableCounterIdByRecording(final CountersReader countersReader, final long recordingId)
+    {
+        return findCounterIdByRecording(countersReader, RECORDING_DURABLE_POSITION_TYPE_ID, recordingId);
+    }
+
+    private static int findCounterIdByRecording(
+        final CountersReader countersReader, final int typeId, final long recordingId)
     {
         final DirectBuffer buffer = countersReader.metaDataBuffer();
 
@@ -117,7 +192,7 @@ public class RecordingPos
             {
                 final int recordOffset = CountersReader.metaDataOffset(i);
 
-                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == RECORDING_POSITION_TYPE_ID &&
+                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == typeId &&
                     buffer.getLong(recordOffset + KEY_OFFSET + RECORDING_ID_OFFSET) == recordingId)
                 {
                     return i;
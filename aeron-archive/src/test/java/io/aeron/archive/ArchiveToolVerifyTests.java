@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 
 import static io.aeron.archive.Archive.Configuration.RECORDING_SEGMENT_SUFFIX;
 import static io.aeron.archive.Archive.segmentFileName;
@@ -38,6 +39,7 @@ import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 import static io.aeron.archive.client.AeronArchive.NULL_TIMESTAMP;
 import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
 import static io.aeron.protocol.DataHeaderFlyweight.*;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static org.junit.jupiter.api.Assertions.*;
@@ -693,6 +695,72 @@ class ArchiveToolVerifyTests
         Mockito.verify(out, times(20)).println(any(String.class));
     }
 
+    @Test
+    void verifyRecordingShouldUseSegmentChecksumInsteadOfFrames() throws IOException
+    {
+        writeChecksum(validRecording4, 0, 0);
+
+        verifyRecording(out, archiveDir, validRecording4, true, epochClock, (file) -> false);
+
+        try (Catalog catalog = openCatalogReadOnly(archiveDir, epochClock))
+        {
+            assertRecording(catalog, validRecording4, VALID, 21 * TERM_LENGTH + (TERM_LENGTH - 64),
+                22 * TERM_LENGTH + 992, 19, 1, -25, 7, "ch2", "src2");
+        }
+    }
+
+    @Test
+    void verifyRecordingShouldMarkRecordingAsInvalidIfSegmentChecksumDoesNotMatch() throws IOException
+    {
+        writeChecksum(validRecording3, 7 * TERM_LENGTH, 1);
+
+        verifyRecording(out, archiveDir, validRecording3, true, epochClock, (file) -> false);
+
+        try (Catalog catalog = openCatalogReadOnly(archiveDir, epochClock))
+        {
+            assertRecording(catalog, validRecording3, INVALID, 7 * TERM_LENGTH + 96, 7 * TERM_LENGTH + 128,
+                18, NULL_TIMESTAMP, 7, 13, "ch2", "src2");
+        }
+    }
+
+    @Test
+    void verifyParallelValidateAllSegmentFiles()
+    {
+        verifyParallel(out, archiveDir, true, 4, epochClock, (file) -> true);
+
+        try (Catalog catalog = openCatalogReadOnly(archiveDir, epochClock))
+        {
+            assertValid(catalog, invalidRecording0, INVALID, NULL_POSITION);
+            assertValid(catalog, invalidRecording5, INVALID, SEGMENT_LENGTH);
+            assertValid(catalog, invalidRecording13, INVALID, NULL_POSITION);
+            assertValid(catalog, validRecording0, VALID, TERM_LENGTH + 64);
+            assertValid(catalog, validRecording1, VALID, 1024);
+            assertValid(catalog, validRecording3, VALID, 11 * TERM_LENGTH + 320);
+            assertValid(catalog, validRecording4, INVALID, 22 * TERM_LENGTH + 992);
+            assertValid(catalog, validRecording5, VALID, 64 + PAGE_SIZE - MTU_LENGTH);
+        }
+
+        assertFalse(new File(archiveDir, ParallelVerifier.CHECKPOINT_FILE_NAME).exists());
+    }
+
+    @Test
+    void verifyParallelShouldResumeFromCheckpoint() throws IOException
+    {
+        final File checkpointFile = new File(archiveDir, ParallelVerifier.CHECKPOINT_FILE_NAME);
+        Files.write(checkpointFile.toPath(), (validRecording4 + "\n" + validRecording0 + "\n9x").getBytes(US_ASCII));
+
+        verifyParallel(out, archiveDir, true, 2, epochClock, (file) -> true);
+
+        try (Catalog catalog = openCatalogReadOnly(archiveDir, epochClock))
+        {
+            assertValid(catalog, validRecording0, VALID, NULL_POSITION);
+            assertValid(catalog, validRecording3, VALID, 11 * TERM_LENGTH + 320);
+            assertValid(catalog, validRecording4, VALID, 22 * TERM_LENGTH + 992);
+        }
+
+        assertFalse(checkpointFile.exists());
+    }
+
     @FunctionalInterface
     interface SegmentWriter
     {
@@ -723,6 +791,27 @@ class ArchiveToolVerifyTests
         }
     }
 
+    private void writeChecksum(final long recordingId, final long segmentBasePosition, final int skew)
+        throws IOException
+    {
+        final File segmentFile = new File(archiveDir, segmentFileName(recordingId, segmentBasePosition));
+        final SegmentChecksum checksum = new SegmentChecksum();
+        checksum.update(segmentFile, segmentFile.length());
+        checksum.updateZeros(skew);
+        checksum.write(archiveDir, recordingId, segmentBasePosition, segmentFile.length(), false);
+    }
+
+    private void assertValid(final Catalog catalog, final long recordingId, final byte valid, final long stopPosition)
+    {
+        assertTrue(catalog.forEntry(
+            recordingId,
+            (headerEncoder, headerDecoder, descriptorEncoder, descriptorDecoder) ->
+            {
+                assertEquals(valid, headerDecoder.valid());
+                assertEquals(stopPosition, descriptorDecoder.stopPosition());
+            }));
+    }
+
     private void assertRecording(
         final Catalog catalog,
         final long recordingId,
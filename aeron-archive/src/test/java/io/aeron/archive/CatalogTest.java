@@ -371,6 +371,92 @@ class CatalogTest
         }
     }
 
+    @Test
+    void shouldGrowCatalogWhenFull()
+    {
+        after();
+        final File archiveDir = TestUtil.makeTestDirectory();
+        final long maxEntries = 2;
+
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, maxEntries, clock))
+        {
+            for (int i = 0; i < maxEntries + 1; i++)
+            {
+                catalog.addNewRecording(
+                    0L, 0L, 0, SEGMENT_LENGTH, TERM_LENGTH, MTU_LENGTH, i, 1, "channelG", "channelG?tag=f", "sourceA");
+            }
+
+            assertEquals(maxEntries * 2, catalog.maxEntries());
+            assertEquals(maxEntries + 1, catalog.countEntries());
+        }
+
+        try (Catalog catalog = new Catalog(archiveDir, clock))
+        {
+            assertEquals(maxEntries * 2, catalog.maxEntries());
+            assertEquals(maxEntries + 1, catalog.countEntries());
+            assertTrue(catalog.wrapAndValidateDescriptor(maxEntries, unsafeBuffer));
+        }
+    }
+
+    @Test
+    void shouldFindRecordingsByStreamIdAndChannelFragmentAfterReload()
+    {
+        final long recordingFourId;
+        final long recordingFiveId;
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, MAX_ENTRIES, clock))
+        {
+            recordingFourId = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_LENGTH, TERM_LENGTH, MTU_LENGTH, 6, 1, "channelG", "channelG?tag=f", "sourceB");
+            recordingFiveId = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_LENGTH, TERM_LENGTH, MTU_LENGTH, 6, 1, "channelM", "channelM?tag=f", "sourceB");
+        }
+
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, MAX_ENTRIES, clock))
+        {
+            final byte[] anyChannel = new byte[0];
+            final byte[] channelG = "channelG".getBytes(StandardCharsets.US_ASCII);
+            final byte[] channelM = "channelM".getBytes(StandardCharsets.US_ASCII);
+
+            assertEquals(recordingOneId, catalog.nextRecordingId(0, 1, anyChannel));
+            assertEquals(recordingFourId, catalog.nextRecordingId(recordingOneId + 1, 1, anyChannel));
+            assertEquals(recordingFiveId, catalog.nextRecordingId(recordingFourId + 1, 1, anyChannel));
+            assertEquals(Catalog.NULL_RECORD_ID, catalog.nextRecordingId(0, 42, anyChannel));
+
+            assertEquals(recordingFourId, catalog.nextRecordingId(recordingOneId + 1, 1, channelG));
+            assertEquals(Catalog.NULL_RECORD_ID, catalog.nextRecordingId(recordingFourId + 1, 1, channelG));
+            assertEquals(recordingFiveId, catalog.nextRecordingId(0, 1, channelM));
+
+            assertEquals(recordingFiveId, catalog.findLast(0, 6, 1, anyChannel));
+            assertEquals(recordingFourId, catalog.findLast(0, 6, 1, channelG));
+            assertEquals(Catalog.NULL_RECORD_ID, catalog.findLast(recordingFourId + 1, 6, 1, channelG));
+
+            assertEquals(recordingThreeId, catalog.nextRecordingIdForSourceIdentity(0, "sourceB"));
+            assertEquals(recordingFourId, catalog.nextRecordingIdForSourceIdentity(recordingThreeId + 1, "sourceB"));
+            assertEquals(recordingFiveId, catalog.nextRecordingIdForSourceIdentity(recordingFourId + 1, "sourceB"));
+            assertEquals(Catalog.NULL_RECORD_ID, catalog.nextRecordingIdForSourceIdentity(0, "sourceZ"));
+        }
+    }
+
+    @Test
+    void shouldReadFieldsAfterCatalogHasGrown()
+    {
+        after();
+        final File archiveDir = TestUtil.makeTestDirectory();
+
+        try (Catalog catalog = new Catalog(archiveDir, null, 0, 1, clock))
+        {
+            final long recordingId = catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_LENGTH, TERM_LENGTH, MTU_LENGTH, 6, 1, "channelG", "channelG?tag=f", "sourceA");
+            catalog.stopPosition(recordingId, 1024);
+
+            catalog.addNewRecording(
+                0L, 0L, 0, SEGMENT_LENGTH, TERM_LENGTH, MTU_LENGTH, 7, 1, "channelG", "channelG?tag=f", "sourceA");
+
+            assertEquals(2, catalog.maxEntries());
+            assertEquals(1024, catalog.stopPosition(recordingId));
+        }
+    }
+
     @Test
     void shouldNotThrowWhenOldRecordingLogsAreDeleted() throws IOException
     {
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.aeron.archive.CompressedSegment.BLOCK_LENGTH;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedSegmentTest
+{
+    private static final long RECORDING_ID = 7;
+    private static final int SEGMENT_LENGTH = 4 * BLOCK_LENGTH;
+
+    private final File archiveDir = TestUtil.makeTestDirectory();
+
+    @AfterEach
+    void after()
+    {
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    void shouldReadCompressedSegmentFromAnyOffset() throws IOException
+    {
+        final byte[] data = new byte[SEGMENT_LENGTH];
+        for (int i = 0; i < BLOCK_LENGTH * 2; i++)
+        {
+            data[i] = (byte)(i % 64);
+        }
+        final byte[] random = new byte[BLOCK_LENGTH];
+        new Random(RECORDING_ID).nextBytes(random);
+        System.arraycopy(random, 0, data, BLOCK_LENGTH * 2, BLOCK_LENGTH);
+
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+        Files.write(segmentFile.toPath(), data);
+        final File compressedFile = new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, 0));
+
+        try (CompressedSegment.Writer writer = new CompressedSegment.Writer(
+            segmentFile, compressedFile, SEGMENT_LENGTH))
+        {
+            int blocks = 1;
+            while (!writer.compressNextBlock())
+            {
+                blocks++;
+            }
+
+            writer.complete(false);
+            assertEquals(SEGMENT_LENGTH / BLOCK_LENGTH, blocks);
+            assertEquals(SEGMENT_LENGTH, writer.uncompressedLength());
+            assertTrue(writer.compressedLength() < SEGMENT_LENGTH);
+        }
+
+        assertTrue(compressedFile.exists());
+        assertEquals(segmentFile, CompressedSegment.findSegmentFile(archiveDir, RECORDING_ID, 0));
+        assertTrue(segmentFile.delete());
+        assertEquals(compressedFile, CompressedSegment.findSegmentFile(archiveDir, RECORDING_ID, 0));
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[SEGMENT_LENGTH]);
+        try (CompressedSegment.Reader reader = new CompressedSegment.Reader(compressedFile))
+        {
+            assertEquals(SEGMENT_LENGTH, reader.segmentLength());
+
+            final int offset = BLOCK_LENGTH * 2 - 96;
+            final int length = BLOCK_LENGTH + 192;
+            reader.read(buffer, 0, offset, length);
+            for (int i = 0; i < length; i++)
+            {
+                assertEquals(data[offset + i], buffer.getByte(i));
+            }
+
+            reader.read(buffer, 0, 0, SEGMENT_LENGTH);
+            assertArrayEquals(data, buffer.byteArray());
+        }
+    }
+
+    @Test
+    void shouldVerifyChecksumOfCompressedSegmentOverUncompressedContents() throws IOException
+    {
+        final byte[] data = new byte[SEGMENT_LENGTH];
+        new Random(RECORDING_ID).nextBytes(data);
+
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+        Files.write(segmentFile.toPath(), data);
+
+        final SegmentChecksum checksum = new SegmentChecksum();
+        checksum.update(segmentFile, SEGMENT_LENGTH);
+        checksum.write(archiveDir, RECORDING_ID, 0, SEGMENT_LENGTH, false);
+        final File checksumFile = new File(archiveDir, SegmentChecksum.checksumFileName(RECORDING_ID, 0));
+
+        final File compressedFile = new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, 0));
+        try (CompressedSegment.Writer writer = new CompressedSegment.Writer(
+            segmentFile, compressedFile, SEGMENT_LENGTH))
+        {
+            boolean isComplete = false;
+            while (!isComplete)
+            {
+                isComplete = writer.compressNextBlock();
+            }
+            writer.complete(false);
+        }
+        assertTrue(segmentFile.delete());
+
+        assertEquals(SegmentChecksum.Result.VALID, SegmentChecksum.verify(checksumFile, compressedFile));
+
+        SegmentChecksum.write(checksumFile, checksum.algorithm(), checksum.value() + 1, SEGMENT_LENGTH, false);
+        assertEquals(SegmentChecksum.Result.INVALID, SegmentChecksum.verify(checksumFile, compressedFile));
+    }
+
+    @Test
+    void shouldDeleteCompressedSegment() throws IOException
+    {
+        final File compressedFile = new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, SEGMENT_LENGTH));
+        assertTrue(compressedFile.createNewFile());
+
+        assertTrue(CompressedSegment.deleteSegmentFile(archiveDir, RECORDING_ID, SEGMENT_LENGTH));
+        assertFalse(compressedFile.exists());
+        assertFalse(CompressedSegment.deleteSegmentFile(archiveDir, RECORDING_ID, SEGMENT_LENGTH));
+    }
+
+    @Test
+    void shouldThrowOnShortReadOfSegmentBeingCompressed() throws IOException
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+        Files.write(segmentFile.toPath(), new byte[BLOCK_LENGTH / 2]);
+        final File compressedFile = new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, 0));
+
+        try (CompressedSegment.Writer writer = new CompressedSegment.Writer(
+            segmentFile, compressedFile, SEGMENT_LENGTH))
+        {
+            assertThrows(EOFException.class, writer::compressNextBlock);
+        }
+
+        assertFalse(compressedFile.exists());
+    }
+
+    @Test
+    void shouldThrowOnShortReadOfTruncatedCompressedSegment() throws IOException
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(RECORDING_ID, 0));
+        final byte[] data = new byte[SEGMENT_LENGTH];
+        new Random(RECORDING_ID).nextBytes(data);
+        Files.write(segmentFile.toPath(), data);
+        final File compressedFile = new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, 0));
+
+        try (CompressedSegment.Writer writer = new CompressedSegment.Writer(
+            segmentFile, compressedFile, SEGMENT_LENGTH))
+        {
+            boolean isComplete;
+            do
+            {
+                isComplete = writer.compressNextBlock();
+            }
+            while (!isComplete);
+
+            writer.complete(false);
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(compressedFile, "rw"))
+        {
+            file.setLength(file.length() - BLOCK_LENGTH / 2);
+        }
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[BLOCK_LENGTH]);
+        try (CompressedSegment.Reader reader = new CompressedSegment.Reader(compressedFile))
+        {
+            reader.read(buffer, 0, 0, BLOCK_LENGTH);
+            assertArrayEquals(Arrays.copyOf(data, BLOCK_LENGTH), buffer.byteArray());
+
+            assertThrows(EOFException.class, () -> reader.read(buffer, 0, SEGMENT_LENGTH - BLOCK_LENGTH, BLOCK_LENGTH));
+        }
+    }
+
+    @Test
+    void shouldListCompressedSegmentsUnlessOriginalStillExists() throws IOException
+    {
+        final String segmentOne = Archive.segmentFileName(RECORDING_ID, 0);
+        final String segmentTwo = Archive.segmentFileName(RECORDING_ID, SEGMENT_LENGTH);
+        assertTrue(new File(archiveDir, segmentOne).createNewFile());
+        assertTrue(new File(archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, 0)).createNewFile());
+        assertTrue(new File(
+            archiveDir, CompressedSegment.compressedSegmentFileName(RECORDING_ID, SEGMENT_LENGTH)).createNewFile());
+
+        final String[] segmentFiles = Catalog.listSegmentFiles(archiveDir, RECORDING_ID);
+        Arrays.sort(segmentFiles);
+
+        final String compressedSegmentTwo = segmentTwo + CompressedSegment.COMPRESSED_SEGMENT_SUFFIX;
+        assertArrayEquals(new String[]{ segmentOne, compressedSegmentTwo }, segmentFiles);
+        assertEquals(SEGMENT_LENGTH, Catalog.parseSegmentFilePosition(segmentFiles[1]));
+    }
+}
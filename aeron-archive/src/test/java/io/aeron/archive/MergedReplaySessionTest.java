@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.ExclusivePublication;
+import io.aeron.Image;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.logbuffer.FrameDescriptor;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.CachedEpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.archive.client.AeronArchive.NULL_LENGTH;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_DATA;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_PAD;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class MergedReplaySessionTest
+{
+    private static final int TERM_BUFFER_LENGTH = LogBufferDescriptor.TERM_MIN_LENGTH;
+    private static final int SEGMENT_LENGTH = TERM_BUFFER_LENGTH;
+    private static final int INITIAL_TERM_ID = 7;
+    private static final int FRAME_LENGTH = 1024;
+    private static final int STREAM_ID = 1;
+    private static final int SESSION_ID = 1;
+    private static final long REPLAY_ID = 1;
+    private static final long CORRELATION_ID = 1;
+    private static final long CONNECT_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final Image mockImage = mock(Image.class);
+    private final ExclusivePublication mockReplayPub = mock(ExclusivePublication.class);
+    private final ControlSession mockControlSession = mock(ControlSession.class);
+    private final ControlResponseProxy proxy = mock(ControlResponseProxy.class);
+    private final CachedEpochClock epochClock = new CachedEpochClock();
+    private final File archiveDir = TestUtil.makeTestDirectory();
+    private final UnsafeBuffer replayTermBuffer = new UnsafeBuffer(allocateDirectAligned(TERM_BUFFER_LENGTH, 64));
+    private final RecordingSummary[] recordingSummaries = new RecordingSummary[2];
+    private Archive.Context context;
+    private int messageCounter = 0;
+
+    @BeforeEach
+    void before()
+    {
+        when(mockImage.termBufferLength()).thenReturn(TERM_BUFFER_LENGTH);
+        when(mockReplayPub.isConnected()).thenReturn(true);
+        when(mockReplayPub.tryClaim(anyInt(), any(BufferClaim.class))).then(
+            (invocation) ->
+            {
+                final int claimedSize = invocation.getArgument(0);
+                final BufferClaim bufferClaim = invocation.getArgument(1);
+                bufferClaim.wrap(replayTermBuffer, messageCounter * FRAME_LENGTH, claimedSize + HEADER_LENGTH);
+                messageCounter++;
+
+                return (long)claimedSize;
+            });
+
+        context = new Archive.Context()
+            .segmentFileLength(SEGMENT_LENGTH)
+            .archiveDir(archiveDir)
+            .epochClock(epochClock);
+
+        recordingSummaries[0] = record(0,
+            new long[]{ 1, 4, 4, 7 },
+            new byte[]{ UNFRAGMENTED, BEGIN_FRAG_FLAG, END_FRAG_FLAG, UNFRAGMENTED },
+            new int[]{ HDR_TYPE_DATA, HDR_TYPE_DATA, HDR_TYPE_DATA, HDR_TYPE_DATA });
+
+        recordingSummaries[1] = record(1,
+            new long[]{ 2, 4, 5, 0 },
+            new byte[]{ UNFRAGMENTED, UNFRAGMENTED, UNFRAGMENTED, UNFRAGMENTED },
+            new int[]{ HDR_TYPE_DATA, HDR_TYPE_DATA, HDR_TYPE_DATA, HDR_TYPE_PAD });
+    }
+
+    @AfterEach
+    void after()
+    {
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    void shouldMergeRecordingsInTimestampOrder()
+    {
+        final MergedReplaySession session = mergedReplaySession();
+        verify(mockControlSession).sendOkResponse(CORRELATION_ID, REPLAY_ID, proxy);
+
+        while (!session.isDone())
+        {
+            session.doWork();
+        }
+
+        assertEquals(7, messageCounter);
+        assertReplayedFrame(0, 1, UNFRAGMENTED);
+        assertReplayedFrame(1, 2, UNFRAGMENTED);
+        assertReplayedFrame(2, 4, BEGIN_FRAG_FLAG);
+        assertReplayedFrame(3, 4, END_FRAG_FLAG);
+        assertReplayedFrame(4, 4, UNFRAGMENTED);
+        assertReplayedFrame(5, 5, UNFRAGMENTED);
+        assertReplayedFrame(6, 7, UNFRAGMENTED);
+    }
+
+    @Test
+    void shouldResumeFromSameFrameWhenBackPressured()
+    {
+        final MergedReplaySession session = mergedReplaySession();
+
+        when(mockReplayPub.tryClaim(anyInt(), any(BufferClaim.class))).thenReturn(ExclusivePublication.BACK_PRESSURED);
+        session.doWork();
+        assertEquals(0, messageCounter);
+
+        when(mockReplayPub.tryClaim(anyInt(), any(BufferClaim.class))).then(
+            (invocation) ->
+            {
+                final int claimedSize = invocation.getArgument(0);
+                final BufferClaim bufferClaim = invocation.getArgument(1);
+                bufferClaim.wrap(replayTermBuffer, messageCounter * FRAME_LENGTH, claimedSize + HEADER_LENGTH);
+                messageCounter++;
+
+                return (long)claimedSize;
+            });
+
+        while (!session.isDone())
+        {
+            session.doWork();
+        }
+
+        assertEquals(7, messageCounter);
+        assertReplayedFrame(0, 1, UNFRAGMENTED);
+    }
+
+    @Test
+    void shouldStopWhenAborted()
+    {
+        final MergedReplaySession session = mergedReplaySession();
+        assertTrue(session.containsRecording(1));
+
+        session.abort();
+        session.doWork();
+
+        assertTrue(session.isDone());
+        assertEquals(0, messageCounter);
+    }
+
+    private void assertReplayedFrame(final int index, final long timestamp, final byte flags)
+    {
+        final int frameOffset = index * FRAME_LENGTH;
+        assertEquals(timestamp, replayTermBuffer.getLong(
+            frameOffset + DataHeaderFlyweight.RESERVED_VALUE_OFFSET, DataHeaderFlyweight.BYTE_ORDER));
+        assertEquals(flags, FrameDescriptor.frameFlags(replayTermBuffer, frameOffset));
+    }
+
+    private MergedReplaySession mergedReplaySession()
+    {
+        final RecordingReader[] readers = new RecordingReader[recordingSummaries.length];
+        final long[] recordingIds = new long[recordingSummaries.length];
+        for (int i = 0; i < readers.length; i++)
+        {
+            recordingIds[i] = recordingSummaries[i].recordingId;
+            readers[i] = new RecordingReader(recordingSummaries[i], archiveDir, NULL_POSITION, NULL_LENGTH);
+        }
+
+        return new MergedReplaySession(
+            REPLAY_ID,
+            CONNECT_TIMEOUT_MS,
+            CORRELATION_ID,
+            recordingIds,
+            readers,
+            mockControlSession,
+            proxy,
+            epochClock,
+            mockReplayPub);
+    }
+
+    private RecordingSummary record(
+        final long recordingId, final long[] timestamps, final byte[] flags, final int[] types)
+    {
+        final RecordingWriter writer = new RecordingWriter(
+            recordingId, 0, SEGMENT_LENGTH, mockImage, context, null);
+        writer.init();
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirectAligned(TERM_BUFFER_LENGTH, 64));
+        final DataHeaderFlyweight headerFlyweight = new DataHeaderFlyweight();
+
+        for (int i = 0; i < timestamps.length; i++)
+        {
+            final int offset = i * FRAME_LENGTH;
+            headerFlyweight.wrap(buffer, offset, HEADER_LENGTH);
+            headerFlyweight
+                .streamId(STREAM_ID)
+                .sessionId(SESSION_ID)
+                .termOffset(offset)
+                .termId(INITIAL_TERM_ID)
+                .reservedValue(timestamps[i])
+                .headerType(types[i])
+                .flags(flags[i])
+                .frameLength(FRAME_LENGTH);
+
+            writer.onBlock(buffer, offset, FRAME_LENGTH, SESSION_ID, INITIAL_TERM_ID);
+        }
+
+        writer.close();
+
+        final RecordingSummary recordingSummary = new RecordingSummary();
+        recordingSummary.recordingId = recordingId;
+        recordingSummary.startPosition = 0;
+        recordingSummary.stopPosition = (long)timestamps.length * FRAME_LENGTH;
+        recordingSummary.segmentFileLength = SEGMENT_LENGTH;
+        recordingSummary.initialTermId = INITIAL_TERM_ID;
+        recordingSummary.termBufferLength = TERM_BUFFER_LENGTH;
+        recordingSummary.mtuLength = FRAME_LENGTH;
+        recordingSummary.streamId = STREAM_ID;
+        recordingSummary.sessionId = SESSION_ID;
+
+        return recordingSummary;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Aeron;
+import io.aeron.archive.codecs.RecordingDescriptorDecoder;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.archive.client.AeronArchive.NULL_TIMESTAMP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QueryRecordingsSessionTest
+{
+    private static final long MAX_ENTRIES = 1024;
+    private static final int SEGMENT_FILE_SIZE = 128 * 1024 * 1024;
+    private static final byte[] LOCALHOST_BYTES = "localhost".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ANY_CHANNEL = new byte[0];
+
+    private final UnsafeBuffer descriptorBuffer = new UnsafeBuffer();
+    private final RecordingDescriptorDecoder recordingDescriptorDecoder = new RecordingDescriptorDecoder();
+    private final File archiveDir = TestUtil.makeTestDirectory();
+    private final EpochClock clock = mock(EpochClock.class);
+    private final long correlationId = 1;
+    private final ControlResponseProxy controlResponseProxy = mock(ControlResponseProxy.class);
+    private final ControlSession controlSession = mock(ControlSession.class);
+    private final ArchiveConductor conductor = mock(ArchiveConductor.class);
+
+    private Catalog catalog;
+
+    @BeforeEach
+    void before()
+    {
+        catalog = new Catalog(archiveDir, null, 0, MAX_ENTRIES, clock);
+        catalog.addNewRecording(
+            0L, 1000L, 100L, 200L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 6, 1, "localhost", "localhost?tag=f", "sourceA");
+        catalog.addNewRecording(
+            0L, 5000L, 300L, 400L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 7, 1, "channelA", "channel?tag=f", "sourceV");
+        catalog.addNewRecording(
+            0L, 100L, 500L, 600L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 8, 2, "localhost", "localhost?tag=f", "sourceB");
+        catalog.addNewRecording(
+            0L, 700L, 0, SEGMENT_FILE_SIZE, 4096, 1024, 9, 1, "localhost", "localhost?tag=f", "sourceC");
+
+        when(controlSession.maxMessageLength()).thenReturn(8192);
+        when(controlSession.sendDescriptorBatch(anyLong(), anyLong(), anyBoolean(), anyInt(), any(), anyInt(), any()))
+            .thenReturn(true);
+        when(conductor.activeRecordingPosition(anyLong())).thenReturn(NULL_POSITION);
+        when(conductor.activeRecordingPosition(3L)).thenReturn(8000L);
+    }
+
+    @AfterEach
+    void after()
+    {
+        CloseHelper.close(catalog);
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    void shouldSendAllMatchingDescriptorsInOneBatch()
+    {
+        final QueryRecordingsSession session = newSession(
+            0, 10, Aeron.NULL_VALUE, LOCALHOST_BYTES, NULL_TIMESTAMP, NULL_TIMESTAMP, 0, false);
+
+        session.doWork();
+
+        final ArgumentCaptor<DirectBuffer> captor = ArgumentCaptor.forClass(DirectBuffer.class);
+        verify(controlSession).sendDescriptorBatch(
+            eq(correlationId), eq((long)Catalog.NULL_RECORD_ID), eq(true), eq(3), captor.capture(), anyInt(),
+            eq(controlResponseProxy));
+        assertEquals(0L, captor.getValue().getLong(0, RecordingDescriptorDecoder.BYTE_ORDER));
+        assertTrue(session.isDone());
+    }
+
+    @Test
+    void shouldReturnCursorWhenPageIsFull()
+    {
+        final QueryRecordingsSession session = newSession(
+            0, 2, Aeron.NULL_VALUE, ANY_CHANNEL, NULL_TIMESTAMP, NULL_TIMESTAMP, 0, false);
+
+        session.doWork();
+
+        verify(controlSession).sendDescriptorBatch(
+            eq(correlationId), eq(2L), eq(true), eq(2), any(), anyInt(), eq(controlResponseProxy));
+    }
+
+    @Test
+    void shouldFilterOnStreamTimeAndLength()
+    {
+        final QueryRecordingsSession session = newSession(
+            0, 10, 1, ANY_CHANNEL, 250L, NULL_TIMESTAMP, 2000L, false);
+
+        session.doWork();
+
+        final ArgumentCaptor<DirectBuffer> captor = ArgumentCaptor.forClass(DirectBuffer.class);
+        verify(controlSession).sendDescriptorBatch(
+            eq(correlationId), eq((long)Catalog.NULL_RECORD_ID), eq(true), eq(2), captor.capture(), anyInt(),
+            eq(controlResponseProxy));
+        assertEquals(1L, captor.getValue().getLong(0, RecordingDescriptorDecoder.BYTE_ORDER));
+    }
+
+    @Test
+    void shouldFilterActiveOnly()
+    {
+        final QueryRecordingsSession session = newSession(
+            0, 10, Aeron.NULL_VALUE, ANY_CHANNEL, NULL_TIMESTAMP, NULL_TIMESTAMP, 0, true);
+
+        session.doWork();
+
+        final ArgumentCaptor<DirectBuffer> captor = ArgumentCaptor.forClass(DirectBuffer.class);
+        verify(controlSession).sendDescriptorBatch(
+            eq(correlationId), eq((long)Catalog.NULL_RECORD_ID), eq(true), eq(1), captor.capture(), anyInt(),
+            eq(controlResponseProxy));
+        assertEquals(3L, captor.getValue().getLong(0, RecordingDescriptorDecoder.BYTE_ORDER));
+    }
+
+    @Test
+    void shouldSplitBatchesOnMaxMessageLength()
+    {
+        when(controlSession.maxMessageLength()).thenReturn(200);
+        final QueryRecordingsSession session = newSession(
+            0, 10, Aeron.NULL_VALUE, ANY_CHANNEL, NULL_TIMESTAMP, NULL_TIMESTAMP, 0, false);
+
+        while (!session.isDone())
+        {
+            session.doWork();
+        }
+
+        verify(controlSession, times(3)).sendDescriptorBatch(
+            eq(correlationId), anyLong(), eq(false), eq(1), any(), anyInt(), eq(controlResponseProxy));
+        verify(controlSession).sendDescriptorBatch(
+            eq(correlationId), eq((long)Catalog.NULL_RECORD_ID), eq(true), eq(1), any(), anyInt(),
+            eq(controlResponseProxy));
+    }
+
+    @Test
+    void shouldResendBatchWhenSendFails()
+    {
+        final QueryRecordingsSession session = newSession(
+            0, 10, Aeron.NULL_VALUE, ANY_CHANNEL, NULL_TIMESTAMP, NULL_TIMESTAMP, 0, false);
+
+        when(controlSession.sendDescriptorBatch(anyLong(), anyLong(), anyBoolean(), anyInt(), any(), anyInt(), any()))
+            .thenReturn(false, true);
+
+        session.doWork();
+        session.doWork();
+
+        verify(controlSession, times(2)).sendDescriptorBatch(
+            eq(correlationId), eq((long)Catalog.NULL_RECORD_ID), eq(true), eq(4), any(), anyInt(),
+            eq(controlResponseProxy));
+        assertTrue(session.isDone());
+    }
+
+    private QueryRecordingsSession newSession(
+        final long fromRecordingId,
+        final int count,
+        final int streamId,
+        final byte[] channelFragment,
+        final long fromTimestamp,
+        final long toTimestamp,
+        final long minLength,
+        final boolean activeOnly)
+    {
+        return new QueryRecordingsSession(
+            correlationId,
+            fromRecordingId,
+            count,
+            streamId,
+            channelFragment,
+            fromTimestamp,
+            toTimestamp,
+            minLength,
+            activeOnly,
+            conductor,
+            catalog,
+            controlResponseProxy,
+            controlSession,
+            descriptorBuffer,
+            recordingDescriptorDecoder);
+    }
+}
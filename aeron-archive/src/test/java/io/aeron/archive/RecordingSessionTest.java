@@ -126,9 +126,14 @@ public class RecordingSessionTest
             recordingEventsProxy,
             image,
             mockPosition,
+            null,
             ARCHIVE_CHANNEL,
+            null,
+            null,
+            null,
             context,
-            CONTROL_SESSION);
+            CONTROL_SESSION,
+            null);
 
         assertEquals(RECORDING_ID, session.sessionId());
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class RecordingSyncGroupTest
+{
+    private static final long COMMIT_INTERVAL_NS = 1000;
+    private static final long COMMIT_LENGTH = 1024;
+
+    private final RecordingWriter writerOne = mock(RecordingWriter.class);
+    private final RecordingWriter writerTwo = mock(RecordingWriter.class);
+    private long nowNs = 0;
+    private final RecordingSyncGroup syncGroup = new RecordingSyncGroup(
+        COMMIT_INTERVAL_NS, COMMIT_LENGTH, () -> nowNs);
+
+    @BeforeEach
+    void before() throws IOException
+    {
+        when(writerOne.sync()).thenReturn(true);
+        when(writerTwo.sync()).thenReturn(true);
+    }
+
+    @Test
+    void shouldCommitAllPendingWritersWhenCommitLengthReached() throws IOException
+    {
+        syncGroup.onWrite(writerOne, 512, true);
+        syncGroup.onWrite(writerTwo, 256, true);
+        verify(writerOne, never()).sync();
+        verify(writerTwo, never()).sync();
+
+        syncGroup.onWrite(writerOne, 256, false);
+        verify(writerOne).sync();
+        verify(writerTwo).sync();
+    }
+
+    @Test
+    void shouldCommitAllPendingWritersWhenCommitIntervalExpires() throws IOException
+    {
+        syncGroup.onWrite(writerOne, 64, true);
+        nowNs += COMMIT_INTERVAL_NS / 2;
+        syncGroup.onWrite(writerTwo, 64, true);
+
+        assertEquals(0, syncGroup.poll());
+
+        nowNs += COMMIT_INTERVAL_NS / 2;
+        assertEquals(2, syncGroup.poll());
+        verify(writerOne).sync();
+        verify(writerTwo).sync();
+
+        assertEquals(0, syncGroup.poll());
+    }
+
+    @Test
+    void shouldHandSyncFailureToWriterWhichFailedAndCommitOthers() throws IOException
+    {
+        final IOException ex = new IOException("force failed");
+        when(writerOne.sync()).thenThrow(ex);
+
+        syncGroup.onWrite(writerOne, 64, true);
+        syncGroup.onWrite(writerTwo, 64, true);
+
+        assertEquals(1, syncGroup.commit());
+        verify(writerOne).onSyncFailed(ex);
+        verify(writerTwo).sync();
+        verify(writerTwo, never()).onSyncFailed(any());
+    }
+}
@@ -241,13 +241,16 @@ public class ReplaySessionTest
             mockControlSession,
             proxy,
             replayBuffer,
+            false,
+            DirectIo.DEFAULT_ALIGNMENT,
             mockCatalog,
             archiveDir,
             null,
             epochClock,
             mockReplayPub,
             recordingSummary,
-            recordingPositionCounter);
+            recordingPositionCounter,
+            null);
 
         replaySession.doWork();
         assertEquals(ReplaySession.State.DONE, replaySession.state());
@@ -467,13 +470,16 @@ public class ReplaySessionTest
             controlSession,
             proxy,
             replayBuffer,
+            false,
+            DirectIo.DEFAULT_ALIGNMENT,
             mockCatalog,
             archiveDir,
             null,
             epochClock,
             replay,
             recordingSummary,
-            recordingPositionCounter);
+            recordingPositionCounter,
+            null);
     }
 
     static void validateFrame(final UnsafeBuffer buffer, final int message, final byte flags)
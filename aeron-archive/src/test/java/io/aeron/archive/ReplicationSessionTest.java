@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ReplicationSessionTest
+{
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int SEGMENT_LENGTH = TERM_LENGTH * 4;
+
+    @Test
+    void shouldSplitRangesOnSegmentBoundaries()
+    {
+        final long startPosition = 1024;
+        final long stopPosition = (4L * SEGMENT_LENGTH) + 100;
+
+        assertArrayEquals(
+            new long[]{ startPosition, SEGMENT_LENGTH, 3L * SEGMENT_LENGTH, stopPosition },
+            ReplicationSession.rangeBoundaries(startPosition, stopPosition, TERM_LENGTH, SEGMENT_LENGTH, 3));
+    }
+
+    @Test
+    void shouldLimitRangesToSegmentCount()
+    {
+        final long startPosition = 1024;
+        final long stopPosition = SEGMENT_LENGTH + 100;
+
+        assertArrayEquals(
+            new long[]{ startPosition, SEGMENT_LENGTH, stopPosition },
+            ReplicationSession.rangeBoundaries(startPosition, stopPosition, TERM_LENGTH, SEGMENT_LENGTH, 4));
+
+        assertArrayEquals(
+            new long[]{ startPosition, startPosition + 100 },
+            ReplicationSession.rangeBoundaries(startPosition, startPosition + 100, TERM_LENGTH, SEGMENT_LENGTH, 4));
+    }
+}
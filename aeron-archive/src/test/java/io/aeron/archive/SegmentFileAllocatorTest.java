@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Counter;
+import org.agrona.IoUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SegmentFileAllocatorTest
+{
+    private static final int SEGMENT_LENGTH = 64 * 1024;
+
+    private final File archiveDir = TestUtil.makeTestDirectory();
+    private final Counter allocationWaitCounter = mock(Counter.class);
+    private final SegmentFileAllocator allocator = new SegmentFileAllocator(
+        new Archive.Context().segmentFileFill(true), null, allocationWaitCounter, null);
+
+    @AfterEach
+    void after()
+    {
+        IoUtil.delete(archiveDir, false);
+    }
+
+    @Test
+    void shouldAllocateSegmentInBackground()
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(1, 0));
+        final SegmentFileAllocator.PendingSegment segment = allocator.allocateAsync(segmentFile, SEGMENT_LENGTH);
+
+        assertEquals(1, allocator.doWork());
+
+        final File allocatedFile = allocator.claim(segment);
+        assertNotNull(allocatedFile);
+        assertEquals(SEGMENT_LENGTH, allocatedFile.length());
+        assertFalse(segmentFile.exists());
+        verify(allocationWaitCounter, never()).incrementOrdered();
+    }
+
+    @Test
+    void shouldWriteChecksumInBackground() throws IOException
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(1, 0));
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw"))
+        {
+            file.setLength(SEGMENT_LENGTH);
+        }
+
+        final SegmentChecksum checksum = new SegmentChecksum();
+        checksum.updateZeros(SEGMENT_LENGTH);
+        final File checksumFile = new File(archiveDir, SegmentChecksum.checksumFileName(1, 0));
+        allocator.writeChecksumAsync(checksumFile, checksum.algorithm(), checksum.value(), SEGMENT_LENGTH);
+
+        assertFalse(checksumFile.exists());
+        assertEquals(1, allocator.doWork());
+        assertEquals(SegmentChecksum.Result.VALID, SegmentChecksum.verify(checksumFile, segmentFile));
+    }
+
+    @Test
+    void shouldCountWaitWhenClaimedBeforeAllocation()
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(1, 0));
+        final SegmentFileAllocator.PendingSegment segment = allocator.allocateAsync(segmentFile, SEGMENT_LENGTH);
+
+        assertNull(allocator.claim(segment));
+        verify(allocationWaitCounter).incrementOrdered();
+
+        allocator.doWork();
+        assertEquals(0, archiveDir.list().length);
+    }
+
+    @Test
+    void shouldDeleteAllocatedSegmentOnRelease()
+    {
+        final File segmentFile = new File(archiveDir, Archive.segmentFileName(1, 0));
+        final SegmentFileAllocator.PendingSegment segment = allocator.allocateAsync(segmentFile, SEGMENT_LENGTH);
+
+        allocator.doWork();
+        allocator.release(segment);
+
+        assertEquals(0, archiveDir.list().length);
+        verify(allocationWaitCounter, never()).incrementOrdered();
+    }
+
+    @Test
+    void shouldRecoverPendingSegmentsOnStart() throws IOException
+    {
+        final File unusedSegmentFile = new File(archiveDir, Archive.segmentFileName(1, 0));
+        final File recordedSegmentFile = new File(archiveDir, Archive.segmentFileName(2, 0));
+        final File unusedPendingFile = pendingFile(unusedSegmentFile);
+        final File recordedPendingFile = pendingFile(recordedSegmentFile);
+
+        try (RandomAccessFile file = new RandomAccessFile(unusedPendingFile, "rw"))
+        {
+            file.setLength(SEGMENT_LENGTH);
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(recordedPendingFile, "rw"))
+        {
+            file.setLength(SEGMENT_LENGTH);
+            file.writeInt(Integer.reverseBytes(64));
+        }
+
+        SegmentFileAllocator.recoverPendingSegments(archiveDir);
+
+        assertFalse(unusedPendingFile.exists());
+        assertFalse(unusedSegmentFile.exists());
+        assertFalse(recordedPendingFile.exists());
+        assertTrue(recordedSegmentFile.exists());
+        assertEquals(SEGMENT_LENGTH, recordedSegmentFile.length());
+    }
+
+    private static File pendingFile(final File segmentFile)
+    {
+        return new File(
+            segmentFile.getParentFile(), segmentFile.getName() + SegmentFileAllocator.PENDING_SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.archive;
+
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import io.aeron.driver.status.PublisherPos;
+import io.aeron.driver.status.ReceiverHwm;
+import io.aeron.driver.status.StreamCounter;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.jupiter.api.Test;
+
+import static io.aeron.archive.Archive.Configuration.REPLAY_BACK_PRESSURE_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.REPLAY_IO_TIME_TYPE_ID;
+import static io.aeron.archive.Archive.Configuration.REPLAY_RATE_TYPE_ID;
+import static org.agrona.concurrent.status.CountersReader.METADATA_LENGTH;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SessionCountersTest
+{
+    private final Aeron aeron = mock(Aeron.class);
+    private final Counter rate = mock(Counter.class);
+    private final Counter ioTime = mock(Counter.class);
+    private final Counter backPressure = mock(Counter.class);
+    private final UnsafeBuffer tempBuffer = new UnsafeBuffer(new byte[METADATA_LENGTH]);
+    private long nowNs = 0;
+
+    @Test
+    void shouldSampleRateOncePerInterval()
+    {
+        final SessionCounters sessionCounters = newReplayCounters();
+
+        sessionCounters.onBytes(1000);
+        sessionCounters.sample(SessionCounters.RATE_INTERVAL_NS - 1, 0);
+        verify(rate, never()).setOrdered(anyLong());
+
+        sessionCounters.onBytes(1000);
+        sessionCounters.sample(SessionCounters.RATE_INTERVAL_NS * 2, 0);
+        verify(rate).setOrdered(1000);
+
+        sessionCounters.sample(SessionCounters.RATE_INTERVAL_NS * 3, 0);
+        verify(rate).setOrdered(0);
+    }
+
+    @Test
+    void shouldCountEachEpisodeOfBackPressureOnce()
+    {
+        final SessionCounters sessionCounters = newReplayCounters();
+
+        sessionCounters.onBackPressure();
+        sessionCounters.onBackPressure();
+        sessionCounters.onBytes(64);
+        sessionCounters.onBackPressure();
+
+        verify(backPressure, times(2)).incrementOrdered();
+    }
+
+    @Test
+    void shouldAccumulateIoTime()
+    {
+        final SessionCounters sessionCounters = newReplayCounters();
+
+        sessionCounters.onIoTime(100);
+        sessionCounters.onIoTime(50);
+
+        verify(ioTime).getAndAddOrdered(100);
+        verify(ioTime).getAndAddOrdered(50);
+    }
+
+    @Test
+    void shouldFindLiveCounterForImage()
+    {
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(new byte[METADATA_LENGTH * 8]), new UnsafeBuffer(new byte[1024]));
+
+        allocateStreamCounter(countersManager, ReceiverHwm.RECEIVER_HWM_TYPE_ID, 7, 100);
+        final int hwmId = allocateStreamCounter(countersManager, ReceiverHwm.RECEIVER_HWM_TYPE_ID, 7, 101);
+        final int pubPosId = allocateStreamCounter(countersManager, PublisherPos.PUBLISHER_POS_TYPE_ID, 9, 101);
+
+        assertEquals(hwmId, SessionCounters.findLiveCounterId(countersManager, 7, 101));
+        assertEquals(pubPosId, SessionCounters.findLiveCounterId(countersManager, 9, 101));
+        assertEquals(NULL_COUNTER_ID, SessionCounters.findLiveCounterId(countersManager, 8, 101));
+    }
+
+    private SessionCounters newReplayCounters()
+    {
+        when(aeron.addCounter(
+            eq(REPLAY_RATE_TYPE_ID), any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(),
+            anyInt())).thenReturn(rate);
+        when(aeron.addCounter(
+            eq(REPLAY_IO_TIME_TYPE_ID), any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(),
+            anyInt())).thenReturn(ioTime);
+        when(aeron.addCounter(
+            eq(REPLAY_BACK_PRESSURE_TYPE_ID), any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class),
+            anyInt(), anyInt())).thenReturn(backPressure);
+
+        return SessionCounters.forReplay(aeron, tempBuffer, () -> nowNs, 1, 2, 3, "aeron:ipc");
+    }
+
+    private static int allocateStreamCounter(
+        final CountersManager countersManager, final int typeId, final long registrationId, final int sessionId)
+    {
+        return countersManager.allocate(
+            "test",
+            typeId,
+            (keyBuffer) ->
+            {
+                keyBuffer.putLong(StreamCounter.REGISTRATION_ID_OFFSET, registrationId);
+                keyBuffer.putInt(StreamCounter.SESSION_ID_OFFSET, sessionId);
+            });
+    }
+}
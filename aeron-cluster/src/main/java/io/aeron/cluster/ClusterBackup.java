@@ -71,6 +71,12 @@ public final class ClusterBackup implements AutoCloseable
      */
     public static final int CLUSTER_BACKUP_ERROR_COUNT_TYPE_ID = 211;
 
+    /**
+     * The type id of the {@link Counter} used for the bytes of snapshots which did not need to be transferred because
+     * they were already present, or partially present, in the backup archive.
+     */
+    public static final int SNAPSHOT_BYTES_AVOIDED_TYPE_ID = 216;
+
     enum State
     {
         INIT(0),
@@ -351,6 +357,7 @@ public final class ClusterBackup implements AutoCloseable
         private Counter stateCounter;
         private Counter liveLogPositionCounter;
         private Counter nextQueryDeadlineMsCounter;
+        private Counter snapshotBytesAvoidedCounter;
 
         private AeronArchive.Context archiveContext;
         private ShutdownSignalBarrier shutdownSignalBarrier;
@@ -474,6 +481,12 @@ public final class ClusterBackup implements AutoCloseable
                 nextQueryDeadlineMsCounter = aeron.addCounter(QUERY_DEADLINE_TYPE_ID, "Next Query Deadline (ms)");
             }
 
+            if (null == snapshotBytesAvoidedCounter)
+            {
+                snapshotBytesAvoidedCounter = aeron.addCounter(
+                    SNAPSHOT_BYTES_AVOIDED_TYPE_ID, "Snapshot bytes avoided");
+            }
+
             if (null == threadFactory)
             {
                 threadFactory = Thread::new;
@@ -1214,6 +1227,31 @@ public final class ClusterBackup implements AutoCloseable
             return this;
         }
 
+        /**
+         * Get the counter for the bytes of snapshots which did not need to be transferred from the cluster because
+         * they were already present, or partially present, in the backup archive.
+         *
+         * @return the counter for the bytes of snapshots which did not need to be transferred.
+         */
+        public Counter snapshotBytesAvoidedCounter()
+        {
+            return snapshotBytesAvoidedCounter;
+        }
+
+        /**
+         * Set the counter for the bytes of snapshots which did not need to be transferred from the cluster because
+         * they were already present, or partially present, in the backup archive.
+         *
+         * @param snapshotBytesAvoidedCounter the counter for the bytes of snapshots which did not need to be
+         *                                    transferred.
+         * @return this for a fluent API.
+         */
+        public Context snapshotBytesAvoidedCounter(final Counter snapshotBytesAvoidedCounter)
+        {
+            this.snapshotBytesAvoidedCounter = snapshotBytesAvoidedCounter;
+            return this;
+        }
+
         /**
          * Get the {@link ClusterBackupEventsListener} in use for the backup agent.
          *
@@ -1288,6 +1326,7 @@ public final class ClusterBackup implements AutoCloseable
             {
                 CloseHelper.close(stateCounter);
                 CloseHelper.close(liveLogPositionCounter);
+                CloseHelper.close(snapshotBytesAvoidedCounter);
             }
 
             CloseHelper.close(markFile);
@@ -64,9 +64,11 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
     private final ArrayList<RecordingLog.Snapshot> snapshotsToRetrieve = new ArrayList<>(4);
     private final ArrayList<RecordingLog.Snapshot> snapshotsRetrieved = new ArrayList<>(4);
     private final Long2LongHashMap snapshotLengthMap = new Long2LongHashMap(NULL_LENGTH);
+    private final SnapshotTransferCache snapshotTransferCache = new SnapshotTransferCache();
     private final Counter stateCounter;
     private final Counter liveLogPositionCounter;
     private final Counter nextQueryDeadlineMsCounter;
+    private final Counter snapshotBytesAvoidedCounter;
     private final ClusterBackupEventsListener eventsListener;
     private final long backupResponseTimeoutMs;
     private final long backupQueryIntervalMs;
@@ -96,6 +98,8 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
     private long correlationId = NULL_VALUE;
     private long leaderLogRecordingId = NULL_VALUE;
     private long snapshotRetrieveSubscriptionId = NULL_VALUE;
+    private long snapshotResumeRecordingId = NULL_VALUE;
+    private long snapshotResumePosition = NULL_POSITION;
     private long liveLogReplaySubscriptionId = NULL_VALUE;
     private long liveLogRecordingId = NULL_VALUE;
     private long liveLogReplayId = NULL_VALUE;
@@ -128,6 +132,7 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
         stateCounter = ctx.stateCounter();
         liveLogPositionCounter = ctx.liveLogPositionCounter();
         nextQueryDeadlineMsCounter = ctx.nextQueryDeadlineMsCounter();
+        snapshotBytesAvoidedCounter = ctx.snapshotBytesAvoidedCounter();
     }
 
     public void onStart()
@@ -150,6 +155,14 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
             backupArchive.stopRecording(liveLogReplaySubscriptionId);
         }
 
+        if (null != snapshotRetrieveMonitor)
+        {
+            backupArchive.stopRecording(snapshotRetrieveSubscriptionId);
+            deleteLocalRecording(snapshotRetrieveMonitor.recordingId);
+            snapshotRetrieveMonitor = null;
+        }
+        snapshotTransferCache.discardAll(this::deleteLocalRecording);
+
         CloseHelper.close(backupArchive);
         CloseHelper.close(clusterArchiveAsyncConnect);
         CloseHelper.close(clusterArchive);
@@ -235,6 +248,24 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
 
     public void reset()
     {
+        if (null != snapshotRetrieveMonitor)
+        {
+            final long recordingId = snapshotRetrieveMonitor.recordingId;
+            final long subscriptionId = snapshotRetrieveSubscriptionId;
+            snapshotRetrieveMonitor = null;
+
+            backupArchive.stopRecording(subscriptionId);
+
+            if (RecordingPos.NULL_RECORDING_ID != recordingId)
+            {
+                deleteLocalRecording(snapshotTransferCache.retain(
+                    snapshotsToRetrieve.get(snapshotCursor), snapshotLengthMap.get(snapshotCursor), recordingId));
+            }
+        }
+
+        snapshotRetrieveSubscriptionId = NULL_VALUE;
+        snapshotResumeRecordingId = NULL_VALUE;
+        snapshotResumePosition = NULL_POSITION;
         clusterMembers = null;
         leaderMember = null;
         snapshotsToRetrieve.clear();
@@ -244,12 +275,6 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
         leaderLastTermEntry = null;
         clusterMembersStatusEndpointsCursor = NULL_VALUE;
 
-        if (null != recordingLog)
-        {
-            recordingLog.close();
-            recordingLog = null;
-        }
-
         memberStatusFragmentAssembler.clear();
         final ExclusivePublication memberStatusPublication = this.memberStatusPublication;
         final AeronArchive clusterArchive = this.clusterArchive;
@@ -345,13 +370,15 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
                         }
                     }
 
+                    final int partIndex = snapshot.partIndex();
                     snapshotsToRetrieve.add(new RecordingLog.Snapshot(
                         snapshot.recordingId(),
                         snapshot.leadershipTermId(),
                         snapshot.termBaseLogPosition(),
                         snapshot.logPosition(),
                         snapshot.timestamp(),
-                        snapshot.serviceId()));
+                        snapshot.serviceId(),
+                        partIndex < 0 ? NULL_VALUE : partIndex));
                 }
             }
 
@@ -433,8 +460,11 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
 
     private int init(final long nowMs)
     {
-        CloseHelper.close(recordingLog);
-        recordingLog = new RecordingLog(ctx.clusterDir());
+        if (null == recordingLog)
+        {
+            recordingLog = new RecordingLog(ctx.clusterDir());
+        }
+
         timeOfLastProgressMs = nowMs;
         state(BACKUP_QUERY, nowMs);
         return 1;
@@ -522,7 +552,7 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
         }
         else if (pollForResponse(clusterArchive, correlationId))
         {
-            final long snapshotStopPosition = (int)clusterArchive.controlResponsePoller().relevantId();
+            final long snapshotStopPosition = clusterArchive.controlResponsePoller().relevantId();
 
             correlationId = NULL_VALUE;
 
@@ -530,12 +560,14 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
             {
                 state(RESET_BACKUP, nowMs);
             }
-
-            snapshotLengthMap.put(snapshotCursor, snapshotStopPosition);
-            if (++snapshotCursor >= snapshotsToRetrieve.size())
+            else
             {
-                snapshotCursor = 0;
-                state(SNAPSHOT_RETRIEVE, nowMs);
+                snapshotLengthMap.put(snapshotCursor, snapshotStopPosition);
+                if (++snapshotCursor >= snapshotsToRetrieve.size())
+                {
+                    snapshotCursor = 0;
+                    state(SNAPSHOT_RETRIEVE, nowMs);
+                }
             }
 
             timeOfLastProgressMs = nowMs;
@@ -564,47 +596,52 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
             }
             else if (snapshotRetrieveMonitor.isDone())
             {
-                final RecordingLog.Snapshot snapshot = snapshotsToRetrieve.get(snapshotCursor);
-
-                snapshotsRetrieved.add(new RecordingLog.Snapshot(
-                    snapshotRetrieveMonitor.recordingId,
-                    snapshot.leadershipTermId,
-                    snapshot.termBaseLogPosition,
-                    snapshot.logPosition,
-                    snapshot.timestamp,
-                    snapshot.serviceId));
+                final long recordingId = snapshotRetrieveMonitor.recordingId;
 
                 backupArchive.stopRecording(snapshotRetrieveSubscriptionId);
+                snapshotRetrieveSubscriptionId = NULL_VALUE;
                 snapshotRetrieveMonitor = null;
-                correlationId = NULL_VALUE;
-                timeOfLastProgressMs = nowMs;
 
-                if (++snapshotCursor >= snapshotsToRetrieve.size())
+                if (onSnapshotRetrieved(recordingId, nowMs))
                 {
-                    state(LIVE_LOG_REPLAY, nowMs);
                     workCount++;
                 }
             }
         }
         else if (NULL_VALUE == correlationId)
         {
-            final long replayId = ctx.aeron().nextCorrelationId();
             final RecordingLog.Snapshot snapshot = snapshotsToRetrieve.get(snapshotCursor);
-            final String transferChannel = "aeron:udp?endpoint=" + ctx.transferEndpoint();
+            final long snapshotLength = snapshotLengthMap.get(snapshotCursor);
 
-            if (clusterArchive.archiveProxy().replay(
-                snapshot.recordingId,
-                0,
-                NULL_LENGTH,
-                transferChannel,
-                ctx.replayStreamId(),
-                replayId,
-                clusterArchive.controlSessionId()))
+            if (NULL_POSITION == snapshotResumePosition)
             {
-                correlationId = replayId;
-                timeOfLastProgressMs = nowMs;
+                snapshotResumePosition = findResumePosition(snapshot, snapshotLength);
+            }
+
+            if (NULL_VALUE != snapshotResumeRecordingId && snapshotResumePosition >= snapshotLength)
+            {
+                onSnapshotRetrieved(snapshotResumeRecordingId, nowMs);
                 workCount++;
             }
+            else
+            {
+                final long replayId = ctx.aeron().nextCorrelationId();
+                final String transferChannel = "aeron:udp?endpoint=" + ctx.transferEndpoint();
+
+                if (clusterArchive.archiveProxy().replay(
+                    snapshot.recordingId,
+                    snapshotResumePosition,
+                    NULL_LENGTH,
+                    transferChannel,
+                    ctx.replayStreamId(),
+                    replayId,
+                    clusterArchive.controlSessionId()))
+                {
+                    correlationId = replayId;
+                    timeOfLastProgressMs = nowMs;
+                    workCount++;
+                }
+            }
         }
         else if (pollForResponse(clusterArchive, correlationId))
         {
@@ -612,8 +649,16 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
             final String replaySubscriptionChannel =
                 "aeron:udp?endpoint=" + ctx.transferEndpoint() + "|session-id=" + snapshotReplaySessionId;
 
-            snapshotRetrieveSubscriptionId = backupArchive.startRecording(
-                replaySubscriptionChannel, ctx.replayStreamId(), SourceLocation.REMOTE);
+            if (NULL_VALUE != snapshotResumeRecordingId)
+            {
+                snapshotRetrieveSubscriptionId = backupArchive.extendRecording(
+                    snapshotResumeRecordingId, replaySubscriptionChannel, ctx.replayStreamId(), SourceLocation.REMOTE);
+            }
+            else
+            {
+                snapshotRetrieveSubscriptionId = backupArchive.startRecording(
+                    replaySubscriptionChannel, ctx.replayStreamId(), SourceLocation.REMOTE);
+            }
 
             snapshotRetrieveMonitor = new SnapshotRetrieveMonitor(
                 snapshotReplaySessionId, ctx.aeron().countersReader(), snapshotLengthMap.get(snapshotCursor));
@@ -625,6 +670,82 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
         return workCount;
     }
 
+    private long findResumePosition(final RecordingLog.Snapshot snapshot, final long snapshotLength)
+    {
+        final long recordingId = snapshotTransferCache.findRecordingId(snapshot, snapshotLength);
+
+        if (NULL_VALUE != recordingId)
+        {
+            final long stopPosition = backupArchive.getStopPosition(recordingId);
+
+            if (NULL_POSITION != stopPosition && stopPosition <= snapshotLength)
+            {
+                snapshotResumeRecordingId = recordingId;
+                return stopPosition;
+            }
+        }
+
+        deleteLocalRecording(snapshotTransferCache.remove(snapshot.serviceId, snapshot.partIndex));
+        snapshotResumeRecordingId = NULL_VALUE;
+
+        return 0;
+    }
+
+    private void deleteLocalRecording(final long recordingId)
+    {
+        if (NULL_VALUE != recordingId)
+        {
+            try
+            {
+                backupArchive.truncateRecording(recordingId, backupArchive.getStartPosition(recordingId));
+            }
+            catch (final Exception ex)
+            {
+                ctx.countedErrorHandler().onError(ex);
+            }
+        }
+    }
+
+    private boolean onSnapshotRetrieved(final long recordingId, final long nowMs)
+    {
+        final RecordingLog.Snapshot snapshot = snapshotsToRetrieve.get(snapshotCursor);
+        final long snapshotLength = snapshotLengthMap.get(snapshotCursor);
+
+        deleteLocalRecording(snapshotTransferCache.retain(snapshot, snapshotLength, recordingId));
+        if (NULL_VALUE != snapshotResumeRecordingId)
+        {
+            snapshotBytesAvoidedCounter.getAndAdd(snapshotResumePosition);
+        }
+
+        snapshotsRetrieved.add(new RecordingLog.Snapshot(
+            recordingId,
+            snapshot.leadershipTermId,
+            snapshot.termBaseLogPosition,
+            snapshot.logPosition,
+            snapshot.timestamp,
+            snapshot.serviceId,
+            snapshot.partIndex));
+
+        snapshotResumeRecordingId = NULL_VALUE;
+        snapshotResumePosition = NULL_POSITION;
+        correlationId = NULL_VALUE;
+        timeOfLastProgressMs = nowMs;
+
+        if (++snapshotCursor >= snapshotsToRetrieve.size())
+        {
+            state(LIVE_LOG_REPLAY, nowMs);
+
+            if (null != eventsListener)
+            {
+                eventsListener.onSnapshotsRetrieved(snapshotsRetrieved);
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
     private int liveLogReplay(final long nowMs)
     {
         int workCount = 0;
@@ -727,9 +848,28 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
 
         if (!snapshotsRetrieved.isEmpty())
         {
+            for (int i = 0, size = snapshotsRetrieved.size(); i < size; i++)
+            {
+                final RecordingLog.Snapshot snapshot = snapshotsRetrieved.get(i);
+                if (snapshot.isPart())
+                {
+                    recordingLog.appendSnapshotPart(
+                        snapshot.recordingId,
+                        snapshot.leadershipTermId,
+                        snapshot.termBaseLogPosition,
+                        snapshot.logPosition,
+                        snapshot.timestamp,
+                        snapshot.serviceId);
+                }
+            }
+
             for (int i = snapshotsRetrieved.size() - 1; i >= 0; i--)
             {
                 final RecordingLog.Snapshot snapshot = snapshotsRetrieved.get(i);
+                if (snapshot.isPart())
+                {
+                    continue;
+                }
 
                 recordingLog.appendSnapshot(
                     snapshot.recordingId,
@@ -764,6 +904,7 @@ public class ClusterBackupAgent implements Agent, UnavailableCounterHandler
         snapshotsRetrieved.clear();
         snapshotsToRetrieve.clear();
         snapshotLengthMap.clear();
+        snapshotTransferCache.clear();
 
         timeOfLastProgressMs = nowMs;
 
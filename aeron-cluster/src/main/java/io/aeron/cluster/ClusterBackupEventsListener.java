@@ -44,6 +44,16 @@ public interface ClusterBackupEventsListener
         ClusterMember leaderMember,
         List<RecordingLog.Snapshot> snapshotsToRetrieve);
 
+    /**
+     * All the snapshots for a backup query have been retrieved to the local archive, either by transfer or by reuse
+     * of a previous transfer, and will be added to the recording log once the live log is being recorded.
+     *
+     * @param snapshotsRetrieved the snapshots that were retrieved.
+     */
+    default void onSnapshotsRetrieved(List<RecordingLog.Snapshot> snapshotsRetrieved)
+    {
+    }
+
     /**
      * Updated recording log.
      *
@@ -18,9 +18,10 @@ package io.aeron.cluster;
 import io.aeron.CncFileDescriptor;
 import io.aeron.CommonContext;
 import io.aeron.cluster.client.ClusterException;
+import io.aeron.cluster.service.ClusterCounters;
+import io.aeron.cluster.service.ClusteredServiceContainer;
 import org.agrona.DirectBuffer;
 import org.agrona.IoUtil;
-import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersReader;
 
@@ -29,8 +30,7 @@ import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import static io.aeron.CncFileDescriptor.*;
-import static org.agrona.concurrent.status.CountersReader.RECORD_ALLOCATED;
-import static org.agrona.concurrent.status.CountersReader.TYPE_ID_OFFSET;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
 
 /**
  * Toggle control {@link ToggleState}s for a cluster node such as {@link ToggleState#SUSPEND} or
@@ -218,27 +218,33 @@ public class ClusterControl
     }
 
     /**
-     * Find the control toggle counter or return null if not found.
+     * Find the control toggle counter for the default cluster id or return null if not found.
      *
      * @param counters to search for the control toggle.
      * @return the control toggle counter or return null if not found.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
      */
     public static AtomicCounter findControlToggle(final CountersReader counters)
     {
-        final AtomicBuffer buffer = counters.metaDataBuffer();
+        return findControlToggle(counters, ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT);
+    }
 
-        for (int i = 0, size = counters.maxCounterId(); i < size; i++)
+    /**
+     * Find the control toggle counter for a cluster or return null if not found.
+     *
+     * @param counters  to search for the control toggle.
+     * @param clusterId to which the control toggle belongs.
+     * @return the control toggle counter or return null if not found.
+     */
+    public static AtomicCounter findControlToggle(final CountersReader counters, final int clusterId)
+    {
+        final int counterId = ClusterCounters.find(counters, CONTROL_TOGGLE_TYPE_ID, clusterId);
+        if (NULL_COUNTER_ID == counterId)
         {
-            final int recordOffset = CountersReader.metaDataOffset(i);
-
-            if (counters.getCounterState(i) == RECORD_ALLOCATED &&
-                buffer.getInt(recordOffset + TYPE_ID_OFFSET) == CONTROL_TOGGLE_TYPE_ID)
-            {
-                return new AtomicCounter(counters.valuesBuffer(), i, null);
-            }
+            return null;
         }
 
-        return null;
+        return new AtomicCounter(counters.valuesBuffer(), counterId, null);
     }
 
     public static void main(final String[] args)
@@ -251,7 +257,8 @@ public class ClusterControl
         System.out.println("Command `n Control file " + cncFile);
 
         final CountersReader countersReader = mapCounters(cncFile);
-        final AtomicCounter controlToggle = findControlToggle(countersReader);
+        final AtomicCounter controlToggle = findControlToggle(
+            countersReader, ClusteredServiceContainer.Configuration.clusterId());
 
         if (null == controlToggle)
         {
@@ -16,6 +16,7 @@
 package io.aeron.cluster;
 
 import io.aeron.Aeron;
+import io.aeron.CommonContext;
 import io.aeron.Publication;
 import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.codecs.CloseReason;
@@ -47,6 +48,8 @@ class ClusterSession
     private boolean isBackupQuery = false;
     private final int responseStreamId;
     private final String responseChannel;
+    private int ipcMemberId = Aeron.NULL_VALUE;
+    private int ipcResponseStreamId = Aeron.NULL_VALUE;
     private Publication responsePublication;
     private State state = State.INIT;
     private String responseDetail = null;
@@ -110,6 +113,48 @@ class ClusterSession
         return responseChannel;
     }
 
+    /**
+     * The member which accepted the session via IPC ingress and so can respond via IPC rather than on the
+     * response channel while it remains leader for the term in which the session was opened.
+     *
+     * @return member which accepted the session via IPC ingress or {@link Aeron#NULL_VALUE} if not connected via IPC.
+     */
+    int ipcMemberId()
+    {
+        return ipcMemberId;
+    }
+
+    void ipcMemberId(final int ipcMemberId)
+    {
+        this.ipcMemberId = ipcMemberId;
+    }
+
+    /**
+     * The stream id on which to respond via IPC, which is the session id of the client's IPC ingress publication so
+     * each session has its own egress stream.
+     *
+     * @return the stream id on which to respond via IPC.
+     */
+    int ipcResponseStreamId()
+    {
+        return ipcResponseStreamId;
+    }
+
+    void ipcResponseStreamId(final int ipcResponseStreamId)
+    {
+        this.ipcResponseStreamId = ipcResponseStreamId;
+    }
+
+    /**
+     * Is the response publication for the session via IPC rather than the response channel.
+     *
+     * @return true if the response publication for the session is via IPC.
+     */
+    boolean isIpc()
+    {
+        return null != responsePublication && Aeron.NULL_VALUE != ipcMemberId;
+    }
+
     void close(final CloseReason closeReason)
     {
         this.closeReason = closeReason;
@@ -130,7 +175,14 @@ class ClusterSession
 
         try
         {
-            responsePublication = aeron.addPublication(responseChannel, responseStreamId);
+            if (Aeron.NULL_VALUE != ipcMemberId)
+            {
+                responsePublication = aeron.addPublication(CommonContext.IPC_CHANNEL, ipcResponseStreamId);
+            }
+            else
+            {
+                responsePublication = aeron.addPublication(responseChannel, responseStreamId);
+            }
         }
         catch (final InvalidChannelException ignore)
         {
@@ -293,6 +345,8 @@ class ClusterSession
             ", timeOfLastActivityNs=" + timeOfLastActivityNs +
             ", responseStreamId=" + responseStreamId +
             ", responseChannel='" + responseChannel + '\'' +
+            ", ipcMemberId=" + ipcMemberId +
+            ", ipcResponseStreamId=" + ipcResponseStreamId +
             ", closeReason=" + closeReason +
             ", state=" + state +
             ", hasNewLeaderEventPending=" + hasNewLeaderEventPending +
@@ -61,6 +61,7 @@ import static org.agrona.SystemUtil.getDurationInNanos;
  *             remove-passive: [memberId] requests removal of passive member specified in memberId.
  *               backup-query: [delay] schedules (or displays) time of next backup query for cluster backup.
  *  tombstone-latest-snapshot: Mark the latest snapshot as a tombstone so previous is loaded..
+ *      compact-recording-log: Remove tombstoned entries from the recording log when cluster component is stopped.
  * </pre>
  */
 public class ClusterTool
@@ -153,6 +154,10 @@ public class ClusterTool
             case "tombstone-latest-snapshot":
                 tombstoneLatestSnapshot(System.out, clusterDir);
                 break;
+
+            case "compact-recording-log":
+                compactRecordingLog(System.out, clusterDir);
+                break;
         }
     }
 
@@ -563,6 +568,16 @@ public class ClusterTool
         }
     }
 
+    public static int compactRecordingLog(final PrintStream out, final File clusterDir)
+    {
+        try (RecordingLog recordingLog = new RecordingLog(clusterDir))
+        {
+            final int removedCount = recordingLog.compact();
+            out.println(" compact recording log removed entries: " + removedCount);
+            return removedCount;
+        }
+    }
+
     static class ClusterMembership
     {
         long currentTimeNs = NULL_VALUE;
@@ -653,5 +668,7 @@ public class ClusterTool
             "               backup-query: [delay] display time of next backup query or set time of next backup query.");
         out.println(
             "  tombstone-latest-snapshot: Mark the latest snapshot as a tombstone so previous is loaded.");
+        out.println(
+            "      compact-recording-log: Remove tombstoned entries from the recording log when component is stopped.");
     }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+/**
+ * Tracks the time taken on the leader for positions appended to the log to be committed by a quorum of members.
+ * <p>
+ * Samples of the appended position are taken as the log advances and held in a fixed size ring so no allocation
+ * takes place. When the ring is full the most recent sample is extended to cover the new position which means
+ * latency is measured from the earlier time and so errs on the side of being overstated.
+ */
+class CommitLatencyTracker
+{
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final int mask;
+    private final long[] positions;
+    private final long[] timesNs;
+    private long head = 0;
+    private long tail = 0;
+    private long lastPosition = 0;
+    private long lastLatencyNs = 0;
+    private long maxLatencyNs = 0;
+
+    CommitLatencyTracker()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    CommitLatencyTracker(final int capacity)
+    {
+        final int length = findNextPositivePowerOfTwo(capacity);
+        mask = length - 1;
+        positions = new long[length];
+        timesNs = new long[length];
+    }
+
+    /**
+     * Latency in nanoseconds of the most recent sample to be committed.
+     *
+     * @return latency in nanoseconds of the most recent sample to be committed.
+     */
+    long lastLatencyNs()
+    {
+        return lastLatencyNs;
+    }
+
+    /**
+     * Max latency in nanoseconds of samples committed since the tracker was created.
+     *
+     * @return max latency in nanoseconds of samples committed since the tracker was created.
+     */
+    long maxLatencyNs()
+    {
+        return maxLatencyNs;
+    }
+
+    /**
+     * Number of samples waiting to be committed.
+     *
+     * @return number of samples waiting to be committed.
+     */
+    int size()
+    {
+        return (int)(tail - head);
+    }
+
+    /**
+     * Sample the position appended to the log if it has advanced since the last sample.
+     *
+     * @param position to which the log has been appended.
+     * @param nowNs    time at which the position was observed.
+     */
+    void onAppend(final long position, final long nowNs)
+    {
+        if (position > lastPosition)
+        {
+            lastPosition = position;
+
+            if (tail - head > mask)
+            {
+                positions[(int)(tail - 1) & mask] = position;
+            }
+            else
+            {
+                final int index = (int)tail & mask;
+                positions[index] = position;
+                timesNs[index] = nowNs;
+                tail++;
+            }
+        }
+    }
+
+    /**
+     * Record the latency of samples which are now committed.
+     *
+     * @param commitPosition agreed by a quorum of members.
+     * @param nowNs          time at which the position was committed.
+     * @return the number of samples committed.
+     */
+    int onCommit(final long commitPosition, final long nowNs)
+    {
+        int count = 0;
+
+        while (head < tail)
+        {
+            final int index = (int)head & mask;
+            if (positions[index] > commitPosition)
+            {
+                break;
+            }
+
+            lastLatencyNs = nowNs - timesNs[index];
+            if (lastLatencyNs > maxLatencyNs)
+            {
+                maxLatencyNs = lastLatencyNs;
+            }
+
+            head++;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Discard outstanding samples, such as on a change of leadership, starting again from a given position.
+     *
+     * @param position from which the log will be appended.
+     */
+    void reset(final long position)
+    {
+        head = tail;
+        lastPosition = position;
+    }
+}
@@ -23,6 +23,7 @@ import io.aeron.archive.client.AeronArchive;
 import io.aeron.cluster.client.AeronCluster;
 import io.aeron.cluster.client.ClusterClock;
 import io.aeron.cluster.client.ClusterException;
+import io.aeron.cluster.codecs.MessageHeaderEncoder;
 import io.aeron.cluster.codecs.mark.ClusterComponentType;
 import io.aeron.cluster.service.*;
 import io.aeron.exceptions.ConcurrentConcludeException;
@@ -176,6 +177,7 @@ public class ConsensusModule implements AutoCloseable
 
     private final Context ctx;
     private final AgentRunner conductorRunner;
+    private final AgentInvoker conductorInvoker;
 
     ConsensusModule(final Context ctx)
     {
@@ -197,12 +199,30 @@ public class ConsensusModule implements AutoCloseable
         }
 
         final ConsensusModuleAgent conductor = new ConsensusModuleAgent(ctx);
-        conductorRunner = new AgentRunner(ctx.idleStrategy(), ctx.errorHandler(), ctx.errorCounter(), conductor);
+
+        if (ctx.useAgentInvoker())
+        {
+            conductorInvoker = new AgentInvoker(ctx.errorHandler(), ctx.errorCounter(), conductor);
+            conductorRunner = null;
+        }
+        else
+        {
+            conductorInvoker = null;
+            conductorRunner = new AgentRunner(ctx.idleStrategy(), ctx.errorHandler(), ctx.errorCounter(), conductor);
+        }
     }
 
     private ConsensusModule start()
     {
-        AgentRunner.startOnThread(conductorRunner, ctx.threadFactory());
+        if (ctx.useAgentInvoker())
+        {
+            conductorInvoker.start();
+        }
+        else
+        {
+            AgentRunner.startOnThread(conductorRunner, ctx.threadFactory());
+        }
+
         return this;
     }
 
@@ -237,8 +257,24 @@ public class ConsensusModule implements AutoCloseable
         return ctx;
     }
 
+    /**
+     * Get the {@link AgentInvoker} for the consensus module if {@link Context#useAgentInvoker()} is true so it can
+     * share a thread, such as with the consensus modules of other clusters hosted in the same process.
+     * <p>
+     * The consensus module blocks within a duty cycle on some paths, stalling all agents on the thread, see
+     * {@link Context#useAgentInvoker(boolean)}.
+     *
+     * @return the {@link AgentInvoker} for the consensus module if {@link Context#useAgentInvoker()} is true
+     * otherwise null.
+     */
+    public AgentInvoker conductorAgentInvoker()
+    {
+        return conductorInvoker;
+    }
+
     public void close()
     {
+        CloseHelper.close(conductorInvoker);
         CloseHelper.close(conductorRunner);
     }
 
@@ -257,6 +293,18 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final int CLUSTER_INGRESS_FRAGMENT_LIMIT_DEFAULT = 50;
 
+        /**
+         * Property name for the max length in bytes of a batch of ingress messages appended to the log as a single
+         * entry by the leader. Batching is disabled when 0.
+         */
+        public static final String CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME = "aeron.cluster.ingress.batch.length";
+
+        /**
+         * Default for the max length in bytes of a batch of ingress messages appended to the log as a single entry,
+         * which is 0 so each ingress message is appended as its own entry.
+         */
+        public static final int CLUSTER_INGRESS_BATCH_LENGTH_DEFAULT = 0;
+
         /**
          * Type of snapshot for this component.
          */
@@ -366,6 +414,17 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final int LOG_STREAM_ID_DEFAULT = 100;
 
+        /**
+         * Should the log be replayed on recovery with each service consuming its own replay from the archive, bounded
+         * only by the recovered log position, rather than all following the replay consumed by the consensus module.
+         */
+        public static final String ACCELERATED_LOG_REPLAY_PROP_NAME = "aeron.cluster.accelerated.log.replay";
+
+        /**
+         * Default for should the log be replayed on recovery with each service consuming its own replay.
+         */
+        public static final String ACCELERATED_LOG_REPLAY_DEFAULT = "false";
+
         /**
          * Channel to be used for archiving snapshots.
          */
@@ -468,6 +527,31 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final int SNAPSHOT_COUNTER_TYPE_ID = 205;
 
+        /**
+         * Counter type id for the rate in bytes per second at which the log is replayed on recovery.
+         */
+        public static final int LOG_REPLAY_RATE_TYPE_ID = 217;
+
+        /**
+         * Counter type id for the estimated time in milliseconds remaining for the log replay on recovery.
+         */
+        public static final int LOG_REPLAY_ETA_TYPE_ID = 218;
+
+        /**
+         * Counter type id for the max latency in nanoseconds for an appended position to be committed by a quorum.
+         */
+        public static final int COMMIT_LATENCY_MAX_TYPE_ID = 219;
+
+        /**
+         * Counter type id for the latency in nanoseconds of the most recent appended position committed by a quorum.
+         */
+        public static final int COMMIT_LATENCY_TYPE_ID = 220;
+
+        /**
+         * Counter type id for the count of appended position messages sent by a follower to the leader.
+         */
+        public static final int APPEND_POSITION_SENT_COUNT_TYPE_ID = 221;
+
         /**
          * Type id for election state counter.
          */
@@ -524,6 +608,56 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final long LEADER_HEARTBEAT_INTERVAL_DEFAULT_NS = TimeUnit.MILLISECONDS.toNanos(200);
 
+        /**
+         * Number of bytes a follower's appended position must advance before it is sent to the leader. The latest
+         * position is always sent so positions which advance in between are coalesced. A value of 0 sends the
+         * position whenever it changes.
+         */
+        public static final String APPEND_POSITION_THRESHOLD_PROP_NAME = "aeron.cluster.append.position.threshold";
+
+        /**
+         * Default number of bytes a follower's appended position must advance before it is sent to the leader.
+         */
+        public static final int APPEND_POSITION_THRESHOLD_DEFAULT = 0;
+
+        /**
+         * Interval after which a follower will send its appended position to the leader if it has advanced by less
+         * than {@link #APPEND_POSITION_THRESHOLD_PROP_NAME}. A value of 0 disables the interval.
+         */
+        public static final String APPEND_POSITION_INTERVAL_PROP_NAME = "aeron.cluster.append.position.interval";
+
+        /**
+         * Default interval after which a follower will send an appended position which has advanced, which is disabled.
+         */
+        public static final long APPEND_POSITION_INTERVAL_DEFAULT_NS = 0;
+
+        /**
+         * Should a follower send its appended position as soon as the log stops advancing, i.e. the position has not
+         * moved since the previous duty cycle, regardless of {@link #APPEND_POSITION_THRESHOLD_PROP_NAME}.
+         */
+        public static final String APPEND_POSITION_ON_IDLE_PROP_NAME = "aeron.cluster.append.position.on.idle";
+
+        /**
+         * Default for should a follower send its appended position as soon as the log stops advancing.
+         */
+        public static final String APPEND_POSITION_ON_IDLE_DEFAULT = "true";
+
+        /**
+         * Threshold of suspicion, as phi, at which a follower considers the leader failed based on the observed
+         * distribution of intervals between messages from the leader. A value of 0 disables adaptive detection so
+         * only the fixed {@link #LEADER_HEARTBEAT_TIMEOUT_PROP_NAME} applies.
+         * <p>
+         * The lease for which a leader serves read queries is bounded by the shortest time after which the leader
+         * could be suspected, so a low threshold relative to the heartbeat interval leaves no lease for reads.
+         */
+        public static final String LEADER_HEARTBEAT_PHI_THRESHOLD_PROP_NAME =
+            "aeron.cluster.leader.heartbeat.phi.threshold";
+
+        /**
+         * Default threshold of suspicion, as phi, at which a follower considers the leader failed which is disabled.
+         */
+        public static final double LEADER_HEARTBEAT_PHI_THRESHOLD_DEFAULT = 0.0;
+
         /**
          * Timeout after which an election vote will be attempted after startup while waiting to canvass the status
          * of members if a majority has been heard from.
@@ -546,6 +680,17 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final long ELECTION_TIMEOUT_DEFAULT_NS = TimeUnit.SECONDS.toNanos(1);
 
+        /**
+         * Should a candidate ask for pre-votes before starting a new term so a member which cannot win an election,
+         * or whose peers can still hear from the leader, does not disrupt the cluster.
+         */
+        public static final String ELECTION_PRE_VOTE_ENABLED_PROP_NAME = "aeron.cluster.election.pre.vote.enabled";
+
+        /**
+         * Default for should a candidate ask for pre-votes before starting a new term.
+         */
+        public static final String ELECTION_PRE_VOTE_ENABLED_DEFAULT = "false";
+
         /**
          * Interval at which a member will send out status updates during election phases.
          */
@@ -599,6 +744,30 @@ public class ConsensusModule implements AutoCloseable
          */
         public static final long TERMINATION_TIMEOUT_DEFAULT_NS = TimeUnit.SECONDS.toNanos(5);
 
+        /**
+         * Timeout for services to complete an incremental snapshot after the Consensus Module has taken its own, after
+         * which the pending snapshot is discarded and recovery continues from the previous snapshot.
+         */
+        public static final String INCREMENTAL_SNAPSHOT_TIMEOUT_PROP_NAME =
+            "aeron.cluster.incremental.snapshot.timeout";
+
+        /**
+         * Timeout for services to complete an incremental snapshot default value.
+         */
+        public static final long INCREMENTAL_SNAPSHOT_TIMEOUT_DEFAULT_NS = TimeUnit.SECONDS.toNanos(60);
+
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a snapshot. During a
+         * rolling upgrade this should be set to the version of the oldest member so its snapshots can be loaded by
+         * any member, in which case messages added in later versions are written in their older form.
+         */
+        public static final String SNAPSHOT_SCHEMA_VERSION_PROP_NAME = "aeron.cluster.snapshot.schema.version";
+
+        /**
+         * Highest version of the cluster codecs schema which may be used in a snapshot default value.
+         */
+        public static final int SNAPSHOT_SCHEMA_VERSION_DEFAULT = MessageHeaderEncoder.SCHEMA_VERSION;
+
         /**
          * Resolution in nanoseconds for each tick of the timer wheel for scheduling deadlines.
          */
@@ -648,6 +817,18 @@ public class ConsensusModule implements AutoCloseable
             return Integer.getInteger(CLUSTER_INGRESS_FRAGMENT_LIMIT_PROP_NAME, CLUSTER_INGRESS_FRAGMENT_LIMIT_DEFAULT);
         }
 
+        /**
+         * The value {@link #CLUSTER_INGRESS_BATCH_LENGTH_DEFAULT} or system property
+         * {@link #CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME} if set.
+         *
+         * @return {@link #CLUSTER_INGRESS_BATCH_LENGTH_DEFAULT} or system property
+         * {@link #CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME} if set.
+         */
+        public static int ingressBatchLength()
+        {
+            return getSizeAsInt(CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME, CLUSTER_INGRESS_BATCH_LENGTH_DEFAULT);
+        }
+
         /**
          * The value {@link #CLUSTER_MEMBER_ID_DEFAULT} or system property
          * {@link #CLUSTER_MEMBER_ID_PROP_NAME} if set.
@@ -730,6 +911,18 @@ public class ConsensusModule implements AutoCloseable
             return Integer.getInteger(LOG_STREAM_ID_PROP_NAME, LOG_STREAM_ID_DEFAULT);
         }
 
+        /**
+         * Should the log be replayed on recovery with each service consuming its own replay from the archive.
+         *
+         * @return true if the log should be replayed on recovery with each service consuming its own replay.
+         * @see #ACCELERATED_LOG_REPLAY_PROP_NAME
+         */
+        public static boolean acceleratedLogReplay()
+        {
+            return "true".equalsIgnoreCase(System.getProperty(
+                ACCELERATED_LOG_REPLAY_PROP_NAME, ACCELERATED_LOG_REPLAY_DEFAULT));
+        }
+
         /**
          * The value {@link #MEMBER_ENDPOINTS_DEFAULT} or system property {@link #MEMBER_ENDPOINTS_PROP_NAME} if set.
          *
@@ -821,6 +1014,52 @@ public class ConsensusModule implements AutoCloseable
             return getDurationInNanos(LEADER_HEARTBEAT_INTERVAL_PROP_NAME, LEADER_HEARTBEAT_INTERVAL_DEFAULT_NS);
         }
 
+        /**
+         * Number of bytes a follower's appended position must advance before it is sent to the leader.
+         *
+         * @return number of bytes a follower's appended position must advance before it is sent to the leader.
+         * @see #APPEND_POSITION_THRESHOLD_PROP_NAME
+         */
+        public static int appendPositionThreshold()
+        {
+            return getSizeAsInt(APPEND_POSITION_THRESHOLD_PROP_NAME, APPEND_POSITION_THRESHOLD_DEFAULT);
+        }
+
+        /**
+         * Interval after which a follower will send its appended position to the leader if it has advanced.
+         *
+         * @return interval in nanoseconds after which an advanced appended position is sent, or 0 if disabled.
+         * @see #APPEND_POSITION_INTERVAL_PROP_NAME
+         */
+        public static long appendPositionIntervalNs()
+        {
+            return getDurationInNanos(APPEND_POSITION_INTERVAL_PROP_NAME, APPEND_POSITION_INTERVAL_DEFAULT_NS);
+        }
+
+        /**
+         * Should a follower send its appended position as soon as the log stops advancing.
+         *
+         * @return true if a follower should send its appended position as soon as the log stops advancing.
+         * @see #APPEND_POSITION_ON_IDLE_PROP_NAME
+         */
+        public static boolean appendPositionOnIdle()
+        {
+            return "true".equalsIgnoreCase(System.getProperty(
+                APPEND_POSITION_ON_IDLE_PROP_NAME, APPEND_POSITION_ON_IDLE_DEFAULT));
+        }
+
+        /**
+         * Threshold of suspicion, as phi, at which a follower considers the leader failed.
+         *
+         * @return threshold of suspicion at which a follower considers the leader failed, or 0 if disabled.
+         * @see #LEADER_HEARTBEAT_PHI_THRESHOLD_PROP_NAME
+         */
+        public static double leaderHeartbeatPhiThreshold()
+        {
+            return Double.parseDouble(System.getProperty(
+                LEADER_HEARTBEAT_PHI_THRESHOLD_PROP_NAME, Double.toString(LEADER_HEARTBEAT_PHI_THRESHOLD_DEFAULT)));
+        }
+
         /**
          * Timeout waiting to canvass the status of cluster members before voting if a majority have been heard from.
          *
@@ -843,6 +1082,18 @@ public class ConsensusModule implements AutoCloseable
             return getDurationInNanos(ELECTION_TIMEOUT_PROP_NAME, ELECTION_TIMEOUT_DEFAULT_NS);
         }
 
+        /**
+         * Should a candidate ask for pre-votes before starting a new term.
+         *
+         * @return true if a candidate should ask for pre-votes before starting a new term.
+         * @see #ELECTION_PRE_VOTE_ENABLED_PROP_NAME
+         */
+        public static boolean electionPreVoteEnabled()
+        {
+            return "true".equalsIgnoreCase(System.getProperty(
+                ELECTION_PRE_VOTE_ENABLED_PROP_NAME, ELECTION_PRE_VOTE_ENABLED_DEFAULT));
+        }
+
         /**
          * Interval at which a member will send out status messages during the election phases.
          *
@@ -878,6 +1129,28 @@ public class ConsensusModule implements AutoCloseable
             return getDurationInNanos(TERMINATION_TIMEOUT_PROP_NAME, TERMINATION_TIMEOUT_DEFAULT_NS);
         }
 
+        /**
+         * Timeout for services to complete an incremental snapshot.
+         *
+         * @return timeout in nanoseconds for services to complete an incremental snapshot.
+         * @see #INCREMENTAL_SNAPSHOT_TIMEOUT_PROP_NAME
+         */
+        public static long incrementalSnapshotTimeoutNs()
+        {
+            return getDurationInNanos(INCREMENTAL_SNAPSHOT_TIMEOUT_PROP_NAME, INCREMENTAL_SNAPSHOT_TIMEOUT_DEFAULT_NS);
+        }
+
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a snapshot.
+         *
+         * @return highest version of the cluster codecs schema which may be used in a snapshot.
+         * @see #SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         */
+        public static int snapshotSchemaVersion()
+        {
+            return Integer.getInteger(SNAPSHOT_SCHEMA_VERSION_PROP_NAME, SNAPSHOT_SCHEMA_VERSION_DEFAULT);
+        }
+
         /**
          * Size in bytes of the error buffer in the mark file.
          *
@@ -994,6 +1267,7 @@ public class ConsensusModule implements AutoCloseable
         private volatile int isConcluded;
 
         private boolean ownsAeronClient = false;
+        private boolean useAgentInvoker = false;
         private String aeronDirectoryName = CommonContext.getAeronDirectoryName();
         private Aeron aeron;
 
@@ -1006,6 +1280,7 @@ public class ConsensusModule implements AutoCloseable
         private int fileSyncLevel = Archive.Configuration.fileSyncLevel();
 
         private int appVersion = SemanticVersion.compose(0, 0, 1);
+        private int clusterId = ClusteredServiceContainer.Configuration.clusterId();
         private int clusterMemberId = Configuration.clusterMemberId();
         private int appointedLeaderId = Configuration.appointedLeaderId();
         private String clusterMembers = Configuration.clusterMembers();
@@ -1013,9 +1288,12 @@ public class ConsensusModule implements AutoCloseable
         private boolean clusterMembersIgnoreSnapshot = Configuration.clusterMembersIgnoreSnapshot();
         private String ingressChannel = AeronCluster.Configuration.ingressChannel();
         private int ingressStreamId = AeronCluster.Configuration.ingressStreamId();
+        private boolean isIpcIngressEnabled = AeronCluster.Configuration.isIpcIngressEnabled();
         private int ingressFragmentLimit = Configuration.ingressFragmentLimit();
+        private int ingressBatchLength = Configuration.ingressBatchLength();
         private String logChannel = Configuration.logChannel();
         private int logStreamId = Configuration.logStreamId();
+        private boolean acceleratedLogReplay = Configuration.acceleratedLogReplay();
         private String memberEndpoints = Configuration.memberEndpoints();
         private String replayChannel = ClusteredServiceContainer.Configuration.replayChannel();
         private int replayStreamId = ClusteredServiceContainer.Configuration.replayStreamId();
@@ -1035,11 +1313,18 @@ public class ConsensusModule implements AutoCloseable
         private long sessionTimeoutNs = Configuration.sessionTimeoutNs();
         private long leaderHeartbeatTimeoutNs = Configuration.leaderHeartbeatTimeoutNs();
         private long leaderHeartbeatIntervalNs = Configuration.leaderHeartbeatIntervalNs();
+        private double leaderHeartbeatPhiThreshold = Configuration.leaderHeartbeatPhiThreshold();
+        private int appendPositionThreshold = Configuration.appendPositionThreshold();
+        private long appendPositionIntervalNs = Configuration.appendPositionIntervalNs();
+        private boolean appendPositionOnIdle = Configuration.appendPositionOnIdle();
         private long startupCanvassTimeoutNs = Configuration.startupCanvassTimeoutNs();
         private long electionTimeoutNs = Configuration.electionTimeoutNs();
+        private boolean electionPreVoteEnabled = Configuration.electionPreVoteEnabled();
         private long electionStatusIntervalNs = Configuration.electionStatusIntervalNs();
         private long dynamicJoinIntervalNs = Configuration.dynamicJoinIntervalNs();
         private long terminationTimeoutNs = Configuration.terminationTimeoutNs();
+        private long incrementalSnapshotTimeoutNs = Configuration.incrementalSnapshotTimeoutNs();
+        private int snapshotSchemaVersion = Configuration.snapshotSchemaVersion();
 
         private ThreadFactory threadFactory;
         private Supplier<IdleStrategy> idleStrategySupplier;
@@ -1059,6 +1344,9 @@ public class ConsensusModule implements AutoCloseable
         private Counter snapshotCounter;
         private Counter invalidRequestCounter;
         private Counter timedOutClientCounter;
+        private Counter commitLatencyMaxCounter;
+        private Counter commitLatencyCounter;
+        private Counter appendPositionSentCounter;
         private ShutdownSignalBarrier shutdownSignalBarrier;
         private Runnable terminationHook;
 
@@ -1107,6 +1395,13 @@ public class ConsensusModule implements AutoCloseable
                 throw new ClusterException("failed to create cluster dir: " + clusterDir.getAbsolutePath());
             }
 
+            if (snapshotSchemaVersion > MessageHeaderEncoder.SCHEMA_VERSION)
+            {
+                throw new ClusterException(
+                    "snapshotSchemaVersion=" + snapshotSchemaVersion +
+                    " exceeds schema version=" + MessageHeaderEncoder.SCHEMA_VERSION);
+            }
+
             if (null == tempBuffer)
             {
                 tempBuffer = new UnsafeBuffer(new byte[METADATA_LENGTH]);
@@ -1162,7 +1457,8 @@ public class ConsensusModule implements AutoCloseable
 
                 if (null == errorCounter)
                 {
-                    errorCounter = aeron.addCounter(CONSENSUS_MODULE_ERROR_COUNT_TYPE_ID, "Cluster errors");
+                    errorCounter = ClusterCounters.allocate(
+                        aeron, tempBuffer, "Cluster errors", CONSENSUS_MODULE_ERROR_COUNT_TYPE_ID, clusterId);
                 }
             }
 
@@ -1187,39 +1483,69 @@ public class ConsensusModule implements AutoCloseable
 
             if (null == moduleState)
             {
-                moduleState = aeron.addCounter(CONSENSUS_MODULE_STATE_TYPE_ID, "Consensus module state");
+                moduleState = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Consensus module state", CONSENSUS_MODULE_STATE_TYPE_ID, clusterId);
             }
 
             if (null == commitPosition)
             {
-                commitPosition = CommitPos.allocate(aeron);
+                commitPosition = CommitPos.allocate(aeron, tempBuffer, clusterId);
             }
 
             if (null == controlToggle)
             {
-                controlToggle = aeron.addCounter(CONTROL_TOGGLE_TYPE_ID, "Cluster control toggle");
+                controlToggle = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Cluster control toggle", CONTROL_TOGGLE_TYPE_ID, clusterId);
             }
 
             if (null == snapshotCounter)
             {
-                snapshotCounter = aeron.addCounter(SNAPSHOT_COUNTER_TYPE_ID, "Snapshot count");
+                snapshotCounter = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Snapshot count", SNAPSHOT_COUNTER_TYPE_ID, clusterId);
             }
 
             if (null == invalidRequestCounter)
             {
-                invalidRequestCounter = aeron.addCounter(
-                    CLUSTER_INVALID_REQUEST_COUNT_TYPE_ID, "Invalid cluster request count");
+                invalidRequestCounter = ClusterCounters.allocate(
+                    aeron,
+                    tempBuffer,
+                    "Invalid cluster request count",
+                    CLUSTER_INVALID_REQUEST_COUNT_TYPE_ID,
+                    clusterId);
             }
 
             if (null == timedOutClientCounter)
             {
-                timedOutClientCounter = aeron.addCounter(
-                    CLUSTER_CLIENT_TIMEOUT_COUNT_TYPE_ID, "Timed out cluster client count");
+                timedOutClientCounter = ClusterCounters.allocate(
+                    aeron,
+                    tempBuffer,
+                    "Timed out cluster client count",
+                    CLUSTER_CLIENT_TIMEOUT_COUNT_TYPE_ID,
+                    clusterId);
+            }
+
+            if (null == commitLatencyMaxCounter)
+            {
+                commitLatencyMaxCounter = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Commit latency max ns", COMMIT_LATENCY_MAX_TYPE_ID, clusterId);
+            }
+
+            if (null == commitLatencyCounter)
+            {
+                commitLatencyCounter = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Commit latency ns", COMMIT_LATENCY_TYPE_ID, clusterId);
+            }
+
+            if (null == appendPositionSentCounter)
+            {
+                appendPositionSentCounter = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Append position sent count", APPEND_POSITION_SENT_COUNT_TYPE_ID, clusterId);
             }
 
             if (null == clusterNodeRole)
             {
-                clusterNodeRole = aeron.addCounter(Configuration.CLUSTER_NODE_ROLE_TYPE_ID, "Cluster node role");
+                clusterNodeRole = ClusterCounters.allocate(
+                    aeron, tempBuffer, "Cluster node role", Configuration.CLUSTER_NODE_ROLE_TYPE_ID, clusterId);
             }
 
             if (null == threadFactory)
@@ -1268,7 +1594,7 @@ public class ConsensusModule implements AutoCloseable
 
             if (null == logPublisher)
             {
-                logPublisher = new LogPublisher();
+                logPublisher = new LogPublisher(ingressBatchLength);
             }
 
             if (null == egressPublisher)
@@ -1455,6 +1781,31 @@ public class ConsensusModule implements AutoCloseable
             return this;
         }
 
+        /**
+         * Set the id of the cluster so its counters can be found when multiple clusters are hosted in the same
+         * process and share a media driver.
+         *
+         * @param clusterId of the cluster.
+         * @return this for a fluent API.
+         * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_PROP_NAME
+         */
+        public Context clusterId(final int clusterId)
+        {
+            this.clusterId = clusterId;
+            return this;
+        }
+
+        /**
+         * Get the id of the cluster.
+         *
+         * @return the id of the cluster.
+         * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_PROP_NAME
+         */
+        public int clusterId()
+        {
+            return clusterId;
+        }
+
         /**
          * This cluster member identity.
          *
@@ -1641,6 +1992,33 @@ public class ConsensusModule implements AutoCloseable
             return ingressStreamId;
         }
 
+        /**
+         * Set if the leader should accept ingress via IPC from clients which share its media driver in addition to the
+         * {@link #ingressChannel()}. Responses to sessions connected via IPC are then sent via IPC while this member
+         * remains leader.
+         *
+         * @param isIpcIngressEnabled true if the leader should accept ingress via IPC.
+         * @return this for a fluent API.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#IPC_INGRESS_ENABLED_PROP_NAME
+         */
+        public Context isIpcIngressEnabled(final boolean isIpcIngressEnabled)
+        {
+            this.isIpcIngressEnabled = isIpcIngressEnabled;
+            return this;
+        }
+
+        /**
+         * Should the leader accept ingress via IPC from clients which share its media driver in addition to the
+         * {@link #ingressChannel()}.
+         *
+         * @return true if the leader should accept ingress via IPC.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#IPC_INGRESS_ENABLED_PROP_NAME
+         */
+        public boolean isIpcIngressEnabled()
+        {
+            return isIpcIngressEnabled;
+        }
+
         /**
          * Set limit for fragments to be consumed on each poll of ingress.
          *
@@ -1665,6 +2043,34 @@ public class ConsensusModule implements AutoCloseable
             return ingressFragmentLimit;
         }
 
+        /**
+         * Set the max length in bytes of a batch of ingress messages which the leader appends to the log as a single
+         * entry. Messages polled from ingress in a duty cycle are batched, preserving their session headers, which
+         * reduces the per message cost of appending to the log and of replicating it. All members and services
+         * must support decoding batches before it is enabled.
+         *
+         * @param ingressBatchLength max length in bytes of a batch, or 0 to disable batching.
+         * @return this for a fluent API
+         * @see Configuration#CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME
+         */
+        public Context ingressBatchLength(final int ingressBatchLength)
+        {
+            this.ingressBatchLength = ingressBatchLength;
+            return this;
+        }
+
+        /**
+         * The max length in bytes of a batch of ingress messages which the leader appends to the log as a single
+         * entry.
+         *
+         * @return max length in bytes of a batch, or 0 if batching is disabled.
+         * @see Configuration#CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME
+         */
+        public int ingressBatchLength()
+        {
+            return ingressBatchLength;
+        }
+
         /**
          * Set the channel parameter for the cluster log channel.
          *
@@ -1713,6 +2119,31 @@ public class ConsensusModule implements AutoCloseable
             return logStreamId;
         }
 
+        /**
+         * Should the log be replayed on recovery with each service consuming its own replay from the archive, bounded
+         * only by the recovered log position, rather than all following the replay consumed by the consensus module.
+         *
+         * @param acceleratedLogReplay true if each service should consume its own replay of the log on recovery.
+         * @return this for a fluent API.
+         * @see Configuration#ACCELERATED_LOG_REPLAY_PROP_NAME
+         */
+        public Context acceleratedLogReplay(final boolean acceleratedLogReplay)
+        {
+            this.acceleratedLogReplay = acceleratedLogReplay;
+            return this;
+        }
+
+        /**
+         * Should the log be replayed on recovery with each service consuming its own replay from the archive.
+         *
+         * @return true if each service should consume its own replay of the log on recovery.
+         * @see Configuration#ACCELERATED_LOG_REPLAY_PROP_NAME
+         */
+        public boolean acceleratedLogReplay()
+        {
+            return acceleratedLogReplay;
+        }
+
         /**
          * Set the endpoints for this cluster node.
          *
@@ -2125,6 +2556,106 @@ public class ConsensusModule implements AutoCloseable
             return leaderHeartbeatIntervalNs;
         }
 
+        /**
+         * Number of bytes a follower's appended position must advance before it is sent to the leader.
+         *
+         * @param appendPositionThreshold in bytes, or 0 to send the position whenever it changes.
+         * @return this for a fluent API.
+         * @see Configuration#APPEND_POSITION_THRESHOLD_PROP_NAME
+         */
+        public Context appendPositionThreshold(final int appendPositionThreshold)
+        {
+            this.appendPositionThreshold = appendPositionThreshold;
+            return this;
+        }
+
+        /**
+         * Number of bytes a follower's appended position must advance before it is sent to the leader.
+         *
+         * @return number of bytes, or 0 if the position is sent whenever it changes.
+         * @see Configuration#APPEND_POSITION_THRESHOLD_PROP_NAME
+         */
+        public int appendPositionThreshold()
+        {
+            return appendPositionThreshold;
+        }
+
+        /**
+         * Interval after which a follower will send its appended position to the leader if it has advanced by less
+         * than the {@link #appendPositionThreshold()}.
+         *
+         * @param appendPositionIntervalNs after which an advanced position is sent, or 0 to disable.
+         * @return this for a fluent API.
+         * @see Configuration#APPEND_POSITION_INTERVAL_PROP_NAME
+         */
+        public Context appendPositionIntervalNs(final long appendPositionIntervalNs)
+        {
+            this.appendPositionIntervalNs = appendPositionIntervalNs;
+            return this;
+        }
+
+        /**
+         * Interval after which a follower will send its appended position to the leader if it has advanced by less
+         * than the {@link #appendPositionThreshold()}.
+         *
+         * @return interval in nanoseconds after which an advanced position is sent, or 0 if disabled.
+         * @see Configuration#APPEND_POSITION_INTERVAL_PROP_NAME
+         */
+        public long appendPositionIntervalNs()
+        {
+            return appendPositionIntervalNs;
+        }
+
+        /**
+         * Should a follower send its appended position as soon as the log stops advancing.
+         *
+         * @param appendPositionOnIdle true if the position should be sent as soon as the log stops advancing.
+         * @return this for a fluent API.
+         * @see Configuration#APPEND_POSITION_ON_IDLE_PROP_NAME
+         */
+        public Context appendPositionOnIdle(final boolean appendPositionOnIdle)
+        {
+            this.appendPositionOnIdle = appendPositionOnIdle;
+            return this;
+        }
+
+        /**
+         * Should a follower send its appended position as soon as the log stops advancing.
+         *
+         * @return true if the position should be sent as soon as the log stops advancing.
+         * @see Configuration#APPEND_POSITION_ON_IDLE_PROP_NAME
+         */
+        public boolean appendPositionOnIdle()
+        {
+            return appendPositionOnIdle;
+        }
+
+        /**
+         * Threshold of suspicion, as phi, at which a follower considers the leader failed based on the observed
+         * distribution of intervals between messages from the leader.
+         *
+         * @param phiThreshold at which the leader is considered failed, or 0 to disable adaptive detection.
+         * @return this for a fluent API.
+         * @see Configuration#LEADER_HEARTBEAT_PHI_THRESHOLD_PROP_NAME
+         */
+        public Context leaderHeartbeatPhiThreshold(final double phiThreshold)
+        {
+            this.leaderHeartbeatPhiThreshold = phiThreshold;
+            return this;
+        }
+
+        /**
+         * Threshold of suspicion, as phi, at which a follower considers the leader failed based on the observed
+         * distribution of intervals between messages from the leader.
+         *
+         * @return the threshold at which the leader is considered failed, or 0 if adaptive detection is disabled.
+         * @see Configuration#LEADER_HEARTBEAT_PHI_THRESHOLD_PROP_NAME
+         */
+        public double leaderHeartbeatPhiThreshold()
+        {
+            return leaderHeartbeatPhiThreshold;
+        }
+
         /**
          * Timeout to wait for hearing the status of all cluster members on startup after recovery before commencing
          * an election if a majority of members has been heard from.
@@ -2175,6 +2706,30 @@ public class ConsensusModule implements AutoCloseable
             return electionTimeoutNs;
         }
 
+        /**
+         * Should a candidate ask for pre-votes before starting a new term.
+         *
+         * @param electionPreVoteEnabled true if a candidate should ask for pre-votes before starting a new term.
+         * @return this for a fluent API.
+         * @see Configuration#ELECTION_PRE_VOTE_ENABLED_PROP_NAME
+         */
+        public Context electionPreVoteEnabled(final boolean electionPreVoteEnabled)
+        {
+            this.electionPreVoteEnabled = electionPreVoteEnabled;
+            return this;
+        }
+
+        /**
+         * Should a candidate ask for pre-votes before starting a new term.
+         *
+         * @return true if a candidate should ask for pre-votes before starting a new term.
+         * @see Configuration#ELECTION_PRE_VOTE_ENABLED_PROP_NAME
+         */
+        public boolean electionPreVoteEnabled()
+        {
+            return electionPreVoteEnabled;
+        }
+
         /**
          * Interval at which a member will send out status messages during the election phases.
          *
@@ -2254,6 +2809,58 @@ public class ConsensusModule implements AutoCloseable
             return terminationTimeoutNs;
         }
 
+        /**
+         * Timeout for services to complete an incremental snapshot after the Consensus Module has taken its own.
+         *
+         * @param incrementalSnapshotTimeoutNs for services to complete an incremental snapshot.
+         * @return this for a fluent API.
+         * @see Configuration#INCREMENTAL_SNAPSHOT_TIMEOUT_PROP_NAME
+         * @see Configuration#INCREMENTAL_SNAPSHOT_TIMEOUT_DEFAULT_NS
+         */
+        public Context incrementalSnapshotTimeoutNs(final long incrementalSnapshotTimeoutNs)
+        {
+            this.incrementalSnapshotTimeoutNs = incrementalSnapshotTimeoutNs;
+            return this;
+        }
+
+        /**
+         * Timeout for services to complete an incremental snapshot after the Consensus Module has taken its own.
+         *
+         * @return timeout for services to complete an incremental snapshot.
+         * @see Configuration#INCREMENTAL_SNAPSHOT_TIMEOUT_PROP_NAME
+         * @see Configuration#INCREMENTAL_SNAPSHOT_TIMEOUT_DEFAULT_NS
+         */
+        public long incrementalSnapshotTimeoutNs()
+        {
+            return incrementalSnapshotTimeoutNs;
+        }
+
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a snapshot.
+         *
+         * @param snapshotSchemaVersion highest version of the cluster codecs schema which may be used in a snapshot.
+         * @return this for a fluent API.
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_DEFAULT
+         */
+        public Context snapshotSchemaVersion(final int snapshotSchemaVersion)
+        {
+            this.snapshotSchemaVersion = snapshotSchemaVersion;
+            return this;
+        }
+
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a snapshot.
+         *
+         * @return highest version of the cluster codecs schema which may be used in a snapshot.
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_DEFAULT
+         */
+        public int snapshotSchemaVersion()
+        {
+            return snapshotSchemaVersion;
+        }
+
         /**
          * Get the thread factory used for creating threads.
          *
@@ -2574,6 +3181,72 @@ public class ConsensusModule implements AutoCloseable
             return this;
         }
 
+        /**
+         * Get the counter for the max latency in nanoseconds for an appended position to be committed by a quorum.
+         *
+         * @return the counter for the max latency in nanoseconds for an appended position to be committed.
+         */
+        public Counter commitLatencyMaxCounter()
+        {
+            return commitLatencyMaxCounter;
+        }
+
+        /**
+         * Set the counter for the max latency in nanoseconds for an appended position to be committed by a quorum.
+         *
+         * @param commitLatencyMaxCounter for the max latency in nanoseconds for a position to be committed.
+         * @return this for a fluent API.
+         */
+        public Context commitLatencyMaxCounter(final Counter commitLatencyMaxCounter)
+        {
+            this.commitLatencyMaxCounter = commitLatencyMaxCounter;
+            return this;
+        }
+
+        /**
+         * Get the counter for the latency in nanoseconds of the most recent appended position committed by a quorum.
+         *
+         * @return the counter for the latency in nanoseconds of the most recent appended position committed.
+         */
+        public Counter commitLatencyCounter()
+        {
+            return commitLatencyCounter;
+        }
+
+        /**
+         * Set the counter for the latency in nanoseconds of the most recent appended position committed by a quorum.
+         *
+         * @param commitLatencyCounter for the latency in nanoseconds of the most recent position committed.
+         * @return this for a fluent API.
+         */
+        public Context commitLatencyCounter(final Counter commitLatencyCounter)
+        {
+            this.commitLatencyCounter = commitLatencyCounter;
+            return this;
+        }
+
+        /**
+         * Get the counter for the count of appended position messages sent by a follower to the leader.
+         *
+         * @return the counter for the count of appended position messages sent by a follower to the leader.
+         */
+        public Counter appendPositionSentCounter()
+        {
+            return appendPositionSentCounter;
+        }
+
+        /**
+         * Set the counter for the count of appended position messages sent by a follower to the leader.
+         *
+         * @param appendPositionSentCounter for the count of appended position messages sent to the leader.
+         * @return this for a fluent API.
+         */
+        public Context appendPositionSentCounter(final Counter appendPositionSentCounter)
+        {
+            this.appendPositionSentCounter = appendPositionSentCounter;
+            return this;
+        }
+
         /**
          * {@link Aeron} client for communicating with the local Media Driver.
          * <p>
@@ -2647,6 +3320,41 @@ public class ConsensusModule implements AutoCloseable
             return ownsAeronClient;
         }
 
+        /**
+         * Should the consensus module be run via an {@link AgentInvoker} rather than on its own thread so it can be
+         * composed with other agents, such as the consensus modules of other clusters hosted in the same process.
+         * <p>
+         * The consensus module blocks on start, and when taking a snapshot, while awaiting acknowledgements from its
+         * services so the {@link ClusteredServiceContainer}s must not be run on the same thread.
+         * <p>
+         * Some paths of the consensus module block within a single duty cycle: recovery on start, loading a
+         * snapshot, taking a snapshot, joining or replaying the log during an election while awaiting service acks,
+         * awaiting the services to acknowledge termination, and synchronous requests to the archive. While one
+         * consensus module is blocked on one of these paths every other agent invoked on the same thread is stalled,
+         * including the consensus modules of other clusters, which may then miss heartbeats and start elections.
+         * Timeouts for the clusters sharing a thread should allow for the longest of these pauses.
+         *
+         * @param useAgentInvoker true if the consensus module should be run via an {@link AgentInvoker}.
+         * @return this for a fluent API.
+         * @see ConsensusModule#conductorAgentInvoker()
+         */
+        public Context useAgentInvoker(final boolean useAgentInvoker)
+        {
+            this.useAgentInvoker = useAgentInvoker;
+            return this;
+        }
+
+        /**
+         * Should the consensus module be run via an {@link AgentInvoker} rather than on its own thread.
+         *
+         * @return true if the consensus module should be run via an {@link AgentInvoker}.
+         * @see ConsensusModule#conductorAgentInvoker()
+         */
+        public boolean useAgentInvoker()
+        {
+            return useAgentInvoker;
+        }
+
         /**
          * Set the {@link io.aeron.archive.client.AeronArchive.Context} that should be used for communicating with the
          * local Archive.
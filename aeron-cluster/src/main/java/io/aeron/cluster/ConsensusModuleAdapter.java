@@ -35,6 +35,8 @@ final class ConsensusModuleAdapter implements AutoCloseable
     private final ScheduleTimerDecoder scheduleTimerDecoder = new ScheduleTimerDecoder();
     private final CancelTimerDecoder cancelTimerDecoder = new CancelTimerDecoder();
     private final ServiceAckDecoder serviceAckDecoder = new ServiceAckDecoder();
+    private final ServiceSnapshotTakenDecoder serviceSnapshotTakenDecoder = new ServiceSnapshotTakenDecoder();
+    private final ServiceSnapshotPartDecoder serviceSnapshotPartDecoder = new ServiceSnapshotPartDecoder();
     private final CloseSessionDecoder closeSessionDecoder = new CloseSessionDecoder();
     private final ClusterMembersQueryDecoder clusterMembersQueryDecoder = new ClusterMembersQueryDecoder();
     private final RemoveMemberDecoder removeMemberDecoder = new RemoveMemberDecoder();
@@ -136,6 +138,36 @@ final class ConsensusModuleAdapter implements AutoCloseable
                 action = ControlledFragmentHandler.Action.BREAK;
                 break;
 
+            case ServiceSnapshotTakenDecoder.TEMPLATE_ID:
+                serviceSnapshotTakenDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onServiceSnapshotTaken(
+                    serviceSnapshotTakenDecoder.logPosition(),
+                    serviceSnapshotTakenDecoder.leadershipTermId(),
+                    serviceSnapshotTakenDecoder.recordingId(),
+                    serviceSnapshotTakenDecoder.serviceId());
+                break;
+
+            case ServiceSnapshotPartDecoder.TEMPLATE_ID:
+                serviceSnapshotPartDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onServiceSnapshotPart(
+                    serviceSnapshotPartDecoder.logPosition(),
+                    serviceSnapshotPartDecoder.leadershipTermId(),
+                    serviceSnapshotPartDecoder.recordingId(),
+                    serviceSnapshotPartDecoder.serviceId(),
+                    serviceSnapshotPartDecoder.partIndex(),
+                    serviceSnapshotPartDecoder.partCount());
+                break;
+
             case ClusterMembersQueryDecoder.TEMPLATE_ID:
                 clusterMembersQueryDecoder.wrap(
                     buffer,
@@ -25,6 +25,7 @@ import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.codecs.*;
 import io.aeron.cluster.service.Cluster;
 import io.aeron.cluster.service.ClusterMarkFile;
+import io.aeron.cluster.service.RecoverySnapshotPart;
 import io.aeron.cluster.service.RecoveryState;
 import io.aeron.exceptions.AeronException;
 import io.aeron.exceptions.TimeoutException;
@@ -62,6 +63,10 @@ class ConsensusModuleAgent implements Agent
     private final long sessionTimeoutNs;
     private final long leaderHeartbeatIntervalNs;
     private final long leaderHeartbeatTimeoutNs;
+    private final long leaderLeaseNs;
+    private final long appendPositionIntervalNs;
+    private final int appendPositionThreshold;
+    private final boolean appendPositionOnIdle;
     private long nextSessionId = 1;
     private long nextServiceSessionId = Long.MIN_VALUE + 1;
     private long logServiceSessionId = Long.MIN_VALUE;
@@ -71,6 +76,7 @@ class ConsensusModuleAgent implements Agent
     private long terminationPosition = NULL_POSITION;
     private long followerCommitPosition = 0;
     private long lastAppendedPosition = 0;
+    private long lastObservedAppendedPosition = 0;
     private long timeOfLastLogUpdateNs = 0;
     private long timeOfLastAppendPositionNs = 0;
     private long timeOfLastMarkFileUpdateNs;
@@ -87,6 +93,7 @@ class ConsensusModuleAgent implements Agent
     private int logPublicationChannelTag;
     private final int logSubscriptionTag;
     private final int logSubscriptionChannelTag;
+    private final boolean isIngressBatching;
     private ReadableCounter appendedPosition;
     private final Counter commitPosition;
     private ConsensusModule.State state = ConsensusModule.State.INIT;
@@ -104,10 +111,18 @@ class ConsensusModuleAgent implements Agent
     private final TimeUnit clusterTimeUnit;
     private final Counter moduleState;
     private final Counter controlToggle;
+    private final Counter commitLatencyMaxCounter;
+    private final Counter commitLatencyCounter;
+    private final Counter appendPositionSentCounter;
+    private final CommitLatencyTracker commitLatencyTracker = new CommitLatencyTracker();
     private final TimerService timerService;
+    private final SessionTimeoutWheel sessionTimeoutWheel;
+    private final PendingReadQueries pendingReadQueries;
+    private final PhiAccrualFailureDetector leaderFailureDetector;
     private final ConsensusModuleAdapter consensusModuleAdapter;
     private final ServiceProxy serviceProxy;
     private final IngressAdapter ingressAdapter;
+    private final IngressAdapter ipcIngressAdapter;
     private final EgressPublisher egressPublisher;
     private final LogPublisher logPublisher;
     private LogAdapter logAdapter;
@@ -117,6 +132,9 @@ class ConsensusModuleAgent implements Agent
     private final ArrayList<ClusterSession> pendingSessions = new ArrayList<>();
     private final ArrayList<ClusterSession> rejectedSessions = new ArrayList<>();
     private final ArrayList<ClusterSession> redirectSessions = new ArrayList<>();
+    private final ArrayList<ClusterSession> pendingOpenSessions = new ArrayList<>();
+    private final ArrayList<ClusterSession> newLeaderEventSessions = new ArrayList<>();
+    private final ArrayList<PendingServiceSnapshot> pendingServiceSnapshots = new ArrayList<>();
     private final Int2ObjectHashMap<ClusterMember> clusterMemberByIdMap = new Int2ObjectHashMap<>();
     private final Long2LongCounterMap expiredTimerCountByCorrelationIdMap = new Long2LongCounterMap(0);
     private final LongArrayQueue uncommittedTimers = new LongArrayQueue(Long.MAX_VALUE);
@@ -136,6 +154,9 @@ class ConsensusModuleAgent implements Agent
     private final IdleStrategy idleStrategy;
     private final RecordingLog recordingLog;
     private final ArrayList<RecordingLog.Snapshot> dynamicJoinSnapshots = new ArrayList<>();
+    private final ArrayList<RecordingLog.Snapshot> dynamicJoinSnapshotParts = new ArrayList<>();
+    private final ArrayList<RecordingLog.Snapshot> pendingSnapshotParts = new ArrayList<>();
+    private final ArrayList<Counter> recoverySnapshotPartCounters = new ArrayList<>();
     private RecordingLog.RecoveryPlan recoveryPlan;
     private Election election;
     private DynamicJoin dynamicJoin;
@@ -154,11 +175,18 @@ class ConsensusModuleAgent implements Agent
         this.sessionTimeoutNs = ctx.sessionTimeoutNs();
         this.leaderHeartbeatIntervalNs = ctx.leaderHeartbeatIntervalNs();
         this.leaderHeartbeatTimeoutNs = ctx.leaderHeartbeatTimeoutNs();
+        this.appendPositionThreshold = ctx.appendPositionThreshold();
+        this.appendPositionIntervalNs = ctx.appendPositionIntervalNs();
+        this.appendPositionOnIdle = ctx.appendPositionOnIdle();
         this.egressPublisher = ctx.egressPublisher();
         this.moduleState = ctx.moduleStateCounter();
         this.commitPosition = ctx.commitPositionCounter();
         this.controlToggle = ctx.controlToggleCounter();
+        this.commitLatencyMaxCounter = ctx.commitLatencyMaxCounter();
+        this.commitLatencyCounter = ctx.commitLatencyCounter();
+        this.appendPositionSentCounter = ctx.appendPositionSentCounter();
         this.logPublisher = ctx.logPublisher();
+        this.isIngressBatching = ctx.ingressBatchLength() > 0;
         this.idleStrategy = ctx.idleStrategy();
         this.timerService = new TimerService(
             this,
@@ -166,6 +194,11 @@ class ConsensusModuleAgent implements Agent
             0,
             findNextPositivePowerOfTwo(clusterTimeUnit.convert(ctx.wheelTickResolutionNs(), TimeUnit.NANOSECONDS)),
             ctx.ticksPerWheel());
+        this.sessionTimeoutWheel = new SessionTimeoutWheel(
+            this::onSessionTimeout,
+            sessionTimeoutNs,
+            findNextPositivePowerOfTwo(ctx.wheelTickResolutionNs()),
+            ctx.ticksPerWheel());
         this.clusterMembers = ClusterMember.parse(ctx.clusterMembers());
         this.sessionProxy = new ClusterSessionProxy(egressPublisher);
         this.memberId = ctx.clusterMemberId();
@@ -200,10 +233,16 @@ class ConsensusModuleAgent implements Agent
         ClusterMember.addMemberStatusPublications(clusterMembers, thisMember, memberStatusUri, statusStreamId, aeron);
 
         ingressAdapter = new IngressAdapter(ctx.ingressFragmentLimit(), this, ctx.invalidRequestCounter());
+        ipcIngressAdapter = new IngressAdapter(ctx.ingressFragmentLimit(), this, ctx.invalidRequestCounter(), true);
 
         consensusModuleAdapter = new ConsensusModuleAdapter(
             aeron.addSubscription(ctx.serviceControlChannel(), ctx.consensusModuleStreamId()), this);
         serviceProxy = new ServiceProxy(aeron.addPublication(ctx.serviceControlChannel(), ctx.serviceStreamId()));
+        pendingReadQueries = new PendingReadQueries(serviceProxy::readQuery, leaderHeartbeatIntervalNs);
+        leaderFailureDetector = new PhiAccrualFailureDetector(
+            ctx.leaderHeartbeatPhiThreshold(), leaderHeartbeatIntervalNs, leaderHeartbeatIntervalNs >> 2);
+        leaderLeaseNs = leaderLeaseNs(
+            Math.min(leaderHeartbeatTimeoutNs, leaderFailureDetector.minDetectionTimeNs()), leaderHeartbeatIntervalNs);
 
         authenticator = ctx.authenticatorSupplier().get();
     }
@@ -220,8 +259,9 @@ class ConsensusModuleAgent implements Agent
             CloseHelper.close(memberStatusAdapter);
             ClusterMember.closeMemberPublications(clusterMembers);
 
-            logPublisher.disconnect();
+            logPublisher.disconnect(ctx.countedErrorHandler());
             CloseHelper.close(ingressAdapter);
+            CloseHelper.close(ipcIngressAdapter);
             CloseHelper.close(serviceProxy);
             CloseHelper.close(consensusModuleAdapter);
         }
@@ -246,6 +286,10 @@ class ConsensusModuleAgent implements Agent
 
                 awaitServiceAcks(expectedAckPosition);
             }
+            finally
+            {
+                closeRecoverySnapshotPartCounters();
+            }
 
             if (ConsensusModule.State.SUSPENDED != state)
             {
@@ -313,12 +357,19 @@ class ConsensusModuleAgent implements Agent
         final int responseStreamId,
         final int version,
         final String responseChannel,
-        final byte[] encodedCredentials)
+        final byte[] encodedCredentials,
+        final boolean isIpc,
+        final int ingressSessionId)
     {
         final long clusterSessionId = Cluster.Role.LEADER == role ? nextSessionId++ : NULL_VALUE;
         final ClusterSession session = new ClusterSession(clusterSessionId, responseStreamId, responseChannel);
         final long now = clusterClock.time();
         session.lastActivity(clusterTimeUnit.toNanos(now), correlationId);
+        if (isIpc && Cluster.Role.LEADER == role)
+        {
+            session.ipcMemberId(memberId);
+            session.ipcResponseStreamId(ingressSessionId);
+        }
         session.connect(aeron);
 
         if (Cluster.Role.LEADER != role)
@@ -382,8 +433,11 @@ class ConsensusModuleAgent implements Agent
         if (session.state() == OPEN)
         {
             final long now = clusterClock.time();
+            final boolean isAppended = isIngressBatching ?
+                logPublisher.batchMessage(leadershipTermId, clusterSessionId, now, buffer, offset, length) :
+                logPublisher.appendMessage(leadershipTermId, clusterSessionId, now, buffer, offset, length) > 0;
 
-            if (logPublisher.appendMessage(leadershipTermId, clusterSessionId, now, buffer, offset, length) > 0)
+            if (isAppended)
             {
                 session.timeOfLastActivityNs(clusterTimeUnit.toNanos(now));
                 return ControlledFragmentHandler.Action.CONTINUE;
@@ -393,6 +447,44 @@ class ConsensusModuleAgent implements Agent
         return ControlledFragmentHandler.Action.ABORT;
     }
 
+    public void onReadQuery(
+        final long leadershipTermId,
+        final long clusterSessionId,
+        final long correlationId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        if (leadershipTermId != this.leadershipTermId || null != election)
+        {
+            return;
+        }
+
+        final ClusterSession session = sessionByIdMap.get(clusterSessionId);
+        if (null == session || session.state() != OPEN)
+        {
+            return;
+        }
+
+        if (Cluster.Role.LEADER == role)
+        {
+            // Reads on the leader are lease based rather than confirmed by a round trip to the followers. While a
+            // quorum has been heard from within the lease no other member can have been elected, see leaderLeaseNs,
+            // so the commit position is the read index.
+            if (hasLeaderLease(clusterTimeUnit.toNanos(clusterClock.time())))
+            {
+                serviceProxy.readQuery(
+                    clusterSessionId, correlationId, commitPosition.getWeak(), buffer, offset, length);
+            }
+        }
+        else if (Cluster.Role.FOLLOWER == role &&
+            !pendingReadQueries.add(clusterSessionId, correlationId, buffer, offset, length))
+        {
+            ctx.countedErrorHandler().onError(new ClusterException(
+                "read query discarded as pending read queries at capacity", AeronException.Category.WARN));
+        }
+    }
+
     public void onSessionKeepAlive(final long leadershipTermId, final long clusterSessionId)
     {
         if (Cluster.Role.LEADER == role && leadershipTermId == this.leadershipTermId)
@@ -480,6 +572,46 @@ class ConsensusModuleAgent implements Agent
         }
     }
 
+    public void onPreVoteRequest(
+        final long logLeadershipTermId, final long logPosition, final long candidateTermId, final int candidateId)
+    {
+        if (null != election)
+        {
+            election.onPreVoteRequest(logLeadershipTermId, logPosition, candidateTermId, candidateId);
+        }
+        else
+        {
+            final ClusterMember candidate = clusterMemberByIdMap.get(candidateId);
+            if (null != candidate)
+            {
+                final long position = commitPosition.getWeak();
+                final boolean vote =
+                    Cluster.Role.FOLLOWER == role &&
+                    candidateTermId > leadershipTermId &&
+                    isLeaderSuspected(clusterTimeUnit.toNanos(clusterClock.time())) &&
+                    ClusterMember.compareLog(leadershipTermId, position, logLeadershipTermId, logPosition) <= 0;
+
+                memberStatusPublisher.placePreVote(
+                    candidate.publication(), candidateTermId, leadershipTermId, position, candidateId, memberId, vote);
+            }
+        }
+    }
+
+    public void onPreVote(
+        final long candidateTermId,
+        final long logLeadershipTermId,
+        final long logPosition,
+        final int candidateMemberId,
+        final int followerMemberId,
+        final boolean vote)
+    {
+        if (null != election)
+        {
+            election.onPreVote(
+                candidateTermId, logLeadershipTermId, logPosition, candidateMemberId, followerMemberId, vote);
+        }
+    }
+
     public void onVote(
         final long candidateTermId,
         final long logLeadershipTermId,
@@ -545,6 +677,7 @@ class ConsensusModuleAgent implements Agent
         else if (Cluster.Role.FOLLOWER == role && leadershipTermId == this.leadershipTermId)
         {
             timeOfLastLogUpdateNs = clusterTimeUnit.toNanos(clusterClock.time());
+            leaderFailureDetector.onMessage(timeOfLastLogUpdateNs);
             followerCommitPosition = logPosition;
         }
         else if (leadershipTermId > this.leadershipTermId)
@@ -577,6 +710,29 @@ class ConsensusModuleAgent implements Agent
         }
     }
 
+    public void onReadIndexRequest(final long leadershipTermId, final long correlationId, final int followerMemberId)
+    {
+        // The same lease as for reads served by the leader, see onReadQuery.
+        if (Cluster.Role.LEADER == role && leadershipTermId == this.leadershipTermId &&
+            hasLeaderLease(clusterTimeUnit.toNanos(clusterClock.time())))
+        {
+            final ClusterMember follower = clusterMemberByIdMap.get(followerMemberId);
+            if (null != follower)
+            {
+                memberStatusPublisher.readIndexResponse(
+                    follower.publication(), leadershipTermId, correlationId, commitPosition.getWeak());
+            }
+        }
+    }
+
+    public void onReadIndexResponse(final long leadershipTermId, final long correlationId, final long logPosition)
+    {
+        if (Cluster.Role.FOLLOWER == role && leadershipTermId == this.leadershipTermId)
+        {
+            pendingReadQueries.onReadIndex(correlationId, logPosition);
+        }
+    }
+
     public void onStopCatchup(final long leadershipTermId, final long logPosition, final int followerMemberId)
     {
         if (null != logAdapter && null != replayLogDestination && followerMemberId == memberId)
@@ -993,6 +1149,70 @@ class ConsensusModuleAgent implements Agent
         }
     }
 
+    void onServiceSnapshotTaken(
+        final long logPosition, final long leadershipTermId, final long recordingId, final int serviceId)
+    {
+        for (int i = 0, size = pendingServiceSnapshots.size(); i < size; i++)
+        {
+            final PendingServiceSnapshot snapshot = pendingServiceSnapshots.get(i);
+            if (snapshot.logPosition() == logPosition && snapshot.leadershipTermId() == leadershipTermId)
+            {
+                if (!snapshot.onServiceSnapshotTaken(serviceId, recordingId))
+                {
+                    break;
+                }
+
+                if (snapshot.isComplete())
+                {
+                    pendingServiceSnapshots.remove(i);
+
+                    final RecordingLog.Entry lastTerm = recordingLog.findLastTerm();
+                    if (null != lastTerm && lastTerm.leadershipTermId == leadershipTermId)
+                    {
+                        appendSnapshot(snapshot);
+                    }
+                    else
+                    {
+                        ctx.countedErrorHandler().onError(new ClusterException(
+                            "incremental snapshot completed after leadership term ended: " + snapshot));
+                    }
+                }
+
+                return;
+            }
+        }
+
+        ctx.countedErrorHandler().onError(new ClusterException(
+            "unexpected service snapshot taken: serviceId=" + serviceId +
+            " recordingId=" + recordingId +
+            " logPosition=" + logPosition +
+            " leadershipTermId=" + leadershipTermId,
+            AeronException.Category.WARN));
+    }
+
+    void onServiceSnapshotPart(
+        final long logPosition,
+        final long leadershipTermId,
+        final long recordingId,
+        final int serviceId,
+        final int partIndex,
+        final int partCount)
+    {
+        if (serviceId < 0 || serviceId >= ctx.serviceCount() || partIndex < 0 || partIndex >= partCount)
+        {
+            ctx.countedErrorHandler().onError(new ClusterException(
+                "unexpected service snapshot part: serviceId=" + serviceId +
+                " recordingId=" + recordingId +
+                " partIndex=" + partIndex +
+                " partCount=" + partCount,
+                AeronException.Category.WARN));
+            return;
+        }
+
+        pendingSnapshotParts.add(new RecordingLog.Snapshot(
+            recordingId, leadershipTermId, NULL_VALUE, logPosition, NULL_VALUE, serviceId, partIndex));
+    }
+
     void onScheduleTimer(final long correlationId, final long deadline)
     {
         if (expiredTimerCountByCorrelationIdMap.get(correlationId) == 0)
@@ -1020,32 +1240,8 @@ class ConsensusModuleAgent implements Agent
             switch (state)
             {
                 case SNAPSHOT:
-                {
-                    ++serviceAckId;
-                    takeSnapshot(timestamp, logPosition);
-                    final long nowNs = clusterTimeUnit.toNanos(clusterClock.time());
-
-                    if (NULL_POSITION == terminationPosition)
-                    {
-                        state(ConsensusModule.State.ACTIVE);
-                        ClusterControl.ToggleState.reset(controlToggle);
-                        for (final ClusterSession session : sessionByIdMap.values())
-                        {
-                            session.timeOfLastActivityNs(nowNs);
-                        }
-                    }
-                    else
-                    {
-                        serviceProxy.terminationPosition(terminationPosition);
-                        if (null != clusterTermination)
-                        {
-                            clusterTermination.deadlineNs(nowNs + ctx.terminationTimeoutNs());
-                        }
-
-                        state(ConsensusModule.State.TERMINATING);
-                    }
+                    snapshotOnServiceAcks(timestamp, logPosition);
                     break;
-                }
 
                 case LEAVING:
                 {
@@ -1156,6 +1352,11 @@ class ConsensusModuleAgent implements Agent
             case SNAPSHOT:
                 expectedAckPosition = logPosition;
                 state(ConsensusModule.State.SNAPSHOT);
+                if (ServiceAck.hasReachedPosition(logPosition, serviceAckId, serviceAckQueues))
+                {
+                    // services replaying independently may have taken their snapshots and acked while still ACTIVE
+                    snapshotOnServiceAcks(timestamp, logPosition);
+                }
                 break;
         }
     }
@@ -1357,18 +1558,27 @@ class ConsensusModuleAgent implements Agent
         {
             if (session.state() != CLOSED)
             {
+                session.ipcMemberId(NULL_VALUE);
                 session.connect(aeron);
             }
         }
 
         final long nowNs = clusterTimeUnit.toNanos(clusterClock.time());
+        sessionTimeoutWheel.reset(nowNs);
+        commitLatencyTracker.reset(logPosition);
+        pendingOpenSessions.clear();
+        newLeaderEventSessions.clear();
+
         for (final ClusterSession session : sessionByIdMap.values())
         {
             if (session.state() != CLOSED)
             {
                 session.timeOfLastActivityNs(nowNs);
                 session.hasNewLeaderEventPending(true);
+                newLeaderEventSessions.add(session);
             }
+
+            sessionTimeoutWheel.add(session);
         }
     }
 
@@ -1428,6 +1638,19 @@ class ConsensusModuleAgent implements Agent
                 lastSnapshot.termBaseLogPosition,
                 lastSnapshot.timestamp);
 
+            for (int i = 0, size = dynamicJoinSnapshotParts.size(); i < size; i++)
+            {
+                final RecordingLog.Snapshot snapshotPart = dynamicJoinSnapshotParts.get(i);
+
+                recordingLog.appendSnapshotPart(
+                    snapshotPart.recordingId,
+                    snapshotPart.leadershipTermId,
+                    snapshotPart.termBaseLogPosition,
+                    snapshotPart.logPosition,
+                    snapshotPart.timestamp,
+                    snapshotPart.serviceId);
+            }
+
             for (int i = dynamicJoinSnapshots.size() - 1; i >= 0; i--)
             {
                 final RecordingLog.Snapshot snapshot = dynamicJoinSnapshots.get(i);
@@ -1442,6 +1665,7 @@ class ConsensusModuleAgent implements Agent
             }
 
             dynamicJoinSnapshots.clear();
+            dynamicJoinSnapshotParts.clear();
         }
     }
 
@@ -1485,7 +1709,14 @@ class ConsensusModuleAgent implements Agent
         final String channel = Cluster.Role.LEADER == role && UDP_MEDIA.equals(logChannelUri.media()) ?
             logChannelUri.prefix(SPY_QUALIFIER).toString() : logChannelUri.toString();
         serviceProxy.joinLog(
-            leadershipTermId, logPosition, Long.MAX_VALUE, memberId, logSessionId, ctx.logStreamId(), channel);
+            leadershipTermId,
+            logPosition,
+            Long.MAX_VALUE,
+            memberId,
+            logSessionId,
+            ctx.logStreamId(),
+            NULL_VALUE,
+            channel);
 
         expectedAckPosition = logPosition;
         awaitServiceAcks(logPosition);
@@ -1531,9 +1762,11 @@ class ConsensusModuleAgent implements Agent
         final int logSessionId,
         final long leadershipTermId,
         final long logPosition,
-        final long maxLogPosition)
+        final long maxLogPosition,
+        final long logRecordingId)
     {
-        serviceProxy.joinLog(leadershipTermId, logPosition, maxLogPosition, memberId, logSessionId, streamId, channel);
+        serviceProxy.joinLog(
+            leadershipTermId, logPosition, maxLogPosition, memberId, logSessionId, streamId, logRecordingId, channel);
         expectedAckPosition = logPosition;
         awaitServiceAcks(logPosition);
     }
@@ -1657,6 +1890,12 @@ class ConsensusModuleAgent implements Agent
                 ctx.ingressChannel(), ctx.ingressStreamId(), null, this::onUnavailableIngressImage));
         }
 
+        if (Cluster.Role.LEADER == role && ctx.isIpcIngressEnabled() && !ctx.ingressChannel().startsWith(IPC_CHANNEL))
+        {
+            ipcIngressAdapter.connect(aeron.addSubscription(
+                IPC_CHANNEL, ctx.ingressStreamId(), null, this::onUnavailableIpcIngressImage));
+        }
+
         return true;
     }
 
@@ -1724,6 +1963,7 @@ class ConsensusModuleAgent implements Agent
             {
                 lastAppendedPosition = appendedPosition;
                 timeOfLastAppendPositionNs = nowNs;
+                appendPositionSentCounter.incrementOrdered();
             }
         }
 
@@ -1782,18 +2022,28 @@ class ConsensusModuleAgent implements Agent
 
     void retrievedSnapshot(final long localRecordingId, final RecordingLog.Snapshot leaderSnapshot)
     {
-        dynamicJoinSnapshots.add(new RecordingLog.Snapshot(
+        final RecordingLog.Snapshot snapshot = new RecordingLog.Snapshot(
             localRecordingId,
             leaderSnapshot.leadershipTermId,
             leaderSnapshot.termBaseLogPosition,
             leaderSnapshot.logPosition,
             leaderSnapshot.timestamp,
-            leaderSnapshot.serviceId));
+            leaderSnapshot.serviceId,
+            leaderSnapshot.partIndex);
+
+        if (snapshot.isPart())
+        {
+            dynamicJoinSnapshotParts.add(snapshot);
+        }
+        else
+        {
+            dynamicJoinSnapshots.add(snapshot);
+        }
     }
 
     Counter loadSnapshotsFromDynamicJoin()
     {
-        recoveryPlan = RecordingLog.createRecoveryPlan(dynamicJoinSnapshots);
+        recoveryPlan = RecordingLog.createRecoveryPlan(dynamicJoinSnapshots, dynamicJoinSnapshotParts);
 
         final Counter recoveryStateCounter = addRecoveryStateCounter(recoveryPlan);
         if (!recoveryPlan.snapshots.isEmpty())
@@ -1813,6 +2063,7 @@ class ConsensusModuleAgent implements Agent
             ++serviceAckId;
             ServiceAck.removeHead(serviceAckQueues);
             recoveryStateCounter.close();
+            closeRecoverySnapshotPartCounters();
             if (ConsensusModule.State.SUSPENDED != state)
             {
                 state(ConsensusModule.State.ACTIVE);
@@ -1849,6 +2100,11 @@ class ConsensusModuleAgent implements Agent
         workCount += processRedirectSessions(redirectSessions, nowNs);
         workCount += processRejectedSessions(rejectedSessions, nowNs);
 
+        if (!pendingServiceSnapshots.isEmpty())
+        {
+            workCount += checkPendingServiceSnapshots(nowNs);
+        }
+
         if (null == election)
         {
             if (Cluster.Role.LEADER == role)
@@ -1858,7 +2114,7 @@ class ConsensusModuleAgent implements Agent
                 if (ConsensusModule.State.ACTIVE == state)
                 {
                     workCount += processPendingSessions(pendingSessions, nowMs, nowNs);
-                    workCount += checkSessions(sessionByIdMap, nowNs);
+                    workCount += checkSessions(nowNs);
                     workCount += processPassiveMembers(passiveMembers);
 
                     if (!ClusterMember.hasActiveQuorum(clusterMembers, nowNs, leaderHeartbeatTimeoutNs))
@@ -1888,7 +2144,7 @@ class ConsensusModuleAgent implements Agent
                     state(ConsensusModule.State.TERMINATING);
                 }
 
-                if (nowNs >= (timeOfLastLogUpdateNs + leaderHeartbeatTimeoutNs))
+                if (isLeaderSuspected(nowNs))
                 {
                     ctx.countedErrorHandler().onError(new ClusterException(
                         "heartbeat timeout from leader", AeronException.Category.WARN));
@@ -1911,12 +2167,26 @@ class ConsensusModuleAgent implements Agent
             workCount += pendingServiceMessages.forEach(
                 pendingServiceMessageHeadOffset, serviceSessionMessageAppender, SERVICE_MESSAGE_LIMIT);
             workCount += ingressAdapter.poll();
+            workCount += ipcIngressAdapter.poll();
+
+            // A back pressured batch stays pending and is retried on the next duty cycle or before the next append.
+            if (isIngressBatching && logPublisher.hasPendingBatch() && logPublisher.flushBatch())
+            {
+                workCount += 1;
+            }
         }
         else if (Cluster.Role.FOLLOWER == role &&
             (ConsensusModule.State.ACTIVE == state || ConsensusModule.State.SUSPENDED == state))
         {
             workCount += ingressAdapter.poll();
 
+            if (pendingReadQueries.isRequestRequired(nowNs))
+            {
+                memberStatusPublisher.readIndexRequest(
+                    leaderMember.publication(), leadershipTermId, pendingReadQueries.beginRequest(nowNs), memberId);
+                workCount += 1;
+            }
+
             final int count = logAdapter.poll(followerCommitPosition);
             if (0 == count && logAdapter.isImageClosed())
             {
@@ -2064,7 +2334,13 @@ class ConsensusModuleAgent implements Agent
                     ArrayListUtil.fastUnorderedRemove(pendingSessions, i, lastIndex--);
                     session.timeOfLastActivityNs(nowNs);
                     sessionByIdMap.put(session.id(), session);
+                    sessionTimeoutWheel.add(session);
                     appendSessionOpen(session);
+
+                    if (session.state() != OPEN)
+                    {
+                        pendingOpenSessions.add(session);
+                    }
                 }
 
                 workCount += 1;
@@ -2180,66 +2456,87 @@ class ConsensusModuleAgent implements Agent
         return workCount;
     }
 
-    private int checkSessions(final Long2ObjectHashMap<ClusterSession> sessionByIdMap, final long nowNs)
+    private int checkSessions(final long nowNs)
     {
-        int workCount = 0;
+        int workCount = sessionTimeoutWheel.poll(nowNs);
 
-        for (final Iterator<ClusterSession> i = sessionByIdMap.values().iterator(); i.hasNext(); )
+        for (int lastIndex = pendingOpenSessions.size() - 1, i = lastIndex; i >= 0; i--)
         {
-            final ClusterSession session = i.next();
+            final ClusterSession session = pendingOpenSessions.get(i);
 
-            if (nowNs > (session.timeOfLastActivityNs() + sessionTimeoutNs))
+            if (session.state() == OPEN || session.state() == CLOSED || sessionByIdMap.get(session.id()) != session)
             {
-                switch (session.state())
-                {
-                    case OPEN:
-                        if (session.isResponsePublicationConnected())
-                        {
-                            egressPublisher.sendEvent(
-                                session, leadershipTermId, leaderMember.id(), EventCode.ERROR, SESSION_TIMEOUT_MSG);
-                        }
-
-                        session.close(CloseReason.TIMEOUT);
-                        if (logPublisher.appendSessionClose(session, leadershipTermId, clusterClock.time()))
-                        {
-                            i.remove();
-                            ctx.timedOutClientCounter().incrementOrdered();
-                        }
-                        break;
-
-                    case CLOSED:
-                        if (logPublisher.appendSessionClose(session, leadershipTermId, clusterClock.time()))
-                        {
-                            i.remove();
-                            if (session.closeReason() == CloseReason.TIMEOUT)
-                            {
-                                ctx.timedOutClientCounter().incrementOrdered();
-                            }
-                        }
-                        break;
-
-                    default:
-                        i.remove();
-                        session.close();
-                }
-
-                workCount += 1;
+                ArrayListUtil.fastUnorderedRemove(pendingOpenSessions, i, lastIndex--);
             }
-            else if (session.state() == CONNECTED)
+            else
             {
                 appendSessionOpen(session);
                 workCount += 1;
             }
-            else if (session.hasNewLeaderEventPending())
+        }
+
+        for (int lastIndex = newLeaderEventSessions.size() - 1, i = lastIndex; i >= 0; i--)
+        {
+            final ClusterSession session = newLeaderEventSessions.get(i);
+
+            if (session.hasNewLeaderEventPending() && session.state() != CLOSED)
             {
                 sendNewLeaderEvent(session);
                 workCount += 1;
             }
+            else
+            {
+                ArrayListUtil.fastUnorderedRemove(newLeaderEventSessions, i, lastIndex--);
+            }
         }
 
         return workCount;
     }
 
+    private boolean onSessionTimeout(final ClusterSession session, final long nowNs)
+    {
+        if (sessionByIdMap.get(session.id()) != session)
+        {
+            return true;
+        }
+
+        switch (session.state())
+        {
+            case OPEN:
+                if (session.isResponsePublicationConnected())
+                {
+                    egressPublisher.sendEvent(
+                        session, leadershipTermId, leaderMember.id(), EventCode.ERROR, SESSION_TIMEOUT_MSG);
+                }
+
+                session.close(CloseReason.TIMEOUT);
+                if (logPublisher.appendSessionClose(session, leadershipTermId, clusterClock.time()))
+                {
+                    sessionByIdMap.remove(session.id());
+                    ctx.timedOutClientCounter().incrementOrdered();
+                    return true;
+                }
+                return false;
+
+            case CLOSED:
+                if (logPublisher.appendSessionClose(session, leadershipTermId, clusterClock.time()))
+                {
+                    sessionByIdMap.remove(session.id());
+                    if (session.closeReason() == CloseReason.TIMEOUT)
+                    {
+                        ctx.timedOutClientCounter().incrementOrdered();
+                    }
+                    return true;
+                }
+                return false;
+
+            default:
+                sessionByIdMap.remove(session.id());
+                session.close();
+                return true;
+        }
+    }
+
     private void sendNewLeaderEvent(final ClusterSession session)
     {
         if (egressPublisher.newLeader(session, leadershipTermId, leaderMember.id(), clientFacingEndpoints))
@@ -2280,23 +2577,31 @@ class ConsensusModuleAgent implements Agent
             final Image image = awaitImage(sessionId, subscription);
             final ConsensusModuleSnapshotLoader snapshotLoader = new ConsensusModuleSnapshotLoader(image, this);
 
-            while (true)
+            timerService.beginBulkLoad();
+            try
             {
-                final int fragments = snapshotLoader.poll();
-                if (fragments == 0)
+                while (true)
                 {
-                    if (snapshotLoader.isDone())
+                    final int fragments = snapshotLoader.poll();
+                    if (fragments == 0)
                     {
-                        break;
-                    }
+                        if (snapshotLoader.isDone())
+                        {
+                            break;
+                        }
 
-                    if (image.isClosed())
-                    {
-                        throw new ClusterException("snapshot ended unexpectedly");
+                        if (image.isClosed())
+                        {
+                            throw new ClusterException("snapshot ended unexpectedly");
+                        }
                     }
-                }
 
-                idle(fragments);
+                    idle(fragments);
+                }
+            }
+            finally
+            {
+                timerService.endBulkLoad();
             }
 
             final int appVersion = snapshotLoader.appVersion();
@@ -2340,6 +2645,20 @@ class ConsensusModuleAgent implements Agent
             final long[] serviceSnapshotRecordingIds = new long[snapshotsCount - 1];
             final RecordingLog.Snapshot snapshot = plan.snapshots.get(0);
 
+            for (int i = 0, size = plan.snapshotParts.size(); i < size; i++)
+            {
+                final RecordingLog.Snapshot snapshotPart = plan.snapshotParts.get(i);
+                recoverySnapshotPartCounters.add(RecoverySnapshotPart.allocate(
+                    aeron,
+                    tempBuffer,
+                    snapshotPart.leadershipTermId,
+                    snapshotPart.logPosition,
+                    snapshotPart.recordingId,
+                    snapshotPart.serviceId,
+                    snapshotPart.partIndex,
+                    ctx.clusterId()));
+            }
+
             for (int i = 1; i < snapshotsCount; i++)
             {
                 final RecordingLog.Snapshot serviceSnapshot = plan.snapshots.get(i);
@@ -2353,10 +2672,21 @@ class ConsensusModuleAgent implements Agent
                 snapshot.logPosition,
                 snapshot.timestamp,
                 plan.hasReplay(),
+                ctx.clusterId(),
                 serviceSnapshotRecordingIds);
         }
 
-        return RecoveryState.allocate(aeron, tempBuffer, leadershipTermId, 0, 0, plan.hasReplay());
+        return RecoveryState.allocate(aeron, tempBuffer, leadershipTermId, 0, 0, plan.hasReplay(), ctx.clusterId());
+    }
+
+    private void closeRecoverySnapshotPartCounters()
+    {
+        for (int i = 0, size = recoverySnapshotPartCounters.size(); i < size; i++)
+        {
+            CloseHelper.close(recoverySnapshotPartCounters.get(i));
+        }
+
+        recoverySnapshotPartCounters.clear();
     }
 
     private DynamicJoin requiresDynamicJoin()
@@ -2429,10 +2759,17 @@ class ConsensusModuleAgent implements Agent
         {
             final long leaderPosition = Math.min(appendedPosition, logPublisher.position());
             thisMember.logPosition(leaderPosition).timeOfLastAppendPositionNs(nowNs);
+            commitLatencyTracker.onAppend(logPublisher.position(), nowNs);
             final long quorumPosition = ClusterMember.quorumPosition(clusterMembers, rankedPositions);
 
-            if (commitPosition.proposeMaxOrdered(quorumPosition) ||
-                nowNs >= (timeOfLastLogUpdateNs + leaderHeartbeatIntervalNs))
+            final boolean isCommitAdvanced = commitPosition.proposeMaxOrdered(quorumPosition);
+            if (isCommitAdvanced && commitLatencyTracker.onCommit(quorumPosition, nowNs) > 0)
+            {
+                commitLatencyCounter.setOrdered(commitLatencyTracker.lastLatencyNs());
+                commitLatencyMaxCounter.proposeMaxOrdered(commitLatencyTracker.maxLatencyNs());
+            }
+
+            if (isCommitAdvanced || nowNs >= (timeOfLastLogUpdateNs + leaderHeartbeatIntervalNs))
             {
                 final long commitPosition = this.commitPosition.getWeak();
                 for (final ClusterMember member : clusterMembers)
@@ -2470,24 +2807,57 @@ class ConsensusModuleAgent implements Agent
         {
             final Publication publication = leaderMember.publication();
 
-            if ((appendedPosition != lastAppendedPosition ||
-                nowNs >= (timeOfLastAppendPositionNs + leaderHeartbeatIntervalNs)) &&
+            if (isAppendPositionDue(appendedPosition, nowNs) &&
                 memberStatusPublisher.appendedPosition(publication, leadershipTermId, appendedPosition, memberId))
             {
                 lastAppendedPosition = appendedPosition;
                 timeOfLastAppendPositionNs = nowNs;
+                appendPositionSentCounter.incrementOrdered();
                 workCount += 1;
             }
 
+            lastObservedAppendedPosition = appendedPosition;
+
             commitPosition.proposeMaxOrdered(Math.min(logAdapter.position(), appendedPosition));
         }
 
         return workCount;
     }
 
+    private boolean isAppendPositionDue(final long appendedPosition, final long nowNs)
+    {
+        if (nowNs >= (timeOfLastAppendPositionNs + leaderHeartbeatIntervalNs))
+        {
+            return true;
+        }
+
+        final long delta = appendedPosition - lastAppendedPosition;
+        if (0 == delta)
+        {
+            return false;
+        }
+
+        return delta < 0 || delta >= appendPositionThreshold ||
+            (appendPositionOnIdle && appendedPosition == lastObservedAppendedPosition) ||
+            (appendPositionIntervalNs > 0 && nowNs >= (timeOfLastAppendPositionNs + appendPositionIntervalNs));
+    }
+
+    private boolean isLeaderSuspected(final long nowNs)
+    {
+        return nowNs >= (timeOfLastLogUpdateNs + leaderHeartbeatTimeoutNs) || leaderFailureDetector.isSuspected(nowNs);
+    }
+
+    private boolean hasLeaderLease(final long nowNs)
+    {
+        return leaderLeaseNs > 0 && ClusterMember.hasActiveQuorum(clusterMembers, nowNs, leaderLeaseNs);
+    }
+
     private void enterElection(final long nowNs)
     {
         ingressAdapter.close();
+        ipcIngressAdapter.close();
+        pendingReadQueries.reset();
+        leaderFailureDetector.reset();
 
         election = new Election(
             false,
@@ -2529,6 +2899,29 @@ class ConsensusModuleAgent implements Agent
         idleStrategy.idle(workCount);
     }
 
+    /**
+     * Lease for which the leader can serve reads at its commit position after receiving an appended position from a
+     * quorum of members.
+     * <p>
+     * A follower detects the leader has failed based on the time since the last message it received from it, whereas
+     * the leader times the lease from when it receives the appended position of the follower. The last message could
+     * have been sent up to a heartbeat interval, plus a slow tick for the heartbeat to be noticed as due, before the
+     * follower sent its position. The lease is therefore shorter than the detection time by a margin of that plus a
+     * further heartbeat interval to cover the transit of both messages and drift between the clocks of the members.
+     * <p>
+     * The detection time must be the shortest after which a follower could suspect the leader, which is less than the
+     * leader heartbeat timeout when adaptive detection is enabled.
+     *
+     * @param leaderDetectionTimeNs     shortest time after which a follower could consider the leader failed.
+     * @param leaderHeartbeatIntervalNs at which the leader sends heartbeats when the log is not progressing.
+     * @return the lease for reads on the leader, which is not positive if reads cannot be served by lease.
+     * @see PhiAccrualFailureDetector#minDetectionTimeNs()
+     */
+    static long leaderLeaseNs(final long leaderDetectionTimeNs, final long leaderHeartbeatIntervalNs)
+    {
+        return leaderDetectionTimeNs - ((2 * leaderHeartbeatIntervalNs) + SLOW_TICK_INTERVAL_NS);
+    }
+
     private static void checkInterruptedStatus()
     {
         if (Thread.currentThread().isInterrupted())
@@ -2537,6 +2930,33 @@ class ConsensusModuleAgent implements Agent
         }
     }
 
+    private void snapshotOnServiceAcks(final long timestamp, final long logPosition)
+    {
+        ++serviceAckId;
+        takeSnapshot(timestamp, logPosition);
+        final long nowNs = clusterTimeUnit.toNanos(clusterClock.time());
+
+        if (NULL_POSITION == terminationPosition)
+        {
+            state(ConsensusModule.State.ACTIVE);
+            ClusterControl.ToggleState.reset(controlToggle);
+            for (final ClusterSession session : sessionByIdMap.values())
+            {
+                session.timeOfLastActivityNs(nowNs);
+            }
+        }
+        else
+        {
+            serviceProxy.terminationPosition(terminationPosition);
+            if (null != clusterTermination)
+            {
+                clusterTermination.deadlineNs(nowNs + ctx.terminationTimeoutNs());
+            }
+
+            state(ConsensusModule.State.TERMINATING);
+        }
+    }
+
     private void takeSnapshot(final long timestamp, final long logPosition)
     {
         try (Publication publication = aeron.addExclusivePublication(ctx.snapshotChannel(), ctx.snapshotStreamId()))
@@ -2553,18 +2973,31 @@ class ConsensusModuleAgent implements Agent
                 snapshotState(publication, logPosition, leadershipTermId);
                 awaitRecordingComplete(recordingId, publication.position(), counters, counterId);
 
-                for (int serviceId = serviceAckQueues.length - 1; serviceId >= 0; serviceId--)
+                final long[] serviceRecordingIds = new long[serviceAckQueues.length];
+                for (int serviceId = 0; serviceId < serviceAckQueues.length; serviceId++)
                 {
-                    final long snapshotId = serviceAckQueues[serviceId].pollFirst().relevantId();
-                    recordingLog.appendSnapshot(
-                        snapshotId, leadershipTermId, termBaseLogPosition, logPosition, timestamp, serviceId);
+                    serviceRecordingIds[serviceId] = serviceAckQueues[serviceId].pollFirst().relevantId();
                 }
 
-                recordingLog.appendSnapshot(
-                    recordingId, leadershipTermId, termBaseLogPosition, logPosition, timestamp, SERVICE_ID);
-
-                recordingLog.force(ctx.fileSyncLevel());
-                recoveryPlan = recordingLog.createRecoveryPlan(archive, ctx.serviceCount());
+                final PendingServiceSnapshot snapshot = new PendingServiceSnapshot(
+                    leadershipTermId,
+                    termBaseLogPosition,
+                    logPosition,
+                    timestamp,
+                    recordingId,
+                    clusterTimeUnit.toNanos(timestamp) + ctx.incrementalSnapshotTimeoutNs(),
+                    serviceRecordingIds,
+                    collectSnapshotParts(logPosition));
+
+                if (snapshot.isComplete())
+                {
+                    appendSnapshot(snapshot);
+                }
+                else
+                {
+                    removeStalePendingSnapshots();
+                    pendingServiceSnapshots.add(snapshot);
+                }
             }
             finally
             {
@@ -2575,6 +3008,96 @@ class ConsensusModuleAgent implements Agent
         }
     }
 
+    private ArrayList<RecordingLog.Snapshot> collectSnapshotParts(final long logPosition)
+    {
+        final ArrayList<RecordingLog.Snapshot> snapshotParts = new ArrayList<>();
+        for (int i = 0, size = pendingSnapshotParts.size(); i < size; i++)
+        {
+            final RecordingLog.Snapshot snapshotPart = pendingSnapshotParts.get(i);
+            if (snapshotPart.logPosition == logPosition && snapshotPart.leadershipTermId == leadershipTermId)
+            {
+                snapshotParts.add(snapshotPart);
+            }
+            else
+            {
+                purgeSnapshotPart(snapshotPart);
+            }
+        }
+
+        pendingSnapshotParts.clear();
+        snapshotParts.sort((a, b) -> a.serviceId != b.serviceId ?
+            Integer.compare(a.serviceId, b.serviceId) : Integer.compare(a.partIndex, b.partIndex));
+
+        for (int i = 0, size = snapshotParts.size(); i < size; i++)
+        {
+            final RecordingLog.Snapshot snapshotPart = snapshotParts.get(i);
+            final int expectedPartIndex = i > 0 && snapshotParts.get(i - 1).serviceId == snapshotPart.serviceId ?
+                snapshotParts.get(i - 1).partIndex + 1 : 0;
+
+            if (snapshotPart.partIndex != expectedPartIndex)
+            {
+                for (int j = 0; j < size; j++)
+                {
+                    purgeSnapshotPart(snapshotParts.get(j));
+                }
+
+                throw new ClusterException("service snapshot parts incomplete: " + snapshotParts);
+            }
+        }
+
+        return snapshotParts;
+    }
+
+    private void purgeSnapshotPart(final RecordingLog.Snapshot snapshotPart)
+    {
+        try
+        {
+            archive.truncateRecording(snapshotPart.recordingId, archive.getStartPosition(snapshotPart.recordingId));
+        }
+        catch (final Exception ex)
+        {
+            ctx.countedErrorHandler().onError(
+                new ClusterException("failed to purge snapshot part: " + snapshotPart, ex));
+        }
+    }
+
+    private int checkPendingServiceSnapshots(final long nowNs)
+    {
+        int workCount = 0;
+
+        for (int lastIndex = pendingServiceSnapshots.size() - 1, i = lastIndex; i >= 0; i--)
+        {
+            final PendingServiceSnapshot snapshot = pendingServiceSnapshots.get(i);
+            if (snapshot.hasExpired(nowNs))
+            {
+                ArrayListUtil.fastUnorderedRemove(pendingServiceSnapshots, i, lastIndex--);
+                ctx.countedErrorHandler().onError(new ClusterException(
+                    "incremental snapshot timed out: " + snapshot, AeronException.Category.WARN));
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
+    private void removeStalePendingSnapshots()
+    {
+        for (int lastIndex = pendingServiceSnapshots.size() - 1, i = lastIndex; i >= 0; i--)
+        {
+            if (pendingServiceSnapshots.get(i).leadershipTermId() != leadershipTermId)
+            {
+                ArrayListUtil.fastUnorderedRemove(pendingServiceSnapshots, i, lastIndex--);
+            }
+        }
+    }
+
+    private void appendSnapshot(final PendingServiceSnapshot snapshot)
+    {
+        snapshot.appendTo(recordingLog);
+        recordingLog.force(ctx.fileSyncLevel());
+        recoveryPlan = recordingLog.createRecoveryPlan(archive, ctx.serviceCount());
+    }
+
     private void awaitRecordingComplete(
         final long recordingId, final long position, final CountersReader counters, final int counterId)
     {
@@ -2607,7 +3130,7 @@ class ConsensusModuleAgent implements Agent
     private void snapshotState(final Publication publication, final long logPosition, final long leadershipTermId)
     {
         final ConsensusModuleSnapshotTaker snapshotTaker = new ConsensusModuleSnapshotTaker(
-            publication, idleStrategy, aeronClientInvoker);
+            publication, idleStrategy, aeronClientInvoker, ctx.snapshotSchemaVersion());
 
         snapshotTaker.markBegin(SNAPSHOT_TYPE_ID, logPosition, leadershipTermId, 0, clusterTimeUnit, ctx.appVersion());
 
@@ -2715,7 +3238,7 @@ class ConsensusModuleAgent implements Agent
 
     private void closeExistingLog()
     {
-        logPublisher.disconnect();
+        logPublisher.disconnect(ctx.countedErrorHandler());
         CloseHelper.close(logAdapter);
         logAdapter = null;
     }
@@ -2725,6 +3248,11 @@ class ConsensusModuleAgent implements Agent
         ingressAdapter.freeSessionBuffer(image.sessionId());
     }
 
+    private void onUnavailableIpcIngressImage(final Image image)
+    {
+        ipcIngressAdapter.freeSessionBuffer(image.sessionId());
+    }
+
     private void enqueueServiceSessionMessage(
         final MutableDirectBuffer buffer, final int offset, final int length, final long clusterSessionId)
     {
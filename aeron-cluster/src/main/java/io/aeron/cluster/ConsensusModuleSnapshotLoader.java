@@ -41,6 +41,7 @@ class ConsensusModuleSnapshotLoader implements ControlledFragmentHandler
     private final SnapshotMarkerDecoder snapshotMarkerDecoder = new SnapshotMarkerDecoder();
     private final ClusterSessionDecoder clusterSessionDecoder = new ClusterSessionDecoder();
     private final TimerDecoder timerDecoder = new TimerDecoder();
+    private final TimersDecoder timersDecoder = new TimersDecoder();
     private final ConsensusModuleDecoder consensusModuleDecoder = new ConsensusModuleDecoder();
     private final ClusterMembersDecoder clusterMembersDecoder = new ClusterMembersDecoder();
     private final Image image;
@@ -151,6 +152,25 @@ class ConsensusModuleSnapshotLoader implements ControlledFragmentHandler
                 consensusModuleAgent.onScheduleTimer(timerDecoder.correlationId(), timerDecoder.deadline());
                 break;
 
+            case TimersDecoder.TEMPLATE_ID:
+                timersDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                if (messageHeaderDecoder.version() < ConsensusModuleSnapshotTaker.TIMERS_SINCE_VERSION)
+                {
+                    throw new ClusterException(
+                        "timers message in snapshot of schema version=" + messageHeaderDecoder.version());
+                }
+
+                for (final TimersDecoder.TimersDecoder timer : timersDecoder.timers())
+                {
+                    consensusModuleAgent.onScheduleTimer(timer.correlationId(), timer.deadline());
+                }
+                break;
+
             case ConsensusModuleDecoder.TEMPLATE_ID:
                 consensusModuleDecoder.wrap(
                     buffer,
@@ -25,17 +25,38 @@ import org.agrona.concurrent.IdleStrategy;
 
 class ConsensusModuleSnapshotTaker extends SnapshotTaker implements ExpandableRingBuffer.MessageConsumer
 {
+    /**
+     * Version of the schema in which the {@link TimersEncoder} message was added.
+     */
+    static final int TIMERS_SINCE_VERSION = 7;
+
     private static final int ENCODED_TIMER_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH + TimerEncoder.BLOCK_LENGTH;
+    private static final int TIMERS_HEADER_LENGTH =
+        MessageHeaderEncoder.ENCODED_LENGTH + TimersEncoder.BLOCK_LENGTH + GroupSizeEncodingEncoder.ENCODED_LENGTH;
 
+    private int timerCount;
+    private final boolean isTimersBatched;
+    private final long[] timerCorrelationIds;
+    private final long[] timerDeadlines;
     private final ClusterSessionEncoder clusterSessionEncoder = new ClusterSessionEncoder();
     private final TimerEncoder timerEncoder = new TimerEncoder();
+    private final TimersEncoder timersEncoder = new TimersEncoder();
     private final ConsensusModuleEncoder consensusModuleEncoder = new ConsensusModuleEncoder();
     private final ClusterMembersEncoder clusterMembersEncoder = new ClusterMembersEncoder();
 
     ConsensusModuleSnapshotTaker(
-        final Publication publication, final IdleStrategy idleStrategy, final AgentInvoker aeronClientInvoker)
+        final Publication publication,
+        final IdleStrategy idleStrategy,
+        final AgentInvoker aeronClientInvoker,
+        final int snapshotSchemaVersion)
     {
         super(publication, idleStrategy, aeronClientInvoker);
+
+        isTimersBatched = snapshotSchemaVersion >= TIMERS_SINCE_VERSION;
+        final int maxTimersPerMessage = isTimersBatched ?
+            (publication.maxPayloadLength() - TIMERS_HEADER_LENGTH) / TimersEncoder.TimersEncoder.sbeBlockLength() : 0;
+        timerCorrelationIds = new long[maxTimersPerMessage];
+        timerDeadlines = new long[maxTimersPerMessage];
     }
 
     public boolean onMessage(final MutableDirectBuffer buffer, final int offset, final int length, final int headOffset)
@@ -115,6 +136,58 @@ class ConsensusModuleSnapshotTaker extends SnapshotTaker implements ExpandableRi
     }
 
     void snapshotTimer(final long correlationId, final long deadline)
+    {
+        if (!isTimersBatched)
+        {
+            snapshotSingleTimer(correlationId, deadline);
+            return;
+        }
+
+        if (timerCount == timerCorrelationIds.length)
+        {
+            flushTimers();
+        }
+
+        timerCorrelationIds[timerCount] = correlationId;
+        timerDeadlines[timerCount] = deadline;
+        timerCount++;
+    }
+
+    void flushTimers()
+    {
+        if (0 == timerCount)
+        {
+            return;
+        }
+
+        final int length = TIMERS_HEADER_LENGTH + (timerCount * TimersEncoder.TimersEncoder.sbeBlockLength());
+
+        idleStrategy.reset();
+        while (true)
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                final TimersEncoder.TimersEncoder timers = timersEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .timersCount(timerCount);
+
+                for (int i = 0; i < timerCount; i++)
+                {
+                    timers.next().correlationId(timerCorrelationIds[i]).deadline(timerDeadlines[i]);
+                }
+
+                bufferClaim.commit();
+                break;
+            }
+
+            checkResultAndIdle(result);
+        }
+
+        timerCount = 0;
+    }
+
+    private void snapshotSingleTimer(final long correlationId, final long deadline)
     {
         idleStrategy.reset();
         while (true)
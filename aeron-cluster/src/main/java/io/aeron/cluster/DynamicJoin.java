@@ -215,13 +215,15 @@ class DynamicJoin implements AutoCloseable
                 {
                     if (snapshot.serviceId() <= ctx.serviceCount())
                     {
+                        final int partIndex = snapshot.partIndex();
                         leaderSnapshots.add(new RecordingLog.Snapshot(
                             snapshot.recordingId(),
                             snapshot.leadershipTermId(),
                             snapshot.termBaseLogPosition(),
                             snapshot.logPosition(),
                             snapshot.timestamp(),
-                            snapshot.serviceId()));
+                            snapshot.serviceId(),
+                            partIndex < 0 ? NULL_VALUE : partIndex));
                     }
                 }
             }
@@ -330,7 +332,7 @@ class DynamicJoin implements AutoCloseable
         }
         else if (pollForResponse(leaderArchive, correlationId))
         {
-            final long snapshotStopPosition = (int)leaderArchive.controlResponsePoller().relevantId();
+            final long snapshotStopPosition = leaderArchive.controlResponsePoller().relevantId();
 
             correlationId = NULL_VALUE;
 
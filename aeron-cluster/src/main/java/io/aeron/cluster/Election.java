@@ -20,6 +20,7 @@ import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.service.Cluster;
 import org.agrona.CloseHelper;
 import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntHashSet;
 
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +45,7 @@ public class Election implements AutoCloseable
         CANVASS(1),
 
         NOMINATE(2),
+        CANDIDATE_PRE_VOTE(14),
         CANDIDATE_BALLOT(3),
         FOLLOWER_BALLOT(4),
 
@@ -110,6 +112,7 @@ public class Election implements AutoCloseable
     private final ConsensusModule.Context ctx;
     private final ConsensusModuleAgent consensusModuleAgent;
     private final Random random;
+    private final IntHashSet preVoteMemberIds = new IntHashSet();
 
     private long timeOfLastStateChangeNs;
     private long timeOfLastUpdateNs;
@@ -120,6 +123,7 @@ public class Election implements AutoCloseable
     private long leadershipTermId;
     private long logLeadershipTermId;
     private long candidateTermId = NULL_VALUE;
+    private long preVoteCandidateTermId = NULL_VALUE;
     private int logSessionId = CommonContext.NULL_SESSION_ID;
     private final Counter stateCounter;
     private ClusterMember leaderMember = null;
@@ -194,6 +198,10 @@ public class Election implements AutoCloseable
                     workCount += nominate(nowNs);
                     break;
 
+                case CANDIDATE_PRE_VOTE:
+                    workCount += candidatePreVote(nowNs);
+                    break;
+
                 case CANDIDATE_BALLOT:
                     workCount += candidateBallot(nowNs);
                     break;
@@ -315,6 +323,49 @@ public class Election implements AutoCloseable
         }
     }
 
+    void onPreVoteRequest(
+        final long logLeadershipTermId, final long logPosition, final long candidateTermId, final int candidateId)
+    {
+        final ClusterMember candidate = clusterMemberByIdMap.get(candidateId);
+        if (null == candidate || isPassiveMember())
+        {
+            return;
+        }
+
+        final boolean vote =
+            (State.CANVASS == state || State.NOMINATE == state || State.CANDIDATE_PRE_VOTE == state) &&
+            candidateTermId > leadershipTermId &&
+            candidateTermId > this.candidateTermId &&
+            compareLog(this.logLeadershipTermId, this.logPosition, logLeadershipTermId, logPosition) <= 0;
+
+        memberStatusPublisher.placePreVote(
+            candidate.publication(),
+            candidateTermId,
+            this.logLeadershipTermId,
+            this.logPosition,
+            candidateId,
+            thisMember.id(),
+            vote);
+    }
+
+    void onPreVote(
+        final long candidateTermId,
+        final long logLeadershipTermId,
+        final long logPosition,
+        final int candidateMemberId,
+        final int followerMemberId,
+        final boolean vote)
+    {
+        if (State.CANDIDATE_PRE_VOTE == state &&
+            candidateTermId == preVoteCandidateTermId &&
+            candidateMemberId == thisMember.id() &&
+            vote &&
+            null != clusterMemberByIdMap.get(followerMemberId))
+        {
+            preVoteMemberIds.add(followerMemberId);
+        }
+    }
+
     void onVote(
         final long candidateTermId,
         final long logLeadershipTermId,
@@ -527,16 +578,65 @@ public class Election implements AutoCloseable
     {
         if (nowNs >= nominationDeadlineNs)
         {
-            candidateTermId = Math.max(leadershipTermId + 1, candidateTermId + 1);
-            ClusterMember.becomeCandidate(clusterMembers, candidateTermId, thisMember.id());
-            ctx.clusterMarkFile().candidateTermId(candidateTermId, ctx.fileSyncLevel());
-            state(State.CANDIDATE_BALLOT);
+            if (ctx.electionPreVoteEnabled())
+            {
+                preVoteCandidateTermId = Math.max(leadershipTermId + 1, candidateTermId + 1);
+                preVoteMemberIds.clear();
+                preVoteMemberIds.add(thisMember.id());
+                timeOfLastUpdateNs = nowNs - ctx.electionStatusIntervalNs();
+                state(State.CANDIDATE_PRE_VOTE);
+            }
+            else
+            {
+                becomeCandidate();
+            }
+
             return 1;
         }
 
         return 0;
     }
 
+    private int candidatePreVote(final long nowNs)
+    {
+        int workCount = 0;
+
+        if (preVoteMemberIds.size() >= ClusterMember.quorumThreshold(clusterMembers.length))
+        {
+            becomeCandidate();
+            workCount += 1;
+        }
+        else if (nowNs >= (timeOfLastStateChangeNs + ctx.electionTimeoutNs()))
+        {
+            state(State.CANVASS);
+            workCount += 1;
+        }
+        else if (nowNs >= (timeOfLastUpdateNs + ctx.electionStatusIntervalNs()))
+        {
+            timeOfLastUpdateNs = nowNs;
+            for (final ClusterMember member : clusterMembers)
+            {
+                if (member != thisMember && !preVoteMemberIds.contains(member.id()))
+                {
+                    memberStatusPublisher.preVoteRequest(
+                        member.publication(), leadershipTermId, logPosition, preVoteCandidateTermId, thisMember.id());
+                }
+            }
+
+            workCount += 1;
+        }
+
+        return workCount;
+    }
+
+    private void becomeCandidate()
+    {
+        candidateTermId = Math.max(leadershipTermId + 1, candidateTermId + 1);
+        ClusterMember.becomeCandidate(clusterMembers, candidateTermId, thisMember.id());
+        ctx.clusterMarkFile().candidateTermId(candidateTermId, ctx.fileSyncLevel());
+        state(State.CANDIDATE_BALLOT);
+    }
+
     private int candidateBallot(final long nowNs)
     {
         int workCount = 0;
@@ -941,6 +1041,7 @@ public class Election implements AutoCloseable
             case INIT:
             case CANVASS:
             case NOMINATE:
+            case CANDIDATE_PRE_VOTE:
             case FOLLOWER_BALLOT:
             case FOLLOWER_CATCHUP_TRANSITION:
             case FOLLOWER_CATCHUP:
@@ -36,19 +36,41 @@ class IngressAdapter implements ControlledFragmentHandler, AutoCloseable
     private final SessionMessageHeaderDecoder sessionMessageHeaderDecoder = new SessionMessageHeaderDecoder();
     private final SessionKeepAliveDecoder sessionKeepAliveDecoder = new SessionKeepAliveDecoder();
     private final ChallengeResponseDecoder challengeResponseDecoder = new ChallengeResponseDecoder();
+    private final ReadQueryHeaderDecoder readQueryHeaderDecoder = new ReadQueryHeaderDecoder();
     private final ControlledFragmentAssembler fragmentAssembler = new ControlledFragmentAssembler(this);
     private final ConsensusModuleAgent consensusModuleAgent;
     private final AtomicCounter invalidRequests;
+    private final boolean isIpc;
     private Subscription subscription;
 
     IngressAdapter(
         final int fragmentPollLimit,
         final ConsensusModuleAgent consensusModuleAgent,
         final AtomicCounter invalidRequests)
+    {
+        this(fragmentPollLimit, consensusModuleAgent, invalidRequests, false);
+    }
+
+    IngressAdapter(
+        final int fragmentPollLimit,
+        final ConsensusModuleAgent consensusModuleAgent,
+        final AtomicCounter invalidRequests,
+        final boolean isIpc)
     {
         this.fragmentPollLimit = fragmentPollLimit;
         this.consensusModuleAgent = consensusModuleAgent;
         this.invalidRequests = invalidRequests;
+        this.isIpc = isIpc;
+    }
+
+    /**
+     * Is this adapter for ingress from clients which share the media driver with this member via IPC.
+     *
+     * @return true if this adapter is for ingress via IPC.
+     */
+    boolean isIpc()
+    {
+        return isIpc;
     }
 
     public void close()
@@ -114,7 +136,9 @@ class IngressAdapter implements ControlledFragmentHandler, AutoCloseable
                     connectRequestDecoder.responseStreamId(),
                     connectRequestDecoder.version(),
                     responseChannel,
-                    credentials);
+                    credentials,
+                    isIpc,
+                    header.sessionId());
                 break;
             }
 
@@ -165,6 +189,24 @@ class IngressAdapter implements ControlledFragmentHandler, AutoCloseable
                 break;
             }
 
+            case ReadQueryHeaderDecoder.TEMPLATE_ID:
+            {
+                readQueryHeaderDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onReadQuery(
+                    readQueryHeaderDecoder.leadershipTermId(),
+                    readQueryHeaderDecoder.clusterSessionId(),
+                    readQueryHeaderDecoder.correlationId(),
+                    buffer,
+                    offset + AeronCluster.READ_QUERY_HEADER_LENGTH,
+                    length - AeronCluster.READ_QUERY_HEADER_LENGTH);
+                break;
+            }
+
             default:
                 invalidRequests.incrementOrdered();
         }
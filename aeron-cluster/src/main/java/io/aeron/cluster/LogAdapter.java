@@ -37,6 +37,7 @@ final class LogAdapter implements ControlledFragmentHandler, AutoCloseable
     private final SessionOpenEventDecoder sessionOpenEventDecoder = new SessionOpenEventDecoder();
     private final SessionCloseEventDecoder sessionCloseEventDecoder = new SessionCloseEventDecoder();
     private final SessionMessageHeaderDecoder sessionHeaderDecoder = new SessionMessageHeaderDecoder();
+    private final SessionMessageBatchDecoder sessionMessageBatchDecoder = new SessionMessageBatchDecoder();
     private final TimerEventDecoder timerEventDecoder = new TimerEventDecoder();
     private final ClusterActionRequestDecoder clusterActionRequestDecoder = new ClusterActionRequestDecoder();
     private final NewLeadershipTermEventDecoder newLeadershipTermEventDecoder = new NewLeadershipTermEventDecoder();
@@ -114,6 +115,30 @@ final class LogAdapter implements ControlledFragmentHandler, AutoCloseable
 
         switch (templateId)
         {
+            case SessionMessageBatchDecoder.TEMPLATE_ID:
+                sessionMessageBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                for (final SessionMessageBatchDecoder.MessagesDecoder messages : sessionMessageBatchDecoder.messages())
+                {
+                    final int messageLength = messages.messageLength();
+                    final int messageOffset = sessionMessageBatchDecoder.limit() +
+                        SessionMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+                    messages.skipMessage();
+
+                    consensusModuleAgent.onReplaySessionMessage(
+                        messages.clusterSessionId(),
+                        messages.timestamp(),
+                        buffer,
+                        messageOffset,
+                        messageLength,
+                        header);
+                }
+                break;
+
             case TimerEventDecoder.TEMPLATE_ID:
                 timerEventDecoder.wrap(
                     buffer,
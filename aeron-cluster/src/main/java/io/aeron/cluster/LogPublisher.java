@@ -17,12 +17,14 @@ package io.aeron.cluster;
 
 import io.aeron.Publication;
 import io.aeron.cluster.client.ClusterClock;
+import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.codecs.*;
 import io.aeron.exceptions.AeronException;
 import io.aeron.logbuffer.BufferClaim;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.BitUtil;
 import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
 import org.agrona.ExpandableArrayBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
@@ -36,6 +38,13 @@ import static org.agrona.BitUtil.align;
 class LogPublisher
 {
     private static final int SEND_ATTEMPTS = 3;
+    private static final int MAX_BATCH_MESSAGE_COUNT = 1024;
+    private static final int BATCH_GROUP_HEADER_OFFSET =
+        MessageHeaderEncoder.ENCODED_LENGTH + SessionMessageBatchEncoder.BLOCK_LENGTH;
+    private static final int BATCH_FIRST_MESSAGE_OFFSET = BATCH_GROUP_HEADER_OFFSET +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH +
+        SessionMessageBatchEncoder.MessagesEncoder.sbeBlockLength() +
+        SessionMessageBatchEncoder.MessagesEncoder.messageHeaderLength();
 
     private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
     private final SessionMessageHeaderEncoder sessionHeaderEncoder = new SessionMessageHeaderEncoder();
@@ -45,24 +54,74 @@ class LogPublisher
     private final ClusterActionRequestEncoder clusterActionRequestEncoder = new ClusterActionRequestEncoder();
     private final NewLeadershipTermEventEncoder newLeadershipTermEventEncoder = new NewLeadershipTermEventEncoder();
     private final MembershipChangeEventEncoder membershipChangeEventEncoder = new MembershipChangeEventEncoder();
+    private final SessionMessageBatchEncoder sessionMessageBatchEncoder = new SessionMessageBatchEncoder();
+    private final GroupSizeEncodingEncoder batchGroupSizeEncoder = new GroupSizeEncodingEncoder();
     private final UnsafeBuffer sessionHeaderBuffer = new UnsafeBuffer(new byte[SESSION_HEADER_LENGTH]);
     private final ExpandableArrayBuffer expandableArrayBuffer = new ExpandableArrayBuffer();
+    private final ExpandableArrayBuffer batchBuffer = new ExpandableArrayBuffer();
     private final BufferClaim bufferClaim = new BufferClaim();
-
+    private final int maxBatchLength;
+
+    private SessionMessageBatchEncoder.MessagesEncoder batchMessagesEncoder;
+    private int batchMessageCount;
+    private long batchLeadershipTermId;
+    private long batchFirstClusterSessionId;
+    private long batchFirstTimestamp;
+    private int batchFirstMessageLength;
     private Publication publication;
 
     LogPublisher()
     {
+        this(0);
+    }
+
+    LogPublisher(final int maxBatchLength)
+    {
+        this.maxBatchLength = maxBatchLength;
         sessionHeaderEncoder.wrapAndApplyHeader(sessionHeaderBuffer, 0, new MessageHeaderEncoder());
     }
 
     void publication(final Publication publication)
     {
+        if (batchMessageCount > 0)
+        {
+            throw new ClusterException(
+                "publication replaced with unflushed batch: messageCount=" + batchMessageCount);
+        }
+
         this.publication = publication;
     }
 
-    void disconnect()
+    /**
+     * Close the publication after attempting to flush any batched messages. Messages which cannot be flushed, because
+     * the publication is back pressured or no longer connected, are discarded and reported to the error handler as
+     * they have been consumed from ingress but will not be in the log.
+     *
+     * @param errorHandler to which a discarded batch is reported.
+     */
+    void disconnect(final ErrorHandler errorHandler)
     {
+        if (batchMessageCount > 0)
+        {
+            boolean isFlushed = false;
+            try
+            {
+                isFlushed = null != publication && flushBatch();
+            }
+            catch (final AeronException ex)
+            {
+                errorHandler.onError(ex);
+            }
+
+            if (!isFlushed)
+            {
+                errorHandler.onError(new ClusterException(
+                    "unflushed batch discarded on disconnect: messageCount=" + batchMessageCount,
+                    AeronException.Category.WARN));
+                batchMessageCount = 0;
+            }
+        }
+
         if (null != publication)
         {
             publication.close();
@@ -108,6 +167,151 @@ class LogPublisher
         final DirectBuffer buffer,
         final int offset,
         final int length)
+    {
+        if (!flushBatch())
+        {
+            return Publication.BACK_PRESSURED;
+        }
+
+        return offerMessage(leadershipTermId, clusterSessionId, timestamp, buffer, offset, length);
+    }
+
+    /**
+     * Add a message to the batch which will be appended to the log as a single entry by {@link #flushBatch()}, or
+     * before any other entry is appended so the order of the log is preserved. The batch is flushed first if the
+     * message would take it beyond the max batch length.
+     * <p>
+     * As the batch is a single log entry every message in it is delivered with the same log position, which is the
+     * position at the end of the entry, in the same way as all the fragments of a message share the position of its
+     * last fragment. A snapshot or election can only occur between entries so this position is a consistent point
+     * for each message in the batch. The leadershipTermId of the batch is encoded, as it is in a session message
+     * header, so the log is self-describing for tooling but it is not used on dispatch.
+     *
+     * @param leadershipTermId for the current term.
+     * @param clusterSessionId from which the message came.
+     * @param timestamp        for the message.
+     * @param buffer           containing the message.
+     * @param offset           in the buffer at which the message begins.
+     * @param length           of the message.
+     * @return true if the message has been batched or false if a full batch could not be flushed.
+     */
+    boolean batchMessage(
+        final long leadershipTermId,
+        final long clusterSessionId,
+        final long timestamp,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        if (batchMessageCount > 0)
+        {
+            final int batchLength = MessageHeaderEncoder.ENCODED_LENGTH + sessionMessageBatchEncoder.encodedLength();
+            final int entryLength = SessionMessageBatchEncoder.MessagesEncoder.sbeBlockLength() +
+                SessionMessageBatchEncoder.MessagesEncoder.messageHeaderLength() + length;
+
+            if (leadershipTermId != batchLeadershipTermId ||
+                MAX_BATCH_MESSAGE_COUNT == batchMessageCount ||
+                (batchLength + entryLength) > Math.min(maxBatchLength, publication.maxMessageLength()))
+            {
+                if (!flushBatch())
+                {
+                    return false;
+                }
+            }
+        }
+
+        if (0 == batchMessageCount)
+        {
+            batchMessagesEncoder = sessionMessageBatchEncoder
+                .wrapAndApplyHeader(batchBuffer, 0, messageHeaderEncoder)
+                .leadershipTermId(leadershipTermId)
+                .messagesCount(MAX_BATCH_MESSAGE_COUNT);
+
+            batchLeadershipTermId = leadershipTermId;
+            batchFirstClusterSessionId = clusterSessionId;
+            batchFirstTimestamp = timestamp;
+            batchFirstMessageLength = length;
+        }
+
+        batchMessagesEncoder.next()
+            .clusterSessionId(clusterSessionId)
+            .timestamp(timestamp)
+            .putMessage(buffer, offset, length);
+
+        batchMessageCount++;
+
+        return true;
+    }
+
+    /**
+     * Are there batched messages which have not yet been appended to the log.
+     *
+     * @return true if there are batched messages which have not yet been appended to the log.
+     */
+    boolean hasPendingBatch()
+    {
+        return batchMessageCount > 0;
+    }
+
+    /**
+     * Append the batched messages to the log. A batch of one is appended as a regular session message. When back
+     * pressured the batch remains pending so the append can be retried.
+     *
+     * @return true if there was nothing to flush or the batch has been appended otherwise false.
+     */
+    boolean flushBatch()
+    {
+        if (0 == batchMessageCount)
+        {
+            return true;
+        }
+
+        long result;
+        if (1 == batchMessageCount)
+        {
+            result = offerMessage(
+                batchLeadershipTermId,
+                batchFirstClusterSessionId,
+                batchFirstTimestamp,
+                batchBuffer,
+                BATCH_FIRST_MESSAGE_OFFSET,
+                batchFirstMessageLength);
+        }
+        else
+        {
+            batchGroupSizeEncoder.wrap(batchBuffer, BATCH_GROUP_HEADER_OFFSET).numInGroup(batchMessageCount);
+            final int length = MessageHeaderEncoder.ENCODED_LENGTH + sessionMessageBatchEncoder.encodedLength();
+
+            int attempts = SEND_ATTEMPTS;
+            do
+            {
+                result = publication.offer(batchBuffer, 0, length, null);
+                if (result > 0)
+                {
+                    break;
+                }
+
+                checkResult(result);
+            }
+            while (--attempts > 0);
+        }
+
+        if (result > 0)
+        {
+            batchMessageCount = 0;
+            return true;
+        }
+
+        return false;
+    }
+
+    private long offerMessage(
+        final long leadershipTermId,
+        final long clusterSessionId,
+        final long timestamp,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
     {
         sessionHeaderEncoder
             .leadershipTermId(leadershipTermId)
@@ -134,6 +338,11 @@ class LogPublisher
 
     long appendSessionOpen(final ClusterSession session, final long leadershipTermId, final long timestamp)
     {
+        if (!flushBatch())
+        {
+            return Publication.BACK_PRESSURED;
+        }
+
         long result;
         final byte[] encodedPrincipal = session.encodedPrincipal();
         final String channel = session.responseChannel();
@@ -145,6 +354,8 @@ class LogPublisher
             .correlationId(session.correlationId())
             .timestamp(timestamp)
             .responseStreamId(session.responseStreamId())
+            .ipcMemberId(session.ipcMemberId())
+            .ipcResponseStreamId(session.ipcResponseStreamId())
             .responseChannel(channel)
             .putEncodedPrincipal(encodedPrincipal, 0, encodedPrincipal.length);
 
@@ -168,6 +379,11 @@ class LogPublisher
 
     boolean appendSessionClose(final ClusterSession session, final long leadershipTermId, final long timestamp)
     {
+        if (!flushBatch())
+        {
+            return false;
+        }
+
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + SessionCloseEventEncoder.BLOCK_LENGTH;
 
         int attempts = SEND_ATTEMPTS;
@@ -196,6 +412,11 @@ class LogPublisher
 
     long appendTimer(final long correlationId, final long leadershipTermId, final long timestamp)
     {
+        if (!flushBatch())
+        {
+            return Publication.BACK_PRESSURED;
+        }
+
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + TimerEventEncoder.BLOCK_LENGTH;
 
         int attempts = SEND_ATTEMPTS;
@@ -224,6 +445,11 @@ class LogPublisher
 
     boolean appendClusterAction(final long leadershipTermId, final long timestamp, final ClusterAction action)
     {
+        if (!flushBatch())
+        {
+            return false;
+        }
+
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + ClusterActionRequestEncoder.BLOCK_LENGTH;
         final int fragmentLength = DataHeaderFlyweight.HEADER_LENGTH +
             MessageHeaderEncoder.ENCODED_LENGTH +
@@ -264,6 +490,11 @@ class LogPublisher
         final TimeUnit timeUnit,
         final int appVersion)
     {
+        if (!flushBatch())
+        {
+            return false;
+        }
+
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + NewLeadershipTermEventEncoder.BLOCK_LENGTH;
         final int fragmentLength = DataHeaderFlyweight.HEADER_LENGTH +
             MessageHeaderEncoder.ENCODED_LENGTH +
@@ -307,6 +538,11 @@ class LogPublisher
         final int memberId,
         final String clusterMembers)
     {
+        if (!flushBatch())
+        {
+            return Publication.BACK_PRESSURED;
+        }
+
         long result;
         final int fragmentedLength = computeMembershipChangeEventFragmentedLength(clusterMembers);
 
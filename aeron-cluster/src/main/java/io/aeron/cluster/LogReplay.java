@@ -17,10 +17,26 @@ package io.aeron.cluster;
 
 import io.aeron.*;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.cluster.service.ClusterCounters;
 import org.agrona.CloseHelper;
 
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.cluster.ConsensusModule.Configuration.LOG_REPLAY_ETA_TYPE_ID;
+import static io.aeron.cluster.ConsensusModule.Configuration.LOG_REPLAY_RATE_TYPE_ID;
+
+/**
+ * Replay of the log from the archive on recovery.
+ * <p>
+ * When {@link ConsensusModule.Context#acceleratedLogReplay()} is set each service is told the recording to replay
+ * for itself, bounded by the stop position, rather than to follow the replay consumed here. The consensus module and
+ * services then each replay at their own pace without flow control coupling them to the slowest of them.
+ */
 class LogReplay implements AutoCloseable
 {
+    private static final long RATE_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
     enum State
     {
         INIT,
@@ -34,10 +50,15 @@ class LogReplay implements AutoCloseable
     private final long leadershipTermId;
     private final int logSessionId;
     private final int replayStreamId;
+    private final boolean isAccelerated;
     private final AeronArchive archive;
     private final ConsensusModuleAgent consensusModuleAgent;
     private final String channel;
+    private final Counter replayRateCounter;
+    private final Counter replayEtaCounter;
 
+    private long timeOfLastRateNs;
+    private long positionOfLastRate;
     private int replaySessionId = Aeron.NULL_VALUE;
     private State state = State.INIT;
     private Subscription logSubscription;
@@ -61,9 +82,15 @@ class LogReplay implements AutoCloseable
         this.logSessionId = logSessionId;
         this.consensusModuleAgent = consensusModuleAgent;
         this.replayStreamId = ctx.replayStreamId();
+        this.isAccelerated = ctx.acceleratedLogReplay();
 
         final Aeron aeron = ctx.aeron();
 
+        replayRateCounter = ClusterCounters.allocate(
+            aeron, ctx.tempBuffer(), "Log replay rate (bytes/sec)", LOG_REPLAY_RATE_TYPE_ID, ctx.clusterId());
+        replayEtaCounter = ClusterCounters.allocate(
+            aeron, ctx.tempBuffer(), "Log replay ETA (ms)", LOG_REPLAY_ETA_TYPE_ID, ctx.clusterId());
+
         final ChannelUri channelUri = ChannelUri.parse(ctx.replayChannel());
         channelUri.put(CommonContext.SESSION_ID_PARAM_NAME, Integer.toString(logSessionId));
         this.channel = channelUri.toString();
@@ -74,19 +101,29 @@ class LogReplay implements AutoCloseable
     public void close()
     {
         CloseHelper.close(logSubscription);
+        CloseHelper.close(replayRateCounter);
+        CloseHelper.close(replayEtaCounter);
     }
 
-    int doWork(@SuppressWarnings("unused") final long nowMs)
+    int doWork(final long nowNs)
     {
         int workCount = 0;
 
         if (State.INIT == state)
         {
             consensusModuleAgent.awaitServicesReadyForReplay(
-                channel, replayStreamId, logSessionId, leadershipTermId, startPosition, stopPosition);
+                channel,
+                replayStreamId,
+                logSessionId,
+                leadershipTermId,
+                startPosition,
+                stopPosition,
+                isAccelerated ? recordingId : Aeron.NULL_VALUE);
 
             final long length = stopPosition - startPosition;
             replaySessionId = (int)archive.startReplay(recordingId, startPosition, length, channel, replayStreamId);
+            timeOfLastRateNs = nowNs;
+            positionOfLastRate = startPosition;
             state = State.REPLAY;
             workCount = 1;
         }
@@ -104,8 +141,11 @@ class LogReplay implements AutoCloseable
             else
             {
                 consensusModuleAgent.replayLogPoll(logAdapter, stopPosition);
+                updateRateAndEta(nowNs, logAdapter.position());
+
                 if (logAdapter.position() == stopPosition)
                 {
+                    replayEtaCounter.setOrdered(0);
                     consensusModuleAgent.awaitServicesReplayComplete(stopPosition);
 
                     logSubscription.close();
@@ -125,4 +165,23 @@ class LogReplay implements AutoCloseable
     {
         return State.DONE == state;
     }
+
+    private void updateRateAndEta(final long nowNs, final long position)
+    {
+        final long intervalNs = nowNs - timeOfLastRateNs;
+
+        if (intervalNs >= RATE_INTERVAL_NS)
+        {
+            final long bytesPerSecond = (long)((position - positionOfLastRate) * (NANOS_PER_SECOND / intervalNs));
+
+            replayRateCounter.setOrdered(bytesPerSecond);
+            if (bytesPerSecond > 0)
+            {
+                replayEtaCounter.setOrdered(((stopPosition - position) * 1000) / bytesPerSecond);
+            }
+
+            timeOfLastRateNs = nowNs;
+            positionOfLastRate = position;
+        }
+    }
 }
@@ -32,11 +32,15 @@ class MemberStatusAdapter implements FragmentHandler, AutoCloseable
     private final CanvassPositionDecoder canvassPositionDecoder = new CanvassPositionDecoder();
     private final RequestVoteDecoder requestVoteDecoder = new RequestVoteDecoder();
     private final VoteDecoder voteDecoder = new VoteDecoder();
+    private final PreVoteRequestDecoder preVoteRequestDecoder = new PreVoteRequestDecoder();
+    private final PreVoteDecoder preVoteDecoder = new PreVoteDecoder();
     private final NewLeadershipTermDecoder newLeadershipTermDecoder = new NewLeadershipTermDecoder();
     private final AppendedPositionDecoder appendedPositionDecoder = new AppendedPositionDecoder();
     private final CommitPositionDecoder commitPositionDecoder = new CommitPositionDecoder();
     private final CatchupPositionDecoder catchupPositionDecoder = new CatchupPositionDecoder();
     private final StopCatchupDecoder stopCatchupDecoder = new StopCatchupDecoder();
+    private final ReadIndexRequestDecoder readIndexRequestDecoder = new ReadIndexRequestDecoder();
+    private final ReadIndexResponseDecoder readIndexResponseDecoder = new ReadIndexResponseDecoder();
 
     private final AddPassiveMemberDecoder addPassiveMemberDecoder = new AddPassiveMemberDecoder();
     private final ClusterMembersChangeDecoder clusterMembersChangeDecoder = new ClusterMembersChangeDecoder();
@@ -129,6 +133,36 @@ class MemberStatusAdapter implements FragmentHandler, AutoCloseable
                     voteDecoder.vote() == BooleanType.TRUE);
                 break;
 
+            case PreVoteRequestDecoder.TEMPLATE_ID:
+                preVoteRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onPreVoteRequest(
+                    preVoteRequestDecoder.logLeadershipTermId(),
+                    preVoteRequestDecoder.logPosition(),
+                    preVoteRequestDecoder.candidateTermId(),
+                    preVoteRequestDecoder.candidateMemberId());
+                break;
+
+            case PreVoteDecoder.TEMPLATE_ID:
+                preVoteDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onPreVote(
+                    preVoteDecoder.candidateTermId(),
+                    preVoteDecoder.logLeadershipTermId(),
+                    preVoteDecoder.logPosition(),
+                    preVoteDecoder.candidateMemberId(),
+                    preVoteDecoder.followerMemberId(),
+                    preVoteDecoder.vote() == BooleanType.TRUE);
+                break;
+
             case NewLeadershipTermDecoder.TEMPLATE_ID:
                 newLeadershipTermDecoder.wrap(
                     buffer,
@@ -197,6 +231,32 @@ class MemberStatusAdapter implements FragmentHandler, AutoCloseable
                     stopCatchupDecoder.followerMemberId());
                 break;
 
+            case ReadIndexRequestDecoder.TEMPLATE_ID:
+                readIndexRequestDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onReadIndexRequest(
+                    readIndexRequestDecoder.leadershipTermId(),
+                    readIndexRequestDecoder.correlationId(),
+                    readIndexRequestDecoder.followerMemberId());
+                break;
+
+            case ReadIndexResponseDecoder.TEMPLATE_ID:
+                readIndexResponseDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                consensusModuleAgent.onReadIndexResponse(
+                    readIndexResponseDecoder.leadershipTermId(),
+                    readIndexResponseDecoder.correlationId(),
+                    readIndexResponseDecoder.logPosition());
+                break;
+
             case AddPassiveMemberDecoder.TEMPLATE_ID:
                 addPassiveMemberDecoder.wrap(
                     buffer,
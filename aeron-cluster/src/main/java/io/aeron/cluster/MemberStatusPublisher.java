@@ -31,11 +31,15 @@ class MemberStatusPublisher
     private final CanvassPositionEncoder canvassPositionEncoder = new CanvassPositionEncoder();
     private final RequestVoteEncoder requestVoteEncoder = new RequestVoteEncoder();
     private final VoteEncoder voteEncoder = new VoteEncoder();
+    private final PreVoteRequestEncoder preVoteRequestEncoder = new PreVoteRequestEncoder();
+    private final PreVoteEncoder preVoteEncoder = new PreVoteEncoder();
     private final NewLeadershipTermEncoder newLeadershipTermEncoder = new NewLeadershipTermEncoder();
     private final AppendedPositionEncoder appendedPositionEncoder = new AppendedPositionEncoder();
     private final CommitPositionEncoder commitPositionEncoder = new CommitPositionEncoder();
     private final CatchupPositionEncoder catchupPositionEncoder = new CatchupPositionEncoder();
     private final StopCatchupEncoder stopCatchupEncoder = new StopCatchupEncoder();
+    private final ReadIndexRequestEncoder readIndexRequestEncoder = new ReadIndexRequestEncoder();
+    private final ReadIndexResponseEncoder readIndexResponseEncoder = new ReadIndexResponseEncoder();
     private final AddPassiveMemberEncoder addPassiveMemberEncoder = new AddPassiveMemberEncoder();
     private final ClusterMembersChangeEncoder clusterMembersChangeEncoder = new ClusterMembersChangeEncoder();
     private final SnapshotRecordingQueryEncoder snapshotRecordingQueryEncoder = new SnapshotRecordingQueryEncoder();
@@ -146,6 +150,76 @@ class MemberStatusPublisher
         while (--attempts > 0);
     }
 
+    boolean preVoteRequest(
+        final Publication publication,
+        final long logLeadershipTermId,
+        final long logPosition,
+        final long candidateTermId,
+        final int candidateMemberId)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + PreVoteRequestEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                preVoteRequestEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .logLeadershipTermId(logLeadershipTermId)
+                    .logPosition(logPosition)
+                    .candidateTermId(candidateTermId)
+                    .candidateMemberId(candidateMemberId);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
+    void placePreVote(
+        final Publication publication,
+        final long candidateTermId,
+        final long logLeadershipTermId,
+        final long logPosition,
+        final int candidateMemberId,
+        final int followerMemberId,
+        final boolean vote)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + PreVoteEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                preVoteEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .candidateTermId(candidateTermId)
+                    .logLeadershipTermId(logLeadershipTermId)
+                    .logPosition(logPosition)
+                    .candidateMemberId(candidateMemberId)
+                    .followerMemberId(followerMemberId)
+                    .vote(vote ? BooleanType.TRUE : BooleanType.FALSE);
+
+                bufferClaim.commit();
+
+                return;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+    }
+
     void newLeadershipTerm(
         final Publication publication,
         final long logLeadershipTermId,
@@ -296,6 +370,67 @@ class MemberStatusPublisher
         return false;
     }
 
+    boolean readIndexRequest(
+        final Publication publication,
+        final long leadershipTermId,
+        final long correlationId,
+        final int followerMemberId)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + ReadIndexRequestEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                readIndexRequestEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .leadershipTermId(leadershipTermId)
+                    .correlationId(correlationId)
+                    .followerMemberId(followerMemberId);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
+    boolean readIndexResponse(
+        final Publication publication, final long leadershipTermId, final long correlationId, final long logPosition)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + ReadIndexResponseEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                readIndexResponseEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .leadershipTermId(leadershipTermId)
+                    .correlationId(correlationId)
+                    .logPosition(logPosition);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
     boolean addPassiveMember(final Publication publication, final long correlationId, final String memberEndpoints)
     {
         final int length =
@@ -403,11 +538,14 @@ class MemberStatusPublisher
         snapshotRecordingsEncoder.wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
             .correlationId(correlationId);
 
+        final int snapshotCount = recoveryPlan.snapshots.size();
+        final int snapshotPartCount = recoveryPlan.snapshotParts.size();
         final SnapshotRecordingsEncoder.SnapshotsEncoder snapshotsEncoder =
-            snapshotRecordingsEncoder.snapshotsCount(recoveryPlan.snapshots.size());
-        for (int i = 0, length = recoveryPlan.snapshots.size(); i < length; i++)
+            snapshotRecordingsEncoder.snapshotsCount(snapshotCount + snapshotPartCount);
+        for (int i = 0, length = snapshotCount + snapshotPartCount; i < length; i++)
         {
-            final RecordingLog.Snapshot snapshot = recoveryPlan.snapshots.get(i);
+            final RecordingLog.Snapshot snapshot = i < snapshotCount ?
+                recoveryPlan.snapshots.get(i) : recoveryPlan.snapshotParts.get(i - snapshotCount);
 
             snapshotsEncoder.next()
                 .recordingId(snapshot.recordingId)
@@ -415,7 +553,9 @@ class MemberStatusPublisher
                 .termBaseLogPosition(snapshot.termBaseLogPosition)
                 .logPosition(snapshot.logPosition)
                 .timestamp(snapshot.timestamp)
-                .serviceId(snapshot.serviceId);
+                .serviceId(snapshot.serviceId)
+                .partIndex(snapshot.isPart() ?
+                    snapshot.partIndex : SnapshotRecordingsEncoder.SnapshotsEncoder.partIndexNullValue());
         }
 
         snapshotRecordingsEncoder.memberEndpoints(memberEndpoints);
@@ -579,11 +719,14 @@ class MemberStatusPublisher
             .commitPositionCounterId(commitPositionCounterId)
             .leaderMemberId(leaderMemberId);
 
+        final int snapshotCount = recoveryPlan.snapshots.size();
+        final int snapshotPartCount = recoveryPlan.snapshotParts.size();
         final BackupResponseEncoder.SnapshotsEncoder snapshotsEncoder =
-            backupResponseEncoder.snapshotsCount(recoveryPlan.snapshots.size());
-        for (int i = 0, length = recoveryPlan.snapshots.size(); i < length; i++)
+            backupResponseEncoder.snapshotsCount(snapshotCount + snapshotPartCount);
+        for (int i = 0, length = snapshotCount + snapshotPartCount; i < length; i++)
         {
-            final RecordingLog.Snapshot snapshot = recoveryPlan.snapshots.get(i);
+            final RecordingLog.Snapshot snapshot = i < snapshotCount ?
+                recoveryPlan.snapshots.get(i) : recoveryPlan.snapshotParts.get(i - snapshotCount);
 
             snapshotsEncoder.next()
                 .recordingId(snapshot.recordingId)
@@ -591,7 +734,9 @@ class MemberStatusPublisher
                 .termBaseLogPosition(snapshot.termBaseLogPosition)
                 .logPosition(snapshot.logPosition)
                 .timestamp(snapshot.timestamp)
-                .serviceId(snapshot.serviceId);
+                .serviceId(snapshot.serviceId)
+                .partIndex(snapshot.isPart() ?
+                    snapshot.partIndex : BackupResponseEncoder.SnapshotsEncoder.partIndexNullValue());
         }
 
         backupResponseEncoder.clusterMembers(clusterMembers);
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.ExpandableRingBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Read-only queries received by a follower which are waiting on a read index from the leader.
+ * <p>
+ * At most one read index request is in flight to the leader at a time. Queries which arrive while a request is in
+ * flight wait for the next request, so each query is given a read index obtained after it arrived, and a single
+ * request covers all the queries which arrived before it was sent.
+ */
+class PendingReadQueries implements ExpandableRingBuffer.MessageConsumer
+{
+    /**
+     * Handler for queries once their read index is known.
+     */
+    @FunctionalInterface
+    interface QueryHandler
+    {
+        /**
+         * Query which can be served once the log has been applied up to the read index.
+         *
+         * @param clusterSessionId of the session which sent the query.
+         * @param correlationId    of the query.
+         * @param readIndex        position in the log which must be applied before the query is served.
+         * @param buffer           containing the query.
+         * @param offset           at which the query begins.
+         * @param length           of the query in bytes.
+         */
+        void onQuery(
+            long clusterSessionId, long correlationId, long readIndex, DirectBuffer buffer, int offset, int length);
+    }
+
+    private static final int REQUEST_ID_OFFSET = 0;
+    private static final int CLUSTER_SESSION_ID_OFFSET = REQUEST_ID_OFFSET + SIZE_OF_LONG;
+    private static final int CORRELATION_ID_OFFSET = CLUSTER_SESSION_ID_OFFSET + SIZE_OF_LONG;
+    private static final int QUERY_OFFSET = CORRELATION_ID_OFFSET + SIZE_OF_LONG;
+
+    private boolean isRequestInFlight;
+    private int queryCount;
+    private long requestId;
+    private long requestDeadlineNs;
+    private long readIndex;
+    private final long requestTimeoutNs;
+    private final QueryHandler queryHandler;
+    private final ExpandableRingBuffer queries = new ExpandableRingBuffer();
+    private final ExpandableArrayBuffer entryBuffer = new ExpandableArrayBuffer();
+
+    PendingReadQueries(final QueryHandler queryHandler, final long requestTimeoutNs)
+    {
+        this.queryHandler = queryHandler;
+        this.requestTimeoutNs = requestTimeoutNs;
+    }
+
+    /**
+     * Add a query to wait for the next read index.
+     *
+     * @param clusterSessionId of the session which sent the query.
+     * @param correlationId    of the query.
+     * @param buffer           containing the query.
+     * @param offset           at which the query begins.
+     * @param length           of the query in bytes.
+     * @return true if the query was added or false if there was no capacity.
+     */
+    boolean add(
+        final long clusterSessionId,
+        final long correlationId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        entryBuffer.putLong(REQUEST_ID_OFFSET, requestId + 1);
+        entryBuffer.putLong(CLUSTER_SESSION_ID_OFFSET, clusterSessionId);
+        entryBuffer.putLong(CORRELATION_ID_OFFSET, correlationId);
+        entryBuffer.putBytes(QUERY_OFFSET, buffer, offset, length);
+
+        return queries.append(entryBuffer, 0, QUERY_OFFSET + length);
+    }
+
+    /**
+     * Should a read index request be sent to the leader, either because queries are waiting and no request is in
+     * flight or because the request in flight has timed out.
+     *
+     * @param nowNs current time.
+     * @return true if a read index request should be sent.
+     */
+    boolean isRequestRequired(final long nowNs)
+    {
+        if (isRequestInFlight)
+        {
+            return nowNs >= requestDeadlineNs;
+        }
+
+        return !queries.isEmpty();
+    }
+
+    /**
+     * Begin a read index request, or retry the request in flight if it has timed out.
+     *
+     * @param nowNs current time.
+     * @return the correlation id for the request.
+     */
+    long beginRequest(final long nowNs)
+    {
+        if (!isRequestInFlight)
+        {
+            requestId++;
+            isRequestInFlight = true;
+        }
+
+        requestDeadlineNs = nowNs + requestTimeoutNs;
+
+        return requestId;
+    }
+
+    /**
+     * Read index received from the leader which passes the queries covered by the request to the handler.
+     *
+     * @param correlationId of the request.
+     * @param readIndex     which is the commit position of the leader.
+     * @return the number of queries passed to the handler.
+     */
+    int onReadIndex(final long correlationId, final long readIndex)
+    {
+        if (!isRequestInFlight || correlationId != requestId)
+        {
+            return 0;
+        }
+
+        isRequestInFlight = false;
+        this.readIndex = readIndex;
+
+        queryCount = 0;
+        queries.consume(this, Integer.MAX_VALUE);
+
+        return queryCount;
+    }
+
+    /**
+     * Discard all queries, such as when leadership changes, so clients must retry.
+     */
+    void reset()
+    {
+        isRequestInFlight = false;
+        queries.reset(0);
+    }
+
+    public boolean onMessage(final MutableDirectBuffer buffer, final int offset, final int length, final int headOffset)
+    {
+        if (buffer.getLong(offset + REQUEST_ID_OFFSET) > requestId)
+        {
+            return false;
+        }
+
+        queryHandler.onQuery(
+            buffer.getLong(offset + CLUSTER_SESSION_ID_OFFSET),
+            buffer.getLong(offset + CORRELATION_ID_OFFSET),
+            readIndex,
+            buffer,
+            offset + QUERY_OFFSET,
+            length - QUERY_OFFSET);
+        queryCount++;
+
+        return true;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.cluster.ConsensusModule.Configuration.SERVICE_ID;
+
+/**
+ * State holder for a snapshot which the Consensus Module has taken while one or more services are still taking
+ * theirs incrementally. The snapshot is only appended to the {@link RecordingLog} once every service has notified
+ * that its snapshot recording is complete. It is discarded if that does not happen before its deadline.
+ */
+class PendingServiceSnapshot
+{
+    private final long leadershipTermId;
+    private final long termBaseLogPosition;
+    private final long logPosition;
+    private final long timestamp;
+    private final long consensusModuleRecordingId;
+    private final long deadlineNs;
+    private final long[] serviceRecordingIds;
+    private final ArrayList<RecordingLog.Snapshot> snapshotParts;
+    private int pendingCount;
+
+    PendingServiceSnapshot(
+        final long leadershipTermId,
+        final long termBaseLogPosition,
+        final long logPosition,
+        final long timestamp,
+        final long consensusModuleRecordingId,
+        final long deadlineNs,
+        final long[] serviceRecordingIds)
+    {
+        this(
+            leadershipTermId,
+            termBaseLogPosition,
+            logPosition,
+            timestamp,
+            consensusModuleRecordingId,
+            deadlineNs,
+            serviceRecordingIds,
+            new ArrayList<>());
+    }
+
+    PendingServiceSnapshot(
+        final long leadershipTermId,
+        final long termBaseLogPosition,
+        final long logPosition,
+        final long timestamp,
+        final long consensusModuleRecordingId,
+        final long deadlineNs,
+        final long[] serviceRecordingIds,
+        final ArrayList<RecordingLog.Snapshot> snapshotParts)
+    {
+        this.leadershipTermId = leadershipTermId;
+        this.termBaseLogPosition = termBaseLogPosition;
+        this.logPosition = logPosition;
+        this.timestamp = timestamp;
+        this.consensusModuleRecordingId = consensusModuleRecordingId;
+        this.deadlineNs = deadlineNs;
+        this.serviceRecordingIds = serviceRecordingIds;
+        this.snapshotParts = snapshotParts;
+
+        for (final long recordingId : serviceRecordingIds)
+        {
+            if (NULL_VALUE == recordingId)
+            {
+                pendingCount++;
+            }
+        }
+    }
+
+    long leadershipTermId()
+    {
+        return leadershipTermId;
+    }
+
+    long logPosition()
+    {
+        return logPosition;
+    }
+
+    boolean isComplete()
+    {
+        return 0 == pendingCount;
+    }
+
+    boolean hasExpired(final long nowNs)
+    {
+        return nowNs >= deadlineNs;
+    }
+
+    /**
+     * Record the snapshot recording of a service which has completed its incremental snapshot.
+     *
+     * @param serviceId   which has completed its snapshot.
+     * @param recordingId of the completed snapshot.
+     * @return true if the service was pending otherwise false.
+     */
+    boolean onServiceSnapshotTaken(final int serviceId, final long recordingId)
+    {
+        if (serviceId < 0 || serviceId >= serviceRecordingIds.length || NULL_VALUE != serviceRecordingIds[serviceId])
+        {
+            return false;
+        }
+
+        serviceRecordingIds[serviceId] = recordingId;
+        pendingCount--;
+
+        return true;
+    }
+
+    /**
+     * Append the snapshot entries, the parts of service snapshots in order of service id and then part index, then
+     * services in descending order followed by the Consensus Module, as they would have been appended had all
+     * snapshots been taken synchronously.
+     *
+     * @param recordingLog to append the entries to.
+     */
+    void appendTo(final RecordingLog recordingLog)
+    {
+        for (int i = 0, size = snapshotParts.size(); i < size; i++)
+        {
+            recordingLog.appendSnapshotPart(
+                snapshotParts.get(i).recordingId,
+                leadershipTermId,
+                termBaseLogPosition,
+                logPosition,
+                timestamp,
+                snapshotParts.get(i).serviceId);
+        }
+
+        for (int serviceId = serviceRecordingIds.length - 1; serviceId >= 0; serviceId--)
+        {
+            recordingLog.appendSnapshot(
+                serviceRecordingIds[serviceId],
+                leadershipTermId,
+                termBaseLogPosition,
+                logPosition,
+                timestamp,
+                serviceId);
+        }
+
+        recordingLog.appendSnapshot(
+            consensusModuleRecordingId, leadershipTermId, termBaseLogPosition, logPosition, timestamp, SERVICE_ID);
+    }
+
+    public String toString()
+    {
+        return "PendingServiceSnapshot{" +
+            "leadershipTermId=" + leadershipTermId +
+            ", termBaseLogPosition=" + termBaseLogPosition +
+            ", logPosition=" + logPosition +
+            ", timestamp=" + timestamp +
+            ", consensusModuleRecordingId=" + consensusModuleRecordingId +
+            ", deadlineNs=" + deadlineNs +
+            ", serviceRecordingIds=" + Arrays.toString(serviceRecordingIds) +
+            ", snapshotParts=" + snapshotParts +
+            ", pendingCount=" + pendingCount +
+            '}';
+    }
+}
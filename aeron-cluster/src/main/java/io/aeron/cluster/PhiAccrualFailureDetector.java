@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import static io.aeron.Aeron.NULL_VALUE;
+
+/**
+ * Failure detector which accrues suspicion of a member from the distribution of intervals between the messages
+ * received from it, in the style of a phi accrual failure detector.
+ * <p>
+ * Suspicion is expressed as phi = -log10(P) where P is the probability of the next message arriving later than the
+ * time elapsed since the last one, assuming intervals are normally distributed. The mean is not allowed to fall below
+ * the interval at which the member sends heartbeats, so a burst of messages does not make a quiet period look like a
+ * failure, and the standard deviation is not allowed to fall below a minimum so a very regular network does not make
+ * detection too eager.
+ */
+class PhiAccrualFailureDetector
+{
+    /**
+     * Number of intervals which must be observed before suspicion is raised.
+     */
+    static final int MIN_SAMPLES = 8;
+
+    /**
+     * Number of the most recent intervals kept for the distribution.
+     */
+    static final int WINDOW_LENGTH = 128;
+
+    private final double threshold;
+    private final long minMeanIntervalNs;
+    private final long minStdDevNs;
+    private final long[] intervals = new long[WINDOW_LENGTH];
+    private int sampleCount;
+    private int index;
+    private double intervalSum;
+    private double intervalSquaredSum;
+    private long timeOfLastMessageNs = NULL_VALUE;
+
+    PhiAccrualFailureDetector(final double threshold, final long minMeanIntervalNs, final long minStdDevNs)
+    {
+        this.threshold = threshold;
+        this.minMeanIntervalNs = minMeanIntervalNs;
+        this.minStdDevNs = minStdDevNs;
+    }
+
+    /**
+     * Is adaptive detection enabled by having a positive threshold.
+     *
+     * @return true if adaptive detection is enabled.
+     */
+    boolean isEnabled()
+    {
+        return threshold > 0.0;
+    }
+
+    /**
+     * Message has been received from the member.
+     *
+     * @param nowNs current time.
+     */
+    void onMessage(final long nowNs)
+    {
+        if (NULL_VALUE != timeOfLastMessageNs)
+        {
+            final long intervalNs = Math.max(nowNs - timeOfLastMessageNs, 0);
+
+            if (sampleCount == WINDOW_LENGTH)
+            {
+                final long oldIntervalNs = intervals[index];
+                intervalSum -= oldIntervalNs;
+                intervalSquaredSum -= (double)oldIntervalNs * oldIntervalNs;
+            }
+            else
+            {
+                sampleCount++;
+            }
+
+            intervals[index] = intervalNs;
+            intervalSum += intervalNs;
+            intervalSquaredSum += (double)intervalNs * intervalNs;
+            index = (index + 1) & (WINDOW_LENGTH - 1);
+        }
+
+        timeOfLastMessageNs = nowNs;
+    }
+
+    /**
+     * Suspicion that the member has failed given the time elapsed since the last message.
+     *
+     * @param nowNs current time.
+     * @return suspicion as phi, or 0 if not enough intervals have been observed.
+     */
+    double phi(final long nowNs)
+    {
+        if (sampleCount < MIN_SAMPLES)
+        {
+            return 0.0;
+        }
+
+        final double observedMean = intervalSum / sampleCount;
+        final double variance = Math.max((intervalSquaredSum / sampleCount) - (observedMean * observedMean), 0.0);
+        final double mean = Math.max(observedMean, minMeanIntervalNs);
+        final double stdDev = Math.max(Math.sqrt(variance), minStdDevNs);
+
+        return phi(nowNs - timeOfLastMessageNs, mean, stdDev);
+    }
+
+    /**
+     * Shortest time since the last message after which the member could be suspected, whatever the observed
+     * intervals. Suspicion is earliest with the mean and standard deviation at their minimums, unless the threshold
+     * is below the suspicion at the mean in which case a large enough deviation can raise it at any time.
+     *
+     * @return shortest time after which the member could be suspected, or {@link Long#MAX_VALUE} if disabled.
+     */
+    long minDetectionTimeNs()
+    {
+        if (!isEnabled())
+        {
+            return Long.MAX_VALUE;
+        }
+
+        final long stdDevNs = Math.max(minStdDevNs, 1);
+        if (phi(minMeanIntervalNs, minMeanIntervalNs, stdDevNs) >= threshold)
+        {
+            return 0;
+        }
+
+        long lowNs = minMeanIntervalNs;
+        long highNs = minMeanIntervalNs + stdDevNs;
+        while (phi(highNs, minMeanIntervalNs, stdDevNs) < threshold)
+        {
+            lowNs = highNs;
+            highNs += highNs - minMeanIntervalNs;
+        }
+
+        while (highNs - lowNs > 1)
+        {
+            final long midNs = (lowNs + highNs) >>> 1;
+            if (phi(midNs, minMeanIntervalNs, stdDevNs) >= threshold)
+            {
+                highNs = midNs;
+            }
+            else
+            {
+                lowNs = midNs;
+            }
+        }
+
+        return highNs;
+    }
+
+    /**
+     * Has the suspicion of failure reached the threshold.
+     *
+     * @param nowNs current time.
+     * @return true if adaptive detection is enabled and the member is suspected of having failed.
+     */
+    boolean isSuspected(final long nowNs)
+    {
+        return isEnabled() && phi(nowNs) >= threshold;
+    }
+
+    /**
+     * Discard the observed intervals, such as when a new member is followed.
+     */
+    void reset()
+    {
+        sampleCount = 0;
+        index = 0;
+        intervalSum = 0.0;
+        intervalSquaredSum = 0.0;
+        timeOfLastMessageNs = NULL_VALUE;
+    }
+
+    private static double phi(final double elapsedNs, final double mean, final double stdDev)
+    {
+        final double y = (elapsedNs - mean) / stdDev;
+        final double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+        final double probabilityLater = elapsedNs > mean ? e / (1.0 + e) : 1.0 - (1.0 / (1.0 + e));
+
+        return -Math.log10(probabilityLater);
+    }
+}
@@ -21,6 +21,7 @@ import io.aeron.cluster.client.ClusterException;
 import org.agrona.BitUtil;
 import org.agrona.CloseHelper;
 import org.agrona.LangUtil;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.MutableReference;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -29,12 +30,15 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
 import static io.aeron.Aeron.NULL_VALUE;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.*;
 import static org.agrona.BitUtil.*;
 
@@ -78,6 +82,12 @@ import static org.agrona.BitUtil.*;
  *  |                                                               |
  *  +---------------------------------------------------------------+
  * </pre>
+ * <p>
+ * Entries are indexed by leadership term and by the snapshots of the consensus module, which are appended after the
+ * snapshots of the services taken at the same position, so lookups do not scan the whole log. The parts of a service
+ * snapshot taken with {@link io.aeron.cluster.service.MultiPartSnapshot} are appended before the service snapshots,
+ * in order of service id and then part index. Tombstoned entries
+ * remain in the file until it is compacted with {@link #compact()}.
  */
 public class RecordingLog implements AutoCloseable
 {
@@ -153,6 +163,7 @@ public class RecordingLog implements AutoCloseable
         public final long logPosition;
         public final long timestamp;
         public final int serviceId;
+        public final int partIndex;
 
         /**
          * A snapshot entry in the {@link RecordingLog}.
@@ -171,6 +182,30 @@ public class RecordingLog implements AutoCloseable
             final long logPosition,
             final long timestamp,
             final int serviceId)
+        {
+            this(recordingId, leadershipTermId, termBaseLogPosition, logPosition, timestamp, serviceId, NULL_VALUE);
+        }
+
+        /**
+         * A snapshot entry, or a part of a service snapshot, in the {@link RecordingLog}.
+         *
+         * @param recordingId         of the entry in an archive.
+         * @param leadershipTermId    in which the snapshot was taken.
+         * @param termBaseLogPosition position of the log over leadership terms at the beginning of this term.
+         * @param logPosition         position reached when the entry was snapshot was taken.
+         * @param timestamp           as which the snapshot was taken.
+         * @param serviceId           which the snapshot belongs to.
+         * @param partIndex           of the part of the service snapshot or {@link io.aeron.Aeron#NULL_VALUE} if not
+         *                            a part.
+         */
+        public Snapshot(
+            final long recordingId,
+            final long leadershipTermId,
+            final long termBaseLogPosition,
+            final long logPosition,
+            final long timestamp,
+            final int serviceId,
+            final int partIndex)
         {
             this.recordingId = recordingId;
             this.leadershipTermId = leadershipTermId;
@@ -178,6 +213,17 @@ public class RecordingLog implements AutoCloseable
             this.logPosition = logPosition;
             this.timestamp = timestamp;
             this.serviceId = serviceId;
+            this.partIndex = partIndex;
+        }
+
+        /**
+         * Is this a part of a service snapshot rather than the snapshot itself.
+         *
+         * @return true if this is a part of a service snapshot.
+         */
+        public boolean isPart()
+        {
+            return NULL_VALUE != partIndex;
         }
 
         public String toString()
@@ -189,6 +235,7 @@ public class RecordingLog implements AutoCloseable
                 ", logPosition=" + logPosition +
                 ", timestamp=" + timestamp +
                 ", serviceId=" + serviceId +
+                ", partIndex=" + partIndex +
                 '}';
         }
     }
@@ -260,6 +307,7 @@ public class RecordingLog implements AutoCloseable
         public final long appendedLogPosition;
         public final long committedLogPosition;
         public final ArrayList<Snapshot> snapshots;
+        public final ArrayList<Snapshot> snapshotParts;
         public final Log log;
 
         public RecoveryPlan(
@@ -269,12 +317,32 @@ public class RecordingLog implements AutoCloseable
             final long committedLogPosition,
             final ArrayList<Snapshot> snapshots,
             final Log log)
+        {
+            this(
+                lastLeadershipTermId,
+                lastTermBaseLogPosition,
+                appendedLogPosition,
+                committedLogPosition,
+                snapshots,
+                new ArrayList<>(),
+                log);
+        }
+
+        public RecoveryPlan(
+            final long lastLeadershipTermId,
+            final long lastTermBaseLogPosition,
+            final long appendedLogPosition,
+            final long committedLogPosition,
+            final ArrayList<Snapshot> snapshots,
+            final ArrayList<Snapshot> snapshotParts,
+            final Log log)
         {
             this.lastLeadershipTermId = lastLeadershipTermId;
             this.lastTermBaseLogPosition = lastTermBaseLogPosition;
             this.appendedLogPosition = appendedLogPosition;
             this.committedLogPosition = committedLogPosition;
             this.snapshots = snapshots;
+            this.snapshotParts = snapshotParts;
             this.log = log;
         }
 
@@ -302,6 +370,7 @@ public class RecordingLog implements AutoCloseable
                 ", appendedLogPosition=" + appendedLogPosition +
                 ", committedLogPosition=" + committedLogPosition +
                 ", snapshots=" + snapshots +
+                ", snapshotParts=" + snapshotParts +
                 ", logs" + log +
                 '}';
         }
@@ -312,6 +381,11 @@ public class RecordingLog implements AutoCloseable
      */
     public static final String RECORDING_LOG_FILE_NAME = "recording.log";
 
+    /**
+     * Temporary file to which the log is written when compacted before replacing {@link #RECORDING_LOG_FILE_NAME}.
+     */
+    public static final String RECORDING_LOG_COMPACTION_FILE_NAME = "recording.log.tmp";
+
     /**
      * The log entry is for a recording of messages within a leadership term to the log.
      */
@@ -322,6 +396,11 @@ public class RecordingLog implements AutoCloseable
      */
     public static final int ENTRY_TYPE_SNAPSHOT = 1;
 
+    /**
+     * The log entry is for a recording of a part of a service snapshot which was recorded concurrently with it.
+     */
+    public static final int ENTRY_TYPE_SNAPSHOT_PART = 2;
+
     /**
      * The offset at which the recording id for the entry is stored.
      */
@@ -363,11 +442,14 @@ public class RecordingLog implements AutoCloseable
     private static final int ENTRY_LENGTH = BitUtil.align(ENTRY_TYPE_OFFSET + SIZE_OF_INT, CACHE_LINE_LENGTH);
 
     private int nextEntryIndex;
-    private final FileChannel fileChannel;
+    private FileChannel fileChannel;
+    private final File parentDir;
     private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(4096).order(LITTLE_ENDIAN);
     private final UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
     private final ArrayList<Entry> entriesCache = new ArrayList<>();
     private final Long2LongHashMap cacheIndexByLeadershipTermIdMap = new Long2LongHashMap(NULL_VALUE);
+    private final IntArrayList termCacheIndices = new IntArrayList();
+    private final IntArrayList snapshotCacheIndices = new IntArrayList();
 
     /**
      * Create a log that appends to an existing log or creates a new one.
@@ -376,6 +458,7 @@ public class RecordingLog implements AutoCloseable
      */
     public RecordingLog(final File parentDir)
     {
+        this.parentDir = parentDir;
         final File logFile = new File(parentDir, RECORDING_LOG_FILE_NAME);
         final boolean newFile = !logFile.exists();
 
@@ -449,14 +532,14 @@ public class RecordingLog implements AutoCloseable
     public void reload()
     {
         entriesCache.clear();
-        cacheIndexByLeadershipTermIdMap.clear();
-        cacheIndexByLeadershipTermIdMap.compact();
+        clearIndexes();
 
         nextEntryIndex = 0;
         byteBuffer.clear();
 
         try
         {
+            fileChannel.position(0);
             while (true)
             {
                 final int bytes = fileChannel.read(byteBuffer);
@@ -493,16 +576,9 @@ public class RecordingLog implements AutoCloseable
      */
     public long findLastTermRecordingId()
     {
-        for (int i = entriesCache.size() - 1; i >= 0; i--)
-        {
-            final Entry entry = entriesCache.get(i);
-            if (ENTRY_TYPE_TERM == entry.type)
-            {
-                return entry.recordingId;
-            }
-        }
+        final Entry lastTerm = findLastTerm();
 
-        return RecordingPos.NULL_RECORDING_ID;
+        return null != lastTerm ? lastTerm.recordingId : RecordingPos.NULL_RECORDING_ID;
     }
 
     /**
@@ -512,16 +588,9 @@ public class RecordingLog implements AutoCloseable
      */
     public Entry findLastTerm()
     {
-        for (int i = entriesCache.size() - 1; i >= 0; i--)
-        {
-            final Entry entry = entriesCache.get(i);
-            if (ENTRY_TYPE_TERM == entry.type)
-            {
-                return entry;
-            }
-        }
+        final int size = termCacheIndices.size();
 
-        return null;
+        return size > 0 ? entriesCache.get(termCacheIndices.getInt(size - 1)) : null;
     }
 
     /**
@@ -549,24 +618,21 @@ public class RecordingLog implements AutoCloseable
      */
     public Entry getLatestSnapshot(final int serviceId)
     {
-        for (int i = entriesCache.size() - 1; i >= 0; i--)
+        for (int j = snapshotCacheIndices.size() - 1; j >= 0; j--)
         {
-            final Entry entry = entriesCache.get(i);
-            if (ENTRY_TYPE_SNAPSHOT == entry.type && ConsensusModule.Configuration.SERVICE_ID == entry.serviceId)
+            final int i = snapshotCacheIndices.getInt(j);
+            if (ConsensusModule.Configuration.SERVICE_ID == serviceId)
             {
-                if (ConsensusModule.Configuration.SERVICE_ID == serviceId)
-                {
-                    return entry;
-                }
+                return entriesCache.get(i);
+            }
 
-                final int serviceSnapshotIndex = i - (serviceId + 1);
-                if (serviceSnapshotIndex > 0)
+            final int serviceSnapshotIndex = i - (serviceId + 1);
+            if (serviceSnapshotIndex >= 0)
+            {
+                final Entry snapshot = entriesCache.get(serviceSnapshotIndex);
+                if (ENTRY_TYPE_SNAPSHOT == snapshot.type && serviceId == snapshot.serviceId)
                 {
-                    final Entry snapshot = entriesCache.get(serviceSnapshotIndex);
-                    if (ENTRY_TYPE_SNAPSHOT == snapshot.type && serviceId == snapshot.serviceId)
-                    {
-                        return snapshot;
-                    }
+                    return snapshot;
                 }
             }
         }
@@ -581,27 +647,22 @@ public class RecordingLog implements AutoCloseable
      */
     public boolean tombstoneLatestSnapshot()
     {
-        int index = -1;
-        for (int i = entriesCache.size() - 1; i >= 0; i--)
-        {
-            final Entry entry = entriesCache.get(i);
-            if (ENTRY_TYPE_SNAPSHOT == entry.type && ConsensusModule.Configuration.SERVICE_ID == entry.serviceId)
-            {
-                index = i;
-                break;
-            }
-        }
-
-        if (index >= 0)
+        final int size = snapshotCacheIndices.size();
+        if (size > 0)
         {
+            final Entry snapshot = entriesCache.get(snapshotCacheIndices.getInt(size - 1));
             int serviceId = ConsensusModule.Configuration.SERVICE_ID;
-            for (int i = index; i >= 0; i--)
+            for (int i = snapshotCacheIndices.getInt(size - 1); i >= 0; i--)
             {
                 final Entry entry = entriesCache.get(i);
-                if (ENTRY_TYPE_SNAPSHOT == entry.type && entry.serviceId == serviceId)
+                if ((ENTRY_TYPE_SNAPSHOT == entry.type && entry.serviceId == serviceId) ||
+                    (ENTRY_TYPE_SNAPSHOT_PART == entry.type && isSameSnapshot(entry, snapshot)))
                 {
                     tombstoneEntry(entry.leadershipTermId, entry.entryIndex);
-                    serviceId++;
+                    if (ENTRY_TYPE_SNAPSHOT == entry.type)
+                    {
+                        serviceId++;
+                    }
                 }
                 else
                 {
@@ -643,8 +704,9 @@ public class RecordingLog implements AutoCloseable
     public RecoveryPlan createRecoveryPlan(final AeronArchive archive, final int serviceCount)
     {
         final ArrayList<Snapshot> snapshots = new ArrayList<>();
+        final ArrayList<Snapshot> snapshotParts = new ArrayList<>();
         final MutableReference<Log> logRef = new MutableReference<>();
-        planRecovery(snapshots, logRef, entriesCache, archive, serviceCount);
+        planRecovery(snapshots, snapshotParts, logRef, archive, serviceCount);
 
         long lastLeadershipTermId = NULL_VALUE;
         long lastTermBaseLogPosition = 0;
@@ -678,6 +740,7 @@ public class RecordingLog implements AutoCloseable
             appendedLogPosition,
             committedLogPosition,
             snapshots,
+            snapshotParts,
             logRef.get());
     }
 
@@ -688,6 +751,20 @@ public class RecordingLog implements AutoCloseable
      * @return a new {@link RecoveryPlan} for the cluster.
      */
     public static RecoveryPlan createRecoveryPlan(final ArrayList<RecordingLog.Snapshot> snapshots)
+    {
+        return createRecoveryPlan(snapshots, new ArrayList<>());
+    }
+
+    /**
+     * Create a recovery plan that has only snapshots and the parts of service snapshots. Used for dynamicJoin
+     * snapshot load.
+     *
+     * @param snapshots     to construct plan from.
+     * @param snapshotParts of the service snapshots in order of service id and then part index.
+     * @return a new {@link RecoveryPlan} for the cluster.
+     */
+    public static RecoveryPlan createRecoveryPlan(
+        final ArrayList<RecordingLog.Snapshot> snapshots, final ArrayList<RecordingLog.Snapshot> snapshotParts)
     {
         long lastLeadershipTermId = NULL_VALUE;
         long lastTermBaseLogPosition = 0;
@@ -711,6 +788,7 @@ public class RecordingLog implements AutoCloseable
             appendedLogPosition,
             committedLogPosition,
             snapshots,
+            snapshotParts,
             null);
     }
 
@@ -761,8 +839,6 @@ public class RecordingLog implements AutoCloseable
             NULL_POSITION,
             timestamp,
             NULL_VALUE);
-
-        cacheIndexByLeadershipTermIdMap.put(leadershipTermId, entriesCache.size() - 1);
     }
 
     /**
@@ -805,6 +881,47 @@ public class RecordingLog implements AutoCloseable
             serviceId);
     }
 
+    /**
+     * Append a log entry for a part of a service snapshot. Parts must be appended before the snapshots taken at the
+     * same position, in order of service id and then part index.
+     *
+     * @param recordingId         in the archive for the part of the snapshot.
+     * @param leadershipTermId    for the current term
+     * @param termBaseLogPosition at the beginning of the leadership term.
+     * @param logPosition         for the position in the current term or length so far for that term.
+     * @param timestamp           at which the snapshot was taken.
+     * @param serviceId           for which the snapshot is recorded.
+     */
+    public void appendSnapshotPart(
+        final long recordingId,
+        final long leadershipTermId,
+        final long termBaseLogPosition,
+        final long logPosition,
+        final long timestamp,
+        final int serviceId)
+    {
+        final int size = entriesCache.size();
+        if (size > 0)
+        {
+            final Entry entry = entriesCache.get(size - 1);
+
+            if (entry.type == ENTRY_TYPE_TERM && entry.leadershipTermId != leadershipTermId)
+            {
+                throw new ClusterException("leadershipTermId out of sequence: previous " +
+                    entry.leadershipTermId + " this " + leadershipTermId);
+            }
+        }
+
+        append(
+            ENTRY_TYPE_SNAPSHOT_PART,
+            recordingId,
+            leadershipTermId,
+            termBaseLogPosition,
+            logPosition,
+            timestamp,
+            serviceId);
+    }
+
     /**
      * Commit the log position reached in a leadership term.
      *
@@ -844,41 +961,18 @@ public class RecordingLog implements AutoCloseable
      */
     public void tombstoneEntry(final long leadershipTermId, final int entryIndex)
     {
-        int index = -1;
-        for (int i = entriesCache.size() - 1; i >= 0; i--)
-        {
-            final Entry entry = entriesCache.get(i);
-            if (entry.leadershipTermId == leadershipTermId && entry.entryIndex == entryIndex)
-            {
-                index = entry.entryIndex;
-                entriesCache.remove(i);
-
-                if (ENTRY_TYPE_TERM == entry.type)
-                {
-                    cacheIndexByLeadershipTermIdMap.remove(leadershipTermId);
-                }
-
-                for (int j = i, size = entriesCache.size(); j < size; j++)
-                {
-                    final Entry e = entriesCache.get(j);
-                    if (ENTRY_TYPE_TERM == entry.type)
-                    {
-                        cacheIndexByLeadershipTermIdMap.put(e.leadershipTermId, j);
-                    }
-                }
-
-                break;
-            }
-        }
-
-        if (-1 == index)
+        final int cacheIndex = findCacheIndex(entryIndex);
+        if (-1 == cacheIndex || entriesCache.get(cacheIndex).leadershipTermId != leadershipTermId)
         {
             throw new ClusterException("unknown entry index: " + entryIndex);
         }
 
+        final Entry entry = entriesCache.remove(cacheIndex);
+        removeFromIndexes(entry, cacheIndex);
+
         buffer.putInt(0, NULL_VALUE, LITTLE_ENDIAN);
         byteBuffer.limit(SIZE_OF_INT).position(0);
-        final long filePosition = (index * (long)ENTRY_LENGTH) + ENTRY_TYPE_OFFSET;
+        final long filePosition = (entryIndex * (long)ENTRY_LENGTH) + ENTRY_TYPE_OFFSET;
 
         try
         {
@@ -893,6 +987,89 @@ public class RecordingLog implements AutoCloseable
         }
     }
 
+    /**
+     * Compact the log by rewriting it without the entries which have been tombstoned. The compacted log is written
+     * to {@link #RECORDING_LOG_COMPACTION_FILE_NAME} and then atomically moved over the existing log so a failure
+     * part way through leaves the existing log intact.
+     * <p>
+     * The {@link Entry#entryIndex} of the remaining entries will change so they should be looked up again. The log
+     * must not be open by another process while it is compacted.
+     *
+     * @return the number of tombstoned entries which were removed.
+     */
+    public int compact()
+    {
+        final int size = entriesCache.size();
+        final int removedCount = nextEntryIndex - size;
+        if (0 == removedCount)
+        {
+            return 0;
+        }
+
+        final File logFile = new File(parentDir, RECORDING_LOG_FILE_NAME);
+        final File compactedFile = new File(parentDir, RECORDING_LOG_COMPACTION_FILE_NAME);
+        try
+        {
+            try (FileChannel compactedChannel = FileChannel.open(
+                compactedFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE))
+            {
+                for (int i = 0; i < size; i++)
+                {
+                    final Entry entry = entriesCache.get(i);
+                    encodeEntry(
+                        entry.type,
+                        entry.recordingId,
+                        entry.leadershipTermId,
+                        entry.termBaseLogPosition,
+                        entry.logPosition,
+                        entry.timestamp,
+                        entry.serviceId);
+
+                    if (ENTRY_LENGTH != compactedChannel.write(byteBuffer))
+                    {
+                        throw new ClusterException("failed to write entry atomically");
+                    }
+                }
+
+                compactedChannel.force(true);
+            }
+
+            fileChannel.close();
+            try
+            {
+                Files.move(compactedFile.toPath(), logFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+                syncDirectory(parentDir);
+            }
+            finally
+            {
+                fileChannel = FileChannel.open(logFile.toPath(), READ, WRITE);
+                fileChannel.position(fileChannel.size());
+            }
+        }
+        catch (final IOException ex)
+        {
+            throw new ClusterException(ex);
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            final Entry entry = entriesCache.get(i);
+            entriesCache.set(i, new Entry(
+                entry.recordingId,
+                entry.leadershipTermId,
+                entry.termBaseLogPosition,
+                entry.logPosition,
+                entry.timestamp,
+                entry.serviceId,
+                entry.type,
+                i));
+        }
+
+        nextEntryIndex = size;
+
+        return removedCount;
+    }
+
     public String toString()
     {
         return "RecordingLog{" +
@@ -910,15 +1087,7 @@ public class RecordingLog implements AutoCloseable
         final long timestamp,
         final int serviceId)
     {
-        buffer.putLong(RECORDING_ID_OFFSET, recordingId, LITTLE_ENDIAN);
-        buffer.putLong(LEADERSHIP_TERM_ID_OFFSET, leadershipTermId, LITTLE_ENDIAN);
-        buffer.putLong(TERM_BASE_LOG_POSITION_OFFSET, termBaseLogPosition, LITTLE_ENDIAN);
-        buffer.putLong(LOG_POSITION_OFFSET, logPosition, LITTLE_ENDIAN);
-        buffer.putLong(TIMESTAMP_OFFSET, timestamp, LITTLE_ENDIAN);
-        buffer.putInt(SERVICE_ID_OFFSET, serviceId, LITTLE_ENDIAN);
-        buffer.putInt(ENTRY_TYPE_OFFSET, entryType, LITTLE_ENDIAN);
-
-        byteBuffer.limit(ENTRY_LENGTH).position(0);
+        encodeEntry(entryType, recordingId, leadershipTermId, termBaseLogPosition, logPosition, timestamp, serviceId);
 
         try
         {
@@ -942,6 +1111,135 @@ public class RecordingLog implements AutoCloseable
             serviceId,
             entryType,
             entryIndex));
+
+        indexEntry(entriesCache.get(entriesCache.size() - 1), entriesCache.size() - 1);
+    }
+
+    private void encodeEntry(
+        final int entryType,
+        final long recordingId,
+        final long leadershipTermId,
+        final long termBaseLogPosition,
+        final long logPosition,
+        final long timestamp,
+        final int serviceId)
+    {
+        buffer.putLong(RECORDING_ID_OFFSET, recordingId, LITTLE_ENDIAN);
+        buffer.putLong(LEADERSHIP_TERM_ID_OFFSET, leadershipTermId, LITTLE_ENDIAN);
+        buffer.putLong(TERM_BASE_LOG_POSITION_OFFSET, termBaseLogPosition, LITTLE_ENDIAN);
+        buffer.putLong(LOG_POSITION_OFFSET, logPosition, LITTLE_ENDIAN);
+        buffer.putLong(TIMESTAMP_OFFSET, timestamp, LITTLE_ENDIAN);
+        buffer.putInt(SERVICE_ID_OFFSET, serviceId, LITTLE_ENDIAN);
+        buffer.putInt(ENTRY_TYPE_OFFSET, entryType, LITTLE_ENDIAN);
+
+        byteBuffer.limit(ENTRY_LENGTH).position(0);
+    }
+
+    private void indexEntry(final Entry entry, final int cacheIndex)
+    {
+        if (ENTRY_TYPE_TERM == entry.type)
+        {
+            cacheIndexByLeadershipTermIdMap.put(entry.leadershipTermId, cacheIndex);
+            termCacheIndices.addInt(cacheIndex);
+        }
+        else if (ENTRY_TYPE_SNAPSHOT == entry.type && ConsensusModule.Configuration.SERVICE_ID == entry.serviceId)
+        {
+            snapshotCacheIndices.addInt(cacheIndex);
+        }
+    }
+
+    private void clearIndexes()
+    {
+        cacheIndexByLeadershipTermIdMap.clear();
+        termCacheIndices.clear();
+        snapshotCacheIndices.clear();
+    }
+
+    private void removeFromIndexes(final Entry entry, final int cacheIndex)
+    {
+        for (int i = termCacheIndices.size() - 1; i >= 0; i--)
+        {
+            final int index = termCacheIndices.getInt(i);
+            if (index < cacheIndex)
+            {
+                break;
+            }
+
+            if (index == cacheIndex)
+            {
+                termCacheIndices.removeAt(i);
+            }
+            else
+            {
+                termCacheIndices.setInt(i, index - 1);
+
+                final long leadershipTermId = entriesCache.get(index - 1).leadershipTermId;
+                if (cacheIndexByLeadershipTermIdMap.get(leadershipTermId) == index)
+                {
+                    cacheIndexByLeadershipTermIdMap.put(leadershipTermId, index - 1);
+                }
+            }
+        }
+
+        if (ENTRY_TYPE_TERM == entry.type &&
+            cacheIndexByLeadershipTermIdMap.get(entry.leadershipTermId) == cacheIndex)
+        {
+            cacheIndexByLeadershipTermIdMap.remove(entry.leadershipTermId);
+            for (int i = termCacheIndices.size() - 1; i >= 0; i--)
+            {
+                final int index = termCacheIndices.getInt(i);
+                if (entriesCache.get(index).leadershipTermId == entry.leadershipTermId)
+                {
+                    cacheIndexByLeadershipTermIdMap.put(entry.leadershipTermId, index);
+                    break;
+                }
+            }
+        }
+
+        for (int i = snapshotCacheIndices.size() - 1; i >= 0; i--)
+        {
+            final int index = snapshotCacheIndices.getInt(i);
+            if (index < cacheIndex)
+            {
+                break;
+            }
+
+            if (index == cacheIndex)
+            {
+                snapshotCacheIndices.removeAt(i);
+            }
+            else
+            {
+                snapshotCacheIndices.setInt(i, index - 1);
+            }
+        }
+    }
+
+    private int findCacheIndex(final int entryIndex)
+    {
+        int low = 0;
+        int high = entriesCache.size() - 1;
+
+        while (low <= high)
+        {
+            final int mid = (low + high) >>> 1;
+            final int midEntryIndex = entriesCache.get(mid).entryIndex;
+
+            if (midEntryIndex < entryIndex)
+            {
+                low = mid + 1;
+            }
+            else if (midEntryIndex > entryIndex)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+
+        return -1;
     }
 
     private void captureEntriesFromBuffer(
@@ -964,11 +1262,7 @@ public class RecordingLog implements AutoCloseable
                     nextEntryIndex);
 
                 entries.add(entry);
-
-                if (ENTRY_TYPE_TERM == entryType)
-                {
-                    cacheIndexByLeadershipTermIdMap.put(entry.leadershipTermId, entries.size() - 1);
-                }
+                indexEntry(entry, entries.size() - 1);
             }
 
             ++nextEntryIndex;
@@ -1005,34 +1299,29 @@ public class RecordingLog implements AutoCloseable
         }
     }
 
-    private static void planRecovery(
+    private void planRecovery(
         final ArrayList<Snapshot> snapshots,
+        final ArrayList<Snapshot> snapshotParts,
         final MutableReference<Log> logRef,
-        final ArrayList<Entry> entries,
         final AeronArchive archive,
         final int serviceCount)
     {
+        final ArrayList<Entry> entries = entriesCache;
         if (entries.isEmpty())
         {
             return;
         }
 
+        final int snapshotCount = snapshotCacheIndices.size();
+        final int snapshotIndex = snapshotCount > 0 ? snapshotCacheIndices.getInt(snapshotCount - 1) : -1;
+
         int logIndex = -1;
-        int snapshotIndex = -1;
-        for (int i = entries.size() - 1; i >= 0; i--)
+        for (int i = termCacheIndices.size() - 1; i >= 0; i--)
         {
-            final Entry entry = entries.get(i);
-            if (-1 == snapshotIndex && ENTRY_TYPE_SNAPSHOT == entry.type &&
-                entry.serviceId == ConsensusModule.Configuration.SERVICE_ID)
-            {
-                snapshotIndex = i;
-            }
-            else if (-1 == logIndex && ENTRY_TYPE_TERM == entry.type && NULL_VALUE != entry.recordingId)
-            {
-                logIndex = i;
-            }
-            else if (-1 != snapshotIndex && -1 != logIndex)
+            final int termIndex = termCacheIndices.getInt(i);
+            if (NULL_VALUE != entries.get(termIndex).recordingId)
             {
+                logIndex = termIndex;
                 break;
             }
         }
@@ -1040,6 +1329,7 @@ public class RecordingLog implements AutoCloseable
         if (-1 != snapshotIndex)
         {
             addSnapshots(snapshots, entries, serviceCount, snapshotIndex);
+            addSnapshotParts(snapshotParts, entries, serviceCount, snapshotIndex);
         }
 
         if (-1 != logIndex)
@@ -1106,4 +1396,47 @@ public class RecordingLog implements AutoCloseable
             }
         }
     }
+
+    static void addSnapshotParts(
+        final ArrayList<Snapshot> snapshotParts,
+        final ArrayList<Entry> entries,
+        final int serviceCount,
+        final int snapshotIndex)
+    {
+        final Entry snapshot = entries.get(snapshotIndex);
+        int firstPartIndex = snapshotIndex - serviceCount;
+        while (firstPartIndex > 0)
+        {
+            final Entry entry = entries.get(firstPartIndex - 1);
+            if (ENTRY_TYPE_SNAPSHOT_PART != entry.type || !isSameSnapshot(entry, snapshot))
+            {
+                break;
+            }
+
+            firstPartIndex--;
+        }
+
+        int serviceId = NULL_VALUE;
+        int partIndex = 0;
+        for (int i = Math.max(firstPartIndex, 0), end = snapshotIndex - serviceCount; i < end; i++)
+        {
+            final Entry entry = entries.get(i);
+            partIndex = entry.serviceId == serviceId ? partIndex + 1 : 0;
+            serviceId = entry.serviceId;
+
+            snapshotParts.add(new Snapshot(
+                entry.recordingId,
+                entry.leadershipTermId,
+                entry.termBaseLogPosition,
+                entry.logPosition,
+                entry.timestamp,
+                entry.serviceId,
+                partIndex));
+        }
+    }
+
+    private static boolean isSameSnapshot(final Entry entry, final Entry snapshot)
+    {
+        return entry.leadershipTermId == snapshot.leadershipTermId && entry.logPosition == snapshot.logPosition;
+    }
 }
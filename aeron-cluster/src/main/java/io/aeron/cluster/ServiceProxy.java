@@ -21,6 +21,7 @@ import io.aeron.cluster.codecs.*;
 import io.aeron.exceptions.AeronException;
 import io.aeron.logbuffer.BufferClaim;
 import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
 import org.agrona.ExpandableArrayBuffer;
 
 final class ServiceProxy implements AutoCloseable
@@ -36,6 +37,7 @@ final class ServiceProxy implements AutoCloseable
     private final ElectionStartEventEncoder electionStartEventEncoder = new ElectionStartEventEncoder();
     private final ClusterMembersExtendedResponseEncoder clusterMembersExtendedResponseEncoder =
         new ClusterMembersExtendedResponseEncoder();
+    private final ServiceReadQueryEncoder serviceReadQueryEncoder = new ServiceReadQueryEncoder();
     private final ExpandableArrayBuffer expandableArrayBuffer = new ExpandableArrayBuffer();
     private final Publication publication;
 
@@ -56,6 +58,7 @@ final class ServiceProxy implements AutoCloseable
         final int memberId,
         final int logSessionId,
         final int logStreamId,
+        final long logRecordingId,
         final String channel)
     {
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + JoinLogEncoder.BLOCK_LENGTH +
@@ -75,6 +78,7 @@ final class ServiceProxy implements AutoCloseable
                     .memberId(memberId)
                     .logSessionId(logSessionId)
                     .logStreamId(logStreamId)
+                    .logRecordingId(logRecordingId)
                     .logChannel(channel);
 
                 bufferClaim.commit();
@@ -238,6 +242,47 @@ final class ServiceProxy implements AutoCloseable
         throw new ClusterException("failed to send election start event");
     }
 
+    boolean readQuery(
+        final long clusterSessionId,
+        final long correlationId,
+        final long readIndex,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        final int messageLength = MessageHeaderEncoder.ENCODED_LENGTH + ServiceReadQueryEncoder.BLOCK_LENGTH +
+            ServiceReadQueryEncoder.queryHeaderLength() + length;
+
+        if (messageLength > publication.maxPayloadLength())
+        {
+            return false;
+        }
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(messageLength, bufferClaim);
+            if (result > 0)
+            {
+                serviceReadQueryEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .clusterSessionId(clusterSessionId)
+                    .correlationId(correlationId)
+                    .readIndex(readIndex)
+                    .putQuery(buffer, offset, length);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
     private static void checkResult(final long result)
     {
         if (result == Publication.NOT_CONNECTED ||
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.agrona.DeadlineTimerWheel;
+import org.agrona.collections.Long2ObjectHashMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the deadline by which each {@link ClusterSession} must show activity so that only the sessions whose
+ * deadline has passed are visited, rather than every session on each check.
+ * <p>
+ * Activity on a session does not reschedule its deadline. When a deadline expires the time of last activity for the
+ * session is checked and if it has been active since it is rescheduled for its new deadline, so a busy session is
+ * visited at most once per session timeout.
+ */
+class SessionTimeoutWheel implements DeadlineTimerWheel.TimerHandler
+{
+    /**
+     * Handler for sessions which have had no activity within the session timeout.
+     */
+    @FunctionalInterface
+    interface TimeoutHandler
+    {
+        /**
+         * Session has had no activity within the session timeout.
+         *
+         * @param session which has timed out.
+         * @param nowNs   current time.
+         * @return true if the timeout has been handled or false if it should be retried on the next poll.
+         */
+        boolean onSessionTimeout(ClusterSession session, long nowNs);
+    }
+
+    private static final int POLL_LIMIT = 100;
+
+    private boolean isAbort;
+    private final long sessionTimeoutNs;
+    private final long tickResolutionNs;
+    private final int ticksPerWheel;
+    private final TimeoutHandler timeoutHandler;
+    private final Long2ObjectHashMap<ClusterSession> sessionByTimerIdMap = new Long2ObjectHashMap<>();
+    private DeadlineTimerWheel timerWheel;
+
+    SessionTimeoutWheel(
+        final TimeoutHandler timeoutHandler,
+        final long sessionTimeoutNs,
+        final long tickResolutionNs,
+        final int ticksPerWheel)
+    {
+        this.timeoutHandler = timeoutHandler;
+        this.sessionTimeoutNs = sessionTimeoutNs;
+        this.tickResolutionNs = tickResolutionNs;
+        this.ticksPerWheel = ticksPerWheel;
+        timerWheel = new DeadlineTimerWheel(TimeUnit.NANOSECONDS, 0, tickResolutionNs, ticksPerWheel);
+    }
+
+    /**
+     * Discard all tracked sessions and restart the wheel from the current time.
+     *
+     * @param nowNs current time.
+     */
+    void reset(final long nowNs)
+    {
+        sessionByTimerIdMap.clear();
+        timerWheel = new DeadlineTimerWheel(TimeUnit.NANOSECONDS, nowNs, tickResolutionNs, ticksPerWheel);
+    }
+
+    /**
+     * Track a session from its time of last activity.
+     *
+     * @param session to be tracked.
+     */
+    void add(final ClusterSession session)
+    {
+        schedule(session, session.timeOfLastActivityNs() + sessionTimeoutNs);
+    }
+
+    int size()
+    {
+        return sessionByTimerIdMap.size();
+    }
+
+    /**
+     * Poll for sessions whose deadline has passed, handling those which have timed out and rescheduling those which
+     * have been active.
+     *
+     * @param nowNs current time.
+     * @return the number of sessions visited.
+     */
+    int poll(final long nowNs)
+    {
+        int expired = 0;
+        isAbort = false;
+
+        do
+        {
+            expired += timerWheel.poll(nowNs, this, POLL_LIMIT);
+
+            if (isAbort)
+            {
+                break;
+            }
+        }
+        while (expired < POLL_LIMIT && timerWheel.currentTickTime() < nowNs);
+
+        return expired;
+    }
+
+    public boolean onTimerExpiry(final TimeUnit timeUnit, final long now, final long timerId)
+    {
+        final ClusterSession session = sessionByTimerIdMap.remove(timerId);
+        if (null == session)
+        {
+            return true;
+        }
+
+        final long deadlineNs = session.timeOfLastActivityNs() + sessionTimeoutNs;
+        if (now > deadlineNs)
+        {
+            if (!timeoutHandler.onSessionTimeout(session, now))
+            {
+                sessionByTimerIdMap.put(timerId, session);
+                isAbort = true;
+                return false;
+            }
+        }
+        else
+        {
+            schedule(session, Math.max(deadlineNs, now + tickResolutionNs));
+        }
+
+        return true;
+    }
+
+    private void schedule(final ClusterSession session, final long deadlineNs)
+    {
+        sessionByTimerIdMap.put(timerWheel.scheduleTimer(deadlineNs), session);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import java.util.ArrayList;
+import java.util.function.LongConsumer;
+
+import static io.aeron.Aeron.NULL_VALUE;
+
+/**
+ * Local recordings of snapshots, complete or partial, which have been transferred from a cluster but not yet added
+ * to the {@link RecordingLog} so they can be reused or resumed rather than transferred again in full after the
+ * backup is reset.
+ * <p>
+ * A transfer is only reused for a snapshot with the same identity, i.e. service, leadership term, log position and
+ * timestamp, and the same length of recording in the cluster. One transfer is kept per service, and per part of a
+ * multi-part service snapshot, as only the latest snapshot for a service is retrieved.
+ */
+class SnapshotTransferCache
+{
+    static final class Transfer
+    {
+        final RecordingLog.Snapshot snapshot;
+        final long length;
+        final long dstRecordingId;
+
+        Transfer(final RecordingLog.Snapshot snapshot, final long length, final long dstRecordingId)
+        {
+            this.snapshot = snapshot;
+            this.length = length;
+            this.dstRecordingId = dstRecordingId;
+        }
+    }
+
+    private final ArrayList<Transfer> transfers = new ArrayList<>(4);
+
+    /**
+     * Retain the local recording of a snapshot transfer, replacing any previous transfer for the same service and
+     * part.
+     *
+     * @param snapshot       in the cluster which was transferred.
+     * @param length         of the snapshot recording in the cluster.
+     * @param dstRecordingId of the local recording the snapshot was transferred to.
+     * @return the local recording id of a replaced transfer to a different recording, which is no longer of use, or
+     * {@link io.aeron.Aeron#NULL_VALUE} if none.
+     */
+    long retain(final RecordingLog.Snapshot snapshot, final long length, final long dstRecordingId)
+    {
+        final long replacedRecordingId = remove(snapshot.serviceId, snapshot.partIndex);
+        transfers.add(new Transfer(snapshot, length, dstRecordingId));
+
+        return replacedRecordingId != dstRecordingId ? replacedRecordingId : NULL_VALUE;
+    }
+
+    /**
+     * Find the local recording of a previous transfer of the same snapshot.
+     *
+     * @param snapshot in the cluster to be transferred.
+     * @param length   of the snapshot recording in the cluster.
+     * @return the local recording id of a previous transfer or {@link io.aeron.Aeron#NULL_VALUE} if none.
+     */
+    long findRecordingId(final RecordingLog.Snapshot snapshot, final long length)
+    {
+        for (int i = 0, size = transfers.size(); i < size; i++)
+        {
+            final Transfer transfer = transfers.get(i);
+            final RecordingLog.Snapshot retained = transfer.snapshot;
+
+            if (retained.serviceId == snapshot.serviceId &&
+                retained.partIndex == snapshot.partIndex &&
+                retained.leadershipTermId == snapshot.leadershipTermId &&
+                retained.termBaseLogPosition == snapshot.termBaseLogPosition &&
+                retained.logPosition == snapshot.logPosition &&
+                retained.timestamp == snapshot.timestamp &&
+                transfer.length == length)
+            {
+                return transfer.dstRecordingId;
+            }
+        }
+
+        return NULL_VALUE;
+    }
+
+    /**
+     * Remove the transfer for a service and part, such as when it is found to be unusable.
+     *
+     * @param serviceId for the snapshot.
+     * @param partIndex of the part of the snapshot or {@link io.aeron.Aeron#NULL_VALUE} if not a part.
+     * @return the local recording id of the removed transfer or {@link io.aeron.Aeron#NULL_VALUE} if none.
+     */
+    long remove(final int serviceId, final int partIndex)
+    {
+        for (int i = 0, size = transfers.size(); i < size; i++)
+        {
+            final Transfer transfer = transfers.get(i);
+            if (transfer.snapshot.serviceId == serviceId && transfer.snapshot.partIndex == partIndex)
+            {
+                transfers.remove(i);
+                return transfer.dstRecordingId;
+            }
+        }
+
+        return NULL_VALUE;
+    }
+
+    /**
+     * Remove all transfers, such as once they have been added to the {@link RecordingLog}.
+     */
+    void clear()
+    {
+        transfers.clear();
+    }
+
+    /**
+     * Remove all transfers which will not be added to the {@link RecordingLog}, such as on close, passing the local
+     * recording ids to the consumer so they can be deleted.
+     *
+     * @param recordingIdConsumer for the local recordings of the removed transfers.
+     */
+    void discardAll(final LongConsumer recordingIdConsumer)
+    {
+        for (int i = 0, size = transfers.size(); i < size; i++)
+        {
+            recordingIdConsumer.accept(transfers.get(i).dstRecordingId);
+        }
+
+        transfers.clear();
+    }
+
+    /**
+     * Number of transfers retained.
+     *
+     * @return number of transfers retained.
+     */
+    int size()
+    {
+        return transfers.size();
+    }
+}
@@ -18,17 +18,34 @@ package io.aeron.cluster;
 import org.agrona.DeadlineTimerWheel;
 import org.agrona.collections.Long2LongHashMap;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Timers for the cluster which are held in a {@link DeadlineTimerWheel} when due within one rotation of the wheel,
+ * and in an overflow min-heap ordered by deadline when due further in the future. Timers migrate from the overflow
+ * into the wheel as the wheel advances, so the wheel only ever visits timers which are due within one rotation.
+ * <p>
+ * Timers cancelled while in the overflow are removed lazily from the heap, which is compacted when the dead entries
+ * outnumber the live ones.
+ */
 class TimerService implements DeadlineTimerWheel.TimerHandler
 {
     private static final int POLL_LIMIT = 20;
+    private static final int MIGRATION_LIMIT = 1000;
+    private static final int INITIAL_OVERFLOW_CAPACITY = 64;
 
     private boolean isAbort;
+    private boolean isBulkLoading;
+    private int overflowSize;
+    private final long wheelSpan;
     private final ConsensusModuleAgent consensusModuleAgent;
     private final DeadlineTimerWheel timerWheel;
     private final Long2LongHashMap timerIdByCorrelationIdMap = new Long2LongHashMap(Long.MAX_VALUE);
     private final Long2LongHashMap correlationIdByTimerIdMap = new Long2LongHashMap(Long.MAX_VALUE);
+    private final Long2LongHashMap overflowDeadlineByCorrelationIdMap = new Long2LongHashMap(Long.MIN_VALUE);
+    private long[] overflowDeadlines = new long[INITIAL_OVERFLOW_CAPACITY];
+    private long[] overflowCorrelationIds = new long[INITIAL_OVERFLOW_CAPACITY];
 
     TimerService(
         final ConsensusModuleAgent consensusModuleAgent,
@@ -39,6 +56,7 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
     {
         this.consensusModuleAgent = consensusModuleAgent;
         timerWheel = new DeadlineTimerWheel(timeUnit, startTime, tickResolution, ticksPerWheel);
+        wheelSpan = tickResolution * ticksPerWheel;
     }
 
     int poll(final long now)
@@ -48,6 +66,7 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
 
         do
         {
+            migrateOverflowTimers();
             expired += timerWheel.poll(now, this, POLL_LIMIT);
 
             if (isAbort)
@@ -70,6 +89,11 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
         timerWheel.currentTickTime(timestamp);
     }
 
+    int timerCount()
+    {
+        return timerIdByCorrelationIdMap.size() + overflowDeadlineByCorrelationIdMap.size();
+    }
+
     public boolean onTimerExpiry(final TimeUnit timeUnit, final long now, final long timerId)
     {
         final long correlationId = correlationIdByTimerIdMap.get(timerId);
@@ -93,9 +117,15 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
     {
         cancelTimer(correlationId);
 
-        final long timerId = timerWheel.scheduleTimer(deadline);
-        timerIdByCorrelationIdMap.put(correlationId, timerId);
-        correlationIdByTimerIdMap.put(timerId, correlationId);
+        if (isBulkLoading || deadline - timerWheel.currentTickTime() >= wheelSpan)
+        {
+            overflowDeadlineByCorrelationIdMap.put(correlationId, deadline);
+            addOverflowEntry(correlationId, deadline);
+        }
+        else
+        {
+            scheduleWheelTimer(correlationId, deadline);
+        }
     }
 
     boolean cancelTimer(final long correlationId)
@@ -109,9 +139,38 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
             return true;
         }
 
+        if (Long.MIN_VALUE != overflowDeadlineByCorrelationIdMap.remove(correlationId))
+        {
+            if (overflowSize > INITIAL_OVERFLOW_CAPACITY &&
+                overflowSize > (overflowDeadlineByCorrelationIdMap.size() << 1))
+            {
+                compactOverflow();
+            }
+
+            return true;
+        }
+
         return false;
     }
 
+    /**
+     * Begin loading timers from a snapshot, during which all timers are appended to the overflow without ordering.
+     */
+    void beginBulkLoad()
+    {
+        isBulkLoading = true;
+    }
+
+    /**
+     * End loading timers from a snapshot by ordering the overflow in a single pass. Timers which are due within a
+     * rotation of the wheel migrate into the wheel on subsequent polls.
+     */
+    void endBulkLoad()
+    {
+        isBulkLoading = false;
+        compactOverflow();
+    }
+
     void snapshot(final ConsensusModuleSnapshotTaker snapshotTaker)
     {
         final Long2LongHashMap.EntryIterator iter = timerIdByCorrelationIdMap.entrySet().iterator();
@@ -125,5 +184,153 @@ class TimerService implements DeadlineTimerWheel.TimerHandler
 
             snapshotTaker.snapshotTimer(correlationId, deadline);
         }
+
+        final Long2LongHashMap.EntryIterator overflowIter = overflowDeadlineByCorrelationIdMap.entrySet().iterator();
+
+        while (overflowIter.hasNext())
+        {
+            overflowIter.next();
+
+            snapshotTaker.snapshotTimer(overflowIter.getLongKey(), overflowIter.getLongValue());
+        }
+
+        snapshotTaker.flushTimers();
+    }
+
+    private void scheduleWheelTimer(final long correlationId, final long deadline)
+    {
+        final long timerId = timerWheel.scheduleTimer(deadline);
+        timerIdByCorrelationIdMap.put(correlationId, timerId);
+        correlationIdByTimerIdMap.put(timerId, correlationId);
+    }
+
+    private void migrateOverflowTimers()
+    {
+        final long horizon = timerWheel.currentTickTime() + wheelSpan;
+        int migrated = 0;
+
+        while (overflowSize > 0 && overflowDeadlines[0] < horizon && migrated < MIGRATION_LIMIT)
+        {
+            final long deadline = overflowDeadlines[0];
+            final long correlationId = overflowCorrelationIds[0];
+            removeOverflowHead();
+
+            if (overflowDeadlineByCorrelationIdMap.get(correlationId) == deadline)
+            {
+                overflowDeadlineByCorrelationIdMap.remove(correlationId);
+                scheduleWheelTimer(correlationId, deadline);
+                migrated++;
+            }
+        }
+    }
+
+    private void addOverflowEntry(final long correlationId, final long deadline)
+    {
+        if (overflowSize == overflowDeadlines.length)
+        {
+            final int newCapacity = overflowSize << 1;
+            overflowDeadlines = Arrays.copyOf(overflowDeadlines, newCapacity);
+            overflowCorrelationIds = Arrays.copyOf(overflowCorrelationIds, newCapacity);
+        }
+
+        final int index = overflowSize++;
+        overflowDeadlines[index] = deadline;
+        overflowCorrelationIds[index] = correlationId;
+
+        if (!isBulkLoading)
+        {
+            siftUp(index);
+        }
+    }
+
+    private void removeOverflowHead()
+    {
+        final int lastIndex = --overflowSize;
+        overflowDeadlines[0] = overflowDeadlines[lastIndex];
+        overflowCorrelationIds[0] = overflowCorrelationIds[lastIndex];
+
+        if (lastIndex > 0)
+        {
+            siftDown(0);
+        }
+    }
+
+    private void compactOverflow()
+    {
+        int size = 0;
+        final Long2LongHashMap.EntryIterator iter = overflowDeadlineByCorrelationIdMap.entrySet().iterator();
+
+        while (iter.hasNext())
+        {
+            iter.next();
+
+            overflowCorrelationIds[size] = iter.getLongKey();
+            overflowDeadlines[size] = iter.getLongValue();
+            size++;
+        }
+
+        overflowSize = size;
+
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+        {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(final int index)
+    {
+        final long deadline = overflowDeadlines[index];
+        final long correlationId = overflowCorrelationIds[index];
+        int i = index;
+
+        while (i > 0)
+        {
+            final int parent = (i - 1) >> 1;
+            if (overflowDeadlines[parent] <= deadline)
+            {
+                break;
+            }
+
+            overflowDeadlines[i] = overflowDeadlines[parent];
+            overflowCorrelationIds[i] = overflowCorrelationIds[parent];
+            i = parent;
+        }
+
+        overflowDeadlines[i] = deadline;
+        overflowCorrelationIds[i] = correlationId;
+    }
+
+    private void siftDown(final int index)
+    {
+        final long deadline = overflowDeadlines[index];
+        final long correlationId = overflowCorrelationIds[index];
+        final int size = overflowSize;
+        int i = index;
+
+        while (true)
+        {
+            int child = (i << 1) + 1;
+            if (child >= size)
+            {
+                break;
+            }
+
+            if (child + 1 < size && overflowDeadlines[child + 1] < overflowDeadlines[child])
+            {
+                child++;
+            }
+
+            if (deadline <= overflowDeadlines[child])
+            {
+                break;
+            }
+
+            overflowDeadlines[i] = overflowDeadlines[child];
+            overflowCorrelationIds[i] = overflowCorrelationIds[child];
+            i = child;
+        }
+
+        overflowDeadlines[i] = deadline;
+        overflowCorrelationIds[i] = correlationId;
     }
 }
@@ -54,6 +54,18 @@ public final class AeronCluster implements AutoCloseable
     public static final int SESSION_HEADER_LENGTH =
         MessageHeaderEncoder.ENCODED_LENGTH + SessionMessageHeaderEncoder.BLOCK_LENGTH;
 
+    /**
+     * Length of a read query header for cluster ingress.
+     */
+    public static final int READ_QUERY_HEADER_LENGTH =
+        MessageHeaderEncoder.ENCODED_LENGTH + ReadQueryHeaderEncoder.BLOCK_LENGTH;
+
+    /**
+     * Length of a read query response header for cluster egress.
+     */
+    public static final int READ_QUERY_RESPONSE_HEADER_LENGTH =
+        MessageHeaderEncoder.ENCODED_LENGTH + ReadQueryResponseHeaderEncoder.BLOCK_LENGTH;
+
     private static final int SEND_ATTEMPTS = 3;
     private static final int FRAGMENT_LIMIT = 10;
 
@@ -62,23 +74,36 @@ public final class AeronCluster implements AutoCloseable
     private int leaderMemberId;
     private final Context ctx;
     private final Subscription subscription;
+    private final Subscription broadcastSubscription;
+    private Subscription ipcSubscription;
+    private boolean isIpcIngress;
     private Publication publication;
     private final IdleStrategy idleStrategy;
     private final BufferClaim bufferClaim = new BufferClaim();
     private final UnsafeBuffer headerBuffer = new UnsafeBuffer(new byte[SESSION_HEADER_LENGTH]);
     private final DirectBufferVector headerVector = new DirectBufferVector(headerBuffer, 0, SESSION_HEADER_LENGTH);
+    private final UnsafeBuffer readQueryHeaderBuffer = new UnsafeBuffer(new byte[READ_QUERY_HEADER_LENGTH]);
     private final UnsafeBuffer keepaliveMsgBuffer;
     private final MessageHeaderEncoder messageHeaderEncoder;
     private final SessionMessageHeaderEncoder sessionMessageHeaderEncoder = new SessionMessageHeaderEncoder();
     private final SessionKeepAliveEncoder sessionKeepAliveEncoder = new SessionKeepAliveEncoder();
+    private final ReadQueryHeaderEncoder readQueryHeaderEncoder = new ReadQueryHeaderEncoder();
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final SessionMessageHeaderDecoder sessionMessageHeaderDecoder = new SessionMessageHeaderDecoder();
     private final NewLeaderEventDecoder newLeaderEventDecoder = new NewLeaderEventDecoder();
     private final SessionEventDecoder sessionEventDecoder = new SessionEventDecoder();
+    private final ReadQueryResponseHeaderDecoder readQueryResponseHeaderDecoder = new ReadQueryResponseHeaderDecoder();
+    private final EgressMessageBatchDecoder egressMessageBatchDecoder = new EgressMessageBatchDecoder();
     private final FragmentAssembler fragmentAssembler;
+    private final FragmentAssembler broadcastFragmentAssembler;
+    private final FragmentAssembler ipcFragmentAssembler;
     private final EgressListener egressListener;
     private final ControlledFragmentAssembler controlledFragmentAssembler;
+    private final ControlledFragmentAssembler controlledBroadcastFragmentAssembler;
+    private final ControlledFragmentAssembler controlledIpcFragmentAssembler;
     private final ControlledEgressListener controlledEgressListener;
+    private long batchResumePosition = Aeron.NULL_VALUE;
+    private int batchResumeIndex;
     private Int2ObjectHashMap<MemberEndpoint> endpointByMemberIdMap;
 
     /**
@@ -191,6 +216,7 @@ public final class AeronCluster implements AutoCloseable
         final MessageHeaderEncoder messageHeaderEncoder,
         final Publication publication,
         final Subscription subscription,
+        final Subscription ipcSubscription,
         final Int2ObjectHashMap<MemberEndpoint> endpointByMemberIdMap,
         final long clusterSessionId,
         final long leadershipTermId,
@@ -199,6 +225,8 @@ public final class AeronCluster implements AutoCloseable
         this.ctx = ctx;
         this.messageHeaderEncoder = messageHeaderEncoder;
         this.subscription = subscription;
+        this.ipcSubscription = ipcSubscription;
+        this.isIpcIngress = null != ipcSubscription;
         this.endpointByMemberIdMap = endpointByMemberIdMap;
         this.clusterSessionId = clusterSessionId;
         this.leadershipTermId = leadershipTermId;
@@ -208,15 +236,30 @@ public final class AeronCluster implements AutoCloseable
         this.idleStrategy = ctx.idleStrategy();
         this.egressListener = ctx.egressListener();
         this.fragmentAssembler = new FragmentAssembler(this::onFragment, 0, ctx.isDirectAssemblers());
+        this.broadcastFragmentAssembler = new FragmentAssembler(this::onFragment, 0, ctx.isDirectAssemblers());
+        this.ipcFragmentAssembler = new FragmentAssembler(this::onFragment, 0, ctx.isDirectAssemblers());
         this.controlledEgressListener = ctx.controlledEgressListener();
         this.controlledFragmentAssembler = new ControlledFragmentAssembler(
             this::onControlledFragment, 0, ctx.isDirectAssemblers());
+        this.controlledBroadcastFragmentAssembler = new ControlledFragmentAssembler(
+            this::onControlledFragment, 0, ctx.isDirectAssemblers());
+        this.controlledIpcFragmentAssembler = new ControlledFragmentAssembler(
+            this::onControlledFragment, 0, ctx.isDirectAssemblers());
+
+        final String broadcastChannel = ctx.egressBroadcastChannel();
+        this.broadcastSubscription = null == broadcastChannel ?
+            null : ctx.aeron().addSubscription(broadcastChannel, ctx.egressBroadcastStreamId());
 
         sessionMessageHeaderEncoder
             .wrapAndApplyHeader(headerBuffer, 0, messageHeaderEncoder)
             .clusterSessionId(clusterSessionId)
             .leadershipTermId(leadershipTermId);
 
+        readQueryHeaderEncoder
+            .wrapAndApplyHeader(readQueryHeaderBuffer, 0, messageHeaderEncoder)
+            .leadershipTermId(leadershipTermId)
+            .clusterSessionId(clusterSessionId);
+
         keepaliveMsgBuffer = new UnsafeBuffer(new byte[
             MessageHeaderEncoder.ENCODED_LENGTH + SessionKeepAliveEncoder.BLOCK_LENGTH]);
 
@@ -239,7 +282,10 @@ public final class AeronCluster implements AutoCloseable
         if (!ctx.ownsAeronClient())
         {
             CloseHelper.close(subscription);
+            CloseHelper.close(broadcastSubscription);
+            CloseHelper.close(ipcSubscription);
             CloseHelper.close(publication);
+            endpointByMemberIdMap.values().forEach(MemberEndpoint::disconnect);
         }
 
         ctx.close();
@@ -312,6 +358,44 @@ public final class AeronCluster implements AutoCloseable
         return subscription;
     }
 
+    /**
+     * Get the raw {@link Subscription} for receiving egress via IPC from a leader which shares the media driver with
+     * this client. Session events and messages are received on this rather than the {@link #egressSubscription()}
+     * when {@link #isIpcIngress()} is true.
+     *
+     * @return the raw {@link Subscription} for receiving egress via IPC or null if not connected via IPC.
+     * @see Context#isIpcIngressEnabled(boolean)
+     */
+    public Subscription ipcEgressSubscription()
+    {
+        return isIpcIngress ? ipcSubscription : null;
+    }
+
+    /**
+     * Is this client connected to the leader via IPC because they share a media driver, rather than via the
+     * ingress and egress channels. A client falls back to the ingress and egress channels on a change of leader.
+     *
+     * @return true if this client is connected to the leader via IPC.
+     * @see Context#isIpcIngressEnabled(boolean)
+     */
+    public boolean isIpcIngress()
+    {
+        return isIpcIngress;
+    }
+
+    /**
+     * Get the raw {@link Subscription} for receiving egress broadcast by the cluster to all clients.
+     * <p>
+     * The can be wrapped with a {@link EgressAdapter} for dispatching broadcast messages from the cluster.
+     *
+     * @return the raw {@link Subscription} for receiving egress broadcast or null if not configured.
+     * @see Context#egressBroadcastChannel(String)
+     */
+    public Subscription egressBroadcastSubscription()
+    {
+        return broadcastSubscription;
+    }
+
     /**
      * Try to claim a range in the publication log into which a message can be written with zero copy semantics.
      * Once the message has been written then {@link BufferClaim#commit()} should be called thus making it available.
@@ -387,6 +471,46 @@ public final class AeronCluster implements AutoCloseable
         return publication.offer(vectors, null);
     }
 
+    /**
+     * Non-blocking publish of a read-only query to the leader which is served by the clustered services without being
+     * appended to the log. The response is delivered via {@link EgressListener#onQueryResponse}.
+     *
+     * @param correlationId to be returned with the response to the query.
+     * @param buffer        containing the query.
+     * @param offset        offset in the buffer at which the encoded query begins.
+     * @param length        in bytes of the encoded query.
+     * @return the same as {@link Publication#offer(DirectBuffer, int, int)}.
+     * @see #offerQuery(int, long, DirectBuffer, int, int)
+     */
+    public long offerQuery(final long correlationId, final DirectBuffer buffer, final int offset, final int length)
+    {
+        return offerQuery(leaderMemberId, correlationId, buffer, offset, length);
+    }
+
+    /**
+     * Non-blocking publish of a read-only query to a given member of the cluster. The member obtains a read index
+     * from the leader and its clustered services serve the query once they have applied the log up to the read
+     * index, so queries see all the state committed before they were sent and can be spread across the members.
+     * <p>
+     * If the endpoints of the members are not known, because {@link Context#clusterMemberEndpoints()} is not set,
+     * then the query is sent to the leader.
+     *
+     * @param memberId      of the cluster member which should serve the query.
+     * @param correlationId to be returned with the response to the query.
+     * @param buffer        containing the query.
+     * @param offset        offset in the buffer at which the encoded query begins.
+     * @param length        in bytes of the encoded query.
+     * @return the same as {@link Publication#offer(DirectBuffer, int, int)}.
+     */
+    public long offerQuery(
+        final int memberId, final long correlationId, final DirectBuffer buffer, final int offset, final int length)
+    {
+        readQueryHeaderEncoder.correlationId(correlationId);
+
+        return queryPublication(memberId).offer(
+            readQueryHeaderBuffer, 0, READ_QUERY_HEADER_LENGTH, buffer, offset, length, null);
+    }
+
     /**
      * Send a keep alive message to the cluster to keep this session open.
      * <p>
@@ -430,7 +554,8 @@ public final class AeronCluster implements AutoCloseable
     }
 
     /**
-     * Poll the {@link #egressSubscription()} for session messages which are dispatched to
+     * Poll the {@link #egressSubscription()}, the {@link #ipcEgressSubscription()} if connected via IPC, and the
+     * {@link #egressBroadcastSubscription()} if configured, for session messages which are dispatched to
      * {@link Context#egressListener()}.
      * <p>
      * <b>Note:</b> if {@link Context#egressListener()} is not set then a {@link ConfigurationException} could result.
@@ -439,11 +564,25 @@ public final class AeronCluster implements AutoCloseable
      */
     public int pollEgress()
     {
-        return subscription.poll(fragmentAssembler, FRAGMENT_LIMIT);
+        int fragments = subscription.poll(fragmentAssembler, FRAGMENT_LIMIT);
+
+        if (null != ipcSubscription)
+        {
+            fragments += ipcSubscription.poll(ipcFragmentAssembler, FRAGMENT_LIMIT);
+            closeIpcSubscriptionOnFallback();
+        }
+
+        if (null != broadcastSubscription)
+        {
+            fragments += broadcastSubscription.poll(broadcastFragmentAssembler, FRAGMENT_LIMIT);
+        }
+
+        return fragments;
     }
 
     /**
-     * Poll the {@link #egressSubscription()} for session messages which are dispatched to
+     * Poll the {@link #egressSubscription()}, the {@link #ipcEgressSubscription()} if connected via IPC, and the
+     * {@link #egressBroadcastSubscription()} if configured, for session messages which are dispatched to
      * {@link Context#controlledEgressListener()}.
      * <p>
      * <b>Note:</b> if {@link Context#controlledEgressListener()} is not set then a {@link ConfigurationException}
@@ -453,7 +592,20 @@ public final class AeronCluster implements AutoCloseable
      */
     public int controlledPollEgress()
     {
-        return subscription.controlledPoll(controlledFragmentAssembler, FRAGMENT_LIMIT);
+        int fragments = subscription.controlledPoll(controlledFragmentAssembler, FRAGMENT_LIMIT);
+
+        if (null != ipcSubscription)
+        {
+            fragments += ipcSubscription.controlledPoll(controlledIpcFragmentAssembler, FRAGMENT_LIMIT);
+            closeIpcSubscriptionOnFallback();
+        }
+
+        if (null != broadcastSubscription)
+        {
+            fragments += broadcastSubscription.controlledPoll(controlledBroadcastFragmentAssembler, FRAGMENT_LIMIT);
+        }
+
+        return fragments;
     }
 
     /**
@@ -481,6 +633,17 @@ public final class AeronCluster implements AutoCloseable
         this.leaderMemberId = leaderMemberId;
         sessionMessageHeaderEncoder.leadershipTermId(leadershipTermId);
         sessionKeepAliveEncoder.leadershipTermId(leadershipTermId);
+        readQueryHeaderEncoder.leadershipTermId(leadershipTermId);
+
+        if (isIpcIngress)
+        {
+            isIpcIngress = false;
+            CloseHelper.close(publication);
+            if (ctx.clusterMemberEndpoints() == null)
+            {
+                publication = addIngressPublication(ctx, ctx.ingressChannel(), ctx.ingressStreamId());
+            }
+        }
 
         if (ctx.clusterMemberEndpoints() != null)
         {
@@ -495,6 +658,15 @@ public final class AeronCluster implements AutoCloseable
         controlledEgressListener.newLeader(clusterSessionId, leadershipTermId, leaderMemberId, memberEndpoints);
     }
 
+    private void closeIpcSubscriptionOnFallback()
+    {
+        if (!isIpcIngress)
+        {
+            CloseHelper.close(ipcSubscription);
+            ipcSubscription = null;
+        }
+    }
+
     static Int2ObjectHashMap<MemberEndpoint> parseMemberEndpoints(final String memberEndpoints)
     {
         final Int2ObjectHashMap<MemberEndpoint> endpointByMemberIdMap = new Int2ObjectHashMap<>();
@@ -557,7 +729,7 @@ public final class AeronCluster implements AutoCloseable
                 messageHeaderDecoder.version());
 
             final long sessionId = sessionMessageHeaderDecoder.clusterSessionId();
-            if (sessionId == clusterSessionId)
+            if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
             {
                 egressListener.onMessage(
                     sessionId,
@@ -568,6 +740,29 @@ public final class AeronCluster implements AutoCloseable
                     header);
             }
         }
+        else if (EgressMessageBatchDecoder.TEMPLATE_ID == templateId)
+        {
+            egressMessageBatchDecoder.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            final long sessionId = egressMessageBatchDecoder.clusterSessionId();
+            if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
+            {
+                for (final EgressMessageBatchDecoder.MessagesDecoder messages : egressMessageBatchDecoder.messages())
+                {
+                    final int messageLength = messages.messageLength();
+                    final int messageOffset = egressMessageBatchDecoder.limit() +
+                        EgressMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+                    messages.skipMessage();
+
+                    egressListener.onMessage(
+                        sessionId, messages.timestamp(), buffer, messageOffset, messageLength, header);
+                }
+            }
+        }
         else if (NewLeaderEventDecoder.TEMPLATE_ID == templateId)
         {
             newLeaderEventDecoder.wrap(
@@ -586,6 +781,27 @@ public final class AeronCluster implements AutoCloseable
                     newLeaderEventDecoder.memberEndpoints());
             }
         }
+        else if (ReadQueryResponseHeaderDecoder.TEMPLATE_ID == templateId)
+        {
+            readQueryResponseHeaderDecoder.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            final long sessionId = readQueryResponseHeaderDecoder.clusterSessionId();
+            if (sessionId == clusterSessionId)
+            {
+                egressListener.onQueryResponse(
+                    sessionId,
+                    readQueryResponseHeaderDecoder.correlationId(),
+                    readQueryResponseHeaderDecoder.logPosition(),
+                    buffer,
+                    offset + READ_QUERY_RESPONSE_HEADER_LENGTH,
+                    length - READ_QUERY_RESPONSE_HEADER_LENGTH,
+                    header);
+            }
+        }
         else if (SessionEventDecoder.TEMPLATE_ID == templateId)
         {
             sessionEventDecoder.wrap(
@@ -623,7 +839,7 @@ public final class AeronCluster implements AutoCloseable
                 messageHeaderDecoder.version());
 
             final long sessionId = sessionMessageHeaderDecoder.clusterSessionId();
-            if (sessionId == clusterSessionId)
+            if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
             {
                 return controlledEgressListener.onMessage(
                     sessionId,
@@ -634,6 +850,20 @@ public final class AeronCluster implements AutoCloseable
                     header);
             }
         }
+        else if (EgressMessageBatchDecoder.TEMPLATE_ID == templateId)
+        {
+            egressMessageBatchDecoder.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            final long sessionId = egressMessageBatchDecoder.clusterSessionId();
+            if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
+            {
+                return onControlledMessageBatch(sessionId, buffer, header);
+            }
+        }
         else if (NewLeaderEventDecoder.TEMPLATE_ID == templateId)
         {
             newLeaderEventDecoder.wrap(
@@ -654,6 +884,27 @@ public final class AeronCluster implements AutoCloseable
                 return ControlledFragmentHandler.Action.COMMIT;
             }
         }
+        else if (ReadQueryResponseHeaderDecoder.TEMPLATE_ID == templateId)
+        {
+            readQueryResponseHeaderDecoder.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            final long sessionId = readQueryResponseHeaderDecoder.clusterSessionId();
+            if (sessionId == clusterSessionId)
+            {
+                return controlledEgressListener.onQueryResponse(
+                    sessionId,
+                    readQueryResponseHeaderDecoder.correlationId(),
+                    readQueryResponseHeaderDecoder.logPosition(),
+                    buffer,
+                    offset + READ_QUERY_RESPONSE_HEADER_LENGTH,
+                    length - READ_QUERY_RESPONSE_HEADER_LENGTH,
+                    header);
+            }
+        }
         else if (SessionEventDecoder.TEMPLATE_ID == templateId)
         {
             sessionEventDecoder.wrap(
@@ -678,6 +929,56 @@ public final class AeronCluster implements AutoCloseable
         return ControlledFragmentHandler.Action.CONTINUE;
     }
 
+    private ControlledFragmentHandler.Action onControlledMessageBatch(
+        final long sessionId, final DirectBuffer buffer, final Header header)
+    {
+        final long position = header.position();
+        final int resumeIndex = position == batchResumePosition ? batchResumeIndex : 0;
+        batchResumePosition = Aeron.NULL_VALUE;
+
+        final EgressMessageBatchDecoder.MessagesDecoder messages = egressMessageBatchDecoder.messages();
+        final int lastIndex = messages.count() - 1;
+        ControlledFragmentHandler.Action action = ControlledFragmentHandler.Action.CONTINUE;
+
+        for (int i = 0; i <= lastIndex; i++)
+        {
+            messages.next();
+            final int messageLength = messages.messageLength();
+            final int messageOffset = egressMessageBatchDecoder.limit() +
+                EgressMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+            messages.skipMessage();
+
+            if (i < resumeIndex)
+            {
+                continue;
+            }
+
+            action = controlledEgressListener.onMessage(
+                sessionId, messages.timestamp(), buffer, messageOffset, messageLength, header);
+
+            if (action == ControlledFragmentHandler.Action.ABORT)
+            {
+                if (i > 0)
+                {
+                    batchResumePosition = position;
+                    batchResumeIndex = i;
+                }
+
+                return ControlledFragmentHandler.Action.ABORT;
+            }
+
+            if (action == ControlledFragmentHandler.Action.BREAK && i < lastIndex)
+            {
+                batchResumePosition = position;
+                batchResumeIndex = i + 1;
+
+                return ControlledFragmentHandler.Action.ABORT;
+            }
+        }
+
+        return action;
+    }
+
     private void closeSession()
     {
         idleStrategy.reset();
@@ -710,6 +1011,24 @@ public final class AeronCluster implements AutoCloseable
         }
     }
 
+    private Publication queryPublication(final int memberId)
+    {
+        final MemberEndpoint memberEndpoint = endpointByMemberIdMap.get(memberId);
+        if (memberId == leaderMemberId || null == memberEndpoint)
+        {
+            return publication;
+        }
+
+        if (null == memberEndpoint.publication)
+        {
+            final ChannelUri channelUri = ChannelUri.parse(ctx.ingressChannel());
+            channelUri.put(CommonContext.ENDPOINT_PARAM_NAME, memberEndpoint.endpoint);
+            memberEndpoint.publication = addIngressPublication(ctx, channelUri.toString(), ctx.ingressStreamId());
+        }
+
+        return memberEndpoint.publication;
+    }
+
     private static Publication addIngressPublication(final Context ctx, final String channel, final int streamId)
     {
         if (ctx.isIngressExclusive())
@@ -810,6 +1129,42 @@ public final class AeronCluster implements AutoCloseable
          */
         public static final int EGRESS_STREAM_ID_DEFAULT = 102;
 
+        /**
+         * Channel on which egress is broadcast by a cluster to all clients with a single send, ideally this will be
+         * a multicast address. Not set by default which disables broadcast egress.
+         */
+        public static final String EGRESS_BROADCAST_CHANNEL_PROP_NAME = "aeron.cluster.egress.broadcast.channel";
+
+        /**
+         * Default channel on which egress is broadcast by a cluster, null if broadcast egress is disabled.
+         */
+        public static final String EGRESS_BROADCAST_CHANNEL_DEFAULT = null;
+
+        /**
+         * Stream id within a channel for egress broadcast by a cluster.
+         */
+        public static final String EGRESS_BROADCAST_STREAM_ID_PROP_NAME = "aeron.cluster.egress.broadcast.stream.id";
+
+        /**
+         * Default stream id within a channel for egress broadcast by a cluster.
+         */
+        public static final int EGRESS_BROADCAST_STREAM_ID_DEFAULT = 109;
+
+        /**
+         * Should a client which shares a media driver with the leader connect and exchange messages via IPC rather
+         * than the ingress and egress channels. The leader must also have this enabled to accept IPC ingress.
+         * <p>
+         * Ingress via IPC is on an {@link io.aeron.ExclusivePublication} so that each session has its own session id,
+         * which the leader uses as the stream id of the session's IPC egress so sessions do not see each other's
+         * egress. Messages must then be offered from a single thread.
+         */
+        public static final String IPC_INGRESS_ENABLED_PROP_NAME = "aeron.cluster.ipc.ingress.enabled";
+
+        /**
+         * Default for if IPC ingress and egress is used when the client shares a media driver with the leader.
+         */
+        public static final boolean IPC_INGRESS_ENABLED_DEFAULT = false;
+
         /**
          * The timeout in nanoseconds to wait for a message.
          *
@@ -880,6 +1235,48 @@ public final class AeronCluster implements AutoCloseable
         {
             return Integer.getInteger(EGRESS_STREAM_ID_PROP_NAME, EGRESS_STREAM_ID_DEFAULT);
         }
+
+        /**
+         * The value {@link #EGRESS_BROADCAST_CHANNEL_DEFAULT} or system property
+         * {@link #EGRESS_BROADCAST_CHANNEL_PROP_NAME} if set.
+         *
+         * @return {@link #EGRESS_BROADCAST_CHANNEL_DEFAULT} or system property
+         * {@link #EGRESS_BROADCAST_CHANNEL_PROP_NAME} if set.
+         */
+        public static String egressBroadcastChannel()
+        {
+            return System.getProperty(EGRESS_BROADCAST_CHANNEL_PROP_NAME, EGRESS_BROADCAST_CHANNEL_DEFAULT);
+        }
+
+        /**
+         * The value {@link #EGRESS_BROADCAST_STREAM_ID_DEFAULT} or system property
+         * {@link #EGRESS_BROADCAST_STREAM_ID_PROP_NAME} if set.
+         *
+         * @return {@link #EGRESS_BROADCAST_STREAM_ID_DEFAULT} or system property
+         * {@link #EGRESS_BROADCAST_STREAM_ID_PROP_NAME} if set.
+         */
+        public static int egressBroadcastStreamId()
+        {
+            return Integer.getInteger(EGRESS_BROADCAST_STREAM_ID_PROP_NAME, EGRESS_BROADCAST_STREAM_ID_DEFAULT);
+        }
+
+        /**
+         * The value {@link #IPC_INGRESS_ENABLED_DEFAULT} or system property
+         * {@link #IPC_INGRESS_ENABLED_PROP_NAME} if set.
+         *
+         * @return {@link #IPC_INGRESS_ENABLED_DEFAULT} or system property
+         * {@link #IPC_INGRESS_ENABLED_PROP_NAME} if set.
+         */
+        public static boolean isIpcIngressEnabled()
+        {
+            final String property = System.getProperty(IPC_INGRESS_ENABLED_PROP_NAME);
+            if (null == property)
+            {
+                return IPC_INGRESS_ENABLED_DEFAULT;
+            }
+
+            return "true".equals(property);
+        }
     }
 
     /**
@@ -900,6 +1297,9 @@ public final class AeronCluster implements AutoCloseable
         private int ingressStreamId = Configuration.ingressStreamId();
         private String egressChannel = Configuration.egressChannel();
         private int egressStreamId = Configuration.egressStreamId();
+        private String egressBroadcastChannel = Configuration.egressBroadcastChannel();
+        private int egressBroadcastStreamId = Configuration.egressBroadcastStreamId();
+        private boolean isIpcIngressEnabled = Configuration.isIpcIngressEnabled();
         private IdleStrategy idleStrategy;
         private String aeronDirectoryName = CommonContext.getAeronDirectoryName();
         private Aeron aeron;
@@ -1132,6 +1532,84 @@ public final class AeronCluster implements AutoCloseable
             return egressStreamId;
         }
 
+        /**
+         * Set the channel parameter for egress broadcast by the cluster to all clients. Null to not subscribe to
+         * broadcast egress.
+         *
+         * @param channel parameter for egress broadcast by the cluster.
+         * @return this for a fluent API.
+         * @see Configuration#EGRESS_BROADCAST_CHANNEL_PROP_NAME
+         */
+        public Context egressBroadcastChannel(final String channel)
+        {
+            egressBroadcastChannel = channel;
+            return this;
+        }
+
+        /**
+         * Get the channel parameter for egress broadcast by the cluster to all clients.
+         *
+         * @return the channel parameter for egress broadcast by the cluster or null if not subscribed.
+         * @see Configuration#EGRESS_BROADCAST_CHANNEL_PROP_NAME
+         */
+        public String egressBroadcastChannel()
+        {
+            return egressBroadcastChannel;
+        }
+
+        /**
+         * Set the stream id for egress broadcast by the cluster.
+         *
+         * @param streamId for egress broadcast by the cluster.
+         * @return this for a fluent API.
+         * @see Configuration#EGRESS_BROADCAST_STREAM_ID_PROP_NAME
+         */
+        public Context egressBroadcastStreamId(final int streamId)
+        {
+            egressBroadcastStreamId = streamId;
+            return this;
+        }
+
+        /**
+         * Get the stream id for egress broadcast by the cluster.
+         *
+         * @return the stream id for egress broadcast by the cluster.
+         * @see Configuration#EGRESS_BROADCAST_STREAM_ID_PROP_NAME
+         */
+        public int egressBroadcastStreamId()
+        {
+            return egressBroadcastStreamId;
+        }
+
+        /**
+         * Set if the client should connect via IPC when it shares a media driver with the leader. The
+         * {@link #ingressChannel()} and {@link #egressChannel()} are used when the leader is not reachable via IPC,
+         * including after a change of leader.
+         * <p>
+         * Ingress via IPC is on an {@link io.aeron.ExclusivePublication} so messages must be offered from a single
+         * thread when this is enabled.
+         *
+         * @param isIpcIngressEnabled true if the client should connect via IPC when possible.
+         * @return this for a fluent API.
+         * @see Configuration#IPC_INGRESS_ENABLED_PROP_NAME
+         */
+        public Context isIpcIngressEnabled(final boolean isIpcIngressEnabled)
+        {
+            this.isIpcIngressEnabled = isIpcIngressEnabled;
+            return this;
+        }
+
+        /**
+         * Should the client connect via IPC when it shares a media driver with the leader.
+         *
+         * @return true if the client should connect via IPC when possible.
+         * @see Configuration#IPC_INGRESS_ENABLED_PROP_NAME
+         */
+        public boolean isIpcIngressEnabled()
+        {
+            return isIpcIngressEnabled;
+        }
+
         /**
          * Set the {@link IdleStrategy} used when waiting for responses.
          *
@@ -1408,6 +1886,10 @@ public final class AeronCluster implements AutoCloseable
         private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
         private Int2ObjectHashMap<MemberEndpoint> endpointByMemberIdMap;
         private Publication ingressPublication;
+        private Publication ipcPublication;
+        private Subscription ipcSubscription;
+        private EgressPoller ipcEgressPoller;
+        private boolean isIpc;
 
         AsyncConnect(final Context ctx, final Subscription egressSubscription, final long deadlineNs)
         {
@@ -1429,6 +1911,8 @@ public final class AeronCluster implements AutoCloseable
             {
                 CloseHelper.close(ingressPublication);
                 CloseHelper.close(egressSubscription);
+                CloseHelper.close(ipcPublication);
+                CloseHelper.close(ipcSubscription);
                 endpointByMemberIdMap.values().forEach(MemberEndpoint::disconnect);
                 ctx.close();
             }
@@ -1482,9 +1966,21 @@ public final class AeronCluster implements AutoCloseable
             if (4 == step)
             {
                 aeronCluster = newInstance();
+                if (isIpc)
+                {
+                    CloseHelper.close(ingressPublication);
+                }
+                else
+                {
+                    CloseHelper.close(ipcPublication);
+                    CloseHelper.close(ipcSubscription);
+                }
+
                 ingressPublication = null;
+                ipcPublication = null;
+                ipcSubscription = null;
                 final MemberEndpoint endpoint = endpointByMemberIdMap.get(leaderMemberId);
-                if (null != endpoint)
+                if (null != endpoint && !isIpc)
                 {
                     endpoint.publication = null;
                 }
@@ -1511,6 +2007,13 @@ public final class AeronCluster implements AutoCloseable
 
         private void createIngressPublications()
         {
+            if (ctx.isIpcIngressEnabled() && !ctx.ingressChannel().startsWith(CommonContext.IPC_CHANNEL))
+            {
+                ipcPublication = ctx.aeron().addExclusivePublication(CommonContext.IPC_CHANNEL, ctx.ingressStreamId());
+                ipcSubscription = ctx.aeron().addSubscription(CommonContext.IPC_CHANNEL, ipcPublication.sessionId());
+                ipcEgressPoller = new EgressPoller(ipcSubscription, FRAGMENT_LIMIT);
+            }
+
             if (ctx.clusterMemberEndpoints() == null)
             {
                 ingressPublication = addIngressPublication(ctx, ctx.ingressChannel(), ctx.ingressStreamId());
@@ -1530,7 +2033,12 @@ public final class AeronCluster implements AutoCloseable
 
         private void awaitPublicationConnected()
         {
-            if (null != ingressPublication && ingressPublication.isConnected())
+            if (null != ipcPublication && ipcPublication.isConnected())
+            {
+                isIpc = true;
+                prepareConnectRequest();
+            }
+            else if (null != ingressPublication && ingressPublication.isConnected())
             {
                 prepareConnectRequest();
             }
@@ -1566,7 +2074,7 @@ public final class AeronCluster implements AutoCloseable
 
         private void sendMessage()
         {
-            final long result = ingressPublication.offer(buffer);
+            final long result = isIpc ? ipcPublication.offer(buffer) : ingressPublication.offer(buffer);
             if (result > 0)
             {
                 step(3);
@@ -1579,6 +2087,7 @@ public final class AeronCluster implements AutoCloseable
 
         private void pollResponse()
         {
+            final EgressPoller egressPoller = isIpc ? ipcEgressPoller : this.egressPoller;
             if (egressPoller.poll() > 0 &&
                 egressPoller.isPollComplete() &&
                 egressPoller.correlationId() == correlationId)
@@ -1604,7 +2113,7 @@ public final class AeronCluster implements AutoCloseable
                         throw new ClusterException(egressPoller.detail());
 
                     case REDIRECT:
-                        updateMembers();
+                        updateMembers(egressPoller);
                         break;
 
                     case AUTHENTICATION_REJECTED:
@@ -1626,7 +2135,7 @@ public final class AeronCluster implements AutoCloseable
             step(2);
         }
 
-        private void updateMembers()
+        private void updateMembers(final EgressPoller egressPoller)
         {
             leaderMemberId = egressPoller.leaderMemberId();
             final MemberEndpoint leaderEndpoint = endpointByMemberIdMap.get(leaderMemberId);
@@ -1649,6 +2158,12 @@ public final class AeronCluster implements AutoCloseable
                 ingressPublication = memberEndpoint.publication;
             }
 
+            isIpc = false;
+            CloseHelper.close(ipcPublication);
+            CloseHelper.close(ipcSubscription);
+            ipcPublication = null;
+            ipcSubscription = null;
+
             step(1);
         }
 
@@ -1657,8 +2172,9 @@ public final class AeronCluster implements AutoCloseable
             return new AeronCluster(
                 ctx,
                 messageHeaderEncoder,
-                ingressPublication,
+                isIpc ? ipcPublication : ingressPublication,
                 egressSubscription,
+                isIpc ? ipcSubscription : null,
                 endpointByMemberIdMap,
                 clusterSessionId,
                 leadershipTermId,
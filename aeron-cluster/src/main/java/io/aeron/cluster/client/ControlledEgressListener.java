@@ -60,4 +60,28 @@ public interface ControlledEgressListener
     default void newLeader(long clusterSessionId, long leadershipTermId, int leaderMemberId, String memberEndpoints)
     {
     }
+
+    /**
+     * Response to a read-only query sent with {@link AeronCluster#offerQuery(int, long, DirectBuffer, int, int)}.
+     *
+     * @param clusterSessionId to which the response belongs.
+     * @param correlationId    of the query.
+     * @param logPosition      of the log which had been applied by the service when the response was sent.
+     * @param buffer           containing the response.
+     * @param offset           at which the response begins.
+     * @param length           of the response in bytes.
+     * @param header           Aeron header associated with the response fragment.
+     * @return what action should be taken regarding advancement of the stream.
+     */
+    default ControlledFragmentHandler.Action onQueryResponse(
+        long clusterSessionId,
+        long correlationId,
+        long logPosition,
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        Header header)
+    {
+        return ControlledFragmentHandler.Action.CONTINUE;
+    }
 }
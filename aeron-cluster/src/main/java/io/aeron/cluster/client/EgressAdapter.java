@@ -15,6 +15,7 @@
  */
 package io.aeron.cluster.client;
 
+import io.aeron.Aeron;
 import io.aeron.FragmentAssembler;
 import io.aeron.Subscription;
 import io.aeron.cluster.codecs.*;
@@ -22,10 +23,14 @@ import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 
+import static io.aeron.cluster.client.AeronCluster.READ_QUERY_RESPONSE_HEADER_LENGTH;
 import static io.aeron.cluster.client.AeronCluster.SESSION_HEADER_LENGTH;
 
 /**
  * Adapter for dispatching egress messages from a cluster to a {@link EgressListener}.
+ * <p>
+ * Batches of egress messages are dispatched as individual messages, as are messages broadcast to all sessions which
+ * have a cluster session id of {@link Aeron#NULL_VALUE}.
  */
 public class EgressAdapter implements FragmentHandler
 {
@@ -35,6 +40,8 @@ public class EgressAdapter implements FragmentHandler
     private final SessionEventDecoder sessionEventDecoder = new SessionEventDecoder();
     private final NewLeaderEventDecoder newLeaderEventDecoder = new NewLeaderEventDecoder();
     private final SessionMessageHeaderDecoder sessionMessageHeaderDecoder = new SessionMessageHeaderDecoder();
+    private final ReadQueryResponseHeaderDecoder readQueryResponseHeaderDecoder = new ReadQueryResponseHeaderDecoder();
+    private final EgressMessageBatchDecoder egressMessageBatchDecoder = new EgressMessageBatchDecoder();
     private final FragmentAssembler fragmentAssembler = new FragmentAssembler(this);
     private final EgressListener listener;
     private final Subscription subscription;
@@ -76,7 +83,7 @@ public class EgressAdapter implements FragmentHandler
                 messageHeaderDecoder.version());
 
             final long sessionId = sessionMessageHeaderDecoder.clusterSessionId();
-            if (sessionId == clusterSessionId)
+            if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
             {
                 listener.onMessage(
                     sessionId,
@@ -92,6 +99,33 @@ public class EgressAdapter implements FragmentHandler
 
         switch (templateId)
         {
+            case EgressMessageBatchDecoder.TEMPLATE_ID:
+            {
+                egressMessageBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                final long sessionId = egressMessageBatchDecoder.clusterSessionId();
+                if (sessionId == clusterSessionId || Aeron.NULL_VALUE == sessionId)
+                {
+                    final EgressMessageBatchDecoder.MessagesDecoder messages = egressMessageBatchDecoder.messages();
+                    while (messages.hasNext())
+                    {
+                        messages.next();
+                        final int messageLength = messages.messageLength();
+                        final int messageOffset = egressMessageBatchDecoder.limit() +
+                            EgressMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+                        messages.skipMessage();
+
+                        listener.onMessage(
+                            sessionId, messages.timestamp(), buffer, messageOffset, messageLength, header);
+                    }
+                }
+                break;
+            }
+
             case SessionEventDecoder.TEMPLATE_ID:
             {
                 sessionEventDecoder.wrap(
@@ -133,6 +167,29 @@ public class EgressAdapter implements FragmentHandler
                 }
                 break;
             }
+
+            case ReadQueryResponseHeaderDecoder.TEMPLATE_ID:
+            {
+                readQueryResponseHeaderDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                final long sessionId = readQueryResponseHeaderDecoder.clusterSessionId();
+                if (sessionId == clusterSessionId)
+                {
+                    listener.onQueryResponse(
+                        sessionId,
+                        readQueryResponseHeaderDecoder.correlationId(),
+                        readQueryResponseHeaderDecoder.logPosition(),
+                        buffer,
+                        offset + READ_QUERY_RESPONSE_HEADER_LENGTH,
+                        length - READ_QUERY_RESPONSE_HEADER_LENGTH,
+                        header);
+                }
+                break;
+            }
         }
     }
 }
@@ -26,6 +26,7 @@ class ActiveLogEvent
     final int memberId;
     final int sessionId;
     final int streamId;
+    final long recordingId;
     final String channel;
 
     ActiveLogEvent(
@@ -35,6 +36,7 @@ class ActiveLogEvent
         final int memberId,
         final int sessionId,
         final int streamId,
+        final long recordingId,
         final String channel)
     {
         this.leadershipTermId = leadershipTermId;
@@ -43,6 +45,7 @@ class ActiveLogEvent
         this.memberId = memberId;
         this.sessionId = sessionId;
         this.streamId = streamId;
+        this.recordingId = recordingId;
         this.channel = channel;
     }
 
@@ -55,6 +58,7 @@ class ActiveLogEvent
             ", memberId=" + memberId +
             ", sessionId=" + sessionId +
             ", streamId=" + streamId +
+            ", recordingId=" + recordingId +
             ", channel='" + channel + '\'' +
             '}';
     }
@@ -23,6 +23,8 @@ import io.aeron.logbuffer.*;
 import io.aeron.status.ReadableCounter;
 import org.agrona.*;
 
+import static io.aeron.Aeron.NULL_VALUE;
+
 /**
  * Adapter for reading a log with a upper bound applied beyond which the consumer cannot progress.
  */
@@ -37,6 +39,7 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
     private final SessionOpenEventDecoder openEventDecoder = new SessionOpenEventDecoder();
     private final SessionCloseEventDecoder closeEventDecoder = new SessionCloseEventDecoder();
     private final SessionMessageHeaderDecoder sessionHeaderDecoder = new SessionMessageHeaderDecoder();
+    private final SessionMessageBatchDecoder sessionMessageBatchDecoder = new SessionMessageBatchDecoder();
     private final TimerEventDecoder timerEventDecoder = new TimerEventDecoder();
     private final ClusterActionRequestDecoder actionRequestDecoder = new ClusterActionRequestDecoder();
     private final NewLeadershipTermEventDecoder newLeadershipTermEventDecoder = new NewLeadershipTermEventDecoder();
@@ -44,12 +47,22 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
 
     private final Image image;
     private final ReadableCounter upperBound;
+    private final long upperBoundPosition;
     private final ClusteredServiceAgent agent;
 
     BoundedLogAdapter(final Image image, final ReadableCounter upperBound, final ClusteredServiceAgent agent)
     {
         this.image = image;
         this.upperBound = upperBound;
+        this.upperBoundPosition = Long.MAX_VALUE;
+        this.agent = agent;
+    }
+
+    BoundedLogAdapter(final Image image, final long upperBoundPosition, final ClusteredServiceAgent agent)
+    {
+        this.image = image;
+        this.upperBound = null;
+        this.upperBoundPosition = upperBoundPosition;
         this.agent = agent;
     }
 
@@ -70,7 +83,9 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
 
     public int poll()
     {
-        return image.boundedControlledPoll(fragmentAssembler, upperBound.get(), FRAGMENT_LIMIT);
+        final long limitPosition = null != upperBound ? upperBound.get() : upperBoundPosition;
+
+        return image.boundedControlledPoll(fragmentAssembler, limitPosition, FRAGMENT_LIMIT);
     }
 
     @SuppressWarnings("MethodLength")
@@ -107,6 +122,31 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
 
         switch (templateId)
         {
+            case SessionMessageBatchDecoder.TEMPLATE_ID:
+                sessionMessageBatchDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                for (final SessionMessageBatchDecoder.MessagesDecoder messages : sessionMessageBatchDecoder.messages())
+                {
+                    final int messageLength = messages.messageLength();
+                    final int messageOffset = sessionMessageBatchDecoder.limit() +
+                        SessionMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+                    messages.skipMessage();
+
+                    agent.onSessionMessage(
+                        header.position(),
+                        messages.clusterSessionId(),
+                        messages.timestamp(),
+                        buffer,
+                        messageOffset,
+                        messageLength,
+                        header);
+                }
+                break;
+
             case TimerEventDecoder.TEMPLATE_ID:
                 timerEventDecoder.wrap(
                     buffer,
@@ -127,6 +167,7 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
                     messageHeaderDecoder.blockLength(),
                     messageHeaderDecoder.version());
 
+                final int ipcMemberId = openEventDecoder.ipcMemberId();
                 final String responseChannel = openEventDecoder.responseChannel();
                 final byte[] encodedPrincipal = new byte[openEventDecoder.encodedPrincipalLength()];
                 openEventDecoder.getEncodedPrincipal(encodedPrincipal, 0, encodedPrincipal.length);
@@ -137,6 +178,8 @@ final class BoundedLogAdapter implements ControlledFragmentHandler, AutoCloseabl
                     openEventDecoder.clusterSessionId(),
                     openEventDecoder.timestamp(),
                     openEventDecoder.responseStreamId(),
+                    SessionOpenEventDecoder.ipcMemberIdNullValue() == ipcMemberId ? NULL_VALUE : ipcMemberId,
+                    openEventDecoder.ipcResponseStreamId(),
                     responseChannel,
                     encodedPrincipal);
                 break;
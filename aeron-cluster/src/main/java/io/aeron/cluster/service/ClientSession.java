@@ -16,6 +16,7 @@
 package io.aeron.cluster.service;
 
 import io.aeron.Aeron;
+import io.aeron.CommonContext;
 import io.aeron.DirectBufferVector;
 import io.aeron.Publication;
 import io.aeron.cluster.client.AeronCluster;
@@ -40,19 +41,26 @@ public class ClientSession
     private final byte[] encodedPrincipal;
 
     private final ClusteredServiceAgent clusteredServiceAgent;
+    private int ipcMemberId;
+    private final int ipcResponseStreamId;
     private Publication responsePublication;
+    private EgressBatch egressBatch;
     private boolean isClosing;
 
     ClientSession(
         final long sessionId,
         final int responseStreamId,
         final String responseChannel,
+        final int ipcMemberId,
+        final int ipcResponseStreamId,
         final byte[] encodedPrincipal,
         final ClusteredServiceAgent clusteredServiceAgent)
     {
         this.id = sessionId;
         this.responseStreamId = responseStreamId;
         this.responseChannel = responseChannel;
+        this.ipcMemberId = ipcMemberId;
+        this.ipcResponseStreamId = ipcResponseStreamId;
         this.encodedPrincipal = encodedPrincipal;
         this.clusteredServiceAgent = clusteredServiceAgent;
     }
@@ -87,6 +95,17 @@ public class ClientSession
         return responseChannel;
     }
 
+    /**
+     * Is the client connected via IPC because it shares a media driver with the leader. Responses are then sent via
+     * IPC rather than on the {@link #responseChannel()} until the next election.
+     *
+     * @return true if the client is connected via IPC.
+     */
+    public boolean isIpc()
+    {
+        return null != responsePublication && Aeron.NULL_VALUE != ipcMemberId;
+    }
+
     /**
      * Cluster session encoded principal from when the session was authenticated.
      *
@@ -131,6 +150,15 @@ public class ClientSession
      */
     public long offer(final DirectBuffer buffer, final int offset, final int length)
     {
+        if (hasBatchedMessages())
+        {
+            final long result = flushBatch();
+            if (result < 0)
+            {
+                return result;
+            }
+        }
+
         return clusteredServiceAgent.offer(id, responsePublication, buffer, offset, length);
     }
 
@@ -145,6 +173,15 @@ public class ClientSession
      */
     public long offer(final DirectBufferVector[] vectors)
     {
+        if (hasBatchedMessages())
+        {
+            final long result = flushBatch();
+            if (result < 0)
+            {
+                return result;
+            }
+        }
+
         return clusteredServiceAgent.offer(id, responsePublication, vectors);
     }
 
@@ -184,16 +221,113 @@ public class ClientSession
      */
     public long tryClaim(final int length, final BufferClaim bufferClaim)
     {
+        if (hasBatchedMessages())
+        {
+            final long result = flushBatch();
+            if (result < 0)
+            {
+                return result;
+            }
+        }
+
         return clusteredServiceAgent.tryClaim(id, responsePublication, length, bufferClaim);
     }
 
+    /**
+     * Non-blocking add of a message to a batch for this session which is sent as a single egress message when the
+     * duty cycle of the service completes, on {@link #flushBatch()}, or before any other message is offered to this
+     * session so order is preserved. Batching many messages to a session within a duty cycle means the cost of an
+     * offer is paid once per batch rather than per message.
+     * <p>
+     * A batch is limited to {@link Publication#maxPayloadLength()} so it is sent in a single frame. If the message
+     * will not fit then the current batch is sent first, and a message too large for a batch is offered directly.
+     * Clients should use {@link io.aeron.cluster.client.EgressAdapter} or {@link AeronCluster#pollEgress()} to
+     * receive batches which are dispatched as individual messages.
+     *
+     * @param buffer containing message.
+     * @param offset offset in the buffer at which the encoded message begins.
+     * @param length in bytes of the encoded message.
+     * @return true if the message has been batched, or mocked when not the {@link Cluster.Role#LEADER}, otherwise
+     * false if the session is not connected or back pressure prevented a full batch being sent.
+     */
+    public boolean batch(final DirectBuffer buffer, final int offset, final int length)
+    {
+        return clusteredServiceAgent.batch(this, buffer, offset, length);
+    }
+
+    /**
+     * Non-blocking send of any messages batched by {@link #batch(DirectBuffer, int, int)} as a single message.
+     *
+     * @return the same as {@link Publication#offer(DirectBuffer, int, int)} when in {@link Cluster.Role#LEADER} with
+     * messages batched otherwise {@link #MOCKED_OFFER}.
+     */
+    public long flushBatch()
+    {
+        return clusteredServiceAgent.flushBatch(this);
+    }
+
+    /**
+     * Non-blocking publish of a response to a read-only query passed to
+     * {@link ClusteredService#onReadQuery(ClientSession, long, DirectBuffer, int, int)}.
+     * <p>
+     * Unlike {@link #offer(DirectBuffer, int, int)} the response is published from any member which serves the query
+     * and not only from the leader.
+     *
+     * @param correlationId of the query being responded to.
+     * @param buffer        containing response.
+     * @param offset        offset in the buffer at which the encoded response begins.
+     * @param length        in bytes of the encoded response.
+     * @return the same as {@link Publication#offer(DirectBuffer, int, int)} when a responding service otherwise
+     * {@link #MOCKED_OFFER}.
+     */
+    public long offerQueryResponse(
+        final long correlationId, final DirectBuffer buffer, final int offset, final int length)
+    {
+        return clusteredServiceAgent.offerQueryResponse(this, correlationId, buffer, offset, length);
+    }
+
+    Publication responsePublication()
+    {
+        return responsePublication;
+    }
+
+    EgressBatch egressBatch()
+    {
+        if (null == egressBatch)
+        {
+            egressBatch = new EgressBatch();
+        }
+
+        return egressBatch;
+    }
+
+    boolean hasBatchedMessages()
+    {
+        return null != egressBatch && !egressBatch.isEmpty();
+    }
+
+    void clearBatch()
+    {
+        if (null != egressBatch)
+        {
+            egressBatch.clear();
+        }
+    }
+
     void connect(final Aeron aeron)
     {
         if (null == responsePublication)
         {
             try
             {
-                responsePublication = aeron.addPublication(responseChannel, responseStreamId);
+                if (Aeron.NULL_VALUE != ipcMemberId)
+                {
+                    responsePublication = aeron.addPublication(CommonContext.IPC_CHANNEL, ipcResponseStreamId);
+                }
+                else
+                {
+                    responsePublication = aeron.addPublication(responseChannel, responseStreamId);
+                }
             }
             catch (final RegistrationException ex)
             {
@@ -202,6 +336,11 @@ public class ClientSession
         }
     }
 
+    void clearIpc()
+    {
+        ipcMemberId = Aeron.NULL_VALUE;
+    }
+
     void markClosing()
     {
         this.isClosing = true;
@@ -214,6 +353,7 @@ public class ClientSession
 
     void disconnect()
     {
+        clearBatch();
         CloseHelper.close(responsePublication);
         responsePublication = null;
     }
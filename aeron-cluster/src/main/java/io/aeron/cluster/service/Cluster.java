@@ -274,6 +274,22 @@ public interface Cluster extends IdleStrategy
      */
     long tryClaim(int length, BufferClaim bufferClaim);
 
+    /**
+     * Offer a message as egress to all connected clients with a single send on the egress broadcast channel, which
+     * is typically multicast, rather than offering the same message to each {@link ClientSession}. Clients receive
+     * the message if they subscribe to the same broadcast channel and it is dispatched with a cluster session id of
+     * {@link io.aeron.Aeron#NULL_VALUE}.
+     *
+     * @param buffer containing the message to be offered.
+     * @param offset in the buffer at which the encoded message begins.
+     * @param length in the buffer of the encoded message.
+     * @return the same as {@link io.aeron.Publication#offer(DirectBuffer, int, int)} when in {@link Role#LEADER}
+     * otherwise {@link ClientSession#MOCKED_OFFER}.
+     * @throws io.aeron.cluster.client.ClusterException if the egress broadcast channel is not configured.
+     * @see ClusteredServiceContainer.Context#egressBroadcastChannel(String)
+     */
+    long broadcast(DirectBuffer buffer, int offset, int length);
+
     /**
      * Reset idle strategy.
      */
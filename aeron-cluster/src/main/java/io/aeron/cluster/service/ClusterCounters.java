@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.status.CountersReader;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.concurrent.status.CountersReader.*;
+
+/**
+ * Counters for a cluster which carry the cluster id in their key so multiple clusters can share a media driver and
+ * each find their own counters.
+ */
+public class ClusterCounters
+{
+    /**
+     * Offset in the key at which the cluster id is stored.
+     */
+    public static final int CLUSTER_ID_OFFSET = 0;
+
+    /**
+     * Allocate a counter for a cluster which has the cluster id as its key.
+     *
+     * @param aeron      to allocate the counter.
+     * @param tempBuffer to use for building the key and label without allocation.
+     * @param name       of the counter for the label.
+     * @param typeId     for the counter.
+     * @param clusterId  to which the counter belongs.
+     * @return the {@link Counter} for the cluster.
+     */
+    public static Counter allocate(
+        final Aeron aeron,
+        final MutableDirectBuffer tempBuffer,
+        final String name,
+        final int typeId,
+        final int clusterId)
+    {
+        tempBuffer.putInt(CLUSTER_ID_OFFSET, clusterId);
+        final int keyLength = CLUSTER_ID_OFFSET + SIZE_OF_INT;
+
+        int labelLength = 0;
+        labelLength += tempBuffer.putStringWithoutLengthAscii(keyLength + labelLength, name);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(keyLength + labelLength, " - clusterId=");
+        labelLength += tempBuffer.putIntAscii(keyLength + labelLength, clusterId);
+
+        return aeron.addCounter(typeId, tempBuffer, 0, keyLength, tempBuffer, keyLength, labelLength);
+    }
+
+    /**
+     * Find the active counter id of a type for a given cluster.
+     *
+     * @param counters  to search within.
+     * @param typeId    of the counter.
+     * @param clusterId to which the counter belongs.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    public static int find(final CountersReader counters, final int typeId, final int clusterId)
+    {
+        final DirectBuffer buffer = counters.metaDataBuffer();
+
+        for (int i = 0, size = counters.maxCounterId(); i < size; i++)
+        {
+            if (counters.getCounterState(i) == RECORD_ALLOCATED)
+            {
+                final int recordOffset = CountersReader.metaDataOffset(i);
+
+                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == typeId &&
+                    buffer.getInt(recordOffset + KEY_OFFSET + CLUSTER_ID_OFFSET) == clusterId)
+                {
+                    return i;
+                }
+            }
+        }
+
+        return NULL_COUNTER_ID;
+    }
+}
@@ -15,13 +15,8 @@
  */
 package io.aeron.cluster.service;
 
-import org.agrona.DirectBuffer;
 import org.agrona.concurrent.status.CountersReader;
 
-import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
-import static org.agrona.concurrent.status.CountersReader.RECORD_ALLOCATED;
-import static org.agrona.concurrent.status.CountersReader.TYPE_ID_OFFSET;
-
 /**
  * The counter that represent the role a node is playing in a cluster.
  */
@@ -33,28 +28,26 @@ public class ClusterNodeRole
     public static final int CLUSTER_NODE_ROLE_TYPE_ID = 201;
 
     /**
-     * Find the active counter id for a cluster node role.
+     * Find the active counter id for a cluster node role for the default cluster id.
      *
      * @param counters to search within.
      * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
      */
     public static int findCounterId(final CountersReader counters)
     {
-        final DirectBuffer buffer = counters.metaDataBuffer();
-
-        for (int i = 0, size = counters.maxCounterId(); i < size; i++)
-        {
-            if (counters.getCounterState(i) == RECORD_ALLOCATED)
-            {
-                final int recordOffset = CountersReader.metaDataOffset(i);
-
-                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == CLUSTER_NODE_ROLE_TYPE_ID)
-                {
-                    return i;
-                }
-            }
-        }
+        return findCounterId(counters, ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT);
+    }
 
-        return NULL_COUNTER_ID;
+    /**
+     * Find the active counter id for a cluster node role.
+     *
+     * @param counters  to search within.
+     * @param clusterId to which the counter belongs.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    public static int findCounterId(final CountersReader counters, final int clusterId)
+    {
+        return ClusterCounters.find(counters, CLUSTER_NODE_ROLE_TYPE_ID, clusterId);
     }
 }
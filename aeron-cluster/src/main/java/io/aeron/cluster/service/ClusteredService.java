@@ -108,6 +108,33 @@ public interface ClusteredService
      */
     void onTerminate(Cluster cluster);
 
+    /**
+     * A read-only query has been received from a client which has not been appended to the log. It is served on any
+     * member once the log has been applied up to the commit position of the leader at the time the query arrived, so
+     * the service state reflects all the messages committed before the query was sent.
+     * <p>
+     * The read index for queries served by the leader, and for the read index it gives followers, is its commit
+     * position while it holds a lease from having heard from a quorum of members recently. The lease is shorter than
+     * the leader heartbeat timeout, or the shortest time after which adaptive detection could suspect the leader if
+     * enabled, by two heartbeat intervals plus the slow tick of the consensus module, to cover the heartbeats, their
+     * transit and drift between clocks, so another leader cannot have been elected while it is held. Such reads are
+     * lease based rather than confirmed by a round trip to a quorum, so they rely on the clocks of the members running
+     * at close to the same rate. Queries are not served while the lease is not held.
+     * <p>
+     * The service must not change its state in response to a query, as the query is only seen by the member which
+     * serves it. A response can be sent with {@link ClientSession#offerQueryResponse(long, DirectBuffer, int, int)}.
+     *
+     * @param session       which sent the query.
+     * @param correlationId of the query to be returned with the response.
+     * @param buffer        containing the query.
+     * @param offset        at which the query begins.
+     * @param length        of the query in bytes.
+     */
+    default void onReadQuery(
+        ClientSession session, long correlationId, DirectBuffer buffer, int offset, int length)
+    {
+    }
+
     /**
      * An election has been successful and a leader has entered a new term.
      *
@@ -21,44 +21,63 @@ import io.aeron.archive.status.RecordingPos;
 import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.codecs.*;
 import io.aeron.driver.Configuration;
+import io.aeron.exceptions.AeronException;
 import io.aeron.logbuffer.BufferClaim;
 import io.aeron.logbuffer.Header;
 import io.aeron.protocol.DataHeaderFlyweight;
 import io.aeron.status.ReadableCounter;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.ExpandableRingBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.SemanticVersion;
+import org.agrona.collections.ArrayListUtil;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.status.CountersReader;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import static io.aeron.Aeron.NULL_VALUE;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 import static io.aeron.archive.codecs.SourceLocation.LOCAL;
+import static io.aeron.cluster.client.AeronCluster.READ_QUERY_RESPONSE_HEADER_LENGTH;
 import static io.aeron.cluster.client.AeronCluster.SESSION_HEADER_LENGTH;
 import static io.aeron.cluster.service.ClusteredServiceContainer.Configuration.MARK_FILE_UPDATE_INTERVAL_NS;
 import static io.aeron.cluster.service.ClusteredServiceContainer.SNAPSHOT_TYPE_ID;
 import static java.util.Collections.unmodifiableCollection;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
 
 class ClusteredServiceAgent implements Agent, Cluster
 {
     static final long MARK_FILE_UPDATE_INTERVAL_MS = TimeUnit.NANOSECONDS.toMillis(MARK_FILE_UPDATE_INTERVAL_NS);
 
+    private static final int READ_QUERY_LIMIT = 100;
+    private static final long[] EMPTY_PART_RECORDING_IDS = new long[0];
+    private static final int READ_INDEX_OFFSET = 0;
+    private static final int CLUSTER_SESSION_ID_OFFSET = READ_INDEX_OFFSET + SIZE_OF_LONG;
+    private static final int CORRELATION_ID_OFFSET = CLUSTER_SESSION_ID_OFFSET + SIZE_OF_LONG;
+    private static final int QUERY_OFFSET = CORRELATION_ID_OFFSET + SIZE_OF_LONG;
+
     private boolean isServiceActive;
     private volatile boolean isAbort;
     private final int serviceId;
     private int memberId = NULL_VALUE;
     private long ackId = 0;
+    private long leadershipTermId = NULL_VALUE;
+    private long logLeadershipTermId = NULL_VALUE;
     private long timeOfLastMarkFileUpdateMs;
     private long cachedTimeMs;
     private long clusterTime;
     private long clusterLogPosition = NULL_POSITION;
     private long terminationPosition = NULL_POSITION;
     private long roleChangePosition = NULL_POSITION;
+    private int readQueryCount;
 
     private final AeronArchive.Context archiveCtx;
     private final ClusteredServiceContainer.Context ctx;
@@ -66,6 +85,7 @@ class ClusteredServiceAgent implements Agent, Cluster
     private final AgentInvoker aeronAgentInvoker;
     private final Long2ObjectHashMap<ClientSession> sessionByIdMap = new Long2ObjectHashMap<>();
     private final Collection<ClientSession> readOnlyClientSessions = unmodifiableCollection(sessionByIdMap.values());
+    private final ArrayList<ClientSession> batchingSessions = new ArrayList<>();
     private final ClusteredService service;
     private final ConsensusModuleProxy consensusModuleProxy;
     private final ServiceAdapter serviceAdapter;
@@ -76,12 +96,21 @@ class ClusteredServiceAgent implements Agent, Cluster
         new byte[Configuration.MAX_UDP_PAYLOAD_LENGTH - DataHeaderFlyweight.HEADER_LENGTH]);
     private final DirectBufferVector headerVector = new DirectBufferVector(headerBuffer, 0, SESSION_HEADER_LENGTH);
     private final SessionMessageHeaderEncoder sessionMessageHeaderEncoder = new SessionMessageHeaderEncoder();
+    private final UnsafeBuffer readQueryResponseHeaderBuffer =
+        new UnsafeBuffer(new byte[READ_QUERY_RESPONSE_HEADER_LENGTH]);
+    private final ReadQueryResponseHeaderEncoder readQueryResponseHeaderEncoder =
+        new ReadQueryResponseHeaderEncoder();
+    private final ExpandableRingBuffer pendingReadQueries = new ExpandableRingBuffer();
+    private final ExpandableArrayBuffer readQueryBuffer = new ExpandableArrayBuffer();
+    private final ExpandableRingBuffer.MessageConsumer pendingReadQueryServer = this::servePendingReadQuery;
     private final Runnable abortHandler = this::abort;
 
     private BoundedLogAdapter logAdapter;
+    private IncrementalSnapshotTaker incrementalSnapshotTaker;
     private ReadableCounter roleCounter;
     private ReadableCounter commitPosition;
     private ActiveLogEvent activeLogEvent;
+    private Publication broadcastPublication;
     private Role role = Role.FOLLOWER;
     private String logChannel = null;
     private TimeUnit timeUnit = null;
@@ -103,6 +132,7 @@ class ClusteredServiceAgent implements Agent, Cluster
         consensusModuleProxy = new ConsensusModuleProxy(aeron.addPublication(channel, ctx.consensusModuleStreamId()));
         serviceAdapter = new ServiceAdapter(aeron.addSubscription(channel, ctx.serviceStreamId()), this);
         sessionMessageHeaderEncoder.wrapAndApplyHeader(headerBuffer, 0, new MessageHeaderEncoder());
+        readQueryResponseHeaderEncoder.wrapAndApplyHeader(readQueryResponseHeaderBuffer, 0, new MessageHeaderEncoder());
         aeron.addCloseHandler(abortHandler);
     }
 
@@ -149,6 +179,8 @@ class ClusteredServiceAgent implements Agent, Cluster
                     session.disconnect();
                 }
 
+                CloseHelper.close(broadcastPublication);
+                CloseHelper.close(incrementalSnapshotTaker);
                 CloseHelper.close(logAdapter);
                 CloseHelper.close(serviceAdapter);
                 CloseHelper.close(consensusModuleProxy);
@@ -184,6 +216,23 @@ class ClusteredServiceAgent implements Agent, Cluster
             workCount += polled;
         }
 
+        if (!batchingSessions.isEmpty())
+        {
+            workCount += flushBatches();
+        }
+
+        if (null != logAdapter && !pendingReadQueries.isEmpty())
+        {
+            readQueryCount = 0;
+            pendingReadQueries.consume(pendingReadQueryServer, READ_QUERY_LIMIT);
+            workCount += readQueryCount;
+        }
+
+        if (null != incrementalSnapshotTaker)
+        {
+            workCount += incrementalSnapshotWork();
+        }
+
         return workCount;
     }
 
@@ -291,6 +340,31 @@ class ClusteredServiceAgent implements Agent, Cluster
         return consensusModuleProxy.tryClaim(length + SESSION_HEADER_LENGTH, bufferClaim, headerBuffer);
     }
 
+    public long broadcast(final DirectBuffer buffer, final int offset, final int length)
+    {
+        final String channel = ctx.egressBroadcastChannel();
+        if (null == channel)
+        {
+            throw new ClusterException("egress broadcast channel not configured");
+        }
+
+        if (role != Cluster.Role.LEADER)
+        {
+            return ClientSession.MOCKED_OFFER;
+        }
+
+        if (null == broadcastPublication)
+        {
+            broadcastPublication = aeron.addPublication(channel, ctx.egressBroadcastStreamId());
+        }
+
+        sessionMessageHeaderEncoder
+            .clusterSessionId(NULL_VALUE)
+            .timestamp(clusterTime);
+
+        return broadcastPublication.offer(headerBuffer, 0, SESSION_HEADER_LENGTH, buffer, offset, length, null);
+    }
+
     public void reset()
     {
         idleStrategy.reset();
@@ -318,6 +392,7 @@ class ClusteredServiceAgent implements Agent, Cluster
         final int memberId,
         final int logSessionId,
         final int logStreamId,
+        final long logRecordingId,
         final String logChannel)
     {
         if (null != logAdapter && !logChannel.equals(this.logChannel))
@@ -334,7 +409,14 @@ class ClusteredServiceAgent implements Agent, Cluster
 
         roleChangePosition = NULL_POSITION;
         activeLogEvent = new ActiveLogEvent(
-            leadershipTermId, logPosition, maxLogPosition, memberId, logSessionId, logStreamId, logChannel);
+            leadershipTermId,
+            logPosition,
+            maxLogPosition,
+            memberId,
+            logSessionId,
+            logStreamId,
+            logRecordingId,
+            logChannel);
     }
 
     public void onServiceTerminationPosition(final long logPosition)
@@ -347,6 +429,61 @@ class ClusteredServiceAgent implements Agent, Cluster
         roleChangePosition = logPosition;
     }
 
+    void onReadQuery(
+        final long clusterSessionId,
+        final long correlationId,
+        final long readIndex,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        if (null != logAdapter && pendingReadQueries.isEmpty() && logAdapter.position() >= readIndex)
+        {
+            serveReadQuery(clusterSessionId, correlationId, buffer, offset, length);
+        }
+        else
+        {
+            readQueryBuffer.putLong(READ_INDEX_OFFSET, readIndex);
+            readQueryBuffer.putLong(CLUSTER_SESSION_ID_OFFSET, clusterSessionId);
+            readQueryBuffer.putLong(CORRELATION_ID_OFFSET, correlationId);
+            readQueryBuffer.putBytes(QUERY_OFFSET, buffer, offset, length);
+
+            if (!pendingReadQueries.append(readQueryBuffer, 0, QUERY_OFFSET + length))
+            {
+                ctx.countedErrorHandler().onError(new ClusterException(
+                    "read query discarded as pending read queries at capacity", AeronException.Category.WARN));
+            }
+        }
+    }
+
+    long offerQueryResponse(
+        final ClientSession session,
+        final long correlationId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        if (!ctx.isRespondingService())
+        {
+            return ClientSession.MOCKED_OFFER;
+        }
+
+        session.connect(aeron);
+        final Publication publication = session.responsePublication();
+        if (null == publication)
+        {
+            return Publication.NOT_CONNECTED;
+        }
+
+        readQueryResponseHeaderEncoder
+            .clusterSessionId(session.id())
+            .correlationId(correlationId)
+            .logPosition(null != logAdapter ? logAdapter.position() : clusterLogPosition);
+
+        return publication.offer(
+            readQueryResponseHeaderBuffer, 0, READ_QUERY_RESPONSE_HEADER_LENGTH, buffer, offset, length, null);
+    }
+
     void onSessionMessage(
         final long logPosition,
         final long clusterSessionId,
@@ -376,6 +513,8 @@ class ClusteredServiceAgent implements Agent, Cluster
         final long clusterSessionId,
         final long timestamp,
         final int responseStreamId,
+        final int ipcMemberId,
+        final int ipcResponseStreamId,
         final String responseChannel,
         final byte[] encodedPrincipal)
     {
@@ -388,8 +527,16 @@ class ClusteredServiceAgent implements Agent, Cluster
                 " leadershipTermId=" + leadershipTermId + " logPosition=" + logPosition);
         }
 
+        final boolean isIpc =
+            NULL_VALUE != ipcMemberId && memberId == ipcMemberId && logLeadershipTermId == leadershipTermId;
         final ClientSession session = new ClientSession(
-            clusterSessionId, responseStreamId, responseChannel, encodedPrincipal, this);
+            clusterSessionId,
+            responseStreamId,
+            responseChannel,
+            isIpc ? ipcMemberId : NULL_VALUE,
+            isIpc ? ipcResponseStreamId : NULL_VALUE,
+            encodedPrincipal,
+            this);
 
         if (Role.LEADER == role && ctx.isRespondingService())
         {
@@ -418,6 +565,11 @@ class ClusteredServiceAgent implements Agent, Cluster
                 " leadershipTermId=" + leadershipTermId + " logPosition=" + logPosition);
         }
 
+        if (session.hasBatchedMessages())
+        {
+            flushBatch(session);
+        }
+
         session.disconnect();
         service.onSessionClose(session, timestamp, closeReason);
     }
@@ -450,6 +602,7 @@ class ClusteredServiceAgent implements Agent, Cluster
         else
         {
             sessionMessageHeaderEncoder.leadershipTermId(leadershipTermId);
+            this.leadershipTermId = leadershipTermId;
             clusterLogPosition = logPosition;
             clusterTime = timestamp;
             this.timeUnit = timeUnit;
@@ -493,7 +646,7 @@ class ClusteredServiceAgent implements Agent, Cluster
         final byte[] encodedPrincipal)
     {
         sessionByIdMap.put(clusterSessionId, new ClientSession(
-            clusterSessionId, responseStreamId, responseChannel, encodedPrincipal, this));
+            clusterSessionId, responseStreamId, responseChannel, NULL_VALUE, NULL_VALUE, encodedPrincipal, this));
     }
 
     void handleError(final Throwable ex)
@@ -576,10 +729,95 @@ class ClusteredServiceAgent implements Agent, Cluster
         return offset;
     }
 
+    boolean batch(final ClientSession session, final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (role != Cluster.Role.LEADER)
+        {
+            return true;
+        }
+
+        final Publication publication = session.responsePublication();
+        if (null == publication)
+        {
+            return false;
+        }
+
+        final EgressBatch batch = session.egressBatch();
+        final int maxLength = publication.maxPayloadLength();
+        if (!batch.hasCapacity(length, maxLength))
+        {
+            if (!batch.isEmpty() && batch.flush(publication) < 0)
+            {
+                return false;
+            }
+
+            if (!batch.hasCapacity(length, maxLength))
+            {
+                return offer(session.id(), publication, buffer, offset, length) > 0;
+            }
+        }
+
+        if (!batch.isScheduled())
+        {
+            batch.isScheduled(true);
+            batchingSessions.add(session);
+        }
+
+        batch.add(leadershipTermId, session.id(), clusterTime, buffer, offset, length);
+
+        return true;
+    }
+
+    long flushBatch(final ClientSession session)
+    {
+        if (role != Cluster.Role.LEADER || !session.hasBatchedMessages())
+        {
+            return ClientSession.MOCKED_OFFER;
+        }
+
+        final Publication publication = session.responsePublication();
+        if (null == publication)
+        {
+            return Publication.NOT_CONNECTED;
+        }
+
+        return session.egressBatch().flush(publication);
+    }
+
+    private int flushBatches()
+    {
+        int workCount = 0;
+
+        for (int lastIndex = batchingSessions.size() - 1, i = lastIndex; i >= 0; i--)
+        {
+            final ClientSession session = batchingSessions.get(i);
+            if (!session.hasBatchedMessages() || flushBatch(session) > 0)
+            {
+                ArrayListUtil.fastUnorderedRemove(batchingSessions, i, lastIndex--);
+                session.egressBatch().isScheduled(false);
+                workCount++;
+            }
+        }
+
+        return workCount;
+    }
+
     private void role(final Role newRole)
     {
         if (newRole != role)
         {
+            if (Role.LEADER == role)
+            {
+                for (int i = 0, size = batchingSessions.size(); i < size; i++)
+                {
+                    final EgressBatch batch = batchingSessions.get(i).egressBatch();
+                    batch.clear();
+                    batch.isScheduled(false);
+                }
+
+                batchingSessions.clear();
+            }
+
             role = newRole;
             service.onRoleChange(newRole);
         }
@@ -593,7 +831,10 @@ class ClusteredServiceAgent implements Agent, Cluster
 
         if (NULL_VALUE != leadershipTermId)
         {
-            loadSnapshot(RecoveryState.getSnapshotRecordingId(counters, recoveryCounterId, serviceId));
+            loadSnapshot(
+                RecoveryState.getSnapshotRecordingId(counters, recoveryCounterId, serviceId),
+                leadershipTermId,
+                clusterLogPosition);
         }
         else
         {
@@ -614,24 +855,63 @@ class ClusteredServiceAgent implements Agent, Cluster
         {
             awaitActiveLog();
 
-            try (Subscription subscription = aeron.addSubscription(activeLogEvent.channel, activeLogEvent.streamId))
+            if (NULL_VALUE != activeLogEvent.recordingId)
             {
-                final long id = ackId++;
-                idleStrategy.reset();
-                while (!consensusModuleProxy.ack(activeLogEvent.logPosition, clusterTime, id, NULL_VALUE, serviceId))
-                {
-                    idle();
-                }
-
-                final Image image = awaitImage(activeLogEvent.sessionId, subscription);
-                final BoundedLogAdapter adapter = new BoundedLogAdapter(image, commitPosition, this);
-                consumeImage(image, adapter, activeLogEvent.maxLogPosition);
+                replayLogIndependently(activeLogEvent);
+            }
+            else
+            {
+                replayLog(activeLogEvent);
             }
 
             activeLogEvent = null;
         }
     }
 
+    private void replayLog(final ActiveLogEvent activeLogEvent)
+    {
+        try (Subscription subscription = aeron.addSubscription(activeLogEvent.channel, activeLogEvent.streamId))
+        {
+            final long id = ackId++;
+            idleStrategy.reset();
+            while (!consensusModuleProxy.ack(activeLogEvent.logPosition, clusterTime, id, NULL_VALUE, serviceId))
+            {
+                idle();
+            }
+
+            final Image image = awaitImage(activeLogEvent.sessionId, subscription);
+            final BoundedLogAdapter adapter = new BoundedLogAdapter(image, commitPosition, this);
+            consumeImage(image, adapter, activeLogEvent.maxLogPosition);
+        }
+    }
+
+    private void replayLogIndependently(final ActiveLogEvent activeLogEvent)
+    {
+        final long id = ackId++;
+        idleStrategy.reset();
+        while (!consensusModuleProxy.ack(activeLogEvent.logPosition, clusterTime, id, NULL_VALUE, serviceId))
+        {
+            idle();
+        }
+
+        try (AeronArchive archive = AeronArchive.connect(archiveCtx.clone()))
+        {
+            final String channel = ctx.replayChannel();
+            final int streamId = ctx.replayStreamId();
+            final long length = activeLogEvent.maxLogPosition - activeLogEvent.logPosition;
+            final int sessionId = (int)archive.startReplay(
+                activeLogEvent.recordingId, activeLogEvent.logPosition, length, channel, streamId);
+
+            final String replaySessionChannel = ChannelUri.addSessionId(channel, sessionId);
+            try (Subscription subscription = aeron.addSubscription(replaySessionChannel, streamId))
+            {
+                final Image image = awaitImage(sessionId, subscription);
+                final BoundedLogAdapter adapter = new BoundedLogAdapter(image, activeLogEvent.maxLogPosition, this);
+                consumeImage(image, adapter, activeLogEvent.maxLogPosition);
+            }
+        }
+    }
+
     private void awaitActiveLog()
     {
         idleStrategy.reset();
@@ -673,11 +953,11 @@ class ClusteredServiceAgent implements Agent, Cluster
     private int awaitRecoveryCounter(final CountersReader counters)
     {
         idleStrategy.reset();
-        int counterId = RecoveryState.findCounterId(counters);
+        int counterId = RecoveryState.findCounterId(counters, ctx.clusterId());
         while (NULL_COUNTER_ID == counterId)
         {
             idle();
-            counterId = RecoveryState.findCounterId(counters);
+            counterId = RecoveryState.findCounterId(counters, ctx.clusterId());
         }
 
         return counterId;
@@ -698,6 +978,7 @@ class ClusteredServiceAgent implements Agent, Cluster
 
         sessionMessageHeaderEncoder.leadershipTermId(activeLogEvent.leadershipTermId);
         memberId = activeLogEvent.memberId;
+        logLeadershipTermId = activeLogEvent.leadershipTermId;
         ctx.clusterMarkFile().memberId(memberId);
         logChannel = activeLogEvent.channel;
         activeLogEvent = null;
@@ -707,6 +988,7 @@ class ClusteredServiceAgent implements Agent, Cluster
 
         for (final ClientSession session : sessionByIdMap.values())
         {
+            session.clearIpc();
             if (Role.LEADER == role)
             {
                 if (ctx.isRespondingService())
@@ -738,11 +1020,11 @@ class ClusteredServiceAgent implements Agent, Cluster
     private ReadableCounter awaitClusterRoleCounter(final CountersReader counters)
     {
         idleStrategy.reset();
-        int counterId = ClusterNodeRole.findCounterId(counters);
+        int counterId = ClusterNodeRole.findCounterId(counters, ctx.clusterId());
         while (NULL_COUNTER_ID == counterId)
         {
             idle();
-            counterId = ClusterNodeRole.findCounterId(counters);
+            counterId = ClusterNodeRole.findCounterId(counters, ctx.clusterId());
         }
 
         return new ReadableCounter(counters, counterId);
@@ -751,17 +1033,17 @@ class ClusteredServiceAgent implements Agent, Cluster
     private ReadableCounter awaitCommitPositionCounter(final CountersReader counters)
     {
         idleStrategy.reset();
-        int counterId = CommitPos.findCounterId(counters);
+        int counterId = CommitPos.findCounterId(counters, ctx.clusterId());
         while (NULL_COUNTER_ID == counterId)
         {
             idle();
-            counterId = CommitPos.findCounterId(counters);
+            counterId = CommitPos.findCounterId(counters, ctx.clusterId());
         }
 
         return new ReadableCounter(counters, counterId);
     }
 
-    private void loadSnapshot(final long recordingId)
+    private void loadSnapshot(final long recordingId, final long leadershipTermId, final long logPosition)
     {
         try (AeronArchive archive = AeronArchive.connect(archiveCtx.clone()))
         {
@@ -773,13 +1055,90 @@ class ClusteredServiceAgent implements Agent, Cluster
             try (Subscription subscription = aeron.addSubscription(replaySessionChannel, streamId))
             {
                 final Image image = awaitImage(sessionId, subscription);
-                loadState(image);
+                final int partCount = loadState(image).length;
+                if (partCount > 0)
+                {
+                    loadSnapshotParts(archive, findSnapshotPartRecordingIds(leadershipTermId, logPosition, partCount));
+                }
+
                 service.onStart(this, image);
             }
         }
     }
 
-    private void loadState(final Image image)
+    private long[] findSnapshotPartRecordingIds(
+        final long leadershipTermId, final long logPosition, final int partCount)
+    {
+        final CountersReader counters = aeron.countersReader();
+        final long[] partRecordingIds = new long[partCount];
+
+        for (int i = 0; i < partCount; i++)
+        {
+            partRecordingIds[i] = RecoverySnapshotPart.findRecordingId(
+                counters, ctx.clusterId(), leadershipTermId, logPosition, serviceId, i);
+
+            if (NULL_VALUE == partRecordingIds[i])
+            {
+                throw new ClusterException(
+                    "snapshot part not found in recording log: serviceId=" + serviceId +
+                    " partIndex=" + i +
+                    " partCount=" + partCount +
+                    " logPosition=" + logPosition +
+                    " leadershipTermId=" + leadershipTermId);
+            }
+        }
+
+        return partRecordingIds;
+    }
+
+    private void loadSnapshotParts(final AeronArchive archive, final long[] partRecordingIds)
+    {
+        if (!(service instanceof MultiPartSnapshot))
+        {
+            throw new ClusterException(
+                "snapshot has " + partRecordingIds.length + " parts but service does not implement MultiPartSnapshot");
+        }
+
+        final MultiPartSnapshot multiPartSnapshot = (MultiPartSnapshot)service;
+        final int partCount = partRecordingIds.length;
+        final String channel = ctx.replayChannel();
+        final int streamId = ctx.replayStreamId();
+        final int[] sessionIds = new int[partCount];
+        final Subscription[] subscriptions = new Subscription[partCount];
+        final Image[] images = new Image[partCount];
+
+        try
+        {
+            for (int i = 0; i < partCount; i++)
+            {
+                sessionIds[i] = (int)archive.startReplay(partRecordingIds[i], 0, NULL_VALUE, channel, streamId);
+                subscriptions[i] = aeron.addSubscription(ChannelUri.addSessionId(channel, sessionIds[i]), streamId);
+            }
+
+            for (int i = 0; i < partCount; i++)
+            {
+                images[i] = awaitImage(sessionIds[i], subscriptions[i]);
+            }
+
+            try (SnapshotPartWorkers workers = new SnapshotPartWorkers(
+                ctx.threadFactory(),
+                "snapshot-load-part",
+                partCount,
+                (partIndex) -> multiPartSnapshot.onLoadSnapshotPart(partIndex, partCount, images[partIndex])))
+            {
+                awaitSnapshotParts(workers);
+            }
+        }
+        finally
+        {
+            for (final Subscription subscription : subscriptions)
+            {
+                CloseHelper.close(subscription);
+            }
+        }
+    }
+
+    private long[] loadState(final Image image)
     {
         final ServiceSnapshotLoader snapshotLoader = new ServiceSnapshotLoader(image, this);
         while (true)
@@ -810,39 +1169,227 @@ class ClusteredServiceAgent implements Agent, Cluster
         }
 
         timeUnit = snapshotLoader.timeUnit();
+
+        return snapshotLoader.partRecordingIds();
+    }
+
+    private int snapshotPartCount()
+    {
+        if (service instanceof MultiPartSnapshot &&
+            ctx.snapshotSchemaVersion() >= ServiceSnapshotTaker.PARTS_SINCE_VERSION)
+        {
+            return ((MultiPartSnapshot)service).snapshotPartCount();
+        }
+
+        return 0;
     }
 
-    private long onTakeSnapshot(final long logPosition, final long leadershipTermId)
+    private long onTakeSnapshot(final long logPosition, final long leadershipTermId, final long[] partRecordingIds)
     {
         final long recordingId;
+        final int partCount = partRecordingIds.length;
+        final Publication[] partPublications = new Publication[partCount];
+        final long[] partSubscriptionIds = new long[partCount];
+        final int[] partCounterIds = new int[partCount];
+        Arrays.fill(partSubscriptionIds, NULL_VALUE);
+        Arrays.fill(partRecordingIds, NULL_VALUE);
 
         try (AeronArchive archive = AeronArchive.connect(archiveCtx.clone());
             Publication publication = aeron.addExclusivePublication(ctx.snapshotChannel(), ctx.snapshotStreamId()))
         {
             final String channel = ChannelUri.addSessionId(ctx.snapshotChannel(), publication.sessionId());
             final long subscriptionId = archive.startRecording(channel, ctx.snapshotStreamId(), LOCAL);
+            boolean isTaken = false;
             try
             {
                 final CountersReader counters = aeron.countersReader();
                 final int counterId = awaitRecordingCounter(publication.sessionId(), counters);
-
                 recordingId = RecordingPos.getRecordingId(counters, counterId);
-                snapshotState(publication, logPosition, leadershipTermId);
+
+                for (int i = 0; i < partCount; i++)
+                {
+                    final Publication partPublication = aeron.addExclusivePublication(
+                        ctx.snapshotChannel(), ctx.snapshotStreamId());
+                    partPublications[i] = partPublication;
+
+                    final String partChannel = ChannelUri.addSessionId(
+                        ctx.snapshotChannel(), partPublication.sessionId());
+                    partSubscriptionIds[i] = archive.startRecording(partChannel, ctx.snapshotStreamId(), LOCAL);
+                    partCounterIds[i] = awaitRecordingCounter(partPublication.sessionId(), counters);
+                    partRecordingIds[i] = RecordingPos.getRecordingId(counters, partCounterIds[i]);
+                }
+
+                snapshotState(publication, logPosition, leadershipTermId, partRecordingIds);
 
                 checkForClockTick();
-                service.onTakeSnapshot(publication);
+                if (partCount > 0)
+                {
+                    takeSnapshotParts(publication, partPublications);
+
+                    for (int i = 0; i < partCount; i++)
+                    {
+                        awaitRecordingComplete(
+                            partRecordingIds[i], partPublications[i].position(), counters, partCounterIds[i], archive);
+                    }
+                }
+                else
+                {
+                    service.onTakeSnapshot(publication);
+                }
 
                 awaitRecordingComplete(recordingId, publication.position(), counters, counterId, archive);
+                isTaken = true;
             }
             finally
             {
                 archive.stopRecording(subscriptionId);
+                for (int i = 0; i < partCount; i++)
+                {
+                    if (NULL_VALUE != partSubscriptionIds[i])
+                    {
+                        archive.stopRecording(partSubscriptionIds[i]);
+                    }
+
+                    CloseHelper.close(partPublications[i]);
+                }
+
+                if (!isTaken)
+                {
+                    purgeSnapshotParts(archive, partRecordingIds);
+                }
             }
         }
 
         return recordingId;
     }
 
+    private void purgeSnapshotParts(final AeronArchive archive, final long[] partRecordingIds)
+    {
+        for (final long partRecordingId : partRecordingIds)
+        {
+            if (NULL_VALUE != partRecordingId)
+            {
+                try
+                {
+                    archive.truncateRecording(partRecordingId, archive.getStartPosition(partRecordingId));
+                }
+                catch (final Exception ex)
+                {
+                    ctx.countedErrorHandler().onError(
+                        new ClusterException("failed to purge snapshot part: recordingId=" + partRecordingId, ex));
+                }
+            }
+        }
+    }
+
+    private void takeSnapshotParts(final Publication publication, final Publication[] partPublications)
+    {
+        final MultiPartSnapshot multiPartSnapshot = (MultiPartSnapshot)service;
+        final int partCount = partPublications.length;
+
+        try (SnapshotPartWorkers workers = new SnapshotPartWorkers(
+            ctx.threadFactory(),
+            "snapshot-take-part",
+            partCount,
+            (partIndex) -> multiPartSnapshot.onTakeSnapshotPart(partIndex, partCount, partPublications[partIndex])))
+        {
+            service.onTakeSnapshot(publication);
+            awaitSnapshotParts(workers);
+        }
+    }
+
+    private void awaitSnapshotParts(final SnapshotPartWorkers workers)
+    {
+        idleStrategy.reset();
+        while (!workers.isDone())
+        {
+            idle();
+        }
+    }
+
+    private void beginIncrementalSnapshot(final long logPosition, final long leadershipTermId)
+    {
+        final AeronArchive archive = AeronArchive.connect(archiveCtx.clone());
+        Publication publication = null;
+        long subscriptionId = NULL_VALUE;
+        try
+        {
+            publication = aeron.addExclusivePublication(ctx.snapshotChannel(), ctx.snapshotStreamId());
+            final String channel = ChannelUri.addSessionId(ctx.snapshotChannel(), publication.sessionId());
+            subscriptionId = archive.startRecording(channel, ctx.snapshotStreamId(), LOCAL);
+
+            final CountersReader counters = aeron.countersReader();
+            final int counterId = awaitRecordingCounter(publication.sessionId(), counters);
+            final long recordingId = RecordingPos.getRecordingId(counters, counterId);
+
+            snapshotState(publication, logPosition, leadershipTermId, EMPTY_PART_RECORDING_IDS);
+
+            checkForClockTick();
+            ((IncrementalSnapshot)service).onBeginSnapshot(publication);
+
+            incrementalSnapshotTaker = new IncrementalSnapshotTaker(
+                logPosition,
+                leadershipTermId,
+                recordingId,
+                subscriptionId,
+                counterId,
+                serviceId,
+                (IncrementalSnapshot)service,
+                consensusModuleProxy,
+                archive,
+                publication,
+                counters);
+        }
+        finally
+        {
+            if (null == incrementalSnapshotTaker)
+            {
+                try
+                {
+                    if (NULL_VALUE != subscriptionId)
+                    {
+                        archive.stopRecording(subscriptionId);
+                    }
+                }
+                finally
+                {
+                    CloseHelper.close(publication);
+                    CloseHelper.close(archive);
+                }
+            }
+        }
+    }
+
+    private int incrementalSnapshotWork()
+    {
+        try
+        {
+            final int workCount = incrementalSnapshotTaker.doWork();
+            if (incrementalSnapshotTaker.isDone())
+            {
+                incrementalSnapshotTaker = null;
+            }
+
+            return workCount;
+        }
+        catch (final Exception ex)
+        {
+            final IncrementalSnapshotTaker snapshotTaker = incrementalSnapshotTaker;
+            incrementalSnapshotTaker = null;
+            CloseHelper.quietClose(snapshotTaker);
+            throw ex;
+        }
+    }
+
+    private void completeIncrementalSnapshot()
+    {
+        idleStrategy.reset();
+        while (null != incrementalSnapshotTaker)
+        {
+            idle(incrementalSnapshotWork());
+        }
+    }
+
     private void awaitRecordingComplete(
         final long recordingId,
         final long position,
@@ -865,7 +1412,11 @@ class ClusteredServiceAgent implements Agent, Cluster
         while (counters.getCounterValue(counterId) < position);
     }
 
-    private void snapshotState(final Publication publication, final long logPosition, final long leadershipTermId)
+    private void snapshotState(
+        final Publication publication,
+        final long logPosition,
+        final long leadershipTermId,
+        final long[] partRecordingIds)
     {
         final ServiceSnapshotTaker snapshotTaker = new ServiceSnapshotTaker(
             publication, idleStrategy, aeronAgentInvoker);
@@ -877,14 +1428,43 @@ class ClusteredServiceAgent implements Agent, Cluster
             snapshotTaker.snapshotSession(clientSession);
         }
 
+        for (int i = 0, partCount = partRecordingIds.length; i < partCount; i++)
+        {
+            snapshotTaker.snapshotPart(partRecordingIds[i], i, partCount);
+        }
+
         snapshotTaker.markEnd(SNAPSHOT_TYPE_ID, logPosition, leadershipTermId, 0, timeUnit, ctx.appVersion());
     }
 
     private void executeAction(final ClusterAction action, final long position, final long leadershipTermId)
     {
-        if (ClusterAction.SNAPSHOT == action)
+        if (ClusterAction.SNAPSHOT == action && service instanceof IncrementalSnapshot)
         {
-            final long recordingId = onTakeSnapshot(position, leadershipTermId);
+            completeIncrementalSnapshot();
+            beginIncrementalSnapshot(position, leadershipTermId);
+
+            final long id = ackId++;
+            idleStrategy.reset();
+            while (!consensusModuleProxy.ack(position, clusterTime, id, NULL_VALUE, serviceId))
+            {
+                idle();
+            }
+        }
+        else if (ClusterAction.SNAPSHOT == action)
+        {
+            final long[] partRecordingIds = new long[snapshotPartCount()];
+            final long recordingId = onTakeSnapshot(position, leadershipTermId, partRecordingIds);
+
+            for (int i = 0, partCount = partRecordingIds.length; i < partCount; i++)
+            {
+                idleStrategy.reset();
+                while (!consensusModuleProxy.snapshotPart(
+                    position, leadershipTermId, partRecordingIds[i], serviceId, i, partCount))
+                {
+                    idle();
+                }
+            }
+
             final long id = ackId++;
             idleStrategy.reset();
             while (!consensusModuleProxy.ack(position, clusterTime, id, recordingId, serviceId))
@@ -907,6 +1487,40 @@ class ClusteredServiceAgent implements Agent, Cluster
         return counterId;
     }
 
+    private boolean servePendingReadQuery(
+        final MutableDirectBuffer buffer, final int offset, final int length, final int headOffset)
+    {
+        final long logPosition = logAdapter.position();
+        if (buffer.getLong(offset + READ_INDEX_OFFSET) > logPosition)
+        {
+            return false;
+        }
+
+        serveReadQuery(
+            buffer.getLong(offset + CLUSTER_SESSION_ID_OFFSET),
+            buffer.getLong(offset + CORRELATION_ID_OFFSET),
+            buffer,
+            offset + QUERY_OFFSET,
+            length - QUERY_OFFSET);
+        readQueryCount++;
+
+        return true;
+    }
+
+    private void serveReadQuery(
+        final long clusterSessionId,
+        final long correlationId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        final ClientSession session = sessionByIdMap.get(clusterSessionId);
+        if (null != session)
+        {
+            service.onReadQuery(session, correlationId, buffer, offset, length);
+        }
+    }
+
     private boolean checkForClockTick()
     {
         if (isAbort)
@@ -986,6 +1600,7 @@ class ClusteredServiceAgent implements Agent, Cluster
 
     private void terminate(final long logPosition)
     {
+        completeIncrementalSnapshot();
         isServiceActive = false;
         try
         {
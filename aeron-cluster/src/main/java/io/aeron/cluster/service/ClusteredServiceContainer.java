@@ -18,7 +18,9 @@ package io.aeron.cluster.service;
 import io.aeron.Aeron;
 import io.aeron.CommonContext;
 import io.aeron.archive.client.AeronArchive;
+import io.aeron.cluster.client.AeronCluster;
 import io.aeron.cluster.client.ClusterException;
+import io.aeron.cluster.codecs.MessageHeaderEncoder;
 import io.aeron.cluster.codecs.mark.ClusterComponentType;
 import io.aeron.cluster.codecs.mark.MarkFileHeaderEncoder;
 import io.aeron.exceptions.ConcurrentConcludeException;
@@ -150,6 +152,17 @@ public final class ClusteredServiceContainer implements AutoCloseable
          */
         public static final long MARK_FILE_UPDATE_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
 
+        /**
+         * Identity for a cluster so multiple clusters can be hosted in the same process and share a media driver
+         * without finding each other's counters. Each cluster must have its own cluster directory and streams.
+         */
+        public static final String CLUSTER_ID_PROP_NAME = "aeron.cluster.id";
+
+        /**
+         * Default identity for a cluster.
+         */
+        public static final int CLUSTER_ID_DEFAULT = 0;
+
         /**
          * Identity for a clustered service. Services should be numbered from 0 and be contiguous.
          */
@@ -276,6 +289,18 @@ public final class ClusteredServiceContainer implements AutoCloseable
          */
         public static final boolean RESPONDER_SERVICE_DEFAULT = true;
 
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a service snapshot.
+         * During a rolling upgrade this should be set to the version of the oldest member so its snapshots can be
+         * loaded by any member, in which case a {@link MultiPartSnapshot} is taken as a single part.
+         */
+        public static final String SNAPSHOT_SCHEMA_VERSION_PROP_NAME = "aeron.cluster.service.snapshot.schema.version";
+
+        /**
+         * Highest version of the cluster codecs schema which may be used in a service snapshot default value.
+         */
+        public static final int SNAPSHOT_SCHEMA_VERSION_DEFAULT = MessageHeaderEncoder.SCHEMA_VERSION;
+
         /**
          * Delegating {@link ErrorHandler} which will be first in the chain before delegating to the
          * {@link Context#errorHandler()}.
@@ -288,6 +313,16 @@ public final class ClusteredServiceContainer implements AutoCloseable
          */
         public static final int CLUSTERED_SERVICE_ERROR_COUNT_TYPE_ID = 215;
 
+        /**
+         * The value {@link #CLUSTER_ID_DEFAULT} or system property {@link #CLUSTER_ID_PROP_NAME} if set.
+         *
+         * @return {@link #CLUSTER_ID_DEFAULT} or system property {@link #CLUSTER_ID_PROP_NAME} if set.
+         */
+        public static int clusterId()
+        {
+            return Integer.getInteger(CLUSTER_ID_PROP_NAME, CLUSTER_ID_DEFAULT);
+        }
+
         /**
          * The value {@link #SERVICE_ID_DEFAULT} or system property {@link #SERVICE_ID_PROP_NAME} if set.
          *
@@ -433,6 +468,17 @@ public final class ClusteredServiceContainer implements AutoCloseable
             return getSizeAsInt(ERROR_BUFFER_LENGTH_PROP_NAME, ERROR_BUFFER_LENGTH_DEFAULT);
         }
 
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a service snapshot.
+         *
+         * @return highest version of the cluster codecs schema which may be used in a service snapshot.
+         * @see #SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         */
+        public static int snapshotSchemaVersion()
+        {
+            return Integer.getInteger(SNAPSHOT_SCHEMA_VERSION_PROP_NAME, SNAPSHOT_SCHEMA_VERSION_DEFAULT);
+        }
+
         /**
          * The value {@link #RESPONDER_SERVICE_DEFAULT} or system property {@link #RESPONDER_SERVICE_PROP_NAME} if set.
          *
@@ -512,6 +558,7 @@ public final class ClusteredServiceContainer implements AutoCloseable
         private volatile int isConcluded;
 
         private int appVersion = SemanticVersion.compose(0, 0, 1);
+        private int clusterId = Configuration.clusterId();
         private int serviceId = Configuration.serviceId();
         private String serviceName = Configuration.serviceName();
         private String replayChannel = Configuration.replayChannel();
@@ -523,6 +570,9 @@ public final class ClusteredServiceContainer implements AutoCloseable
         private int snapshotStreamId = Configuration.snapshotStreamId();
         private int errorBufferLength = Configuration.errorBufferLength();
         private boolean isRespondingService = Configuration.isRespondingService();
+        private int snapshotSchemaVersion = Configuration.snapshotSchemaVersion();
+        private String egressBroadcastChannel = AeronCluster.Configuration.egressBroadcastChannel();
+        private int egressBroadcastStreamId = AeronCluster.Configuration.egressBroadcastStreamId();
 
         private CountDownLatch abortLatch;
         private ThreadFactory threadFactory;
@@ -575,6 +625,13 @@ public final class ClusteredServiceContainer implements AutoCloseable
                 throw new ConfigurationException("service id cannot be negative: " + serviceId);
             }
 
+            if (snapshotSchemaVersion > MessageHeaderEncoder.SCHEMA_VERSION)
+            {
+                throw new ConfigurationException(
+                    "snapshotSchemaVersion=" + snapshotSchemaVersion +
+                    " exceeds schema version=" + MessageHeaderEncoder.SCHEMA_VERSION);
+            }
+
             if (null == threadFactory)
             {
                 threadFactory = Thread::new;
@@ -721,6 +778,31 @@ public final class ClusteredServiceContainer implements AutoCloseable
             return appVersion;
         }
 
+        /**
+         * Set the id of the cluster to which this clustered service belongs so its counters can be found when
+         * multiple clusters share a media driver.
+         *
+         * @param clusterId of the cluster to which this clustered service belongs.
+         * @return this for a fluent API
+         * @see Configuration#CLUSTER_ID_PROP_NAME
+         */
+        public Context clusterId(final int clusterId)
+        {
+            this.clusterId = clusterId;
+            return this;
+        }
+
+        /**
+         * Get the id of the cluster to which this clustered service belongs.
+         *
+         * @return the id of the cluster to which this clustered service belongs.
+         * @see Configuration#CLUSTER_ID_PROP_NAME
+         */
+        public int clusterId()
+        {
+            return clusterId;
+        }
+
         /**
          * Set the id for this clustered service. Services should be numbered from 0 and be contiguous.
          *
@@ -961,6 +1043,81 @@ public final class ClusteredServiceContainer implements AutoCloseable
             return isRespondingService;
         }
 
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a service snapshot.
+         *
+         * @param snapshotSchemaVersion highest version of the cluster codecs schema which may be used in a snapshot.
+         * @return this for a fluent API.
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_DEFAULT
+         */
+        public Context snapshotSchemaVersion(final int snapshotSchemaVersion)
+        {
+            this.snapshotSchemaVersion = snapshotSchemaVersion;
+            return this;
+        }
+
+        /**
+         * Highest version of the cluster codecs schema which may be used for messages written to a service snapshot.
+         *
+         * @return highest version of the cluster codecs schema which may be used in a snapshot.
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_PROP_NAME
+         * @see Configuration#SNAPSHOT_SCHEMA_VERSION_DEFAULT
+         */
+        public int snapshotSchemaVersion()
+        {
+            return snapshotSchemaVersion;
+        }
+
+        /**
+         * Set the channel parameter for egress broadcast to all clients, ideally a multicast address, which is used by
+         * {@link Cluster#broadcast(DirectBuffer, int, int)}. Null if broadcast egress is not supported.
+         *
+         * @param channel parameter for egress broadcast to all clients.
+         * @return this for a fluent API.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#EGRESS_BROADCAST_CHANNEL_PROP_NAME
+         */
+        public Context egressBroadcastChannel(final String channel)
+        {
+            egressBroadcastChannel = channel;
+            return this;
+        }
+
+        /**
+         * Get the channel parameter for egress broadcast to all clients.
+         *
+         * @return the channel parameter for egress broadcast to all clients or null if not supported.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#EGRESS_BROADCAST_CHANNEL_PROP_NAME
+         */
+        public String egressBroadcastChannel()
+        {
+            return egressBroadcastChannel;
+        }
+
+        /**
+         * Set the stream id for egress broadcast to all clients.
+         *
+         * @param streamId for egress broadcast to all clients.
+         * @return this for a fluent API.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#EGRESS_BROADCAST_STREAM_ID_PROP_NAME
+         */
+        public Context egressBroadcastStreamId(final int streamId)
+        {
+            egressBroadcastStreamId = streamId;
+            return this;
+        }
+
+        /**
+         * Get the stream id for egress broadcast to all clients.
+         *
+         * @return the stream id for egress broadcast to all clients.
+         * @see io.aeron.cluster.client.AeronCluster.Configuration#EGRESS_BROADCAST_STREAM_ID_PROP_NAME
+         */
+        public int egressBroadcastStreamId()
+        {
+            return egressBroadcastStreamId;
+        }
+
         /**
          * Get the thread factory used for creating threads.
          *
@@ -17,12 +17,11 @@ package io.aeron.cluster.service;
 
 import io.aeron.Aeron;
 import io.aeron.Counter;
-import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.CountersReader;
 
-import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
-import static org.agrona.concurrent.status.CountersReader.RECORD_ALLOCATED;
-import static org.agrona.concurrent.status.CountersReader.TYPE_ID_OFFSET;
+import static org.agrona.concurrent.status.CountersReader.METADATA_LENGTH;
 
 /**
  * Counter representing the commit position that can consumed by a state machine on a stream, it is the consensus
@@ -40,41 +39,56 @@ public class CommitPos
      */
     public static final String NAME = "cluster-commit-pos";
 
-
     /**
-     * Allocate a counter to represent the commit position on stream for the current leadership term.
+     * Allocate a counter to represent the commit position on stream for the current leadership term for the default
+     * cluster id.
      *
      * @param aeron to allocate the counter.
      * @return the {@link Counter} for the commit position.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
      */
     public static Counter allocate(final Aeron aeron)
     {
-        return aeron.addCounter(COMMIT_POSITION_TYPE_ID, NAME);
+        return allocate(
+            aeron,
+            new UnsafeBuffer(new byte[METADATA_LENGTH]),
+            ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT);
+    }
+
+    /**
+     * Allocate a counter to represent the commit position on stream for the current leadership term.
+     *
+     * @param aeron      to allocate the counter.
+     * @param tempBuffer to use for building the key and label without allocation.
+     * @param clusterId  to which the counter belongs.
+     * @return the {@link Counter} for the commit position.
+     */
+    public static Counter allocate(final Aeron aeron, final MutableDirectBuffer tempBuffer, final int clusterId)
+    {
+        return ClusterCounters.allocate(aeron, tempBuffer, NAME, COMMIT_POSITION_TYPE_ID, clusterId);
     }
 
     /**
-     * Find the active counter id for a cluster commit position
+     * Find the active counter id for a cluster commit position for the default cluster id.
      *
      * @param counters to search within.
      * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
      */
     public static int findCounterId(final CountersReader counters)
     {
-        final DirectBuffer buffer = counters.metaDataBuffer();
-
-        for (int i = 0, size = counters.maxCounterId(); i < size; i++)
-        {
-            if (counters.getCounterState(i) == RECORD_ALLOCATED)
-            {
-                final int recordOffset = CountersReader.metaDataOffset(i);
-
-                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == COMMIT_POSITION_TYPE_ID)
-                {
-                    return i;
-                }
-            }
-        }
+        return findCounterId(counters, ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT);
+    }
 
-        return NULL_COUNTER_ID;
+    /**
+     * Find the active counter id for a cluster commit position.
+     *
+     * @param counters  to search within.
+     * @param clusterId to which the counter belongs.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    public static int findCounterId(final CountersReader counters, final int clusterId)
+    {
+        return ClusterCounters.find(counters, COMMIT_POSITION_TYPE_ID, clusterId);
     }
 }
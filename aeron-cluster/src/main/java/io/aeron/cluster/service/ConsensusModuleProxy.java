@@ -38,6 +38,8 @@ public final class ConsensusModuleProxy implements AutoCloseable
     private final ScheduleTimerEncoder scheduleTimerEncoder = new ScheduleTimerEncoder();
     private final CancelTimerEncoder cancelTimerEncoder = new CancelTimerEncoder();
     private final ServiceAckEncoder serviceAckEncoder = new ServiceAckEncoder();
+    private final ServiceSnapshotTakenEncoder serviceSnapshotTakenEncoder = new ServiceSnapshotTakenEncoder();
+    private final ServiceSnapshotPartEncoder serviceSnapshotPartEncoder = new ServiceSnapshotPartEncoder();
     private final CloseSessionEncoder closeSessionEncoder = new CloseSessionEncoder();
     private final ClusterMembersQueryEncoder clusterMembersQueryEncoder = new ClusterMembersQueryEncoder();
     private final RemoveMemberEncoder removeMemberEncoder = new RemoveMemberEncoder();
@@ -164,6 +166,73 @@ public final class ConsensusModuleProxy implements AutoCloseable
         return false;
     }
 
+    public boolean snapshotTaken(
+        final long logPosition, final long leadershipTermId, final long recordingId, final int serviceId)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + ServiceSnapshotTakenEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                serviceSnapshotTakenEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .logPosition(logPosition)
+                    .leadershipTermId(leadershipTermId)
+                    .recordingId(recordingId)
+                    .serviceId(serviceId);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
+    public boolean snapshotPart(
+        final long logPosition,
+        final long leadershipTermId,
+        final long recordingId,
+        final int serviceId,
+        final int partIndex,
+        final int partCount)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + ServiceSnapshotPartEncoder.BLOCK_LENGTH;
+
+        int attempts = SEND_ATTEMPTS;
+        do
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                serviceSnapshotPartEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .logPosition(logPosition)
+                    .leadershipTermId(leadershipTermId)
+                    .recordingId(recordingId)
+                    .serviceId(serviceId)
+                    .partIndex(partIndex)
+                    .partCount(partCount);
+
+                bufferClaim.commit();
+
+                return true;
+            }
+
+            checkResult(result);
+        }
+        while (--attempts > 0);
+
+        return false;
+    }
+
     public boolean closeSession(final long clusterSessionId)
     {
         final int length = MessageHeaderEncoder.ENCODED_LENGTH + CloseSessionEncoder.BLOCK_LENGTH;
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Publication;
+import io.aeron.cluster.codecs.EgressMessageBatchEncoder;
+import io.aeron.cluster.codecs.GroupSizeEncodingEncoder;
+import io.aeron.cluster.codecs.MessageHeaderEncoder;
+import io.aeron.cluster.codecs.SessionMessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.cluster.client.AeronCluster.SESSION_HEADER_LENGTH;
+
+/**
+ * Messages to a {@link ClientSession} which are batched to be sent as a single egress message so the cost of an
+ * offer is paid once per batch rather than once per message. A batch of one is sent as a regular session message.
+ */
+class EgressBatch
+{
+    static final int MAX_MESSAGE_COUNT = 1024;
+    static final int GROUP_HEADER_OFFSET =
+        MessageHeaderEncoder.ENCODED_LENGTH + EgressMessageBatchEncoder.BLOCK_LENGTH;
+    static final int ENTRY_HEADER_LENGTH =
+        EgressMessageBatchEncoder.MessagesEncoder.sbeBlockLength() +
+        EgressMessageBatchEncoder.MessagesEncoder.messageHeaderLength();
+    static final int FIRST_MESSAGE_OFFSET =
+        GROUP_HEADER_OFFSET + GroupSizeEncodingEncoder.ENCODED_LENGTH + ENTRY_HEADER_LENGTH;
+
+    private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
+    private final EgressMessageBatchEncoder egressMessageBatchEncoder = new EgressMessageBatchEncoder();
+    private final GroupSizeEncodingEncoder groupSizeEncoder = new GroupSizeEncodingEncoder();
+    private final SessionMessageHeaderEncoder sessionHeaderEncoder = new SessionMessageHeaderEncoder();
+    private final UnsafeBuffer sessionHeaderBuffer = new UnsafeBuffer(new byte[SESSION_HEADER_LENGTH]);
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+
+    private EgressMessageBatchEncoder.MessagesEncoder messagesEncoder;
+    private int messageCount;
+    private long firstTimestamp;
+    private int firstMessageLength;
+    private boolean isScheduled;
+
+    EgressBatch()
+    {
+        sessionHeaderEncoder.wrapAndApplyHeader(sessionHeaderBuffer, 0, messageHeaderEncoder);
+    }
+
+    /**
+     * Has the batch been scheduled to be flushed at the end of the duty cycle.
+     *
+     * @return true if the batch has been scheduled to be flushed at the end of the duty cycle.
+     */
+    boolean isScheduled()
+    {
+        return isScheduled;
+    }
+
+    void isScheduled(final boolean isScheduled)
+    {
+        this.isScheduled = isScheduled;
+    }
+
+    int messageCount()
+    {
+        return messageCount;
+    }
+
+    boolean isEmpty()
+    {
+        return 0 == messageCount;
+    }
+
+    /**
+     * Length of the batch when encoded.
+     *
+     * @return length of the batch when encoded.
+     */
+    int encodedLength()
+    {
+        if (0 == messageCount)
+        {
+            return 0;
+        }
+
+        return MessageHeaderEncoder.ENCODED_LENGTH + egressMessageBatchEncoder.encodedLength();
+    }
+
+    /**
+     * Can a message of a given length be added to the batch without the batch exceeding a max length.
+     *
+     * @param length    of the message.
+     * @param maxLength for the encoded batch.
+     * @return true if the message will fit.
+     */
+    boolean hasCapacity(final int length, final int maxLength)
+    {
+        if (0 == messageCount)
+        {
+            return FIRST_MESSAGE_OFFSET + length <= maxLength;
+        }
+
+        return messageCount < MAX_MESSAGE_COUNT && encodedLength() + ENTRY_HEADER_LENGTH + length <= maxLength;
+    }
+
+    /**
+     * Add a message to the batch, {@link #hasCapacity(int, int)} should be checked first.
+     *
+     * @param leadershipTermId for the current term.
+     * @param clusterSessionId to which the message is sent.
+     * @param timestamp        for the message.
+     * @param srcBuffer        containing the message.
+     * @param offset           in the buffer at which the message begins.
+     * @param length           of the message.
+     */
+    void add(
+        final long leadershipTermId,
+        final long clusterSessionId,
+        final long timestamp,
+        final DirectBuffer srcBuffer,
+        final int offset,
+        final int length)
+    {
+        if (0 == messageCount)
+        {
+            messagesEncoder = egressMessageBatchEncoder
+                .wrapAndApplyHeader(buffer, 0, messageHeaderEncoder)
+                .leadershipTermId(leadershipTermId)
+                .clusterSessionId(clusterSessionId)
+                .messagesCount(MAX_MESSAGE_COUNT);
+
+            sessionHeaderEncoder
+                .leadershipTermId(leadershipTermId)
+                .clusterSessionId(clusterSessionId);
+
+            firstTimestamp = timestamp;
+            firstMessageLength = length;
+        }
+
+        messagesEncoder.next()
+            .timestamp(timestamp)
+            .putMessage(srcBuffer, offset, length);
+
+        messageCount++;
+    }
+
+    /**
+     * Send the batch as a single message and clear the batch if successful.
+     *
+     * @param publication to send the batch on.
+     * @return the result of the offer or 1 if the batch is empty.
+     */
+    long flush(final Publication publication)
+    {
+        if (0 == messageCount)
+        {
+            return ClientSession.MOCKED_OFFER;
+        }
+
+        final long result;
+        if (1 == messageCount)
+        {
+            sessionHeaderEncoder.timestamp(firstTimestamp);
+            result = publication.offer(
+                sessionHeaderBuffer, 0, SESSION_HEADER_LENGTH, buffer, FIRST_MESSAGE_OFFSET, firstMessageLength, null);
+        }
+        else
+        {
+            groupSizeEncoder.wrap(buffer, GROUP_HEADER_OFFSET).numInGroup(messageCount);
+            result = publication.offer(buffer, 0, encodedLength(), null);
+        }
+
+        if (result > 0)
+        {
+            messageCount = 0;
+        }
+
+        return result;
+    }
+
+    void clear()
+    {
+        messageCount = 0;
+    }
+}
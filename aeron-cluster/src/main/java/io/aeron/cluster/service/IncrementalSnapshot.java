@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Publication;
+
+/**
+ * Interface which a {@link ClusteredService} can also implement to take its snapshots incrementally while it
+ * continues to process the log, rather than in {@link ClusteredService#onTakeSnapshot(Publication)} which stalls the
+ * service until the whole snapshot has been written and recorded.
+ * <p>
+ * At the log position of the snapshot {@link #onBeginSnapshot(Publication)} is called so the service can capture a
+ * consistent view of its state, for example by switching to copy-on-write or by versioning its state. Then
+ * {@link #onSnapshotWork(Publication)} is called once per duty cycle, interleaved with processing the log, until it
+ * returns true. The snapshot is only used for recovery once all of it has been recorded.
+ * <p>
+ * A snapshot which is still in progress is completed before a following snapshot begins and before the service
+ * terminates. It is discarded should a new leadership term begin before it completes.
+ */
+public interface IncrementalSnapshot
+{
+    /**
+     * Begin a snapshot at the current log position. The state as of this position is what must be written to the
+     * snapshot, even though the service will go on to process the log while the snapshot is written.
+     *
+     * @param snapshotPublication to which the state will be recorded.
+     */
+    void onBeginSnapshot(Publication snapshotPublication);
+
+    /**
+     * Write the next chunk of the snapshot begun with {@link #onBeginSnapshot(Publication)}. The implementation
+     * should bound the work done in each call and return false when back pressured rather than idle.
+     *
+     * @param snapshotPublication to which the state should be recorded.
+     * @return true when the snapshot has been completely written otherwise false.
+     */
+    boolean onSnapshotWork(Publication snapshotPublication);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Publication;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.status.RecordingPos;
+import io.aeron.cluster.client.ClusterException;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.status.CountersReader;
+
+/**
+ * Drives an {@link IncrementalSnapshot} a step per duty cycle of the service: writing the chunks of the snapshot,
+ * waiting for the archive to record them, then notifying the Consensus Module the snapshot recording is complete.
+ */
+final class IncrementalSnapshotTaker implements AutoCloseable
+{
+    enum State
+    {
+        WRITE, AWAIT_RECORDING, NOTIFY, DONE
+    }
+
+    private final long logPosition;
+    private final long leadershipTermId;
+    private final long recordingId;
+    private final long subscriptionId;
+    private final int counterId;
+    private final int serviceId;
+    private final IncrementalSnapshot snapshot;
+    private final ConsensusModuleProxy consensusModuleProxy;
+    private final AeronArchive archive;
+    private final Publication publication;
+    private final CountersReader counters;
+    private long stopPosition;
+    private boolean isRecordingStopped;
+    private State state = State.WRITE;
+
+    IncrementalSnapshotTaker(
+        final long logPosition,
+        final long leadershipTermId,
+        final long recordingId,
+        final long subscriptionId,
+        final int counterId,
+        final int serviceId,
+        final IncrementalSnapshot snapshot,
+        final ConsensusModuleProxy consensusModuleProxy,
+        final AeronArchive archive,
+        final Publication publication,
+        final CountersReader counters)
+    {
+        this.logPosition = logPosition;
+        this.leadershipTermId = leadershipTermId;
+        this.recordingId = recordingId;
+        this.subscriptionId = subscriptionId;
+        this.counterId = counterId;
+        this.serviceId = serviceId;
+        this.snapshot = snapshot;
+        this.consensusModuleProxy = consensusModuleProxy;
+        this.archive = archive;
+        this.publication = publication;
+        this.counters = counters;
+    }
+
+    public void close()
+    {
+        try
+        {
+            if (!isRecordingStopped)
+            {
+                isRecordingStopped = true;
+                archive.stopRecording(subscriptionId);
+            }
+        }
+        finally
+        {
+            CloseHelper.close(publication);
+            CloseHelper.close(archive);
+        }
+    }
+
+    boolean isDone()
+    {
+        return State.DONE == state;
+    }
+
+    State state()
+    {
+        return state;
+    }
+
+    int doWork()
+    {
+        int workCount = 0;
+
+        switch (state)
+        {
+            case WRITE:
+                if (snapshot.onSnapshotWork(publication))
+                {
+                    stopPosition = publication.position();
+                    state = State.AWAIT_RECORDING;
+                }
+                workCount = 1;
+                break;
+
+            case AWAIT_RECORDING:
+                if (!RecordingPos.isActive(counters, counterId, recordingId))
+                {
+                    throw new ClusterException("recording has stopped unexpectedly: " + recordingId);
+                }
+
+                archive.checkForErrorResponse();
+
+                if (counters.getCounterValue(counterId) >= stopPosition)
+                {
+                    close();
+                    state = State.NOTIFY;
+                    workCount = 1;
+                }
+                break;
+
+            case NOTIFY:
+                if (consensusModuleProxy.snapshotTaken(logPosition, leadershipTermId, recordingId, serviceId))
+                {
+                    state = State.DONE;
+                    workCount = 1;
+                }
+                break;
+        }
+
+        return workCount;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Image;
+import io.aeron.Publication;
+
+/**
+ * Interface which a {@link ClusteredService} can also implement to split its snapshots into parts which are each
+ * written to their own recording and loaded from their own replay, so the time to take and to load a snapshot
+ * scales with the number of cores rather than the size of the snapshot.
+ * <p>
+ * When a snapshot is taken the parts are written concurrently, each on its own thread, while
+ * {@link ClusteredService#onTakeSnapshot(Publication)} is called on the service thread. On recovery the parts are
+ * loaded concurrently, each on its own thread, before {@link ClusteredService#onStart(Cluster, Image)} is called
+ * with the remainder of the snapshot. The service is not processing the log while either happens, but the parts
+ * are called concurrently with each other so each part must only access state which belongs to it. The
+ * {@link Cluster} is not thread safe so it must not be used from the threads on which parts are taken or loaded.
+ * <p>
+ * The number of parts is recorded in the snapshot so a snapshot can be loaded after the number of parts has been
+ * changed, in which case the implementation should partition its state with the count it is given on load.
+ * <p>
+ * Each part is recorded in the {@link io.aeron.cluster.RecordingLog} alongside the snapshot of the service so it is
+ * copied with the snapshot by ClusterBackup and dynamic join. When
+ * {@link ClusteredServiceContainer.Context#snapshotSchemaVersion()} is below the version in which parts were added,
+ * such as during a rolling upgrade, the snapshot is taken as a single part via
+ * {@link ClusteredService#onTakeSnapshot(Publication)} only.
+ */
+public interface MultiPartSnapshot
+{
+    /**
+     * The number of parts the next snapshot should be split into. A value of 0 takes a snapshot of a single part
+     * via {@link ClusteredService#onTakeSnapshot(Publication)} only.
+     *
+     * @return the number of parts the next snapshot should be split into.
+     */
+    int snapshotPartCount();
+
+    /**
+     * Write a part of the snapshot. This is called on a thread for each part concurrently with the other parts and
+     * should return once the part has been completely written.
+     *
+     * @param partIndex           of the part to be written, from 0 to partCount - 1.
+     * @param partCount           number of parts the snapshot is split into.
+     * @param snapshotPublication to which the part will be recorded.
+     */
+    void onTakeSnapshotPart(int partIndex, int partCount, Publication snapshotPublication);
+
+    /**
+     * Load a part of a snapshot. This is called on a thread for each part concurrently with the other parts and
+     * should return once the part has been completely loaded, which is when the image is closed or at end of stream.
+     *
+     * @param partIndex     of the part to be loaded, from 0 to partCount - 1.
+     * @param partCount     number of parts the snapshot was split into.
+     * @param snapshotImage from which the part can be loaded.
+     */
+    void onLoadSnapshotPart(int partIndex, int partCount, Image snapshotImage);
+}
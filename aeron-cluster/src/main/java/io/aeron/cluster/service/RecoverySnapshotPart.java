@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Aeron;
+import io.aeron.Counter;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.status.CountersReader;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.concurrent.status.CountersReader.*;
+
+/**
+ * Counter representing a part of a service snapshot to be loaded during recovery, which is allocated alongside the
+ * {@link RecoveryState} for each part. The recording id is of the part in the local archive, which may differ from
+ * the recording id written in the snapshot when the snapshot has been copied from another member.
+ * <p>
+ * Key layout as follows:
+ * <pre>
+ *   0                   1                   2                   3
+ *   0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
+ *  +-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+
+ *  |                     Leadership Term ID                        |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                  Log position for Snapshot                    |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                Recording ID of Snapshot Part                  |
+ *  |                                                               |
+ *  +---------------------------------------------------------------+
+ *  |                         Service ID                            |
+ *  +---------------------------------------------------------------+
+ *  |                         Part Index                            |
+ *  +---------------------------------------------------------------+
+ *  |                         Cluster ID                            |
+ *  +---------------------------------------------------------------+
+ * </pre>
+ */
+public class RecoverySnapshotPart
+{
+    /**
+     * Type id of a recovery snapshot part counter.
+     */
+    public static final int RECOVERY_SNAPSHOT_PART_TYPE_ID = 222;
+
+    /**
+     * Human readable name for the counter.
+     */
+    public static final String NAME = "cluster recovery snapshot part: serviceId=";
+
+    public static final int LEADERSHIP_TERM_ID_OFFSET = 0;
+    public static final int LOG_POSITION_OFFSET = LEADERSHIP_TERM_ID_OFFSET + SIZE_OF_LONG;
+    public static final int RECORDING_ID_OFFSET = LOG_POSITION_OFFSET + SIZE_OF_LONG;
+    public static final int SERVICE_ID_OFFSET = RECORDING_ID_OFFSET + SIZE_OF_LONG;
+    public static final int PART_INDEX_OFFSET = SERVICE_ID_OFFSET + SIZE_OF_INT;
+    public static final int CLUSTER_ID_OFFSET = PART_INDEX_OFFSET + SIZE_OF_INT;
+    public static final int KEY_LENGTH = CLUSTER_ID_OFFSET + SIZE_OF_INT;
+
+    /**
+     * Allocate a counter to represent a part of the snapshot a service should load on start.
+     *
+     * @param aeron            to allocate the counter.
+     * @param tempBuffer       to use for building the key and label without allocation.
+     * @param leadershipTermId at which the snapshot was taken.
+     * @param logPosition      at which the snapshot was taken.
+     * @param recordingId      of the part in the local archive.
+     * @param serviceId        to which the snapshot belongs.
+     * @param partIndex        of the part within the snapshot of the service.
+     * @param clusterId        to which the counter belongs.
+     * @return the {@link Counter} for the snapshot part.
+     */
+    public static Counter allocate(
+        final Aeron aeron,
+        final MutableDirectBuffer tempBuffer,
+        final long leadershipTermId,
+        final long logPosition,
+        final long recordingId,
+        final int serviceId,
+        final int partIndex,
+        final int clusterId)
+    {
+        tempBuffer.putLong(LEADERSHIP_TERM_ID_OFFSET, leadershipTermId);
+        tempBuffer.putLong(LOG_POSITION_OFFSET, logPosition);
+        tempBuffer.putLong(RECORDING_ID_OFFSET, recordingId);
+        tempBuffer.putInt(SERVICE_ID_OFFSET, serviceId);
+        tempBuffer.putInt(PART_INDEX_OFFSET, partIndex);
+        tempBuffer.putInt(CLUSTER_ID_OFFSET, clusterId);
+
+        final int labelOffset = BitUtil.align(KEY_LENGTH, SIZE_OF_INT);
+        int labelLength = 0;
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, NAME);
+        labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, serviceId);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " partIndex=");
+        labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, partIndex);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " recordingId=");
+        labelLength += tempBuffer.putLongAscii(labelOffset + labelLength, recordingId);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " clusterId=");
+        labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, clusterId);
+
+        return aeron.addCounter(
+            RECOVERY_SNAPSHOT_PART_TYPE_ID, tempBuffer, 0, KEY_LENGTH, tempBuffer, labelOffset, labelLength);
+    }
+
+    /**
+     * Find the recording id in the local archive of a part of the snapshot a service should load on start.
+     *
+     * @param counters         to search within.
+     * @param clusterId        to which the counter belongs.
+     * @param leadershipTermId at which the snapshot was taken.
+     * @param logPosition      at which the snapshot was taken.
+     * @param serviceId        to which the snapshot belongs.
+     * @param partIndex        of the part within the snapshot of the service.
+     * @return the recording id if found otherwise {@link Aeron#NULL_VALUE}.
+     */
+    public static long findRecordingId(
+        final CountersReader counters,
+        final int clusterId,
+        final long leadershipTermId,
+        final long logPosition,
+        final int serviceId,
+        final int partIndex)
+    {
+        final DirectBuffer buffer = counters.metaDataBuffer();
+
+        for (int i = 0, size = counters.maxCounterId(); i < size; i++)
+        {
+            if (counters.getCounterState(i) == RECORD_ALLOCATED)
+            {
+                final int recordOffset = CountersReader.metaDataOffset(i);
+                final int keyOffset = recordOffset + KEY_OFFSET;
+
+                if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == RECOVERY_SNAPSHOT_PART_TYPE_ID &&
+                    buffer.getInt(keyOffset + CLUSTER_ID_OFFSET) == clusterId &&
+                    buffer.getLong(keyOffset + LEADERSHIP_TERM_ID_OFFSET) == leadershipTermId &&
+                    buffer.getLong(keyOffset + LOG_POSITION_OFFSET) == logPosition &&
+                    buffer.getInt(keyOffset + SERVICE_ID_OFFSET) == serviceId &&
+                    buffer.getInt(keyOffset + PART_INDEX_OFFSET) == partIndex)
+                {
+                    return buffer.getLong(keyOffset + RECORDING_ID_OFFSET);
+                }
+            }
+        }
+
+        return NULL_VALUE;
+    }
+}
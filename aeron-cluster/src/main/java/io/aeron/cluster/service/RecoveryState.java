@@ -55,6 +55,8 @@ import static org.agrona.concurrent.status.CountersReader.*;
  *  |             Snapshot Recording ID (Service ID n)              |
  *  |                                                               |
  *  +---------------------------------------------------------------+
+ *  |                         Cluster ID                            |
+ *  +---------------------------------------------------------------+
  * </pre>
  */
 public class RecoveryState
@@ -76,6 +78,39 @@ public class RecoveryState
     public static final int SERVICE_COUNT_OFFSET = REPLAY_FLAG_OFFSET + SIZE_OF_INT;
     public static final int SNAPSHOT_RECORDING_IDS_OFFSET = SERVICE_COUNT_OFFSET + SIZE_OF_INT;
 
+    /**
+     * Allocate a counter to represent the snapshot services should load on start for the default cluster id.
+     *
+     * @param aeron                to allocate the counter.
+     * @param tempBuffer           to use for building the key and label without allocation.
+     * @param leadershipTermId     at which the snapshot was taken.
+     * @param logPosition          at which the snapshot was taken.
+     * @param timestamp            the snapshot was taken.
+     * @param hasReplay            flag is true if all or part of the log must be replayed.
+     * @param snapshotRecordingIds for the services to use during recovery indexed by service id.
+     * @return the {@link Counter} for the recovery state.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
+     */
+    public static Counter allocate(
+        final Aeron aeron,
+        final MutableDirectBuffer tempBuffer,
+        final long leadershipTermId,
+        final long logPosition,
+        final long timestamp,
+        final boolean hasReplay,
+        final long... snapshotRecordingIds)
+    {
+        return allocate(
+            aeron,
+            tempBuffer,
+            leadershipTermId,
+            logPosition,
+            timestamp,
+            hasReplay,
+            ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT,
+            snapshotRecordingIds);
+    }
+
     /**
      * Allocate a counter to represent the snapshot services should load on start.
      *
@@ -85,6 +120,7 @@ public class RecoveryState
      * @param logPosition          at which the snapshot was taken.
      * @param timestamp            the snapshot was taken.
      * @param hasReplay            flag is true if all or part of the log must be replayed.
+     * @param clusterId            to which the counter belongs.
      * @param snapshotRecordingIds for the services to use during recovery indexed by service id.
      * @return the {@link Counter} for the recovery state.
      */
@@ -95,6 +131,7 @@ public class RecoveryState
         final long logPosition,
         final long timestamp,
         final boolean hasReplay,
+        final int clusterId,
         final long... snapshotRecordingIds)
     {
         tempBuffer.putLong(LEADERSHIP_TERM_ID_OFFSET, leadershipTermId);
@@ -105,7 +142,8 @@ public class RecoveryState
         final int serviceCount = snapshotRecordingIds.length;
         tempBuffer.putInt(SERVICE_COUNT_OFFSET, serviceCount);
 
-        final int keyLength = SNAPSHOT_RECORDING_IDS_OFFSET + (serviceCount * SIZE_OF_LONG);
+        final int clusterIdOffset = clusterIdOffset(serviceCount);
+        final int keyLength = clusterIdOffset + SIZE_OF_INT;
         if (keyLength > MAX_KEY_LENGTH)
         {
             throw new ClusterException(keyLength + " exceeds max key length " + MAX_KEY_LENGTH);
@@ -115,6 +153,7 @@ public class RecoveryState
         {
             tempBuffer.putLong(SNAPSHOT_RECORDING_IDS_OFFSET + (i * SIZE_OF_LONG), snapshotRecordingIds[i]);
         }
+        tempBuffer.putInt(clusterIdOffset, clusterId);
 
         final int labelOffset = BitUtil.align(keyLength, SIZE_OF_INT);
         int labelLength = 0;
@@ -123,17 +162,32 @@ public class RecoveryState
         labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " logPosition=");
         labelLength += tempBuffer.putLongAscii(labelOffset + labelLength, logPosition);
         labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " hasReplay=" + hasReplay);
+        labelLength += tempBuffer.putStringWithoutLengthAscii(labelOffset + labelLength, " clusterId=");
+        labelLength += tempBuffer.putIntAscii(labelOffset + labelLength, clusterId);
 
         return aeron.addCounter(RECOVERY_STATE_TYPE_ID, tempBuffer, 0, keyLength, tempBuffer, labelOffset, labelLength);
     }
 
     /**
-     * Find the active counter id for recovery state.
+     * Find the active counter id for recovery state for the default cluster id.
      *
      * @param counters to search within.
      * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     * @see ClusteredServiceContainer.Configuration#CLUSTER_ID_DEFAULT
      */
     public static int findCounterId(final CountersReader counters)
+    {
+        return findCounterId(counters, ClusteredServiceContainer.Configuration.CLUSTER_ID_DEFAULT);
+    }
+
+    /**
+     * Find the active counter id for recovery state.
+     *
+     * @param counters  to search within.
+     * @param clusterId to which the counter belongs.
+     * @return the counter id if found otherwise {@link CountersReader#NULL_COUNTER_ID}.
+     */
+    public static int findCounterId(final CountersReader counters, final int clusterId)
     {
         final DirectBuffer buffer = counters.metaDataBuffer();
 
@@ -145,7 +199,13 @@ public class RecoveryState
 
                 if (buffer.getInt(recordOffset + TYPE_ID_OFFSET) == RECOVERY_STATE_TYPE_ID)
                 {
-                    return i;
+                    final int serviceCount = buffer.getInt(recordOffset + KEY_OFFSET + SERVICE_COUNT_OFFSET);
+                    final int clusterIdOffset = clusterIdOffset(serviceCount);
+                    if (serviceCount >= 0 && clusterIdOffset + SIZE_OF_INT <= MAX_KEY_LENGTH &&
+                        buffer.getInt(recordOffset + KEY_OFFSET + clusterIdOffset) == clusterId)
+                    {
+                        return i;
+                    }
                 }
             }
         }
@@ -280,4 +340,9 @@ public class RecoveryState
 
         throw new ClusterException("Active counter not found " + counterId);
     }
+
+    private static int clusterIdOffset(final int serviceCount)
+    {
+        return SNAPSHOT_RECORDING_IDS_OFFSET + (serviceCount * SIZE_OF_LONG);
+    }
 }
@@ -20,12 +20,15 @@ import io.aeron.cluster.client.ClusterException;
 import io.aeron.cluster.codecs.ElectionStartEventDecoder;
 import io.aeron.cluster.codecs.JoinLogDecoder;
 import io.aeron.cluster.codecs.MessageHeaderDecoder;
+import io.aeron.cluster.codecs.ServiceReadQueryDecoder;
 import io.aeron.cluster.codecs.ServiceTerminationPositionDecoder;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 
+import static io.aeron.Aeron.NULL_VALUE;
+
 final class ServiceAdapter implements FragmentHandler, AutoCloseable
 {
     private final Subscription subscription;
@@ -36,6 +39,7 @@ final class ServiceAdapter implements FragmentHandler, AutoCloseable
     private final ServiceTerminationPositionDecoder serviceTerminationPositionDecoder =
         new ServiceTerminationPositionDecoder();
     private final ElectionStartEventDecoder electionStartEventDecoder = new ElectionStartEventDecoder();
+    private final ServiceReadQueryDecoder serviceReadQueryDecoder = new ServiceReadQueryDecoder();
 
     ServiceAdapter(final Subscription subscription, final ClusteredServiceAgent clusteredServiceAgent)
     {
@@ -73,6 +77,7 @@ final class ServiceAdapter implements FragmentHandler, AutoCloseable
                     messageHeaderDecoder.blockLength(),
                     messageHeaderDecoder.version());
 
+                final long logRecordingId = joinLogDecoder.logRecordingId();
                 clusteredServiceAgent.onJoinLog(
                     joinLogDecoder.leadershipTermId(),
                     joinLogDecoder.logPosition(),
@@ -80,6 +85,7 @@ final class ServiceAdapter implements FragmentHandler, AutoCloseable
                     joinLogDecoder.memberId(),
                     joinLogDecoder.logSessionId(),
                     joinLogDecoder.logStreamId(),
+                    JoinLogDecoder.logRecordingIdNullValue() == logRecordingId ? NULL_VALUE : logRecordingId,
                     joinLogDecoder.logChannel());
                 break;
 
@@ -102,6 +108,22 @@ final class ServiceAdapter implements FragmentHandler, AutoCloseable
 
                 clusteredServiceAgent.onElectionStartEvent(electionStartEventDecoder.logPosition());
                 break;
+
+            case ServiceReadQueryDecoder.TEMPLATE_ID:
+                serviceReadQueryDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                clusteredServiceAgent.onReadQuery(
+                    serviceReadQueryDecoder.clusterSessionId(),
+                    serviceReadQueryDecoder.correlationId(),
+                    serviceReadQueryDecoder.readIndex(),
+                    buffer,
+                    serviceReadQueryDecoder.limit() + ServiceReadQueryDecoder.queryHeaderLength(),
+                    serviceReadQueryDecoder.queryLength());
+                break;
         }
     }
 }
@@ -30,15 +30,18 @@ import static io.aeron.cluster.service.ClusteredServiceContainer.SNAPSHOT_TYPE_I
 class ServiceSnapshotLoader implements ControlledFragmentHandler
 {
     private static final int FRAGMENT_LIMIT = 10;
+    private static final long[] EMPTY_PART_RECORDING_IDS = new long[0];
 
     private boolean inSnapshot = false;
     private boolean isDone = false;
     private int appVersion;
     private TimeUnit timeUnit;
+    private long[] partRecordingIds = EMPTY_PART_RECORDING_IDS;
 
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final SnapshotMarkerDecoder snapshotMarkerDecoder = new SnapshotMarkerDecoder();
     private final ClientSessionDecoder clientSessionDecoder = new ClientSessionDecoder();
+    private final SnapshotPartDecoder snapshotPartDecoder = new SnapshotPartDecoder();
     private final Image image;
     private final ClusteredServiceAgent agent;
 
@@ -63,6 +66,17 @@ class ServiceSnapshotLoader implements ControlledFragmentHandler
         return timeUnit;
     }
 
+    /**
+     * Recording ids of the parts of a {@link MultiPartSnapshot} indexed by part, which is empty if the snapshot was
+     * taken as a single part.
+     *
+     * @return recording ids of the parts of a {@link MultiPartSnapshot} indexed by part.
+     */
+    public long[] partRecordingIds()
+    {
+        return partRecordingIds;
+    }
+
     public int poll()
     {
         return image.controlledPoll(this, FRAGMENT_LIMIT);
@@ -133,6 +147,34 @@ class ServiceSnapshotLoader implements ControlledFragmentHandler
                     responseChannel,
                     encodedPrincipal);
                 break;
+
+            case SnapshotPartDecoder.TEMPLATE_ID:
+                snapshotPartDecoder.wrap(
+                    buffer,
+                    offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeaderDecoder.blockLength(),
+                    messageHeaderDecoder.version());
+
+                if (messageHeaderDecoder.version() < ServiceSnapshotTaker.PARTS_SINCE_VERSION)
+                {
+                    throw new ClusterException(
+                        "snapshot part message in snapshot of schema version=" + messageHeaderDecoder.version());
+                }
+
+                final int partCount = snapshotPartDecoder.partCount();
+                final int partIndex = snapshotPartDecoder.partIndex();
+                if (0 == partRecordingIds.length && partCount > 0)
+                {
+                    partRecordingIds = new long[partCount];
+                }
+
+                if (partCount != partRecordingIds.length || partIndex < 0 || partIndex >= partCount)
+                {
+                    throw new ClusterException("invalid snapshot part: index=" + partIndex + " count=" + partCount);
+                }
+
+                partRecordingIds[partIndex] = snapshotPartDecoder.recordingId();
+                break;
         }
 
         return Action.CONTINUE;
@@ -22,7 +22,13 @@ import org.agrona.concurrent.IdleStrategy;
 
 class ServiceSnapshotTaker extends SnapshotTaker
 {
+    /**
+     * Version of the schema in which the {@link SnapshotPartEncoder} message was added.
+     */
+    static final int PARTS_SINCE_VERSION = 7;
+
     private final ClientSessionEncoder clientSessionEncoder = new ClientSessionEncoder();
+    private final SnapshotPartEncoder snapshotPartEncoder = new SnapshotPartEncoder();
 
     ServiceSnapshotTaker(
         final Publication publication, final IdleStrategy idleStrategy, final AgentInvoker aeronClientInvoker)
@@ -58,4 +64,28 @@ class ServiceSnapshotTaker extends SnapshotTaker
             checkResultAndIdle(result);
         }
     }
+
+    public void snapshotPart(final long recordingId, final int partIndex, final int partCount)
+    {
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + SnapshotPartEncoder.BLOCK_LENGTH;
+
+        idleStrategy.reset();
+        while (true)
+        {
+            final long result = publication.tryClaim(length, bufferClaim);
+            if (result > 0)
+            {
+                snapshotPartEncoder
+                    .wrapAndApplyHeader(bufferClaim.buffer(), bufferClaim.offset(), messageHeaderEncoder)
+                    .recordingId(recordingId)
+                    .partIndex(partIndex)
+                    .partCount(partCount);
+
+                bufferClaim.commit();
+                break;
+            }
+
+            checkResultAndIdle(result);
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.cluster.client.ClusterException;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Threads which take or load the parts of a {@link MultiPartSnapshot} concurrently while the service thread waits
+ * for them to complete. The first failure of any part is reported once all the threads have completed.
+ */
+class SnapshotPartWorkers implements AutoCloseable
+{
+    /**
+     * Work to be done for a part of a snapshot.
+     */
+    @FunctionalInterface
+    interface PartTask
+    {
+        /**
+         * Take or load a part of a snapshot.
+         *
+         * @param partIndex of the part.
+         */
+        void run(int partIndex);
+    }
+
+    private final Thread[] threads;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    SnapshotPartWorkers(final ThreadFactory threadFactory, final String name, final int partCount, final PartTask task)
+    {
+        threads = new Thread[partCount];
+        for (int i = 0; i < partCount; i++)
+        {
+            final int partIndex = i;
+            final Thread thread = threadFactory.newThread(
+                () ->
+                {
+                    try
+                    {
+                        task.run(partIndex);
+                    }
+                    catch (final Throwable ex)
+                    {
+                        error.compareAndSet(null, ex);
+                    }
+                });
+
+            thread.setName(name + "-" + partIndex);
+            threads[i] = thread;
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+    }
+
+    /**
+     * Have all the parts completed, either successfully or with a failure.
+     *
+     * @return true if all the parts have completed.
+     * @throws ClusterException if a part has failed and all parts have completed.
+     */
+    boolean isDone()
+    {
+        for (final Thread thread : threads)
+        {
+            if (thread.isAlive())
+            {
+                return false;
+            }
+        }
+
+        final Throwable ex = error.get();
+        if (null != ex)
+        {
+            throw new ClusterException("snapshot part failed", ex);
+        }
+
+        return true;
+    }
+
+    /**
+     * Interrupt any part which has not completed, such as when the service thread is terminating.
+     */
+    public void close()
+    {
+        for (final Thread thread : threads)
+        {
+            if (thread.isAlive())
+            {
+                thread.interrupt();
+            }
+        }
+    }
+}
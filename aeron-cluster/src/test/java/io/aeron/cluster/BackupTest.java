@@ -15,10 +15,15 @@
  */
 package io.aeron.cluster;
 
+import io.aeron.cluster.client.ClusterException;
+import org.agrona.collections.MutableInteger;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.List;
+
 import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.exceptions.AeronException.Category.WARN;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.*;
 
@@ -138,6 +143,78 @@ public class BackupTest
         }
     }
 
+    @Test(timeout = 20_000)
+    public void shouldReuseRetrievedSnapshotsWhenBackupResetsBeforeUpdatingRecordingLog() throws Exception
+    {
+        try (TestCluster cluster = TestCluster.startThreeNodeStaticCluster(NULL_VALUE))
+        {
+            final TestNode leader = cluster.awaitLeader();
+
+            cluster.connectClient();
+            cluster.sendMessages(10);
+            cluster.awaitResponses(10);
+            cluster.awaitMessageCountForService(leader, 10);
+
+            cluster.takeSnapshot(leader);
+            cluster.awaitSnapshotCounter(cluster.node(0), 1);
+            cluster.awaitSnapshotCounter(cluster.node(1), 1);
+            cluster.awaitSnapshotCounter(cluster.node(2), 1);
+
+            final long logPosition = leader.service().cluster().logPosition();
+            final MutableInteger snapshotsRetrievedCount = new MutableInteger();
+
+            final TestBackupNode backupNode = cluster.startClusterBackupNode(true, new ClusterBackupEventsListener()
+            {
+                public void onBackupQuery()
+                {
+                }
+
+                public void onPossibleClusterFailure()
+                {
+                }
+
+                public void onBackupResponse(
+                    final ClusterMember[] clusterMembers,
+                    final ClusterMember leaderMember,
+                    final List<RecordingLog.Snapshot> snapshotsToRetrieve)
+                {
+                }
+
+                public void onSnapshotsRetrieved(final List<RecordingLog.Snapshot> snapshotsRetrieved)
+                {
+                    if (1 == ++snapshotsRetrievedCount.value)
+                    {
+                        throw new ClusterException("reset backup after retrieving snapshots", WARN);
+                    }
+                }
+
+                public void onUpdatedRecordingLog(
+                    final RecordingLog recordingLog, final List<RecordingLog.Snapshot> snapshotsRetrieved)
+                {
+                }
+
+                public void onLiveLogProgress(
+                    final long recordingId, final long recordingPosCounterId, final long logPosition)
+                {
+                }
+            });
+
+            cluster.awaitBackupState(ClusterBackup.State.BACKING_UP);
+            cluster.awaitBackupLiveLogPosition(logPosition);
+
+            assertEquals(2, snapshotsRetrievedCount.value);
+            assertThat(backupNode.snapshotBytesAvoided(), greaterThan(0L));
+
+            cluster.stopAllNodes();
+
+            final TestNode node = cluster.startStaticNodeFromBackup();
+            cluster.awaitLeader();
+
+            assertEquals(10, node.service().messageCount());
+            assertTrue(node.service().wasSnapshotLoaded());
+        }
+    }
+
     @Test(timeout = 10_000)
     public void shouldBackupClusterWithSnapshotAndNonEmptyLog() throws Exception
     {
@@ -25,6 +25,8 @@ import io.aeron.cluster.service.ClientSession;
 import io.aeron.cluster.service.Cluster;
 import io.aeron.cluster.service.ClusteredService;
 import io.aeron.cluster.service.ClusteredServiceContainer;
+import io.aeron.cluster.service.IncrementalSnapshot;
+import io.aeron.cluster.service.MultiPartSnapshot;
 import io.aeron.driver.MediaDriver;
 import io.aeron.driver.ThreadingMode;
 import io.aeron.logbuffer.FragmentHandler;
@@ -39,9 +41,11 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -69,6 +73,7 @@ public class ClusterNodeRestartTest
     private final AtomicReference<String> serviceState = new AtomicReference<>();
     private final AtomicLong snapshotCount = new AtomicLong();
     private final Counter mockSnapshotCounter = mock(Counter.class);
+    private boolean acceleratedLogReplay = false;
 
     @Before
     public void before()
@@ -154,6 +159,71 @@ public class ClusterNodeRestartTest
         }
     }
 
+    @Test(timeout = 10_000)
+    public void shouldRestartServiceWithAcceleratedReplayAndContinue() throws Exception
+    {
+        final AtomicLong serviceMsgCounter = new AtomicLong(0);
+        final AtomicLong restartServiceMsgCounter = new AtomicLong(0);
+
+        launchService(serviceMsgCounter);
+        connectClient();
+
+        for (int i = 0; i < 3; i++)
+        {
+            sendCountedMessageIntoCluster(i);
+        }
+
+        while (serviceMsgCounter.get() < 3)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        final CountersReader counters = container.context().aeron().countersReader();
+        final AtomicCounter controlToggle = ClusterControl.findControlToggle(counters);
+        assertNotNull(controlToggle);
+        assertTrue(ClusterControl.ToggleState.SNAPSHOT.toggle(controlToggle));
+
+        while (snapshotCount.get() == 0)
+        {
+            Thread.sleep(1);
+            TestUtil.checkInterruptedStatus();
+        }
+
+        sendCountedMessageIntoCluster(3);
+
+        while (serviceMsgCounter.get() < 4)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        forceCloseForRestart();
+
+        final PrintStream mockOut = mock(PrintStream.class);
+        assertTrue(ClusterTool.tombstoneLatestSnapshot(
+            mockOut, clusteredMediaDriver.consensusModule().context().clusterDir()));
+
+        acceleratedLogReplay = true;
+        launchClusteredMediaDriver(false);
+        launchService(restartServiceMsgCounter);
+        connectClient();
+
+        while (snapshotCount.get() < 2)
+        {
+            Thread.sleep(1);
+            TestUtil.checkInterruptedStatus();
+        }
+
+        sendCountedMessageIntoCluster(4);
+
+        while (restartServiceMsgCounter.get() < 5)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+    }
+
     @Test(timeout = 10_000)
     public void shouldRestartServiceFromEmptySnapshot() throws Exception
     {
@@ -234,6 +304,116 @@ public class ClusterNodeRestartTest
         assertThat(serviceState.get(), is("3"));
     }
 
+    @Test(timeout = 10_000)
+    public void shouldRestartServiceFromMultiPartSnapshot() throws Exception
+    {
+        final AtomicLong serviceMsgCounter = new AtomicLong(0);
+        final AtomicIntegerArray loadedPartValues = new AtomicIntegerArray(2);
+
+        launchMultiPartSnapshotService(serviceMsgCounter, loadedPartValues);
+        connectClient();
+
+        sendCountedMessageIntoCluster(0);
+        sendCountedMessageIntoCluster(1);
+        sendCountedMessageIntoCluster(2);
+
+        while (serviceMsgCounter.get() != 3)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        final CountersReader counters = aeronCluster.context().aeron().countersReader();
+        final AtomicCounter controlToggle = ClusterControl.findControlToggle(counters);
+        assertNotNull(controlToggle);
+        assertTrue(ClusterControl.ToggleState.SNAPSHOT.toggle(controlToggle));
+
+        while (snapshotCount.get() == 0)
+        {
+            Thread.sleep(1);
+            TestUtil.checkInterruptedStatus();
+        }
+
+        forceCloseForRestart();
+
+        serviceState.set(null);
+        launchClusteredMediaDriver(false);
+        launchMultiPartSnapshotService(serviceMsgCounter, loadedPartValues);
+        connectClient();
+
+        while (null == serviceState.get())
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        assertThat(serviceState.get(), is("3"));
+        assertThat(loadedPartValues.get(0), is(3));
+        assertThat(loadedPartValues.get(1), is(4));
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldRestartServiceFromIncrementalSnapshotWithFurtherLog() throws Exception
+    {
+        final AtomicLong serviceMsgCounter = new AtomicLong(0);
+        final AtomicInteger loadedValue = new AtomicInteger(-1);
+
+        launchIncrementalSnapshotService(serviceMsgCounter, loadedValue);
+        connectClient();
+
+        sendCountedMessageIntoCluster(0);
+        sendCountedMessageIntoCluster(1);
+        sendCountedMessageIntoCluster(2);
+
+        while (serviceMsgCounter.get() != 3)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        final CountersReader counters = aeronCluster.context().aeron().countersReader();
+        final AtomicCounter controlToggle = ClusterControl.findControlToggle(counters);
+        assertNotNull(controlToggle);
+        assertTrue(ClusterControl.ToggleState.SNAPSHOT.toggle(controlToggle));
+
+        while (snapshotCount.get() == 0)
+        {
+            Thread.sleep(1);
+            TestUtil.checkInterruptedStatus();
+        }
+
+        sendCountedMessageIntoCluster(3);
+
+        final File clusterDir = clusteredMediaDriver.consensusModule().context().clusterDir();
+        while (!hasServiceSnapshot(clusterDir))
+        {
+            Thread.sleep(1);
+            TestUtil.checkInterruptedStatus();
+        }
+
+        while (serviceMsgCounter.get() != 4)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        forceCloseForRestart();
+
+        serviceMsgCounter.set(0);
+        launchClusteredMediaDriver(false);
+        launchIncrementalSnapshotService(serviceMsgCounter, loadedValue);
+        connectClient();
+
+        while (serviceMsgCounter.get() != 1)
+        {
+            Thread.yield();
+            TestUtil.checkInterruptedStatus();
+        }
+
+        assertThat(loadedValue.get(), is(3));
+        assertThat(serviceState.get(), is("4"));
+    }
+
     @Test(timeout = 10_000)
     public void shouldRestartServiceFromSnapshotWithFurtherLog() throws Exception
     {
@@ -593,6 +773,187 @@ public class ClusterNodeRestartTest
                 .errorHandler(TestUtil.errorHandler(0)));
     }
 
+    private void launchMultiPartSnapshotService(final AtomicLong msgCounter, final AtomicIntegerArray loadedPartValues)
+    {
+        final ClusteredService service = new MultiPartSnapshotService()
+            {
+                private int counterValue = 0;
+
+                public void onStart(final Cluster cluster, final Image snapshotImage)
+                {
+                    super.onStart(cluster, snapshotImage);
+
+                    if (null != snapshotImage)
+                    {
+                        final FragmentHandler fragmentHandler =
+                            (buffer, offset, length, header) -> counterValue = buffer.getInt(offset);
+
+                        while (snapshotImage.poll(fragmentHandler, 1) == 0)
+                        {
+                            cluster.idle();
+                        }
+
+                        serviceState.set(Integer.toString(counterValue));
+                    }
+                }
+
+                public void onSessionMessage(
+                    final ClientSession session,
+                    final long timestamp,
+                    final DirectBuffer buffer,
+                    final int offset,
+                    final int length,
+                    final Header header)
+                {
+                    counterValue++;
+                    msgCounter.getAndIncrement();
+                }
+
+                public void onTakeSnapshot(final Publication snapshotPublication)
+                {
+                    final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+                    buffer.putInt(0, counterValue);
+
+                    offerUntilAccepted(snapshotPublication, buffer);
+                }
+
+                public int snapshotPartCount()
+                {
+                    return loadedPartValues.length();
+                }
+
+                public void onTakeSnapshotPart(
+                    final int partIndex, final int partCount, final Publication snapshotPublication)
+                {
+                    final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+                    buffer.putInt(0, counterValue + partIndex);
+
+                    offerUntilAccepted(snapshotPublication, buffer);
+                }
+
+                public void onLoadSnapshotPart(final int partIndex, final int partCount, final Image snapshotImage)
+                {
+                    final FragmentHandler fragmentHandler =
+                        (buffer, offset, length, header) -> loadedPartValues.set(partIndex, buffer.getInt(offset));
+
+                    while (snapshotImage.poll(fragmentHandler, 1) == 0)
+                    {
+                        Thread.yield();
+                    }
+                }
+
+                private void offerUntilAccepted(final Publication publication, final DirectBuffer buffer)
+                {
+                    long result;
+                    while ((result = publication.offer(buffer, 0, SIZE_OF_INT)) < 0)
+                    {
+                        checkResult(result);
+                        Thread.yield();
+                    }
+                }
+            };
+
+        container = null;
+
+        container = ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .clusteredService(service)
+                .terminationHook(TestUtil.TERMINATION_HOOK)
+                .errorHandler(TestUtil.errorHandler(0)));
+    }
+
+    private void launchIncrementalSnapshotService(final AtomicLong msgCounter, final AtomicInteger loadedValue)
+    {
+        final ClusteredService service = new IncrementalSnapshotService()
+            {
+                private int counterValue = 0;
+                private int snapshotValue;
+                private int chunksRemaining;
+
+                public void onStart(final Cluster cluster, final Image snapshotImage)
+                {
+                    super.onStart(cluster, snapshotImage);
+
+                    if (null != snapshotImage)
+                    {
+                        final FragmentHandler fragmentHandler =
+                            (buffer, offset, length, header) -> counterValue = buffer.getInt(offset);
+
+                        while (snapshotImage.poll(fragmentHandler, 1) == 0)
+                        {
+                            cluster.idle();
+                        }
+
+                        loadedValue.set(counterValue);
+                    }
+                }
+
+                public void onSessionMessage(
+                    final ClientSession session,
+                    final long timestamp,
+                    final DirectBuffer buffer,
+                    final int offset,
+                    final int length,
+                    final Header header)
+                {
+                    final int sentValue = buffer.getInt(offset + MESSAGE_VALUE_OFFSET);
+                    assertThat(sentValue, is(counterValue));
+
+                    counterValue++;
+                    serviceState.set(Integer.toString(counterValue));
+                    msgCounter.getAndIncrement();
+                }
+
+                public void onTakeSnapshot(final Publication snapshotPublication)
+                {
+                    throw new IllegalStateException("snapshot should be taken incrementally");
+                }
+
+                public void onBeginSnapshot(final Publication snapshotPublication)
+                {
+                    snapshotValue = counterValue;
+                    chunksRemaining = 3;
+                }
+
+                public boolean onSnapshotWork(final Publication snapshotPublication)
+                {
+                    if (--chunksRemaining > 0)
+                    {
+                        return false;
+                    }
+
+                    final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+                    buffer.putInt(0, snapshotValue);
+
+                    final long result = snapshotPublication.offer(buffer, 0, SIZE_OF_INT);
+                    checkResult(result);
+                    if (result < 0)
+                    {
+                        chunksRemaining++;
+                        return false;
+                    }
+
+                    return true;
+                }
+            };
+
+        container = null;
+
+        container = ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .clusteredService(service)
+                .terminationHook(TestUtil.TERMINATION_HOOK)
+                .errorHandler(TestUtil.errorHandler(0)));
+    }
+
+    private static boolean hasServiceSnapshot(final File clusterDir)
+    {
+        try (RecordingLog recordingLog = new RecordingLog(clusterDir))
+        {
+            return null != recordingLog.getLatestSnapshot(0);
+        }
+    }
+
     private void launchReschedulingService(final AtomicInteger triggeredTimersCounter)
     {
         final ClusteredService service = new StubClusteredService()
@@ -702,10 +1063,19 @@ public class ClusterNodeRestartTest
             new ConsensusModule.Context()
                 .errorHandler(TestUtil.errorHandler(0))
                 .snapshotCounter(mockSnapshotCounter)
+                .acceleratedLogReplay(acceleratedLogReplay)
                 .terminationHook(TestUtil.TERMINATION_HOOK)
                 .deleteDirOnStart(initialLaunch));
     }
 
+    abstract static class MultiPartSnapshotService extends StubClusteredService implements MultiPartSnapshot
+    {
+    }
+
+    abstract static class IncrementalSnapshotService extends StubClusteredService implements IncrementalSnapshot
+    {
+    }
+
     private static void checkResult(final long result)
     {
         if (result == Publication.NOT_CONNECTED ||
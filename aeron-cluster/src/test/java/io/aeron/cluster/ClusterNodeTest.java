@@ -16,6 +16,8 @@
 package io.aeron.cluster;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -27,6 +29,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.aeron.Aeron;
 import io.aeron.archive.Archive;
 import io.aeron.archive.ArchiveThreadingMode;
 import io.aeron.cluster.client.AeronCluster;
@@ -42,6 +45,7 @@ import io.aeron.logbuffer.Header;
 public class ClusterNodeTest
 {
     private static final long MAX_CATALOG_ENTRIES = 1024;
+    private static final int BATCH_SIZE = 3;
 
     private ClusteredMediaDriver clusteredMediaDriver;
     private ClusteredServiceContainer container;
@@ -65,6 +69,7 @@ public class ClusterNodeTest
             new ConsensusModule.Context()
                 .errorHandler(TestUtil.errorHandler(0))
                 .terminationHook(TestUtil.TERMINATION_HOOK)
+                .isIpcIngressEnabled(true)
                 .deleteDirOnStart(true));
     }
 
@@ -91,6 +96,54 @@ public class ClusterNodeTest
         assertTrue(aeronCluster.sendKeepAlive());
     }
 
+    @Test(timeout = 10_000)
+    public void shouldConnectViaIpcWhenSharingMediaDriverWithLeader()
+    {
+        final ExpandableArrayBuffer msgBuffer = new ExpandableArrayBuffer();
+        final String msg = "Hello World!";
+        msgBuffer.putStringWithoutLengthAscii(0, msg);
+
+        final MutableInteger messageCount = new MutableInteger();
+
+        final EgressListener listener = (clusterSessionId, timestamp, buffer, offset, length, header) ->
+        {
+            assertThat(buffer.getStringWithoutLengthAscii(offset, length), is(msg));
+            messageCount.value += 1;
+        };
+
+        container = launchEchoService();
+        aeronCluster = connectToCluster(listener, true);
+
+        assertTrue(aeronCluster.isIpcIngress());
+        assertTrue(aeronCluster.ingressPublication().channel().startsWith("aeron:ipc"));
+        assertEquals(aeronCluster.ingressPublication().sessionId(), aeronCluster.ipcEgressSubscription().streamId());
+
+        while (aeronCluster.offer(msgBuffer, 0, msg.length()) < 0)
+        {
+            TestUtil.checkInterruptedStatus();
+            Thread.yield();
+        }
+
+        while (messageCount.get() == 0)
+        {
+            if (aeronCluster.pollEgress() <= 0)
+            {
+                TestUtil.checkInterruptedStatus();
+                Thread.yield();
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldConnectViaIngressChannelWhenIpcIngressDisabled()
+    {
+        container = launchEchoService();
+        aeronCluster = connectToCluster(null, false);
+
+        assertFalse(aeronCluster.isIpcIngress());
+        assertTrue(aeronCluster.sendKeepAlive());
+    }
+
     @Test(timeout = 10_000)
     public void shouldEchoMessageViaServiceUsingDirectOffer()
     {
@@ -241,6 +294,81 @@ public class ClusterNodeTest
         }
     }
 
+    @Test(timeout = 10_000)
+    public void shouldEchoMessagesViaServiceUsingBatch()
+    {
+        final ExpandableArrayBuffer msgBuffer = new ExpandableArrayBuffer();
+        final String msg = "Hello World!";
+        msgBuffer.putStringWithoutLengthAscii(0, msg);
+
+        final MutableInteger messageCount = new MutableInteger();
+
+        final EgressListener listener = (clusterSessionId, timestamp, buffer, offset, length, header) ->
+        {
+            assertThat(buffer.getStringWithoutLengthAscii(offset, length), is(msg + messageCount.get()));
+            messageCount.value += 1;
+        };
+
+        container = launchBatchingService(null);
+        aeronCluster = connectToCluster(listener);
+
+        while (aeronCluster.offer(msgBuffer, 0, msg.length()) < 0)
+        {
+            TestUtil.checkInterruptedStatus();
+            Thread.yield();
+        }
+
+        while (messageCount.get() < BATCH_SIZE)
+        {
+            if (aeronCluster.pollEgress() <= 0)
+            {
+                TestUtil.checkInterruptedStatus();
+                Thread.yield();
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldBroadcastMessageViaService()
+    {
+        final String broadcastChannel = "aeron:udp?endpoint=localhost:9030";
+        final ExpandableArrayBuffer msgBuffer = new ExpandableArrayBuffer();
+        final String msg = "Hello World!";
+        msgBuffer.putStringWithoutLengthAscii(0, msg);
+
+        final MutableInteger messageCount = new MutableInteger();
+
+        final EgressListener listener = (clusterSessionId, timestamp, buffer, offset, length, header) ->
+        {
+            assertEquals(Aeron.NULL_VALUE, clusterSessionId);
+            assertThat(buffer.getStringWithoutLengthAscii(offset, length), is(msg));
+            messageCount.value += 1;
+        };
+
+        container = launchBatchingService(broadcastChannel);
+        aeronCluster = AeronCluster.connect(
+            new AeronCluster.Context()
+                .egressListener(listener)
+                .ingressChannel("aeron:udp")
+                .egressBroadcastChannel(broadcastChannel)
+                .clusterMemberEndpoints("0=localhost:9010,1=localhost:9011,2=localhost:9012"));
+
+        while (aeronCluster.offer(msgBuffer, 0, msg.length()) < 0)
+        {
+            TestUtil.checkInterruptedStatus();
+            Thread.yield();
+        }
+
+        while (messageCount.get() == 0)
+        {
+            if (aeronCluster.pollEgress() <= 0)
+            {
+                TestUtil.checkInterruptedStatus();
+                Thread.yield();
+            }
+        }
+    }
+
     private ClusteredServiceContainer launchEchoService()
     {
         final ClusteredService clusteredService = new StubClusteredService()
@@ -351,11 +479,61 @@ public class ClusterNodeTest
                 .errorHandler(TestUtil.errorHandler(0)));
     }
 
+    private ClusteredServiceContainer launchBatchingService(final String broadcastChannel)
+    {
+        final ClusteredService clusteredService = new StubClusteredService()
+        {
+            private final ExpandableArrayBuffer responseBuffer = new ExpandableArrayBuffer();
+
+            public void onSessionMessage(
+                final ClientSession session,
+                final long timestamp,
+                final DirectBuffer buffer,
+                final int offset,
+                final int length,
+                @SuppressWarnings("unused") final Header header)
+            {
+                if (null != broadcastChannel)
+                {
+                    while (cluster.broadcast(buffer, offset, length) < 0)
+                    {
+                        cluster.idle();
+                    }
+
+                    return;
+                }
+
+                final String msg = buffer.getStringWithoutLengthAscii(offset, length);
+                for (int i = 0; i < BATCH_SIZE; i++)
+                {
+                    final int responseLength = responseBuffer.putStringWithoutLengthAscii(0, msg + i);
+                    while (!session.batch(responseBuffer, 0, responseLength))
+                    {
+                        cluster.idle();
+                    }
+                }
+            }
+        };
+
+        return ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .clusteredService(clusteredService)
+                .egressBroadcastChannel(broadcastChannel)
+                .terminationHook(TestUtil.TERMINATION_HOOK)
+                .errorHandler(TestUtil.errorHandler(0)));
+    }
+
     private AeronCluster connectToCluster(final EgressListener egressListener)
+    {
+        return connectToCluster(egressListener, AeronCluster.Configuration.isIpcIngressEnabled());
+    }
+
+    private AeronCluster connectToCluster(final EgressListener egressListener, final boolean isIpcIngressEnabled)
     {
         return AeronCluster.connect(
             new AeronCluster.Context()
                 .egressListener(egressListener)
+                .isIpcIngressEnabled(isIpcIngressEnabled)
                 .ingressChannel("aeron:udp")
                 .clusterMemberEndpoints("0=localhost:9010,1=localhost:9011,2=localhost:9012"));
     }
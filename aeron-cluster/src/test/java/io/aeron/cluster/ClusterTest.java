@@ -790,6 +790,53 @@ public class ClusterTest
         }
     }
 
+    @Test(timeout = 30_000)
+    public void shouldFailOverWithinHeartbeatTimeoutUsingPreVoteAndAdaptiveDetection() throws Exception
+    {
+        final long leaderHeartbeatTimeoutNs = TimeUnit.SECONDS.toNanos(5);
+        final long leaderHeartbeatIntervalNs = TimeUnit.MILLISECONDS.toNanos(20);
+        final long electionTimeoutNs = TimeUnit.MILLISECONDS.toNanos(200);
+
+        // Adaptive detection takes a few heartbeat intervals so failover, including the election, should complete
+        // well before the fixed heartbeat timeout would have detected the failure.
+        final long maxFailoverNs = leaderHeartbeatTimeoutNs / 2;
+
+        try (TestCluster cluster = new TestCluster(3, 0, NULL_VALUE).consensusModuleContextDecorator(
+            (ctx) -> ctx
+                .leaderHeartbeatTimeoutNs(leaderHeartbeatTimeoutNs)
+                .leaderHeartbeatIntervalNs(leaderHeartbeatIntervalNs)
+                .leaderHeartbeatPhiThreshold(8.0)
+                .electionTimeoutNs(electionTimeoutNs)
+                .electionPreVoteEnabled(true)))
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                cluster.startStaticNode(i, true);
+            }
+
+            final TestNode leader = cluster.awaitLeader();
+            cluster.connectClient();
+            cluster.sendMessages(10);
+            cluster.awaitResponses(10);
+
+            Thread.sleep(1_000);
+
+            cluster.stopNode(leader);
+            final long startNs = System.nanoTime();
+
+            TestNode newLeader;
+            while (null == (newLeader = cluster.findLeader(leader.index())))
+            {
+                Thread.sleep(1);
+            }
+
+            final long failoverNs = System.nanoTime() - startNs;
+
+            assertNotEquals(leader.index(), newLeader.index());
+            assertTrue("failoverNs=" + failoverNs, failoverNs < maxFailoverNs);
+        }
+    }
+
     private void shouldCatchUpAfterFollowerMissesMessage(final String message) throws InterruptedException
     {
         try (TestCluster cluster = TestCluster.startThreeNodeStaticCluster(NULL_VALUE))
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommitLatencyTrackerTest
+{
+    private final CommitLatencyTracker tracker = new CommitLatencyTracker(4);
+
+    @Test
+    public void shouldMeasureLatencyFromAppendToCommit()
+    {
+        tracker.onAppend(64, 100);
+        tracker.onAppend(128, 150);
+        tracker.onAppend(192, 200);
+
+        assertEquals(2, tracker.onCommit(128, 400));
+        assertEquals(250, tracker.lastLatencyNs());
+        assertEquals(300, tracker.maxLatencyNs());
+        assertEquals(1, tracker.size());
+
+        assertEquals(1, tracker.onCommit(256, 250));
+        assertEquals(50, tracker.lastLatencyNs());
+        assertEquals(300, tracker.maxLatencyNs());
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void shouldOnlySampleWhenPositionAdvances()
+    {
+        tracker.onAppend(64, 100);
+        tracker.onAppend(64, 200);
+        tracker.onAppend(32, 300);
+
+        assertEquals(1, tracker.size());
+        assertEquals(0, tracker.onCommit(32, 400));
+        assertEquals(1, tracker.onCommit(64, 400));
+        assertEquals(300, tracker.lastLatencyNs());
+    }
+
+    @Test
+    public void shouldExtendMostRecentSampleWhenFull()
+    {
+        for (int i = 1; i <= 6; i++)
+        {
+            tracker.onAppend(i * 64, i * 100);
+        }
+
+        assertEquals(4, tracker.size());
+        assertEquals(3, tracker.onCommit(192, 1000));
+        assertEquals(0, tracker.onCommit(320, 1000));
+        assertEquals(1, tracker.onCommit(384, 1000));
+        assertEquals(600, tracker.lastLatencyNs());
+    }
+
+    @Test
+    public void shouldDiscardSamplesOnReset()
+    {
+        tracker.onAppend(64, 100);
+        tracker.reset(1024);
+        tracker.onAppend(512, 200);
+
+        assertEquals(0, tracker.size());
+        assertEquals(0, tracker.onCommit(1024, 300));
+    }
+}
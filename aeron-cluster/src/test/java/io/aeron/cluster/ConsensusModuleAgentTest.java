@@ -64,6 +64,9 @@ public class ConsensusModuleAgentTest
         .controlToggleCounter(mock(Counter.class))
         .clusterNodeCounter(mock(Counter.class))
         .timedOutClientCounter(mockTimedOutClientCounter)
+        .commitLatencyMaxCounter(mock(Counter.class))
+        .commitLatencyCounter(mock(Counter.class))
+        .appendPositionSentCounter(mock(Counter.class))
         .idleStrategySupplier(NoOpIdleStrategy::new)
         .aeron(mockAeron)
         .clusterMemberId(0)
@@ -103,7 +106,8 @@ public class ConsensusModuleAgentTest
         agent.state(ConsensusModule.State.ACTIVE);
         agent.role(Cluster.Role.LEADER);
         agent.appendedPositionCounter(mock(ReadableCounter.class));
-        agent.onSessionConnect(correlationIdOne, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0]);
+        agent.onSessionConnect(
+            correlationIdOne, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0], false, 0);
 
         clock.update(17, TimeUnit.MILLISECONDS);
         agent.doWork();
@@ -111,7 +115,8 @@ public class ConsensusModuleAgentTest
         verify(mockLogPublisher).appendSessionOpen(any(ClusterSession.class), anyLong(), anyLong());
 
         final long correlationIdTwo = 2L;
-        agent.onSessionConnect(correlationIdTwo, 3, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_TWO, new byte[0]);
+        agent.onSessionConnect(
+            correlationIdTwo, 3, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_TWO, new byte[0], false, 0);
         clock.update(clock.time() + 10L, TimeUnit.MILLISECONDS);
         agent.doWork();
 
@@ -135,7 +140,8 @@ public class ConsensusModuleAgentTest
         agent.state(ConsensusModule.State.ACTIVE);
         agent.role(Cluster.Role.LEADER);
         agent.appendedPositionCounter(mock(ReadableCounter.class));
-        agent.onSessionConnect(correlationId, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0]);
+        agent.onSessionConnect(
+            correlationId, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0], false, 0);
 
         agent.doWork();
 
@@ -171,7 +177,8 @@ public class ConsensusModuleAgentTest
         agent.state(ConsensusModule.State.ACTIVE);
         agent.role(Cluster.Role.LEADER);
         agent.appendedPositionCounter(mock(ReadableCounter.class));
-        agent.onSessionConnect(correlationId, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0]);
+        agent.onSessionConnect(
+            correlationId, 2, PROTOCOL_SEMANTIC_VERSION, RESPONSE_CHANNEL_ONE, new byte[0], false, 0);
 
         agent.doWork();
 
@@ -248,4 +255,41 @@ public class ConsensusModuleAgentTest
         inOrder.verify(mockLogPublisher).appendClusterAction(anyLong(), anyLong(), eq(ClusterAction.SUSPEND));
         inOrder.verify(mockLogPublisher).appendClusterAction(anyLong(), anyLong(), eq(ClusterAction.RESUME));
     }
+
+    @Test
+    public void shouldGiveLeaderLeaseShorterThanHeartbeatTimeoutByMargin()
+    {
+        final long timeoutNs = LEADER_HEARTBEAT_TIMEOUT_DEFAULT_NS;
+        final long intervalNs = LEADER_HEARTBEAT_INTERVAL_DEFAULT_NS;
+
+        final long leaseNs = ConsensusModuleAgent.leaderLeaseNs(timeoutNs, intervalNs);
+
+        assertThat(leaseNs, is(timeoutNs - ((2 * intervalNs) + SLOW_TICK_INTERVAL_NS)));
+        assertThat(ConsensusModuleAgent.leaderLeaseNs(intervalNs * 2, intervalNs) > 0, is(false));
+    }
+
+    @Test
+    public void shouldBoundLeaderLeaseByAdaptiveDetectionTime()
+    {
+        final long timeoutNs = LEADER_HEARTBEAT_TIMEOUT_DEFAULT_NS;
+        final long intervalNs = LEADER_HEARTBEAT_INTERVAL_DEFAULT_NS;
+        final PhiAccrualFailureDetector detector = new PhiAccrualFailureDetector(8.0, intervalNs, intervalNs >> 2);
+
+        final long detectionTimeNs = detector.minDetectionTimeNs();
+        final long leaseNs = ConsensusModuleAgent.leaderLeaseNs(Math.min(timeoutNs, detectionTimeNs), intervalNs);
+
+        long nowNs = 0;
+        for (int i = 0; i < 100; i++)
+        {
+            detector.onMessage(nowNs);
+            nowNs += intervalNs;
+        }
+        final long lastMessageNs = nowNs - intervalNs;
+
+        assertThat(detectionTimeNs < timeoutNs, is(true));
+        assertThat(leaseNs > 0, is(true));
+        assertThat(leaseNs < detectionTimeNs, is(true));
+        assertThat(detector.isSuspected(lastMessageNs + leaseNs), is(false));
+        assertThat(detector.isSuspected(lastMessageNs + detectionTimeNs), is(true));
+    }
 }
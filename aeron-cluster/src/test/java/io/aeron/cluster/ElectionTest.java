@@ -564,6 +564,134 @@ public class ElectionTest
         verify(consensusModuleAgent).role(Cluster.Role.FOLLOWER);
     }
 
+    @Test
+    public void shouldBecomeCandidateAfterPreVoteQuorum()
+    {
+        final long leadershipTermId = Aeron.NULL_VALUE;
+        final long logPosition = 0;
+        final ClusterMember[] clusterMembers = prepareClusterMembers();
+        final ClusterMember candidateMember = clusterMembers[1];
+
+        ctx.electionPreVoteEnabled(true);
+        final Election election = newElection(false, leadershipTermId, logPosition, clusterMembers, candidateMember);
+
+        final long t1 = 1;
+        election.doWork(t1);
+        final InOrder inOrder = Mockito.inOrder(electionStateCounter);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANVASS.code());
+
+        election.onCanvassPosition(leadershipTermId, logPosition, 0);
+        election.onCanvassPosition(leadershipTermId, logPosition, 2);
+
+        final long t2 = t1 + 1;
+        election.doWork(t2);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.NOMINATE.code());
+
+        final long t3 = t2 + (ctx.electionTimeoutNs() >> 1);
+        election.doWork(t3);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANDIDATE_PRE_VOTE.code());
+
+        final long candidateTermId = leadershipTermId + 1;
+        election.doWork(t3);
+        verify(memberStatusPublisher).preVoteRequest(
+            clusterMembers[0].publication(), leadershipTermId, logPosition, candidateTermId, candidateMember.id());
+        verify(memberStatusPublisher).preVoteRequest(
+            clusterMembers[2].publication(), leadershipTermId, logPosition, candidateTermId, candidateMember.id());
+        verify(clusterMarkFile, never()).candidateTermId(eq(candidateTermId), anyInt());
+        verify(consensusModuleAgent, never()).role(Cluster.Role.CANDIDATE);
+
+        election.onPreVote(
+            candidateTermId, leadershipTermId, logPosition, candidateMember.id(), clusterMembers[0].id(), false);
+        election.onPreVote(
+            candidateTermId, leadershipTermId, logPosition, candidateMember.id(), clusterMembers[2].id(), true);
+
+        final long t4 = t3 + 1;
+        election.doWork(t4);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANDIDATE_BALLOT.code());
+        verify(clusterMarkFile).candidateTermId(eq(candidateTermId), anyInt());
+        verify(consensusModuleAgent).role(Cluster.Role.CANDIDATE);
+    }
+
+    @Test
+    public void shouldTimeoutPreVoteWithoutQuorumAndNotStartNewTerm()
+    {
+        final long leadershipTermId = Aeron.NULL_VALUE;
+        final long logPosition = 0;
+        final ClusterMember[] clusterMembers = prepareClusterMembers();
+        final ClusterMember candidateMember = clusterMembers[1];
+
+        ctx.electionPreVoteEnabled(true);
+        final Election election = newElection(false, leadershipTermId, logPosition, clusterMembers, candidateMember);
+
+        final long t1 = 1;
+        election.doWork(t1);
+        final InOrder inOrder = Mockito.inOrder(electionStateCounter);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANVASS.code());
+
+        election.onCanvassPosition(leadershipTermId, logPosition, 0);
+        election.onCanvassPosition(leadershipTermId, logPosition, 2);
+
+        final long t2 = t1 + 1;
+        election.doWork(t2);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.NOMINATE.code());
+
+        final long t3 = t2 + (ctx.electionTimeoutNs() >> 1);
+        election.doWork(t3);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANDIDATE_PRE_VOTE.code());
+
+        final long candidateTermId = leadershipTermId + 1;
+        election.onPreVote(
+            candidateTermId, leadershipTermId, logPosition, candidateMember.id(), clusterMembers[0].id(), false);
+        election.onPreVote(
+            candidateTermId, leadershipTermId, logPosition, candidateMember.id(), clusterMembers[2].id(), false);
+
+        final long t4 = t3 + ctx.electionTimeoutNs();
+        election.doWork(t4);
+        inOrder.verify(electionStateCounter).setOrdered(Election.State.CANVASS.code());
+        verify(electionStateCounter, never()).setOrdered(Election.State.CANDIDATE_BALLOT.code());
+        verify(clusterMarkFile, never()).candidateTermId(eq(candidateTermId), anyInt());
+        assertThat(election.leadershipTermId(), is(leadershipTermId));
+    }
+
+    @Test
+    public void shouldGrantPreVoteOnlyToCandidateWithUpToDateLogWithoutChangingState()
+    {
+        final long leadershipTermId = 1;
+        final long logPosition = 120;
+        final ClusterMember[] clusterMembers = prepareClusterMembers();
+        final ClusterMember thisMember = clusterMembers[0];
+
+        final Election election = newElection(false, leadershipTermId, logPosition, clusterMembers, thisMember);
+
+        final long t1 = 1;
+        election.doWork(t1);
+        verify(electionStateCounter).setOrdered(Election.State.CANVASS.code());
+
+        final long candidateTermId = leadershipTermId + 1;
+        election.onPreVoteRequest(leadershipTermId, logPosition - 20, candidateTermId, clusterMembers[1].id());
+        verify(memberStatusPublisher).placePreVote(
+            clusterMembers[1].publication(),
+            candidateTermId,
+            leadershipTermId,
+            logPosition,
+            clusterMembers[1].id(),
+            thisMember.id(),
+            false);
+
+        election.onPreVoteRequest(leadershipTermId, logPosition, candidateTermId, clusterMembers[2].id());
+        verify(memberStatusPublisher).placePreVote(
+            clusterMembers[2].publication(),
+            candidateTermId,
+            leadershipTermId,
+            logPosition,
+            clusterMembers[2].id(),
+            thisMember.id(),
+            true);
+
+        verify(electionStateCounter, never()).setOrdered(Election.State.FOLLOWER_BALLOT.code());
+        verify(clusterMarkFile, never()).candidateTermId(eq(candidateTermId), anyInt());
+    }
+
     private Election newElection(
         final boolean isStartup,
         final long logLeadershipTermId,
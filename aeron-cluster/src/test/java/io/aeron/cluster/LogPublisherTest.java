@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import io.aeron.Publication;
+import io.aeron.ReservedValueSupplier;
+import io.aeron.cluster.client.ClusterException;
+import io.aeron.cluster.codecs.MessageHeaderDecoder;
+import io.aeron.cluster.codecs.SessionMessageBatchDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LogPublisherTest
+{
+    private static final long LEADERSHIP_TERM_ID = 3;
+
+    private final Publication publication = mock(Publication.class);
+    private final ExpandableArrayBuffer offeredBuffer = new ExpandableArrayBuffer();
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(new byte[64]);
+    private final LogPublisher logPublisher = new LogPublisher(1024);
+
+    @Before
+    public void before()
+    {
+        when(publication.maxMessageLength()).thenReturn(64 * 1024);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt(), nullable(ReservedValueSupplier.class)))
+            .thenAnswer(
+                (invocation) ->
+                {
+                    final DirectBuffer buffer = invocation.getArgument(0);
+                    final int offset = invocation.getArgument(1);
+                    final int length = invocation.getArgument(2);
+                    offeredBuffer.putBytes(0, buffer, offset, length);
+
+                    return 1024L;
+                });
+        when(publication.offer(
+            any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(), anyInt(), any()))
+            .thenReturn(1024L);
+
+        logPublisher.publication(publication);
+    }
+
+    @Test
+    public void shouldAppendBatchOfMessagesAsSingleEntry()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            messageBuffer.putInt(0, i);
+            assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10 + i, 100 + i, messageBuffer, 0, 4 + i));
+        }
+
+        verify(publication, never()).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+        assertTrue(logPublisher.flushBatch());
+        verify(publication).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+
+        final SessionMessageBatchDecoder decoder = new SessionMessageBatchDecoder();
+        decoder.wrapAndApplyHeader(offeredBuffer, 0, new MessageHeaderDecoder());
+        assertEquals(LEADERSHIP_TERM_ID, decoder.leadershipTermId());
+
+        int i = 0;
+        for (final SessionMessageBatchDecoder.MessagesDecoder messages : decoder.messages())
+        {
+            assertEquals(10 + i, messages.clusterSessionId());
+            assertEquals(100 + i, messages.timestamp());
+            assertEquals(4 + i, messages.messageLength());
+
+            final int messageOffset =
+                decoder.limit() + SessionMessageBatchDecoder.MessagesDecoder.messageHeaderLength();
+            assertEquals(i, offeredBuffer.getInt(messageOffset));
+            messages.skipMessage();
+            i++;
+        }
+
+        assertEquals(3, i);
+    }
+
+    @Test
+    public void shouldFlushBatchBeforeOtherEntriesAreAppended()
+    {
+        when(publication.tryClaim(anyInt(), any())).thenReturn(Publication.BACK_PRESSURED);
+
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 4));
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 11, 101, messageBuffer, 0, 4));
+        assertFalse(logPublisher.appendClusterAction(LEADERSHIP_TERM_ID, 102, ClusterAction.SNAPSHOT));
+
+        final InOrder inOrder = inOrder(publication);
+        inOrder.verify(publication).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+        inOrder.verify(publication, atLeastOnce()).tryClaim(anyInt(), any());
+    }
+
+    @Test
+    public void shouldFlushWhenBatchWouldExceedMaxLength()
+    {
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 600));
+        verify(publication, never()).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 11, 101, messageBuffer, 0, 600));
+        verify(publication).offer(
+            any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldRetainBatchWhenBackPressured()
+    {
+        reset(publication);
+        when(publication.maxMessageLength()).thenReturn(64 * 1024);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt(), any()))
+            .thenReturn(Publication.BACK_PRESSURED);
+
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 4));
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 11, 101, messageBuffer, 0, 4));
+        assertFalse(logPublisher.flushBatch());
+        assertFalse(logPublisher.flushBatch());
+
+        verify(publication, times(6)).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldFlushBatchBeforeDisconnect()
+    {
+        final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 4));
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 11, 101, messageBuffer, 0, 4));
+        logPublisher.disconnect(errorHandler);
+
+        final InOrder inOrder = inOrder(publication);
+        inOrder.verify(publication).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+        inOrder.verify(publication).close();
+        verifyNoInteractions(errorHandler);
+        assertFalse(logPublisher.hasPendingBatch());
+    }
+
+    @Test
+    public void shouldReportBatchDiscardedOnDisconnectWhenBackPressured()
+    {
+        final ErrorHandler errorHandler = mock(ErrorHandler.class);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt(), any()))
+            .thenReturn(Publication.BACK_PRESSURED);
+
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 4));
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 11, 101, messageBuffer, 0, 4));
+        logPublisher.disconnect(errorHandler);
+
+        verify(errorHandler).onError(any(ClusterException.class));
+        verify(publication).close();
+        assertFalse(logPublisher.hasPendingBatch());
+    }
+
+    @Test(expected = ClusterException.class)
+    public void shouldNotReplacePublicationWithPendingBatch()
+    {
+        assertTrue(logPublisher.batchMessage(LEADERSHIP_TERM_ID, 10, 100, messageBuffer, 0, 4));
+
+        logPublisher.publication(mock(Publication.class));
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchiveThreadingMode;
+import io.aeron.cluster.client.AeronCluster;
+import io.aeron.cluster.client.EgressListener;
+import io.aeron.cluster.service.ClientSession;
+import io.aeron.cluster.service.ClusterNodeRole;
+import io.aeron.cluster.service.ClusteredService;
+import io.aeron.cluster.service.ClusteredServiceContainer;
+import io.aeron.cluster.service.CommitPos;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.SystemUtil;
+import org.agrona.collections.MutableInteger;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentInvoker;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+
+public class MultipleClusterGroupsTest
+{
+    private static final long MAX_CATALOG_ENTRIES = 1024;
+    private static final int GROUP_COUNT = 2;
+
+    private final ClusteredServiceContainer[] containers = new ClusteredServiceContainer[GROUP_COUNT];
+    private final ConsensusModule[] consensusModules = new ConsensusModule[GROUP_COUNT];
+    private final AeronCluster[] clients = new AeronCluster[GROUP_COUNT];
+    private MediaDriver mediaDriver;
+    private Archive archive;
+    private AgentRunner consensusModuleRunner;
+
+    @Before
+    public void before()
+    {
+        mediaDriver = MediaDriver.launch(
+            new MediaDriver.Context()
+                .threadingMode(ThreadingMode.SHARED)
+                .termBufferSparseFile(true)
+                .spiesSimulateConnection(true)
+                .errorHandler(TestUtil.errorHandler(0))
+                .dirDeleteOnShutdown(true)
+                .dirDeleteOnStart(true));
+
+        archive = Archive.launch(
+            new Archive.Context()
+                .aeronDirectoryName(mediaDriver.aeronDirectoryName())
+                .maxCatalogEntries(MAX_CATALOG_ENTRIES)
+                .threadingMode(ArchiveThreadingMode.SHARED)
+                .recordingEventsEnabled(false)
+                .deleteArchiveOnStart(true));
+
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            IoUtil.delete(clusterDir(groupId), true);
+            containers[groupId] = launchEchoService(groupId);
+        }
+
+        final Agent[] agents = new Agent[GROUP_COUNT];
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            consensusModules[groupId] = launchConsensusModule(groupId);
+            agents[groupId] = new InvokerAgent(consensusModules[groupId].conductorAgentInvoker(), groupId);
+        }
+
+        consensusModuleRunner = new AgentRunner(
+            new SleepingMillisIdleStrategy(1), Throwable::printStackTrace, null, new CompositeAgent(agents));
+        AgentRunner.startOnThread(consensusModuleRunner);
+    }
+
+    @After
+    public void after()
+    {
+        CloseHelper.closeAll(clients);
+        CloseHelper.close(consensusModuleRunner);
+        CloseHelper.closeAll(consensusModules);
+        CloseHelper.closeAll(containers);
+        CloseHelper.close(archive);
+        CloseHelper.close(mediaDriver);
+
+        for (final ConsensusModule consensusModule : consensusModules)
+        {
+            if (null != consensusModule)
+            {
+                consensusModule.context().deleteDirectory();
+            }
+        }
+
+        if (null != archive)
+        {
+            archive.context().deleteArchiveDirectory();
+        }
+    }
+
+    @Test(timeout = 20_000)
+    public void shouldAllocateCountersPerCluster()
+    {
+        final CountersReader counters = consensusModules[0].context().aeron().countersReader();
+
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            assertThat(CommitPos.findCounterId(counters, groupId), not(CountersReader.NULL_COUNTER_ID));
+            assertThat(ClusterNodeRole.findCounterId(counters, groupId), not(CountersReader.NULL_COUNTER_ID));
+            assertNotNull(ClusterControl.findControlToggle(counters, groupId));
+        }
+
+        assertThat(CommitPos.findCounterId(counters, 0), not(CommitPos.findCounterId(counters, 1)));
+    }
+
+    @Test(timeout = 20_000)
+    public void shouldEchoMessagesFromEachClusterSharingDriverArchiveAndThread()
+    {
+        final ExpandableArrayBuffer msgBuffer = new ExpandableArrayBuffer();
+        final MutableInteger[] messageCounts = new MutableInteger[GROUP_COUNT];
+
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            final String expectedMsg = "Hello cluster " + groupId;
+            final MutableInteger messageCount = new MutableInteger();
+            messageCounts[groupId] = messageCount;
+
+            clients[groupId] = connectToCluster(
+                groupId,
+                (clusterSessionId, timestamp, buffer, offset, length, header) ->
+                {
+                    assertThat(buffer.getStringWithoutLengthAscii(offset, length), is(expectedMsg));
+                    messageCount.value += 1;
+                });
+        }
+
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            final int msgLength = msgBuffer.putStringWithoutLengthAscii(0, "Hello cluster " + groupId);
+            while (clients[groupId].offer(msgBuffer, 0, msgLength) < 0)
+            {
+                TestUtil.checkInterruptedStatus();
+                Thread.yield();
+            }
+        }
+
+        for (int groupId = 0; groupId < GROUP_COUNT; groupId++)
+        {
+            while (messageCounts[groupId].get() == 0)
+            {
+                if (clients[groupId].pollEgress() <= 0)
+                {
+                    TestUtil.checkInterruptedStatus();
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    private static int streamIdOffset(final int groupId)
+    {
+        return groupId * 100;
+    }
+
+    private static File clusterDir(final int groupId)
+    {
+        return new File(SystemUtil.tmpDirName(), "aeron-cluster-group-" + groupId);
+    }
+
+    private ConsensusModule launchConsensusModule(final int groupId)
+    {
+        final int streamIdOffset = streamIdOffset(groupId);
+
+        return ConsensusModule.launch(
+            new ConsensusModule.Context()
+                .aeronDirectoryName(mediaDriver.aeronDirectoryName())
+                .clusterId(groupId)
+                .clusterDir(clusterDir(groupId))
+                .clusterMembers(
+                    "0,localhost:2011" + groupId +
+                    ",localhost:2022" + groupId +
+                    ",localhost:2033" + groupId +
+                    ",localhost:2044" + groupId +
+                    ",localhost:8010")
+                .ingressChannel("aeron:udp")
+                .ingressStreamId(101 + streamIdOffset)
+                .logChannel("aeron:udp?endpoint=localhost:2055" + groupId)
+                .logStreamId(100 + streamIdOffset)
+                .replayStreamId(103 + streamIdOffset)
+                .serviceStreamId(104 + streamIdOffset)
+                .consensusModuleStreamId(105 + streamIdOffset)
+                .snapshotStreamId(107 + streamIdOffset)
+                .memberStatusStreamId(108 + streamIdOffset)
+                .useAgentInvoker(true)
+                .errorHandler(TestUtil.errorHandler(0))
+                .terminationHook(TestUtil.TERMINATION_HOOK));
+    }
+
+    private ClusteredServiceContainer launchEchoService(final int groupId)
+    {
+        final int streamIdOffset = streamIdOffset(groupId);
+        final ClusteredService clusteredService = new StubClusteredService()
+        {
+            public void onSessionMessage(
+                final ClientSession session,
+                final long timestamp,
+                final DirectBuffer buffer,
+                final int offset,
+                final int length,
+                final Header header)
+            {
+                while (session.offer(buffer, offset, length) < 0)
+                {
+                    cluster.idle();
+                }
+            }
+        };
+
+        return ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .aeronDirectoryName(mediaDriver.aeronDirectoryName())
+                .clusterId(groupId)
+                .clusterDir(clusterDir(groupId))
+                .replayStreamId(103 + streamIdOffset)
+                .serviceStreamId(104 + streamIdOffset)
+                .consensusModuleStreamId(105 + streamIdOffset)
+                .snapshotStreamId(106 + streamIdOffset)
+                .clusteredService(clusteredService)
+                .terminationHook(TestUtil.TERMINATION_HOOK)
+                .errorHandler(TestUtil.errorHandler(0)));
+    }
+
+    private AeronCluster connectToCluster(final int groupId, final EgressListener egressListener)
+    {
+        final int streamIdOffset = streamIdOffset(groupId);
+
+        return AeronCluster.connect(
+            new AeronCluster.Context()
+                .aeronDirectoryName(mediaDriver.aeronDirectoryName())
+                .egressListener(egressListener)
+                .ingressChannel("aeron:udp")
+                .ingressStreamId(101 + streamIdOffset)
+                .egressChannel("aeron:udp?endpoint=localhost:2066" + groupId)
+                .egressStreamId(102 + streamIdOffset)
+                .clusterMemberEndpoints("0=localhost:2011" + groupId));
+    }
+
+    static final class InvokerAgent implements Agent
+    {
+        private final AgentInvoker invoker;
+        private final String roleName;
+
+        InvokerAgent(final AgentInvoker invoker, final int groupId)
+        {
+            this.invoker = invoker;
+            this.roleName = "consensus-module-invoker-" + groupId;
+        }
+
+        public int doWork()
+        {
+            return invoker.invoke();
+        }
+
+        public String roleName()
+        {
+            return roleName;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PendingReadQueriesTest
+{
+    private static final long REQUEST_TIMEOUT_NS = 100;
+
+    private final PendingReadQueries.QueryHandler queryHandler = mock(PendingReadQueries.QueryHandler.class);
+    private final PendingReadQueries pendingReadQueries = new PendingReadQueries(queryHandler, REQUEST_TIMEOUT_NS);
+    private final UnsafeBuffer queryBuffer = new UnsafeBuffer(new byte[64]);
+
+    @Test
+    public void shouldServeQueriesWithReadIndexFromSingleRequest()
+    {
+        assertFalse(pendingReadQueries.isRequestRequired(0));
+
+        assertTrue(pendingReadQueries.add(1, 10, queryBuffer, 0, 8));
+        assertTrue(pendingReadQueries.add(2, 11, queryBuffer, 0, 8));
+        assertTrue(pendingReadQueries.isRequestRequired(0));
+
+        final long correlationId = pendingReadQueries.beginRequest(0);
+        assertFalse(pendingReadQueries.isRequestRequired(0));
+
+        assertEquals(2, pendingReadQueries.onReadIndex(correlationId, 1024));
+        verify(queryHandler).onQuery(eq(1L), eq(10L), eq(1024L), any(DirectBuffer.class), anyInt(), eq(8));
+        verify(queryHandler).onQuery(eq(2L), eq(11L), eq(1024L), any(DirectBuffer.class), anyInt(), eq(8));
+        assertFalse(pendingReadQueries.isRequestRequired(0));
+    }
+
+    @Test
+    public void shouldHoldQueriesWhichArriveAfterRequestForNextReadIndex()
+    {
+        pendingReadQueries.add(1, 10, queryBuffer, 0, 8);
+        final long firstCorrelationId = pendingReadQueries.beginRequest(0);
+        pendingReadQueries.add(2, 11, queryBuffer, 0, 8);
+
+        assertEquals(1, pendingReadQueries.onReadIndex(firstCorrelationId, 1024));
+        verify(queryHandler).onQuery(eq(1L), eq(10L), eq(1024L), any(DirectBuffer.class), anyInt(), anyInt());
+        assertTrue(pendingReadQueries.isRequestRequired(0));
+
+        final long secondCorrelationId = pendingReadQueries.beginRequest(0);
+        assertNotEquals(firstCorrelationId, secondCorrelationId);
+
+        assertEquals(1, pendingReadQueries.onReadIndex(secondCorrelationId, 2048));
+        verify(queryHandler).onQuery(eq(2L), eq(11L), eq(2048L), any(DirectBuffer.class), anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldRetryRequestOnTimeoutAndIgnoreStaleResponses()
+    {
+        pendingReadQueries.add(1, 10, queryBuffer, 0, 8);
+        final long correlationId = pendingReadQueries.beginRequest(0);
+
+        assertFalse(pendingReadQueries.isRequestRequired(REQUEST_TIMEOUT_NS - 1));
+        assertTrue(pendingReadQueries.isRequestRequired(REQUEST_TIMEOUT_NS));
+        assertEquals(correlationId, pendingReadQueries.beginRequest(REQUEST_TIMEOUT_NS));
+
+        assertEquals(0, pendingReadQueries.onReadIndex(correlationId - 1, 1024));
+        verify(queryHandler, never()).onQuery(anyLong(), anyLong(), anyLong(), any(), anyInt(), anyInt());
+
+        pendingReadQueries.reset();
+        assertEquals(0, pendingReadQueries.onReadIndex(correlationId, 1024));
+        assertFalse(pendingReadQueries.isRequestRequired(REQUEST_TIMEOUT_NS * 2));
+        verify(queryHandler, never()).onQuery(anyLong(), anyLong(), anyLong(), any(), anyInt(), anyInt());
+    }
+}
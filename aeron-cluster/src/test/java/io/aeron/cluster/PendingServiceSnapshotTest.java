@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.agrona.IoUtil;
+import org.agrona.SystemUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.cluster.ConsensusModule.Configuration.SERVICE_ID;
+import static io.aeron.cluster.RecordingLog.ENTRY_TYPE_SNAPSHOT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PendingServiceSnapshotTest
+{
+    private static final File TEMP_DIR = new File(SystemUtil.tmpDirName());
+    private static final long DEADLINE_NS = 5_000;
+
+    @After
+    public void after()
+    {
+        IoUtil.delete(new File(TEMP_DIR, RecordingLog.RECORDING_LOG_FILE_NAME), true);
+    }
+
+    @Test
+    public void shouldBeCompleteWhenNoServiceIsPending()
+    {
+        final PendingServiceSnapshot snapshot = new PendingServiceSnapshot(
+            1, 0, 1024, 7, 10, DEADLINE_NS, new long[]{ 11, 12 });
+
+        assertTrue(snapshot.isComplete());
+    }
+
+    @Test
+    public void shouldCompleteWhenEachPendingServiceHasTakenSnapshot()
+    {
+        final PendingServiceSnapshot snapshot = new PendingServiceSnapshot(
+            1, 0, 1024, 7, 10, DEADLINE_NS, new long[]{ NULL_VALUE, 12, NULL_VALUE });
+
+        assertFalse(snapshot.isComplete());
+        assertFalse(snapshot.onServiceSnapshotTaken(1, 13));
+        assertTrue(snapshot.onServiceSnapshotTaken(2, 14));
+        assertFalse(snapshot.isComplete());
+        assertFalse(snapshot.onServiceSnapshotTaken(2, 14));
+        assertFalse(snapshot.onServiceSnapshotTaken(3, 15));
+        assertTrue(snapshot.onServiceSnapshotTaken(0, 11));
+        assertTrue(snapshot.isComplete());
+    }
+
+    @Test
+    public void shouldExpireAtDeadline()
+    {
+        final PendingServiceSnapshot snapshot = new PendingServiceSnapshot(
+            1, 0, 1024, 7, 10, DEADLINE_NS, new long[]{ NULL_VALUE });
+
+        assertFalse(snapshot.hasExpired(DEADLINE_NS - 1));
+        assertTrue(snapshot.hasExpired(DEADLINE_NS));
+    }
+
+    @Test
+    public void shouldAppendServicesInDescendingOrderFollowedByConsensusModule()
+    {
+        final long leadershipTermId = 1;
+        final long logPosition = 1024;
+        final PendingServiceSnapshot snapshot = new PendingServiceSnapshot(
+            leadershipTermId, 0, logPosition, 7, 10, DEADLINE_NS, new long[]{ NULL_VALUE, 12 });
+        snapshot.onServiceSnapshotTaken(0, 11);
+
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            recordingLog.appendTerm(1, leadershipTermId, 0, 0);
+            snapshot.appendTo(recordingLog);
+
+            final List<RecordingLog.Entry> entries = recordingLog.entries();
+            assertEquals(4, entries.size());
+            assertSnapshotEntry(entries.get(1), 12, 1, logPosition);
+            assertSnapshotEntry(entries.get(2), 11, 0, logPosition);
+            assertSnapshotEntry(entries.get(3), 10, SERVICE_ID, logPosition);
+        }
+    }
+
+    private static void assertSnapshotEntry(
+        final RecordingLog.Entry entry, final long recordingId, final int serviceId, final long logPosition)
+    {
+        assertEquals(ENTRY_TYPE_SNAPSHOT, entry.type);
+        assertEquals(recordingId, entry.recordingId);
+        assertEquals(serviceId, entry.serviceId);
+        assertEquals(logPosition, entry.logPosition);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PhiAccrualFailureDetectorTest
+{
+    private static final double THRESHOLD = 8.0;
+    private static final long HEARTBEAT_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long MIN_STD_DEV_NS = HEARTBEAT_INTERVAL_NS >> 2;
+
+    private final PhiAccrualFailureDetector detector =
+        new PhiAccrualFailureDetector(THRESHOLD, HEARTBEAT_INTERVAL_NS, MIN_STD_DEV_NS);
+
+    @Test
+    public void shouldNotSuspectUntilEnoughIntervalsObserved()
+    {
+        long nowNs = 0;
+        for (int i = 0; i < PhiAccrualFailureDetector.MIN_SAMPLES; i++)
+        {
+            detector.onMessage(nowNs);
+            nowNs += HEARTBEAT_INTERVAL_NS;
+        }
+
+        assertFalse(detector.isSuspected(nowNs + TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void shouldSuspectWhenRegularHeartbeatsStop()
+    {
+        final long lastMessageNs = heartbeat(100, HEARTBEAT_INTERVAL_NS, 0);
+
+        assertFalse(detector.isSuspected(lastMessageNs + HEARTBEAT_INTERVAL_NS));
+        assertFalse(detector.isSuspected(lastMessageNs + (HEARTBEAT_INTERVAL_NS * 2)));
+        assertTrue(detector.isSuspected(lastMessageNs + (HEARTBEAT_INTERVAL_NS * 4)));
+    }
+
+    @Test
+    public void shouldToleratePausesInProportionToObservedJitter()
+    {
+        final long pauseNs = HEARTBEAT_INTERVAL_NS * 4;
+
+        final long regularLastMessageNs = heartbeat(100, HEARTBEAT_INTERVAL_NS, 0);
+        assertTrue(detector.isSuspected(regularLastMessageNs + pauseNs));
+
+        detector.reset();
+        final long jitteryLastMessageNs = heartbeat(100, HEARTBEAT_INTERVAL_NS, HEARTBEAT_INTERVAL_NS);
+        assertFalse(detector.isSuspected(jitteryLastMessageNs + pauseNs));
+    }
+
+    @Test
+    public void shouldNotSuspectQuietLogAfterBurstOfUpdates()
+    {
+        final long lastMessageNs = heartbeat(100, TimeUnit.MICROSECONDS.toNanos(10), 0);
+
+        assertFalse(detector.isSuspected(lastMessageNs + HEARTBEAT_INTERVAL_NS));
+    }
+
+    @Test
+    public void shouldNotSuspectBeforeMinDetectionTime()
+    {
+        final long minDetectionTimeNs = detector.minDetectionTimeNs();
+
+        final long regularLastMessageNs = heartbeat(100, HEARTBEAT_INTERVAL_NS, 0);
+        assertFalse(detector.isSuspected(regularLastMessageNs + minDetectionTimeNs - 1));
+        assertTrue(detector.isSuspected(regularLastMessageNs + minDetectionTimeNs));
+
+        detector.reset();
+        final long jitteryLastMessageNs = heartbeat(100, HEARTBEAT_INTERVAL_NS, HEARTBEAT_INTERVAL_NS >> 1);
+        assertFalse(detector.isSuspected(jitteryLastMessageNs + minDetectionTimeNs - 1));
+
+        detector.reset();
+        final long burstLastMessageNs = heartbeat(100, TimeUnit.MICROSECONDS.toNanos(10), 0);
+        assertFalse(detector.isSuspected(burstLastMessageNs + minDetectionTimeNs - 1));
+    }
+
+    @Test
+    public void shouldNotSuspectWhenDisabled()
+    {
+        final PhiAccrualFailureDetector disabledDetector =
+            new PhiAccrualFailureDetector(0.0, HEARTBEAT_INTERVAL_NS, MIN_STD_DEV_NS);
+
+        long nowNs = 0;
+        for (int i = 0; i < 100; i++)
+        {
+            disabledDetector.onMessage(nowNs);
+            nowNs += HEARTBEAT_INTERVAL_NS;
+        }
+
+        assertFalse(disabledDetector.isEnabled());
+        assertEquals(Long.MAX_VALUE, disabledDetector.minDetectionTimeNs());
+        assertFalse(disabledDetector.isSuspected(nowNs + TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    private long heartbeat(final int count, final long intervalNs, final long jitterNs)
+    {
+        long nowNs = 0;
+        for (int i = 0; i < count; i++)
+        {
+            nowNs += intervalNs + ((i & 1) == 0 ? jitterNs : -jitterNs);
+            detector.onMessage(nowNs);
+        }
+
+        return nowNs;
+    }
+}
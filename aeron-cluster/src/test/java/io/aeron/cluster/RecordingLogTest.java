@@ -107,6 +107,36 @@ public class RecordingLogTest
         }
     }
 
+    @Test
+    public void shouldPlanRecoveryWithSnapshotPartsAndTombstoneThemWithSnapshot()
+    {
+        final int serviceCount = 2;
+
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            recordingLog.appendSnapshotPart(1L, 1L, 0, 777L, 0, 0);
+            recordingLog.appendSnapshotPart(2L, 1L, 0, 777L, 0, 0);
+            recordingLog.appendSnapshotPart(3L, 1L, 0, 777L, 0, 1);
+            recordingLog.appendSnapshot(4L, 1L, 0, 777L, 0, 1);
+            recordingLog.appendSnapshot(5L, 1L, 0, 777L, 0, 0);
+            recordingLog.appendSnapshot(6L, 1L, 0, 777L, 0, SERVICE_ID);
+        }
+
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            final AeronArchive mockArchive = mock(AeronArchive.class);
+            final RecordingLog.RecoveryPlan recoveryPlan = recordingLog.createRecoveryPlan(mockArchive, serviceCount);
+            assertThat(recoveryPlan.snapshots.size(), is(3));
+            assertThat(recoveryPlan.snapshotParts.size(), is(3));
+            assertSnapshotPart(recoveryPlan.snapshotParts.get(0), 1L, 0, 0);
+            assertSnapshotPart(recoveryPlan.snapshotParts.get(1), 2L, 0, 1);
+            assertSnapshotPart(recoveryPlan.snapshotParts.get(2), 3L, 1, 0);
+
+            assertTrue(recordingLog.tombstoneLatestSnapshot());
+            assertThat(recordingLog.entries().size(), is(0));
+        }
+    }
+
     @Test
     public void shouldAppendAndThenCommitTermPosition()
     {
@@ -157,6 +187,27 @@ public class RecordingLogTest
         }
     }
 
+    @Test
+    public void shouldKeepLookupsAfterTombstoningEntryBeforeThem()
+    {
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            recordingLog.appendTerm(1L, 0, 0, 0);
+            recordingLog.appendTerm(1L, 1, 100, 10);
+            recordingLog.appendSnapshot(2L, 1, 100, 200, 20, SERVICE_ID);
+            recordingLog.appendTerm(1L, 2, 300, 30);
+
+            recordingLog.tombstoneEntry(1, 1);
+
+            assertThat(recordingLog.entries().size(), is(3));
+            assertTrue(recordingLog.isUnknown(1));
+            assertEquals(0, recordingLog.getTermEntry(0).leadershipTermId);
+            assertEquals(300L, recordingLog.getTermEntry(2).termBaseLogPosition);
+            assertEquals(2, recordingLog.findLastTerm().leadershipTermId);
+            assertEquals(2L, recordingLog.getLatestSnapshot(SERVICE_ID).recordingId);
+        }
+    }
+
     @Test
     public void shouldCorrectlyOrderSnapshots()
     {
@@ -235,6 +286,57 @@ public class RecordingLogTest
         }
     }
 
+    @Test
+    public void shouldGetLatestServiceSnapshotAtStartOfLog()
+    {
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            recordingLog.appendSnapshot(1L, 1L, 0, 777L, 0, 0);
+            recordingLog.appendSnapshot(2L, 1L, 0, 777L, 0, SERVICE_ID);
+
+            assertEquals(1L, recordingLog.getLatestSnapshot(0).recordingId);
+            assertEquals(2L, recordingLog.getLatestSnapshot(SERVICE_ID).recordingId);
+        }
+    }
+
+    @Test
+    public void shouldCompactTombstonedEntries()
+    {
+        final long leadershipTermId = 3L;
+
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            recordingLog.appendTerm(1L, leadershipTermId, 0, 100);
+            recordingLog.appendSnapshot(2L, leadershipTermId, 0, 640, 200, 0);
+            recordingLog.appendSnapshot(3L, leadershipTermId, 0, 640, 200, SERVICE_ID);
+            recordingLog.appendSnapshot(4L, leadershipTermId, 0, 1280, 300, 0);
+            recordingLog.appendSnapshot(5L, leadershipTermId, 0, 1280, 300, SERVICE_ID);
+
+            assertTrue(recordingLog.tombstoneLatestSnapshot());
+            assertThat(recordingLog.compact(), is(2));
+            assertThat(recordingLog.compact(), is(0));
+            assertThat(recordingLog.nextEntryIndex(), is(3));
+
+            for (int i = 0; i < recordingLog.entries().size(); i++)
+            {
+                assertThat(recordingLog.entries().get(i).entryIndex, is(i));
+            }
+
+            recordingLog.appendTerm(6L, leadershipTermId + 1, 1280, 400);
+        }
+
+        try (RecordingLog recordingLog = new RecordingLog(TEMP_DIR))
+        {
+            assertThat(recordingLog.entries().size(), is(4));
+            assertThat(recordingLog.nextEntryIndex(), is(4));
+            assertEquals(2L, recordingLog.getLatestSnapshot(0).recordingId);
+            assertEquals(3L, recordingLog.getLatestSnapshot(SERVICE_ID).recordingId);
+            assertEquals(640L, recordingLog.getLatestSnapshot(SERVICE_ID).logPosition);
+            assertEquals(1280L, recordingLog.getTermEntry(leadershipTermId).logPosition);
+            assertEquals(6L, recordingLog.findLastTermRecordingId());
+        }
+    }
+
     private static void addRecordingLogEntry(
         final ArrayList<RecordingLog.Entry> entries,
         final int serviceId,
@@ -244,4 +346,13 @@ public class RecordingLogTest
         entries.add(new RecordingLog.Entry(
             recordingId, 1, 1440, 2880, 0L, serviceId, entryType, entries.size()));
     }
-}
\ No newline at end of file
+
+    private static void assertSnapshotPart(
+        final RecordingLog.Snapshot snapshotPart, final long recordingId, final int serviceId, final int partIndex)
+    {
+        assertTrue(snapshotPart.isPart());
+        assertEquals(recordingId, snapshotPart.recordingId);
+        assertEquals(serviceId, snapshotPart.serviceId);
+        assertEquals(partIndex, snapshotPart.partIndex);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SessionTimeoutWheelTest
+{
+    private static final long SESSION_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(5);
+    private static final long TICK_RESOLUTION_NS = 1 << 23;
+    private static final int TICKS_PER_WHEEL = 128;
+
+    private final ArrayList<ClusterSession> timedOutSessions = new ArrayList<>();
+    private boolean isTimeoutHandled = true;
+    private final SessionTimeoutWheel sessionTimeoutWheel = new SessionTimeoutWheel(
+        (session, nowNs) ->
+        {
+            if (isTimeoutHandled)
+            {
+                timedOutSessions.add(session);
+            }
+
+            return isTimeoutHandled;
+        },
+        SESSION_TIMEOUT_NS,
+        TICK_RESOLUTION_NS,
+        TICKS_PER_WHEEL);
+
+    @Test
+    public void shouldOnlyVisitExpiringSessionsRegardlessOfSessionCount()
+    {
+        assertEquals(10, visitsForExpiringSessions(1_000, 10));
+        assertEquals(10, visitsForExpiringSessions(100_000, 10));
+    }
+
+    @Test
+    public void shouldRescheduleSessionWhichHasBeenActive()
+    {
+        sessionTimeoutWheel.reset(0);
+        final ClusterSession session = newSession(1, 0);
+        sessionTimeoutWheel.add(session);
+
+        session.timeOfLastActivityNs(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(1, sessionTimeoutWheel.poll(SESSION_TIMEOUT_NS + TICK_RESOLUTION_NS));
+        assertEquals(0, timedOutSessions.size());
+        assertEquals(1, sessionTimeoutWheel.size());
+
+        assertEquals(1, sessionTimeoutWheel.poll(TimeUnit.SECONDS.toNanos(8) + TICK_RESOLUTION_NS));
+        assertEquals(1, timedOutSessions.size());
+        assertSame(session, timedOutSessions.get(0));
+        assertEquals(0, sessionTimeoutWheel.size());
+    }
+
+    @Test
+    public void shouldRetrySessionWhenTimeoutIsNotHandled()
+    {
+        sessionTimeoutWheel.reset(0);
+        final ClusterSession session = newSession(1, 0);
+        sessionTimeoutWheel.add(session);
+
+        isTimeoutHandled = false;
+        assertEquals(0, sessionTimeoutWheel.poll(SESSION_TIMEOUT_NS + TICK_RESOLUTION_NS));
+        assertEquals(1, sessionTimeoutWheel.size());
+
+        isTimeoutHandled = true;
+        assertEquals(1, sessionTimeoutWheel.poll(SESSION_TIMEOUT_NS + (TICK_RESOLUTION_NS * 2)));
+        assertSame(session, timedOutSessions.get(0));
+        assertEquals(0, sessionTimeoutWheel.size());
+    }
+
+    private int visitsForExpiringSessions(final int sessionCount, final int expiringCount)
+    {
+        sessionTimeoutWheel.reset(0);
+        timedOutSessions.clear();
+
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final long timeOfLastActivityNs = i < expiringCount ? 0 : TimeUnit.SECONDS.toNanos(1);
+            sessionTimeoutWheel.add(newSession(i, timeOfLastActivityNs));
+        }
+
+        final int visits = sessionTimeoutWheel.poll(SESSION_TIMEOUT_NS + TICK_RESOLUTION_NS);
+        assertEquals(expiringCount, timedOutSessions.size());
+        assertEquals(sessionCount - expiringCount, sessionTimeoutWheel.size());
+
+        return visits;
+    }
+
+    private static ClusterSession newSession(final long id, final long timeOfLastActivityNs)
+    {
+        final ClusterSession session = new ClusterSession(id, 1, "aeron:ipc");
+        session.timeOfLastActivityNs(timeOfLastActivityNs);
+
+        return session;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import org.agrona.collections.LongArrayList;
+import org.junit.Test;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTransferCacheTest
+{
+    private static final long LENGTH = 64 * 1024 * 1024;
+
+    private final SnapshotTransferCache cache = new SnapshotTransferCache();
+
+    @Test
+    public void shouldFindTransferOfSameSnapshot()
+    {
+        cache.retain(snapshot(7, 0, 1024), LENGTH, 3);
+
+        assertEquals(3, cache.findRecordingId(snapshot(9, 0, 1024), LENGTH));
+    }
+
+    @Test
+    public void shouldNotFindTransferOfDifferentSnapshotOrLength()
+    {
+        cache.retain(snapshot(7, 0, 1024), LENGTH, 3);
+
+        assertEquals(NULL_VALUE, cache.findRecordingId(snapshot(7, 0, 2048), LENGTH));
+        assertEquals(NULL_VALUE, cache.findRecordingId(snapshot(7, 1, 1024), LENGTH));
+        assertEquals(NULL_VALUE, cache.findRecordingId(snapshot(7, 0, 1024), LENGTH + 32));
+    }
+
+    @Test
+    public void shouldKeepOneTransferPerService()
+    {
+        cache.retain(snapshot(7, 0, 1024), LENGTH, 3);
+        cache.retain(snapshot(8, -1, 1024), LENGTH, 4);
+        cache.retain(snapshot(9, 0, 2048), LENGTH, 5);
+
+        assertEquals(2, cache.size());
+        assertEquals(NULL_VALUE, cache.findRecordingId(snapshot(7, 0, 1024), LENGTH));
+        assertEquals(5, cache.findRecordingId(snapshot(9, 0, 2048), LENGTH));
+        assertEquals(4, cache.findRecordingId(snapshot(8, -1, 1024), LENGTH));
+
+        cache.remove(-1, NULL_VALUE);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldReturnRecordingsWhichAreNoLongerOfUse()
+    {
+        assertEquals(NULL_VALUE, cache.retain(snapshot(7, 0, 1024), LENGTH, 3));
+        assertEquals(NULL_VALUE, cache.retain(snapshot(7, 0, 1024), LENGTH, 3));
+        assertEquals(3, cache.retain(snapshot(9, 0, 2048), LENGTH, 5));
+        assertEquals(NULL_VALUE, cache.retain(snapshot(8, -1, 1024), LENGTH, 4));
+
+        assertEquals(4, cache.remove(-1, NULL_VALUE));
+        assertEquals(NULL_VALUE, cache.remove(-1, NULL_VALUE));
+
+        final LongArrayList discardedRecordingIds = new LongArrayList();
+        cache.retain(snapshot(8, -1, 1024), LENGTH, 4);
+        cache.discardAll(discardedRecordingIds::addLong);
+
+        assertEquals(0, cache.size());
+        assertEquals(2, discardedRecordingIds.size());
+        assertTrue(discardedRecordingIds.containsLong(5));
+        assertTrue(discardedRecordingIds.containsLong(4));
+    }
+
+    private static RecordingLog.Snapshot snapshot(final long recordingId, final int serviceId, final long logPosition)
+    {
+        return new RecordingLog.Snapshot(recordingId, 1, 0, logPosition, 100, serviceId);
+    }
+}
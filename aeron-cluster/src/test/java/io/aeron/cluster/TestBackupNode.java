@@ -73,6 +73,11 @@ public class TestBackupNode
         return clusterBackupMediaDriver.clusterBackup().context().liveLogPositionCounter().get();
     }
 
+    long snapshotBytesAvoided()
+    {
+        return clusterBackupMediaDriver.clusterBackup().context().snapshotBytesAvoidedCounter().get();
+    }
+
     CountersReader countersReader()
     {
         return clusterBackupMediaDriver.clusterBackup().context().aeron().countersReader();
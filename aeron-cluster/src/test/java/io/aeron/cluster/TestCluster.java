@@ -42,6 +42,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static io.aeron.Aeron.NULL_VALUE;
@@ -98,6 +99,7 @@ public class TestCluster implements AutoCloseable
     private MediaDriver clientMediaDriver;
     private AeronCluster client;
     private TestBackupNode backupNode;
+    private Consumer<ConsensusModule.Context> consensusModuleContextDecorator;
 
     TestCluster(final int staticMemberCount, final int dynamicMemberCount, final int appointedLeaderId)
     {
@@ -139,6 +141,12 @@ public class TestCluster implements AutoCloseable
         }
     }
 
+    TestCluster consensusModuleContextDecorator(final Consumer<ConsensusModule.Context> decorator)
+    {
+        consensusModuleContextDecorator = decorator;
+        return this;
+    }
+
     static TestCluster startThreeNodeStaticCluster(final int appointedLeaderId)
     {
         final TestCluster testCluster = new TestCluster(3, 0, appointedLeaderId);
@@ -234,6 +242,11 @@ public class TestCluster implements AutoCloseable
             .archiveContext(context.aeronArchiveContext.clone())
             .deleteDirOnStart(cleanStart);
 
+        if (null != consensusModuleContextDecorator)
+        {
+            consensusModuleContextDecorator.accept(context.consensusModuleContext);
+        }
+
         context.serviceContainerContext
             .aeronDirectoryName(aeronDirName)
             .archiveContext(context.aeronArchiveContext.clone())
@@ -313,6 +326,11 @@ public class TestCluster implements AutoCloseable
     }
 
     TestBackupNode startClusterBackupNode(final boolean cleanStart)
+    {
+        return startClusterBackupNode(cleanStart, null);
+    }
+
+    TestBackupNode startClusterBackupNode(final boolean cleanStart, final ClusterBackupEventsListener eventsListener)
     {
         final int index = staticMemberCount + dynamicMemberCount;
         final String baseDirName = CommonContext.getAeronDirectoryName() + "-" + index;
@@ -360,6 +378,7 @@ public class TestCluster implements AutoCloseable
             .aeronDirectoryName(aeronDirName)
             .clusterDir(new File(baseDirName, "cluster-backup"))
             .archiveContext(context.aeronArchiveContext.clone())
+            .eventsListener(eventsListener)
             .deleteDirOnStart(cleanStart);
 
         backupNode = new TestBackupNode(context);
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster;
+
+import io.aeron.Publication;
+import io.aeron.cluster.codecs.MessageHeaderDecoder;
+import io.aeron.cluster.codecs.TimerDecoder;
+import io.aeron.cluster.codecs.TimersDecoder;
+import io.aeron.logbuffer.BufferClaim;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class TimerServiceTest
+{
+    private static final long TICK_RESOLUTION = 8;
+    private static final int TICKS_PER_WHEEL = 16;
+    private static final long WHEEL_SPAN = TICK_RESOLUTION * TICKS_PER_WHEEL;
+
+    private final ConsensusModuleAgent consensusModuleAgent = mock(ConsensusModuleAgent.class);
+    private final LongArrayList expiredCorrelationIds = new LongArrayList();
+    private final TimerService timerService = new TimerService(
+        consensusModuleAgent, TimeUnit.MILLISECONDS, 0, TICK_RESOLUTION, TICKS_PER_WHEEL);
+
+    @Before
+    public void before()
+    {
+        when(consensusModuleAgent.onTimerEvent(anyLong())).thenAnswer(
+            (invocation) ->
+            {
+                final long correlationId = invocation.getArgument(0);
+                expiredCorrelationIds.addLong(correlationId);
+                return true;
+            });
+    }
+
+    @Test
+    public void shouldExpireTimerBeyondWheelSpan()
+    {
+        final long deadline = WHEEL_SPAN * 10;
+        timerService.scheduleTimer(1, deadline);
+
+        pollUntil(deadline - TICK_RESOLUTION);
+        assertEquals(0, expiredCorrelationIds.size());
+        assertEquals(1, timerService.timerCount());
+
+        pollUntil(deadline + TICK_RESOLUTION);
+        assertEquals(1, expiredCorrelationIds.size());
+        assertEquals(1, expiredCorrelationIds.getLong(0));
+        assertEquals(0, timerService.timerCount());
+    }
+
+    @Test
+    public void shouldCancelAndRescheduleTimersBeyondWheelSpan()
+    {
+        timerService.scheduleTimer(1, WHEEL_SPAN * 4);
+        timerService.scheduleTimer(2, WHEEL_SPAN * 5);
+        timerService.scheduleTimer(2, WHEEL_SPAN / 2);
+
+        assertTrue(timerService.cancelTimer(1));
+        assertFalse(timerService.cancelTimer(1));
+        assertEquals(1, timerService.timerCount());
+
+        pollUntil(WHEEL_SPAN * 6);
+        assertEquals(1, expiredCorrelationIds.size());
+        assertEquals(2, expiredCorrelationIds.getLong(0));
+    }
+
+    @Test
+    public void shouldExpireBulkLoadedTimersInDeadlineOrder()
+    {
+        final int timerCount = 100_000;
+
+        timerService.beginBulkLoad();
+        for (int i = timerCount - 1; i >= 0; i--)
+        {
+            timerService.scheduleTimer(i, i * TICK_RESOLUTION * 2);
+        }
+        timerService.endBulkLoad();
+
+        for (int i = 0; i < timerCount; i += 3)
+        {
+            assertTrue(timerService.cancelTimer(i));
+        }
+
+        final int expectedCount = timerCount - ((timerCount + 2) / 3);
+        assertEquals(expectedCount, timerService.timerCount());
+
+        pollUntil(timerCount * TICK_RESOLUTION * 2);
+        assertEquals(expectedCount, expiredCorrelationIds.size());
+        assertEquals(0, timerService.timerCount());
+
+        for (int i = 1; i < expectedCount; i++)
+        {
+            assertTrue(expiredCorrelationIds.getLong(i - 1) < expiredCorrelationIds.getLong(i));
+            assertNotEquals(0, expiredCorrelationIds.getLong(i) % 3);
+        }
+    }
+
+    @Test
+    public void shouldSnapshotTimersInWheelAndOverflow()
+    {
+        final ConsensusModuleSnapshotTaker snapshotTaker = mock(ConsensusModuleSnapshotTaker.class);
+
+        timerService.scheduleTimer(1, WHEEL_SPAN / 2);
+        timerService.scheduleTimer(2, WHEEL_SPAN * 3);
+
+        timerService.snapshot(snapshotTaker);
+
+        verify(snapshotTaker).snapshotTimer(1, WHEEL_SPAN / 2);
+        verify(snapshotTaker).snapshotTimer(2, WHEEL_SPAN * 3);
+        verify(snapshotTaker).flushTimers();
+    }
+
+    @Test
+    public void shouldSnapshotTimersInBulkOnlyFromTimersSchemaVersion()
+    {
+        timerService.scheduleTimer(1, WHEEL_SPAN / 2);
+        timerService.scheduleTimer(2, WHEEL_SPAN * 3);
+
+        final IntArrayList templateIds = snapshotTemplateIds(ConsensusModuleSnapshotTaker.TIMERS_SINCE_VERSION - 1);
+        assertEquals(2, templateIds.size());
+        assertEquals(TimerDecoder.TEMPLATE_ID, templateIds.getInt(0));
+        assertEquals(TimerDecoder.TEMPLATE_ID, templateIds.getInt(1));
+
+        final IntArrayList batchedTemplateIds = snapshotTemplateIds(ConsensusModuleSnapshotTaker.TIMERS_SINCE_VERSION);
+        assertEquals(1, batchedTemplateIds.size());
+        assertEquals(TimersDecoder.TEMPLATE_ID, batchedTemplateIds.getInt(0));
+    }
+
+    private IntArrayList snapshotTemplateIds(final int snapshotSchemaVersion)
+    {
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[64 * 1024]);
+        final IntArrayList claimOffsets = new IntArrayList();
+        final Publication publication = mock(Publication.class);
+
+        when(publication.maxPayloadLength()).thenReturn(1376);
+        when(publication.tryClaim(anyInt(), any(BufferClaim.class))).thenAnswer(
+            (invocation) ->
+            {
+                final int length = invocation.getArgument(0);
+                final BufferClaim bufferClaim = invocation.getArgument(1);
+                final int offset = claimOffsets.size() * 2048;
+
+                bufferClaim.wrap(termBuffer, offset, length + HEADER_LENGTH);
+                claimOffsets.addInt(offset);
+
+                return 1024L;
+            });
+
+        timerService.snapshot(new ConsensusModuleSnapshotTaker(
+            publication, NoOpIdleStrategy.INSTANCE, null, snapshotSchemaVersion));
+
+        final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
+        final IntArrayList templateIds = new IntArrayList();
+        for (int i = 0; i < claimOffsets.size(); i++)
+        {
+            messageHeaderDecoder.wrap(termBuffer, claimOffsets.getInt(i) + HEADER_LENGTH);
+            templateIds.addInt(messageHeaderDecoder.templateId());
+        }
+
+        return templateIds;
+    }
+
+    private void pollUntil(final long now)
+    {
+        int expired;
+        do
+        {
+            expired = timerService.poll(now);
+        }
+        while (expired > 0 || timerService.currentTickTime() < now);
+    }
+}
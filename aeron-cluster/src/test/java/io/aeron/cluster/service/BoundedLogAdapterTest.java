@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Image;
+import io.aeron.cluster.codecs.MessageHeaderEncoder;
+import io.aeron.cluster.codecs.SessionMessageBatchEncoder;
+import io.aeron.cluster.codecs.SessionOpenEventEncoder;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.LogBufferDescriptor.TERM_MIN_LENGTH;
+import static io.aeron.logbuffer.LogBufferDescriptor.positionBitsToShift;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.agrona.BitUtil.align;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BoundedLogAdapterTest
+{
+    private static final long LEADERSHIP_TERM_ID = 3;
+    private static final int INITIAL_TERM_ID = 0;
+    private static final int TERM_OFFSET = 1024;
+
+    private final ClusteredServiceAgent agent = mock(ClusteredServiceAgent.class);
+    private final BoundedLogAdapter logAdapter = new BoundedLogAdapter(mock(Image.class), Long.MAX_VALUE, agent);
+    private final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer();
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(new byte[8]);
+
+    @Test
+    public void shouldDispatchEachMessageOfBatchWithPositionOfEntry()
+    {
+        final SessionMessageBatchEncoder batchEncoder = new SessionMessageBatchEncoder()
+            .wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+            .leadershipTermId(LEADERSHIP_TERM_ID);
+        final SessionMessageBatchEncoder.MessagesEncoder messagesEncoder = batchEncoder.messagesCount(3);
+
+        for (int i = 0; i < 3; i++)
+        {
+            messageBuffer.putInt(0, i);
+            messagesEncoder.next().clusterSessionId(10 + i).timestamp(100 + i).putMessage(messageBuffer, 0, 4);
+        }
+
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + batchEncoder.encodedLength();
+        final Header header = newHeader(length);
+        final long entryPosition = TERM_OFFSET + align(HEADER_LENGTH + length, FRAME_ALIGNMENT);
+
+        logAdapter.onFragment(buffer, 0, length, header);
+
+        final InOrder inOrder = inOrder(agent);
+        for (int i = 0; i < 3; i++)
+        {
+            inOrder.verify(agent).onSessionMessage(
+                eq(entryPosition), eq(10L + i), eq(100L + i), any(DirectBuffer.class), anyInt(), eq(4), eq(header));
+        }
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldReplaySessionOpenEventFromSchemaVersionWithoutIpcAsNotIpc()
+    {
+        final String responseChannel = "aeron:udp?endpoint=localhost:9020";
+        final SessionOpenEventEncoder openEventEncoder = new SessionOpenEventEncoder()
+            .wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+            .leadershipTermId(LEADERSHIP_TERM_ID)
+            .correlationId(1)
+            .clusterSessionId(7)
+            .timestamp(100)
+            .responseStreamId(102)
+            .ipcMemberId(0)
+            .ipcResponseStreamId(1234)
+            .responseChannel(responseChannel)
+            .putEncodedPrincipal(new byte[0], 0, 0);
+
+        final int v6BlockLength = SessionOpenEventEncoder.ipcMemberIdEncodingOffset();
+        final int varDataOffset = MessageHeaderEncoder.ENCODED_LENGTH + SessionOpenEventEncoder.BLOCK_LENGTH;
+        final int varDataLength = openEventEncoder.encodedLength() - SessionOpenEventEncoder.BLOCK_LENGTH;
+        buffer.putBytes(MessageHeaderEncoder.ENCODED_LENGTH + v6BlockLength, buffer, varDataOffset, varDataLength);
+        new MessageHeaderEncoder().wrap(buffer, 0).blockLength(v6BlockLength).version(6);
+
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + v6BlockLength + varDataLength;
+        final Header header = newHeader(length);
+        final long entryPosition = TERM_OFFSET + align(HEADER_LENGTH + length, FRAME_ALIGNMENT);
+
+        logAdapter.onFragment(buffer, 0, length, header);
+
+        verify(agent).onSessionOpen(
+            eq(LEADERSHIP_TERM_ID),
+            eq(entryPosition),
+            eq(7L),
+            eq(100L),
+            eq(102),
+            eq(NULL_VALUE),
+            anyInt(),
+            eq(responseChannel),
+            any(byte[].class));
+    }
+
+    private static Header newHeader(final int length)
+    {
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[TERM_OFFSET + HEADER_LENGTH]);
+        new DataHeaderFlyweight(new UnsafeBuffer(termBuffer, TERM_OFFSET, HEADER_LENGTH))
+            .termOffset(TERM_OFFSET)
+            .termId(INITIAL_TERM_ID)
+            .frameLength(HEADER_LENGTH + length);
+
+        final Header header = new Header(INITIAL_TERM_ID, positionBitsToShift(TERM_MIN_LENGTH));
+        header.buffer(termBuffer);
+        header.offset(TERM_OFFSET);
+
+        return header;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.cluster.service;
+
+import io.aeron.Publication;
+import io.aeron.ReservedValueSupplier;
+import io.aeron.Subscription;
+import io.aeron.cluster.client.EgressAdapter;
+import io.aeron.cluster.client.EgressListener;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EgressBatchTest
+{
+    private static final long LEADERSHIP_TERM_ID = 3;
+    private static final long CLUSTER_SESSION_ID = 7;
+    private static final int MAX_LENGTH = 1408;
+
+    private final Publication publication = mock(Publication.class);
+    private final EgressListener egressListener = mock(EgressListener.class);
+    private final Header header = new Header(0, 0);
+    private final ExpandableArrayBuffer offeredBuffer = new ExpandableArrayBuffer();
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(new byte[MAX_LENGTH]);
+    private final EgressBatch egressBatch = new EgressBatch();
+    private int offeredLength;
+
+    @Before
+    public void before()
+    {
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt(), nullable(ReservedValueSupplier.class)))
+            .thenAnswer(
+                (invocation) ->
+                {
+                    final DirectBuffer buffer = invocation.getArgument(0);
+                    final int offset = invocation.getArgument(1);
+                    offeredLength = invocation.getArgument(2);
+                    offeredBuffer.putBytes(0, buffer, offset, offeredLength);
+
+                    return 1024L;
+                });
+        when(publication.offer(
+            any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(), anyInt(), any()))
+            .thenReturn(1024L);
+    }
+
+    @Test
+    public void shouldSendBatchOfMessagesAsSingleMessage()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            messageBuffer.putInt(0, i);
+            assertTrue(egressBatch.hasCapacity(4, MAX_LENGTH));
+            egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 100 + i, messageBuffer, 0, 4);
+        }
+
+        assertTrue(egressBatch.flush(publication) > 0);
+        assertTrue(egressBatch.isEmpty());
+        verify(publication).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+
+        final EgressAdapter egressAdapter =
+            new EgressAdapter(egressListener, CLUSTER_SESSION_ID, mock(Subscription.class), 10);
+        egressAdapter.onFragment(offeredBuffer, 0, offeredLength, header);
+
+        final InOrder inOrder = inOrder(egressListener);
+        for (int i = 0; i < 3; i++)
+        {
+            inOrder.verify(egressListener).onMessage(
+                eq(CLUSTER_SESSION_ID), eq(100L + i), any(DirectBuffer.class), anyInt(), eq(4), eq(header));
+        }
+    }
+
+    @Test
+    public void shouldSendBatchOfOneAsSessionMessage()
+    {
+        egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 100, messageBuffer, 0, 4);
+
+        assertTrue(egressBatch.flush(publication) > 0);
+        verify(publication).offer(
+            any(DirectBuffer.class), anyInt(), anyInt(), any(DirectBuffer.class), anyInt(), eq(4), any());
+        verify(publication, never()).offer(any(DirectBuffer.class), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldLimitBatchToMaxLength()
+    {
+        assertTrue(egressBatch.hasCapacity(600, MAX_LENGTH));
+        egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 100, messageBuffer, 0, 600);
+        assertTrue(egressBatch.hasCapacity(600, MAX_LENGTH));
+        egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 100, messageBuffer, 0, 600);
+
+        assertFalse(egressBatch.hasCapacity(600, MAX_LENGTH));
+        assertTrue(egressBatch.encodedLength() <= MAX_LENGTH);
+    }
+
+    @Test
+    public void shouldRetainBatchWhenBackPressured()
+    {
+        reset(publication);
+        when(publication.offer(any(DirectBuffer.class), anyInt(), anyInt(), any()))
+            .thenReturn(Publication.BACK_PRESSURED);
+
+        egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 100, messageBuffer, 0, 4);
+        egressBatch.add(LEADERSHIP_TERM_ID, CLUSTER_SESSION_ID, 101, messageBuffer, 0, 4);
+
+        assertEquals(Publication.BACK_PRESSURED, egressBatch.flush(publication));
+        assertEquals(2, egressBatch.messageCount());
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples.archive;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.FragmentAssembler;
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.exceptions.ConfigurationException;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.samples.SampleConfiguration;
+import org.HdrHistogram.Histogram;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.console.ContinueBarrier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures the RTT of ping-pong messages through a media driver which is co-located with an archive recording a
+ * heavy stream, once with segment files written through the page cache and once with direct I/O, to show the effect
+ * of recording on the latency of other streams. The RTT of each pass is stored in a {@link Histogram}.
+ * <p>
+ * The recorded stream is published over IPC as fast as it can be recorded for as long as the ping-pong runs, so
+ * {@link SampleConfiguration#NUMBER_OF_MESSAGES} should be sized for the space available for the archive.
+ * <p>
+ * Direct I/O requires Java 10+ and a file system which supports it, otherwise only buffered writes are measured.
+ */
+public class EmbeddedDirectIoRecordingPingPong implements AutoCloseable
+{
+    private static final int PING_STREAM_ID = SampleConfiguration.PING_STREAM_ID;
+    private static final int PONG_STREAM_ID = SampleConfiguration.PONG_STREAM_ID;
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final long WARMUP_NUMBER_OF_MESSAGES = SampleConfiguration.WARMUP_NUMBER_OF_MESSAGES;
+    private static final int WARMUP_NUMBER_OF_ITERATIONS = SampleConfiguration.WARMUP_NUMBER_OF_ITERATIONS;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int FRAGMENT_COUNT_LIMIT = SampleConfiguration.FRAGMENT_COUNT_LIMIT;
+    private static final String PING_CHANNEL = SampleConfiguration.PING_CHANNEL;
+    private static final String PONG_CHANNEL = SampleConfiguration.PONG_CHANNEL;
+    private static final int RECORDED_STREAM_ID = SampleConfiguration.STREAM_ID;
+    private static final String RECORDED_CHANNEL = "aeron:ipc";
+    private static final int RECORDED_MESSAGE_LENGTH = 1024;
+
+    private final boolean directIo;
+    private final ArchivingMediaDriver archivingMediaDriver;
+    private final Aeron aeron;
+    private final AeronArchive aeronArchive;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+    private final UnsafeBuffer pingBuffer = new UnsafeBuffer(allocateDirectAligned(MESSAGE_LENGTH, CACHE_LINE_LENGTH));
+    private final IdleStrategy pongHandlerIdleStrategy = SampleConfiguration.newIdleStrategy();
+
+    public static void main(final String[] args) throws Exception
+    {
+        loadPropertiesFiles(args);
+
+        boolean isDirectIoSupported = true;
+        final ContinueBarrier barrier = new ContinueBarrier("Execute again?");
+        do
+        {
+            runPass(false);
+
+            if (isDirectIoSupported)
+            {
+                try
+                {
+                    runPass(true);
+                }
+                catch (final ConfigurationException ex)
+                {
+                    System.out.println("Direct I/O not measured: " + ex.getMessage());
+                    isDirectIoSupported = false;
+                }
+            }
+        }
+        while (barrier.await());
+    }
+
+    private static void runPass(final boolean directIo) throws InterruptedException
+    {
+        try (EmbeddedDirectIoRecordingPingPong test = new EmbeddedDirectIoRecordingPingPong(directIo))
+        {
+            test.run();
+        }
+    }
+
+    public EmbeddedDirectIoRecordingPingPong(final boolean directIo)
+    {
+        this.directIo = directIo;
+
+        archivingMediaDriver = ArchivingMediaDriver.launch(
+            new MediaDriver.Context()
+                .threadingMode(ThreadingMode.DEDICATED)
+                .conductorIdleStrategy(new BackoffIdleStrategy(1, 1, 1000, 1000))
+                .receiverIdleStrategy(NoOpIdleStrategy.INSTANCE)
+                .senderIdleStrategy(NoOpIdleStrategy.INSTANCE)
+                .spiesSimulateConnection(true)
+                .dirDeleteOnStart(true),
+            new Archive.Context()
+                .recordingEventsEnabled(false)
+                .directIo(directIo)
+                .archiveDir(TestUtil.createTempDir()));
+
+        aeron = Aeron.connect();
+
+        aeronArchive = AeronArchive.connect(
+            new AeronArchive.Context()
+                .aeron(aeron));
+    }
+
+    public void close()
+    {
+        CloseHelper.close(aeronArchive);
+        CloseHelper.close(aeron);
+        CloseHelper.close(archivingMediaDriver);
+
+        archivingMediaDriver.archive().context().deleteArchiveDirectory();
+        archivingMediaDriver.mediaDriver().context().deleteAeronDirectory();
+    }
+
+    public void run() throws InterruptedException
+    {
+        aeronArchive.startRecording(RECORDED_CHANNEL, RECORDED_STREAM_ID, SourceLocation.LOCAL);
+
+        final Thread recordedPublisherThread = new Thread(this::publishRecordedStream);
+        final Thread pongThread = new Thread(this::pong);
+        recordedPublisherThread.start();
+        pongThread.start();
+
+        try
+        {
+            ping();
+        }
+        finally
+        {
+            running.set(false);
+            pongThread.join();
+            recordedPublisherThread.join();
+        }
+    }
+
+    private void ping()
+    {
+        final FragmentAssembler dataHandler = new FragmentAssembler(
+            (buffer, offset, length, header) -> histogram.recordValue(System.nanoTime() - buffer.getLong(offset)));
+
+        try (Subscription pongSubscription = aeron.addSubscription(PONG_CHANNEL, PONG_STREAM_ID);
+            ExclusivePublication pingPublication = aeron.addExclusivePublication(PING_CHANNEL, PING_STREAM_ID))
+        {
+            for (int i = 0; i < WARMUP_NUMBER_OF_ITERATIONS; i++)
+            {
+                roundTripMessages(dataHandler, pingPublication, pongSubscription, WARMUP_NUMBER_OF_MESSAGES);
+                Thread.yield();
+            }
+
+            histogram.reset();
+            roundTripMessages(dataHandler, pingPublication, pongSubscription, NUMBER_OF_MESSAGES);
+
+            System.out.format(
+                "%s: Histogram of RTT latencies in microseconds for %,d messages while recording%n",
+                directIo ? "direct  " : "buffered", NUMBER_OF_MESSAGES);
+            histogram.outputPercentileDistribution(System.out, 1000.0);
+        }
+    }
+
+    private void roundTripMessages(
+        final FragmentHandler fragmentHandler,
+        final ExclusivePublication pingPublication,
+        final Subscription pongSubscription,
+        final long numMessages)
+    {
+        while (!pongSubscription.isConnected())
+        {
+            Thread.yield();
+        }
+
+        final Image image = pongSubscription.imageAtIndex(0);
+        final IdleStrategy idleStrategy = pongHandlerIdleStrategy;
+
+        for (long i = 0; i < numMessages; i++)
+        {
+            long offeredPosition;
+
+            do
+            {
+                pingBuffer.putLong(0, System.nanoTime());
+            }
+            while ((offeredPosition = pingPublication.offer(pingBuffer, 0, MESSAGE_LENGTH)) < 0L);
+
+            idleStrategy.reset();
+            do
+            {
+                while (image.poll(fragmentHandler, FRAGMENT_COUNT_LIMIT) <= 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+            while (image.position() < offeredPosition);
+        }
+    }
+
+    private void pong()
+    {
+        final IdleStrategy idleStrategy = SampleConfiguration.newIdleStrategy();
+
+        try (Subscription pingSubscription = aeron.addSubscription(PING_CHANNEL, PING_STREAM_ID);
+            ExclusivePublication pongPublication = aeron.addExclusivePublication(PONG_CHANNEL, PONG_STREAM_ID))
+        {
+            final FragmentAssembler dataHandler = new FragmentAssembler(
+                (buffer, offset, length, header) ->
+                {
+                    while (pongPublication.offer(buffer, offset, length) < 0L)
+                    {
+                        Thread.yield();
+                    }
+                });
+
+            while (running.get())
+            {
+                idleStrategy.idle(pingSubscription.poll(dataHandler, FRAGMENT_COUNT_LIMIT));
+            }
+        }
+    }
+
+    private void publishRecordedStream()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirectAligned(RECORDED_MESSAGE_LENGTH, CACHE_LINE_LENGTH));
+        final IdleStrategy idleStrategy = YieldingIdleStrategy.INSTANCE;
+
+        try (ExclusivePublication publication =
+            aeron.addExclusivePublication(RECORDED_CHANNEL, RECORDED_STREAM_ID))
+        {
+            long i = 0;
+            while (running.get())
+            {
+                buffer.putLong(0, i++);
+
+                if (publication.offer(buffer, 0, RECORDED_MESSAGE_LENGTH) < 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+        }
+    }
+}
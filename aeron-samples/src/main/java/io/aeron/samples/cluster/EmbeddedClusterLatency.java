@@ -0,0 +1,547 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples.cluster;
+
+import io.aeron.CommonContext;
+import io.aeron.Image;
+import io.aeron.Publication;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchiveThreadingMode;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.cluster.ClusterControl;
+import io.aeron.cluster.ClusteredMediaDriver;
+import io.aeron.cluster.ConsensusModule;
+import io.aeron.cluster.client.AeronCluster;
+import io.aeron.cluster.client.EgressListener;
+import io.aeron.cluster.codecs.CloseReason;
+import io.aeron.cluster.service.ClientSession;
+import io.aeron.cluster.service.Cluster;
+import io.aeron.cluster.service.ClusteredService;
+import io.aeron.cluster.service.ClusteredServiceContainer;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.Header;
+import org.HdrHistogram.Histogram;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Measures the round trip latency of messages from a client via ingress, the replicated log, and an echo service, back
+ * to the client via egress and records the results in a {@link Histogram} for each scenario.
+ * <p>
+ * The cluster runs on loopback in this process with each member having its own media driver, archive, consensus
+ * module, and service container. The client has its own media driver so messages take the same path as they would
+ * from a remote client. A scenario is a combination of offered load, message length, and interval between snapshots
+ * which are taken while messages are exchanged. Messages are sent at a fixed rate and latency is measured from when
+ * a message should have been sent so that back pressure does not hide delays.
+ * <p>
+ * Scenarios are configured with the following system properties which take comma separated lists:
+ * <ul>
+ *     <li>{@link #MESSAGE_RATES_PROP} - messages per second offered by the client.</li>
+ *     <li>{@link #MESSAGE_LENGTHS_PROP} - length in bytes of each message, a minimum of 8 bytes.</li>
+ *     <li>{@link #SNAPSHOT_INTERVALS_MS_PROP} - interval in milliseconds between snapshots, 0 for no snapshots.</li>
+ * </ul>
+ * The number of cluster members can be set with {@link #MEMBER_COUNT_PROP} and histograms are written to files in
+ * the directory given by {@link #HISTOGRAM_DIR_PROP} if set. Media drivers default to {@link ThreadingMode#SHARED}
+ * so a 3 node cluster can run on a single machine unless {@link io.aeron.driver.Configuration#THREADING_MODE_PROP_NAME}
+ * is set.
+ */
+public class EmbeddedClusterLatency implements EgressListener, AutoCloseable
+{
+    public static final String MEMBER_COUNT_PROP = "aeron.sample.cluster.memberCount";
+    public static final String MESSAGE_RATES_PROP = "aeron.sample.cluster.messageRates";
+    public static final String MESSAGE_LENGTHS_PROP = "aeron.sample.cluster.messageLengths";
+    public static final String SNAPSHOT_INTERVALS_MS_PROP = "aeron.sample.cluster.snapshotIntervalsMs";
+    public static final String SNAPSHOT_LENGTH_PROP = "aeron.sample.cluster.snapshotLength";
+    public static final String WARMUP_DURATION_S_PROP = "aeron.sample.cluster.warmupDurationS";
+    public static final String DURATION_S_PROP = "aeron.sample.cluster.durationS";
+    public static final String HISTOGRAM_DIR_PROP = "aeron.sample.cluster.histogramDir";
+
+    private static final int MIN_MESSAGE_LENGTH = 8;
+    private static final int SNAPSHOT_CHUNK_LENGTH = 1024;
+    private static final long RESPONSE_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(10);
+    private static final String LOG_CHANNEL = "aeron:udp?term-length=16m|control-mode=manual|control=localhost:2055";
+    private static final String INGRESS_CHANNEL = "aeron:udp?term-length=4m";
+    private static final String EGRESS_CHANNEL = "aeron:udp?term-length=4m|endpoint=localhost:20900";
+    private static final String ARCHIVE_CONTROL_REQUEST_CHANNEL = "aeron:udp?term-length=64k|endpoint=localhost:801";
+    private static final String ARCHIVE_CONTROL_RESPONSE_CHANNEL = "aeron:udp?term-length=64k|endpoint=localhost:802";
+
+    private final int memberCount;
+    private final int snapshotLength;
+    private final ClusteredMediaDriver[] clusteredMediaDrivers;
+    private final ClusteredServiceContainer[] containers;
+    private final Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+    private final UnsafeBuffer buffer;
+    private MediaDriver clientMediaDriver;
+    private AeronCluster aeronCluster;
+    private long sentCount;
+    private long receivedCount;
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        final int memberCount = Integer.getInteger(MEMBER_COUNT_PROP, 3);
+        final long[] messageRates = parseList(System.getProperty(MESSAGE_RATES_PROP, "1000,10000,50000"));
+        final long[] messageLengths = parseList(System.getProperty(MESSAGE_LENGTHS_PROP, "32,224,1344"));
+        final long[] snapshotIntervalsMs = parseList(System.getProperty(SNAPSHOT_INTERVALS_MS_PROP, "0,1000"));
+        final int snapshotLength = Integer.getInteger(SNAPSHOT_LENGTH_PROP, 1024 * 1024);
+        final long warmupDurationNs = TimeUnit.SECONDS.toNanos(Long.getLong(WARMUP_DURATION_S_PROP, 5));
+        final long durationNs = TimeUnit.SECONDS.toNanos(Long.getLong(DURATION_S_PROP, 10));
+        final String histogramDir = System.getProperty(HISTOGRAM_DIR_PROP);
+
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format(
+            "%12s %8s %12s %10s %10s %10s %10s %10s%n",
+            "msg/sec", "length", "snapshot ms", "p50 us", "p99 us", "p99.99 us", "max us", "snapshots"));
+
+        try (EmbeddedClusterLatency test = new EmbeddedClusterLatency(memberCount, snapshotLength))
+        {
+            System.out.format("Warming up %d member cluster for %d seconds%n",
+                memberCount, TimeUnit.NANOSECONDS.toSeconds(warmupDurationNs));
+            test.runScenario(messageRates[0], (int)messageLengths[0], 0, warmupDurationNs);
+
+            for (final long messageRate : messageRates)
+            {
+                for (final long messageLength : messageLengths)
+                {
+                    for (final long snapshotIntervalMs : snapshotIntervalsMs)
+                    {
+                        final long snapshotCount = test.runScenario(
+                            messageRate, (int)messageLength, snapshotIntervalMs, durationNs);
+
+                        final Histogram histogram = test.histogram();
+                        System.out.format(
+                            "%nRTT in microseconds for %,d msg/sec of %d bytes with snapshot interval %d ms%n",
+                            messageRate, messageLength, snapshotIntervalMs);
+                        histogram.outputPercentileDistribution(System.out, 1000.0);
+
+                        if (null != histogramDir)
+                        {
+                            writeHistogram(
+                                histogram,
+                                new File(histogramDir, messageRate + "-" + messageLength + "-" + snapshotIntervalMs +
+                                    ".hgrm"));
+                        }
+
+                        summary.append(String.format(
+                            "%,12d %8d %12d %10.1f %10.1f %10.1f %10.1f %10d%n",
+                            messageRate,
+                            messageLength,
+                            snapshotIntervalMs,
+                            histogram.getValueAtPercentile(50) / 1000.0,
+                            histogram.getValueAtPercentile(99) / 1000.0,
+                            histogram.getValueAtPercentile(99.99) / 1000.0,
+                            histogram.getMaxValue() / 1000.0,
+                            snapshotCount));
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.print(summary);
+    }
+
+    public EmbeddedClusterLatency(final int memberCount, final int snapshotLength)
+    {
+        this.memberCount = memberCount;
+        this.snapshotLength = snapshotLength;
+        clusteredMediaDrivers = new ClusteredMediaDriver[memberCount];
+        containers = new ClusteredServiceContainer[memberCount];
+
+        final String clusterMembers = clusterMembers(memberCount);
+        for (int i = 0; i < memberCount; i++)
+        {
+            startNode(i, clusterMembers);
+        }
+
+        awaitLeader();
+        connectClient();
+
+        buffer = new UnsafeBuffer(allocateDirectAligned(aeronCluster.ingressPublication().maxMessageLength(),
+            CACHE_LINE_LENGTH));
+    }
+
+    public void close()
+    {
+        CloseHelper.close(aeronCluster);
+        CloseHelper.close(clientMediaDriver);
+
+        for (int i = 0; i < memberCount; i++)
+        {
+            CloseHelper.close(containers[i]);
+            CloseHelper.close(clusteredMediaDrivers[i]);
+
+            if (null != containers[i])
+            {
+                containers[i].context().deleteDirectory();
+            }
+
+            if (null != clusteredMediaDrivers[i])
+            {
+                clusteredMediaDrivers[i].consensusModule().context().deleteDirectory();
+                clusteredMediaDrivers[i].archive().context().deleteArchiveDirectory();
+                clusteredMediaDrivers[i].mediaDriver().context().deleteAeronDirectory();
+            }
+        }
+    }
+
+    /**
+     * The histogram of RTT in nanoseconds for the last scenario run.
+     *
+     * @return the histogram of RTT in nanoseconds for the last scenario run.
+     */
+    public Histogram histogram()
+    {
+        return histogram;
+    }
+
+    /**
+     * Offer messages to the cluster at a fixed rate for a duration while taking snapshots at an interval and
+     * record the RTT of the echoed responses.
+     *
+     * @param messageRate        in messages per second.
+     * @param messageLength      of each message in bytes.
+     * @param snapshotIntervalMs between snapshots or 0 for no snapshots.
+     * @param durationNs         for which messages are offered.
+     * @return the number of snapshots taken by the leader during the scenario.
+     */
+    public long runScenario(
+        final long messageRate, final int messageLength, final long snapshotIntervalMs, final long durationNs)
+    {
+        final AeronCluster aeronCluster = this.aeronCluster;
+        final int length = Math.max(messageLength, MIN_MESSAGE_LENGTH);
+        final long intervalNs = TimeUnit.SECONDS.toNanos(1) / messageRate;
+        final long snapshotIntervalNs = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMs);
+        final ClusteredMediaDriver leader = findLeader();
+        final AtomicCounter controlToggle = ClusterControl.findControlToggle(
+            leader.mediaDriver().context().countersManager());
+        final long initialSnapshotCount = leader.consensusModule().context().snapshotCounter().get();
+
+        histogram.reset();
+        sentCount = 0;
+        receivedCount = 0;
+
+        long nowNs = System.nanoTime();
+        final long endNs = nowNs + durationNs;
+        long nextSendNs = nowNs;
+        long nextSnapshotNs = snapshotIntervalNs > 0 ? nowNs + snapshotIntervalNs : Long.MAX_VALUE;
+
+        while (nowNs < endNs)
+        {
+            if (nowNs >= nextSendNs)
+            {
+                buffer.putLong(0, nextSendNs);
+                while (aeronCluster.offer(buffer, 0, length) < 0)
+                {
+                    aeronCluster.pollEgress();
+                }
+
+                sentCount++;
+                nextSendNs += intervalNs;
+            }
+
+            if (nowNs >= nextSnapshotNs)
+            {
+                ClusterControl.ToggleState.SNAPSHOT.toggle(controlToggle);
+                nextSnapshotNs += snapshotIntervalNs;
+            }
+
+            aeronCluster.pollEgress();
+            nowNs = System.nanoTime();
+        }
+
+        final long deadlineNs = nowNs + RESPONSE_TIMEOUT_NS;
+        while (receivedCount < sentCount)
+        {
+            if (aeronCluster.pollEgress() <= 0 && System.nanoTime() > deadlineNs)
+            {
+                System.out.format("Timeout awaiting responses: sent=%d received=%d%n", sentCount, receivedCount);
+                break;
+            }
+        }
+
+        return leader.consensusModule().context().snapshotCounter().get() - initialSnapshotCount;
+    }
+
+    public void onMessage(
+        final long clusterSessionId,
+        final long timestamp,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final Header header)
+    {
+        final long rttNs = System.nanoTime() - buffer.getLong(offset);
+        histogram.recordValue(Math.min(rttNs, histogram.getHighestTrackableValue()));
+        receivedCount++;
+    }
+
+    public void newLeader(
+        final long clusterSessionId,
+        final long leadershipTermId,
+        final int leaderMemberId,
+        final String memberEndpoints)
+    {
+        System.out.println("New leader memberId=" + leaderMemberId + " leadershipTermId=" + leadershipTermId);
+    }
+
+    private void startNode(final int memberId, final String clusterMembers)
+    {
+        final String baseDirName = CommonContext.getAeronDirectoryName() + "-cluster-" + memberId;
+        final String aeronDirName = baseDirName + "-driver";
+
+        final AeronArchive.Context aeronArchiveContext = new AeronArchive.Context()
+            .controlRequestChannel(ARCHIVE_CONTROL_REQUEST_CHANNEL + memberId)
+            .controlResponseChannel(ARCHIVE_CONTROL_RESPONSE_CHANNEL + memberId)
+            .aeronDirectoryName(aeronDirName);
+
+        final MediaDriver.Context mediaDriverContext = new MediaDriver.Context()
+            .aeronDirectoryName(aeronDirName)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true);
+
+        if (null == System.getProperty(io.aeron.driver.Configuration.THREADING_MODE_PROP_NAME))
+        {
+            mediaDriverContext.threadingMode(ThreadingMode.SHARED);
+        }
+
+        final Archive.Context archiveContext = new Archive.Context()
+            .aeronDirectoryName(aeronDirName)
+            .archiveDir(new File(baseDirName, "archive"))
+            .controlChannel(aeronArchiveContext.controlRequestChannel())
+            .controlStreamId(aeronArchiveContext.controlRequestStreamId())
+            .localControlChannel("aeron:ipc?term-length=64k")
+            .localControlStreamId(aeronArchiveContext.controlRequestStreamId())
+            .recordingEventsEnabled(false)
+            .threadingMode(ArchiveThreadingMode.SHARED)
+            .deleteArchiveOnStart(true);
+
+        final ConsensusModule.Context consensusModuleContext = new ConsensusModule.Context()
+            .clusterMemberId(memberId)
+            .clusterMembers(clusterMembers)
+            .aeronDirectoryName(aeronDirName)
+            .clusterDir(new File(baseDirName, "consensus-module"))
+            .ingressChannel(INGRESS_CHANNEL)
+            .logChannel(LOG_CHANNEL + memberId)
+            .archiveContext(aeronArchiveContext.clone())
+            .deleteDirOnStart(true);
+
+        clusteredMediaDrivers[memberId] = ClusteredMediaDriver.launch(
+            mediaDriverContext, archiveContext, consensusModuleContext);
+
+        containers[memberId] = ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .aeronDirectoryName(aeronDirName)
+                .archiveContext(aeronArchiveContext.clone())
+                .clusterDir(new File(baseDirName, "service"))
+                .clusteredService(new EchoService(snapshotLength)));
+    }
+
+    private void connectClient()
+    {
+        final String aeronDirName = CommonContext.getAeronDirectoryName() + "-cluster-client";
+
+        final MediaDriver.Context mediaDriverContext = new MediaDriver.Context()
+            .aeronDirectoryName(aeronDirName)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true);
+
+        if (null == System.getProperty(io.aeron.driver.Configuration.THREADING_MODE_PROP_NAME))
+        {
+            mediaDriverContext.threadingMode(ThreadingMode.SHARED);
+        }
+
+        clientMediaDriver = MediaDriver.launch(mediaDriverContext);
+
+        aeronCluster = AeronCluster.connect(
+            new AeronCluster.Context()
+                .egressListener(this)
+                .aeronDirectoryName(aeronDirName)
+                .ingressChannel(INGRESS_CHANNEL)
+                .egressChannel(EGRESS_CHANNEL)
+                .clusterMemberEndpoints(clientMemberEndpoints(memberCount)));
+    }
+
+    private void awaitLeader()
+    {
+        while (null == findLeader())
+        {
+            try
+            {
+                Thread.sleep(10);
+            }
+            catch (final InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted awaiting leader");
+            }
+        }
+    }
+
+    private ClusteredMediaDriver findLeader()
+    {
+        for (final ClusteredMediaDriver clusteredMediaDriver : clusteredMediaDrivers)
+        {
+            final long roleCode = clusteredMediaDriver.consensusModule().context().clusterNodeCounter().get();
+            if (Cluster.Role.LEADER.code() == roleCode)
+            {
+                return clusteredMediaDriver;
+            }
+        }
+
+        return null;
+    }
+
+    private static String clusterMembers(final int memberCount)
+    {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < memberCount; i++)
+        {
+            builder
+                .append(i).append(',')
+                .append("localhost:2011").append(i).append(',')
+                .append("localhost:2022").append(i).append(',')
+                .append("localhost:2033").append(i).append(',')
+                .append("localhost:2044").append(i).append(',')
+                .append("localhost:801").append(i).append('|');
+        }
+
+        builder.setLength(builder.length() - 1);
+
+        return builder.toString();
+    }
+
+    private static String clientMemberEndpoints(final int memberCount)
+    {
+        final StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < memberCount; i++)
+        {
+            builder.append(i).append('=').append("localhost:2011").append(i).append(',');
+        }
+
+        builder.setLength(builder.length() - 1);
+
+        return builder.toString();
+    }
+
+    private static long[] parseList(final String list)
+    {
+        final String[] values = list.split(",");
+        final long[] result = new long[values.length];
+
+        for (int i = 0; i < values.length; i++)
+        {
+            result[i] = Long.parseLong(values[i].trim());
+        }
+
+        return result;
+    }
+
+    private static void writeHistogram(final Histogram histogram, final File file)
+    {
+        try (PrintStream out = new PrintStream(file))
+        {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+        catch (final FileNotFoundException ex)
+        {
+            System.err.println("Unable to write histogram to " + file + ": " + ex.getMessage());
+        }
+    }
+
+    static class EchoService implements ClusteredService
+    {
+        private final int snapshotLength;
+        private final UnsafeBuffer snapshotBuffer = new UnsafeBuffer(new byte[SNAPSHOT_CHUNK_LENGTH]);
+        private Cluster cluster;
+
+        EchoService(final int snapshotLength)
+        {
+            this.snapshotLength = snapshotLength;
+        }
+
+        public void onStart(final Cluster cluster, final Image snapshotImage)
+        {
+            this.cluster = cluster;
+        }
+
+        public void onSessionOpen(final ClientSession session, final long timestamp)
+        {
+        }
+
+        public void onSessionClose(final ClientSession session, final long timestamp, final CloseReason closeReason)
+        {
+        }
+
+        public void onSessionMessage(
+            final ClientSession session,
+            final long timestamp,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final Header header)
+        {
+            cluster.reset();
+            while (session.offer(buffer, offset, length) < 0)
+            {
+                cluster.idle();
+            }
+        }
+
+        public void onTimerEvent(final long correlationId, final long timestamp)
+        {
+        }
+
+        public void onTakeSnapshot(final Publication snapshotPublication)
+        {
+            int remaining = snapshotLength;
+            while (remaining > 0)
+            {
+                final int length = Math.min(remaining, SNAPSHOT_CHUNK_LENGTH);
+                cluster.reset();
+                while (snapshotPublication.offer(snapshotBuffer, 0, length) < 0)
+                {
+                    cluster.idle();
+                }
+
+                remaining -= length;
+            }
+        }
+
+        public void onRoleChange(final Cluster.Role newRole)
+        {
+        }
+
+        public void onTerminate(final Cluster cluster)
+        {
+        }
+    }
+}
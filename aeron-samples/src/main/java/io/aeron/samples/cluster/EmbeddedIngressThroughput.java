@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014-2019 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aeron.samples.cluster;
+
+import io.aeron.Image;
+import io.aeron.Publication;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchiveThreadingMode;
+import io.aeron.cluster.ClusteredMediaDriver;
+import io.aeron.cluster.ConsensusModule;
+import io.aeron.cluster.client.AeronCluster;
+import io.aeron.cluster.codecs.CloseReason;
+import io.aeron.cluster.service.ClientSession;
+import io.aeron.cluster.service.Cluster;
+import io.aeron.cluster.service.ClusteredService;
+import io.aeron.cluster.service.ClusteredServiceContainer;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.Header;
+import io.aeron.samples.SampleConfiguration;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.console.ContinueBarrier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BufferUtil.allocateDirectAligned;
+import static org.agrona.SystemUtil.loadPropertiesFiles;
+
+/**
+ * Tests the throughput of ingress messages into a single node cluster, comparing each ingress message being appended
+ * to the log as its own entry with ingress messages being batched into a single log entry per duty cycle.
+ * <p>
+ * The batch length can be set with the {@link ConsensusModule.Configuration#CLUSTER_INGRESS_BATCH_LENGTH_PROP_NAME}
+ * system property.
+ */
+public class EmbeddedIngressThroughput implements AutoCloseable
+{
+    private static final long NUMBER_OF_MESSAGES = SampleConfiguration.NUMBER_OF_MESSAGES;
+    private static final int MESSAGE_LENGTH = SampleConfiguration.MESSAGE_LENGTH;
+    private static final int DEFAULT_BATCH_LENGTH = 8 * 1024;
+
+    private final AtomicLong messageCount = new AtomicLong();
+    private final ClusteredMediaDriver clusteredMediaDriver;
+    private final ClusteredServiceContainer container;
+    private final AeronCluster aeronCluster;
+    private final UnsafeBuffer buffer = new UnsafeBuffer(allocateDirectAligned(MESSAGE_LENGTH, CACHE_LINE_LENGTH));
+
+    public static void main(final String[] args)
+    {
+        loadPropertiesFiles(args);
+
+        final int configuredBatchLength = ConsensusModule.Configuration.ingressBatchLength();
+        final int batchLength = configuredBatchLength > 0 ? configuredBatchLength : DEFAULT_BATCH_LENGTH;
+
+        final ContinueBarrier barrier = new ContinueBarrier("Execute again?");
+        do
+        {
+            final long unbatchedRate;
+            try (EmbeddedIngressThroughput test = new EmbeddedIngressThroughput(0))
+            {
+                unbatchedRate = test.streamMessagesToCluster();
+            }
+
+            final long batchedRate;
+            try (EmbeddedIngressThroughput test = new EmbeddedIngressThroughput(batchLength))
+            {
+                batchedRate = test.streamMessagesToCluster();
+            }
+
+            System.out.printf(
+                "Ingress unbatched %,d msg/sec - batched (%d bytes) %,d msg/sec - %d byte payload%n",
+                unbatchedRate, batchLength, batchedRate, MESSAGE_LENGTH);
+        }
+        while (barrier.await());
+    }
+
+    public EmbeddedIngressThroughput(final int ingressBatchLength)
+    {
+        clusteredMediaDriver = ClusteredMediaDriver.launch(
+            new MediaDriver.Context()
+                .threadingMode(ThreadingMode.SHARED)
+                .dirDeleteOnStart(true),
+            new Archive.Context()
+                .recordingEventsEnabled(false)
+                .threadingMode(ArchiveThreadingMode.SHARED)
+                .deleteArchiveOnStart(true),
+            new ConsensusModule.Context()
+                .ingressBatchLength(ingressBatchLength)
+                .deleteDirOnStart(true));
+
+        container = ClusteredServiceContainer.launch(
+            new ClusteredServiceContainer.Context()
+                .clusteredService(new CountingService(messageCount)));
+
+        aeronCluster = AeronCluster.connect();
+    }
+
+    public void close()
+    {
+        CloseHelper.close(aeronCluster);
+        CloseHelper.close(container);
+        CloseHelper.close(clusteredMediaDriver);
+
+        container.context().deleteDirectory();
+        clusteredMediaDriver.consensusModule().context().deleteDirectory();
+        clusteredMediaDriver.archive().context().deleteArchiveDirectory();
+        clusteredMediaDriver.mediaDriver().context().deleteAeronDirectory();
+    }
+
+    /**
+     * Stream messages to the cluster and wait for them to be processed by the service.
+     *
+     * @return the rate of messages per second.
+     */
+    public long streamMessagesToCluster()
+    {
+        final IdleStrategy idleStrategy = YieldingIdleStrategy.INSTANCE;
+        final AeronCluster aeronCluster = this.aeronCluster;
+        final UnsafeBuffer buffer = this.buffer;
+        final long startNs = System.nanoTime();
+
+        for (long i = 0; i < NUMBER_OF_MESSAGES; i++)
+        {
+            buffer.putLong(0, i);
+
+            idleStrategy.reset();
+            while (aeronCluster.offer(buffer, 0, MESSAGE_LENGTH) < 0)
+            {
+                aeronCluster.pollEgress();
+                idleStrategy.idle();
+            }
+        }
+
+        idleStrategy.reset();
+        while (messageCount.get() < NUMBER_OF_MESSAGES)
+        {
+            aeronCluster.pollEgress();
+            idleStrategy.idle();
+        }
+
+        final long durationNs = System.nanoTime() - startNs;
+
+        return (NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1)) / durationNs;
+    }
+
+    static class CountingService implements ClusteredService
+    {
+        private final AtomicLong messageCount;
+
+        CountingService(final AtomicLong messageCount)
+        {
+            this.messageCount = messageCount;
+        }
+
+        public void onStart(final Cluster cluster, final Image snapshotImage)
+        {
+        }
+
+        public void onSessionOpen(final ClientSession session, final long timestamp)
+        {
+        }
+
+        public void onSessionClose(final ClientSession session, final long timestamp, final CloseReason closeReason)
+        {
+        }
+
+        public void onSessionMessage(
+            final ClientSession session,
+            final long timestamp,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final Header header)
+        {
+            messageCount.lazySet(messageCount.get() + 1);
+        }
+
+        public void onTimerEvent(final long correlationId, final long timestamp)
+        {
+        }
+
+        public void onTakeSnapshot(final Publication snapshotPublication)
+        {
+        }
+
+        public void onRoleChange(final Cluster.Role newRole)
+        {
+        }
+
+        public void onTerminate(final Cluster cluster)
+        {
+        }
+    }
+}
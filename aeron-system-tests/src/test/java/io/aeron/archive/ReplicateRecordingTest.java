@@ -34,11 +34,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import static io.aeron.Aeron.NULL_VALUE;
+import static io.aeron.archive.Archive.Configuration.RECORDING_SEGMENT_SUFFIX;
+import static io.aeron.archive.Archive.segmentFileName;
 import static io.aeron.CommonContext.*;
 import static io.aeron.archive.Common.*;
 import static io.aeron.archive.codecs.SourceLocation.LOCAL;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -53,6 +59,9 @@ public class ReplicateRecordingTest
     private static final String SRC_REPLICATION_CHANNEL = "aeron:udp?endpoint=localhost:8040";
     private static final String DST_REPLICATION_CHANNEL = "aeron:udp?endpoint=localhost:8041";
 
+    private static final int SEGMENT_LENGTH = TERM_LENGTH * 4;
+    private static final int REPLICATION_STREAMS = 3;
+
     private static final int LIVE_STREAM_ID = 33;
     private static final String LIVE_CHANNEL = new ChannelUriStringBuilder()
         .media("udp")
@@ -91,6 +100,7 @@ public class ReplicateRecordingTest
                 .replicationChannel(SRC_REPLICATION_CHANNEL)
                 .deleteArchiveOnStart(true)
                 .archiveDir(new File(SystemUtil.tmpDirName(), "src-archive"))
+                .segmentFileLength(SEGMENT_LENGTH)
                 .fileSyncLevel(0)
                 .threadingMode(ArchiveThreadingMode.SHARED));
 
@@ -112,6 +122,7 @@ public class ReplicateRecordingTest
                 .replicationChannel(DST_REPLICATION_CHANNEL)
                 .deleteArchiveOnStart(true)
                 .archiveDir(new File(SystemUtil.tmpDirName(), "dst-archive"))
+                .replicationStreams(REPLICATION_STREAMS)
                 .fileSyncLevel(0)
                 .threadingMode(ArchiveThreadingMode.SHARED));
 
@@ -216,6 +227,84 @@ public class ReplicateRecordingTest
         assertTrue(transitionEventsSet.contains(RecordingSignal.SYNC));
     }
 
+    @Test(timeout = 10_000L)
+    public void shouldReplicateStoppedRecordingInRangesAndRemoveTemporaryRecordings() throws IOException
+    {
+        final String messagePrefix = "Message-Prefix-";
+        final long srcRecordingId;
+        final long srcStopPosition;
+
+        final long subscriptionId = srcAeronArchive.startRecording(LIVE_CHANNEL, LIVE_STREAM_ID, LOCAL);
+
+        try (Publication publication = srcAeron.addPublication(LIVE_CHANNEL, LIVE_STREAM_ID))
+        {
+            final CountersReader counters = srcAeron.countersReader();
+            final int counterId = awaitRecordingCounterId(counters, publication.sessionId());
+            srcRecordingId = RecordingPos.getRecordingId(counters, counterId);
+
+            offerToPosition(publication, messagePrefix, (SEGMENT_LENGTH * 5L) + (SEGMENT_LENGTH / 2));
+            srcStopPosition = publication.position();
+            awaitPosition(counters, counterId, srcStopPosition);
+        }
+
+        srcAeronArchive.stopRecording(subscriptionId);
+
+        final MutableLong recordingIdRef = new MutableLong();
+        final MutableReference<RecordingSignal> signalRef = new MutableReference<>();
+        final RecordingSignalAdapter adapter = newRecordingSignalAdapter(signalRef, recordingIdRef);
+
+        dstAeronArchive.replicate(
+            srcRecordingId, NULL_VALUE, SRC_CONTROL_STREAM_ID, SRC_CONTROL_REQUEST_CHANNEL, null);
+
+        awaitSignal(signalRef, adapter);
+        assertEquals(RecordingSignal.REPLICATE, signalRef.get());
+        final long dstRecordingId = recordingIdRef.get();
+
+        do
+        {
+            awaitSignal(signalRef, adapter);
+        }
+        while (RecordingSignal.SYNC != signalRef.get() || dstRecordingId != recordingIdRef.get());
+
+        assertEquals(srcStopPosition, dstAeronArchive.getStopPosition(dstRecordingId));
+
+        final File srcArchiveDir = srcArchivingMediaDriver.archive().context().archiveDir();
+        final File dstArchiveDir = dstArchivingMediaDriver.archive().context().archiveDir();
+        for (long position = 0; position < srcStopPosition; position += SEGMENT_LENGTH)
+        {
+            final int length = (int)Math.min(SEGMENT_LENGTH, srcStopPosition - position);
+            final byte[] srcBytes = readSegment(new File(srcArchiveDir, segmentFileName(srcRecordingId, position)));
+            final byte[] dstBytes = readSegment(new File(dstArchiveDir, segmentFileName(dstRecordingId, position)));
+
+            assertArrayEquals(Arrays.copyOf(srcBytes, length), Arrays.copyOf(dstBytes, length));
+        }
+
+        final String dstPrefix = dstRecordingId + "-";
+        while (true)
+        {
+            final String[] otherSegmentFiles = dstArchiveDir.list(
+                (dir, name) -> name.endsWith(RECORDING_SEGMENT_SUFFIX) && !name.startsWith(dstPrefix));
+
+            if (null != otherSegmentFiles && 0 == otherSegmentFiles.length)
+            {
+                break;
+            }
+
+            Thread.yield();
+            SystemTest.checkInterruptedStatus();
+        }
+
+        final MutableLong recordingCount = new MutableLong();
+        dstAeronArchive.listRecordings(
+            0,
+            Integer.MAX_VALUE,
+            (controlSessionId, correlationId, recordingId, startTimestamp, stopTimestamp, startPosition,
+            stopPosition, initialTermId, segmentFileLength, termBufferLength, mtuLength, sessionId, streamId,
+            strippedChannel, originalChannel, sourceIdentity) -> recordingCount.increment());
+
+        assertEquals(1L, recordingCount.get());
+    }
+
     @Test(timeout = 10_000L)
     public void shouldReplicateLiveWithoutMergingRecording()
     {
@@ -483,6 +572,13 @@ public class ReplicateRecordingTest
         assertEquals(RecordingSignal.STOP, signalRef.get());
     }
 
+    private static byte[] readSegment(final File segmentFile) throws IOException
+    {
+        assertTrue(segmentFile.toString(), segmentFile.exists());
+
+        return Files.readAllBytes(segmentFile.toPath());
+    }
+
     private RecordingSignalAdapter newRecordingSignalAdapter(
         final MutableReference<RecordingSignal> signalRef, final MutableLong recordingIdRef)
     {